@@ -220,7 +220,18 @@ public class Benchmark implements Serializable {
    }
 
    public enum FailurePolicy {
+      /**
+       * Phases that did not start yet are cancelled when an SLA fails.
+       */
       CANCEL,
+      /**
+       * All phases continue even if an SLA fails.
+       */
       CONTINUE,
+      /**
+       * Like {@link #CANCEL}, and the phase is also terminated as soon as any agent notices that a windowed SLA
+       * fails on its own statistics.
+       */
+      ABORT,
    }
 }
@@ -2,6 +2,7 @@ package io.hyperfoil.api.config;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
 
@@ -26,6 +27,17 @@ public interface BenchmarkData {
 
    Map<String, byte[]> files();
 
+   /**
+    * Provides direct access to the file on local filesystem, if there is one. This is useful for large files that
+    * should not be loaded into memory.
+    *
+    * @param file Name of the file as used in the benchmark.
+    * @return Path to the file or <code>null</code> if the data are not stored in a file.
+    */
+   default Path file(String file) {
+      return null;
+   }
+
    class MissingFileException extends RuntimeException {
       public final String file;
 
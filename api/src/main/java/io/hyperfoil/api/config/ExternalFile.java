@@ -0,0 +1,79 @@
+package io.hyperfoil.api.config;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import io.hyperfoil.internal.Properties;
+
+/**
+ * Reference to a data file that is not serialized with the benchmark; instead it is accessed directly on the agent.
+ * Deployers that can copy files to the agents (e.g. over SSH) should place the file into the directory set through
+ * {@link Properties#AGENT_DATA_DIR} under {@link #name()}; otherwise the agent tries the path on the controller
+ * (this works for agents running in the controller's JVM or with shared filesystem).
+ */
+public class ExternalFile implements Serializable {
+   private final String name;
+   private final String sourcePath;
+   private final long size;
+
+   public ExternalFile(String file, Path sourcePath, long size) {
+      this.name = BenchmarkData.sanitize(file);
+      this.sourcePath = sourcePath.toAbsolutePath().toString();
+      this.size = size;
+   }
+
+   public static Stream<ExternalFile> of(Benchmark benchmark) {
+      return benchmark.steps().filter(Holder.class::isInstance).flatMap(step -> ((Holder) step).externalFiles());
+   }
+
+   public String name() {
+      return name;
+   }
+
+   public String sourcePath() {
+      return sourcePath;
+   }
+
+   public long size() {
+      return size;
+   }
+
+   /**
+    * @return Path to the file on this node.
+    * @throws BenchmarkDefinitionException if the file cannot be found.
+    */
+   public Path resolve() {
+      String dataDir = Properties.get(Properties.AGENT_DATA_DIR, null);
+      if (dataDir != null) {
+         Path path = Paths.get(dataDir).resolve(name);
+         if (matches(path)) {
+            return path;
+         }
+      }
+      Path path = Paths.get(sourcePath);
+      if (matches(path)) {
+         return path;
+      }
+      throw new BenchmarkDefinitionException("Cannot find file " + name + " (" + size + " bytes) " +
+            (dataDir == null ? "" : "in " + dataDir + " nor ") + "as " + sourcePath);
+   }
+
+   private boolean matches(Path path) {
+      try {
+         return Files.isRegularFile(path) && Files.size(path) == size;
+      } catch (IOException e) {
+         return false;
+      }
+   }
+
+   /**
+    * Implemented by steps that access external files.
+    */
+   public interface Holder {
+      Stream<ExternalFile> externalFiles();
+   }
+}
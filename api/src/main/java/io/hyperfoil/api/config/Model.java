@@ -71,11 +71,18 @@ public interface Model extends Serializable {
       public final boolean variance;
       public final int maxSessions;
       public final SessionLimitPolicy sessionLimitPolicy;
+      public final SessionPoolType sessionPool;
+      public final boolean perExecutorRate;
+      public final boolean correctCoordinatedOmission;
 
-      public OpenModel(boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
+      public OpenModel(boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy,
+            SessionPoolType sessionPool, boolean perExecutorRate, boolean correctCoordinatedOmission) {
          this.variance = variance;
          this.maxSessions = maxSessions;
          this.sessionLimitPolicy = sessionLimitPolicy;
+         this.sessionPool = sessionPool;
+         this.perExecutorRate = perExecutorRate;
+         this.correctCoordinatedOmission = correctCoordinatedOmission;
       }
 
       @Override
@@ -91,8 +98,9 @@ public interface Model extends Serializable {
       public final double targetUsersPerSec;
 
       public RampRate(double initialUsersPerSec, double targetUsersPerSec,
-            boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
-         super(variance, maxSessions, sessionLimitPolicy);
+            boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, SessionPoolType sessionPool,
+            boolean perExecutorRate, boolean correctCoordinatedOmission) {
+         super(variance, maxSessions, sessionLimitPolicy, sessionPool, perExecutorRate, correctCoordinatedOmission);
          this.initialUsersPerSec = initialUsersPerSec;
          this.targetUsersPerSec = targetUsersPerSec;
       }
@@ -106,8 +114,9 @@ public interface Model extends Serializable {
    class ConstantRate extends OpenModel {
       public final double usersPerSec;
 
-      public ConstantRate(double usersPerSec, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
-         super(variance, maxSessions, sessionLimitPolicy);
+      public ConstantRate(double usersPerSec, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy,
+            SessionPoolType sessionPool, boolean perExecutorRate, boolean correctCoordinatedOmission) {
+         super(variance, maxSessions, sessionLimitPolicy, sessionPool, perExecutorRate, correctCoordinatedOmission);
          this.usersPerSec = usersPerSec;
       }
 
@@ -117,6 +126,52 @@ public interface Model extends Serializable {
       }
    }
 
+   /**
+    * Open model that searches for the highest rate the system under test can sustain. The rate starts at
+    * {@link #initialUsersPerSec} and grows by {@link #increment} after each step that meets the criteria; after the first
+    * failing step the search bisects between the last passing and first failing rate until these are closer than
+    * {@link #precision}. Each agent runs the search on its own statistics.
+    */
+   class MaxThroughput extends OpenModel {
+      public final double initialUsersPerSec;
+      public final double maxUsersPerSec;
+      public final double increment;
+      public final double precision;
+      public final long stepDuration;
+      public final double percentile;
+      public final long maxResponseTime;
+      public final double maxErrorRatio;
+
+      public MaxThroughput(double initialUsersPerSec, double maxUsersPerSec, double increment, double precision,
+            long stepDuration, double percentile, long maxResponseTime, double maxErrorRatio,
+            boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, SessionPoolType sessionPool,
+            boolean correctCoordinatedOmission) {
+         super(variance, maxSessions, sessionLimitPolicy, sessionPool, false, correctCoordinatedOmission);
+         this.initialUsersPerSec = initialUsersPerSec;
+         this.maxUsersPerSec = maxUsersPerSec;
+         this.increment = increment;
+         this.precision = precision;
+         this.stepDuration = stepDuration;
+         this.percentile = percentile;
+         this.maxResponseTime = maxResponseTime;
+         this.maxErrorRatio = maxErrorRatio;
+      }
+
+      @Override
+      public void validate(Phase phase) {
+         super.validate(phase);
+         if (phase.duration < 2 * stepDuration) {
+            log.warn("Duration ({} ms) of phase {} allows less than two steps of {} ms; the search won't converge.",
+                  phase.duration, phase.name, stepDuration);
+         }
+      }
+
+      @Override
+      public String description() {
+         return String.format("max throughput in %.2f - %.2f users per second", initialUsersPerSec, maxUsersPerSec);
+      }
+   }
+
    class Sequentially implements Model {
       public final int repeats;
 
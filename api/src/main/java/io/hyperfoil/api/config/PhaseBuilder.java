@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -14,6 +15,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import io.hyperfoil.function.SerializableSupplier;
+import io.hyperfoil.impl.Util;
 
 /**
  * The builder creates a matrix of phases (not just single phase); we allow multiple iterations of a phase
@@ -435,6 +437,9 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
       protected int maxSessions;
       protected boolean variance = true;
       protected SessionLimitPolicy sessionLimitPolicy = SessionLimitPolicy.FAIL;
+      protected SessionPoolType sessionPool = SessionPoolType.AFFINITY;
+      protected boolean perExecutorRate;
+      protected boolean correctCoordinatedOmission;
 
       protected OpenModel(BenchmarkBuilder parent, String name) {
          super(parent, name);
@@ -457,6 +462,24 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          this.sessionLimitPolicy = sessionLimitPolicy;
          return (P) this;
       }
+
+      @SuppressWarnings("unchecked")
+      public P sessionPool(SessionPoolType sessionPool) {
+         this.sessionPool = sessionPool;
+         return (P) this;
+      }
+
+      @SuppressWarnings("unchecked")
+      public P perExecutorRate(boolean perExecutorRate) {
+         this.perExecutorRate = perExecutorRate;
+         return (P) this;
+      }
+
+      @SuppressWarnings("unchecked")
+      public P correctCoordinatedOmission(boolean correctCoordinatedOmission) {
+         this.correctCoordinatedOmission = correctCoordinatedOmission;
+         return (P) this;
+      }
    }
 
    public static class RampRate extends OpenModel<RampRate> {
@@ -494,7 +517,8 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          }
          double initial = (this.initialUsersPerSec + initialUsersPerSecIncrement * iteration) * weight;
          double target = (this.targetUsersPerSec + targetUsersPerSecIncrement * iteration) * weight;
-         Model.RampRate model = new Model.RampRate(initial, target, variance, maxSessions, sessionLimitPolicy);
+         Model.RampRate model = new Model.RampRate(initial, target, variance, maxSessions, sessionLimitPolicy,
+               sessionPool, perExecutorRate, correctCoordinatedOmission);
          if (constraint != null && !constraint.test(model)) {
             throw new BenchmarkDefinitionException("Phase " + name + " failed constraints: " + constraintMessage);
          }
@@ -553,7 +577,8 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
             throw new BenchmarkDefinitionException("Phase " + name + ".usersPerSec must be positive.");
          }
          double rate = (this.usersPerSec + usersPerSecIncrement * iteration) * weight;
-         return new Model.ConstantRate(rate, variance, maxSessions, sessionLimitPolicy);
+         return new Model.ConstantRate(rate, variance, maxSessions, sessionLimitPolicy, sessionPool,
+               perExecutorRate, correctCoordinatedOmission);
       }
 
       public ConstantRate usersPerSec(double usersPerSec) {
@@ -568,6 +593,111 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
       }
    }
 
+   public static class MaxThroughput extends OpenModel<MaxThroughput> {
+      private double initialUsersPerSec;
+      private double maxUsersPerSec;
+      private double increment;
+      private double precision;
+      private long stepDuration = 10_000;
+      private double percentile = 0.99;
+      private long maxResponseTime = Long.MAX_VALUE;
+      private double maxErrorRatio = 0.01;
+
+      MaxThroughput(BenchmarkBuilder parent, String name, double initialUsersPerSec, double maxUsersPerSec) {
+         super(parent, name);
+         this.initialUsersPerSec = initialUsersPerSec;
+         this.maxUsersPerSec = maxUsersPerSec;
+      }
+
+      @Override
+      protected Model createModel(int iteration, double weight) {
+         if (initialUsersPerSec <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".initialUsersPerSec must be positive.");
+         }
+         if (maxUsersPerSec < initialUsersPerSec) {
+            throw new BenchmarkDefinitionException(
+                  "Phase " + name + ".maxUsersPerSec must not be lower than initialUsersPerSec.");
+         }
+         if (increment < 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".increment must be non-negative.");
+         }
+         if (stepDuration <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".stepDuration must be positive.");
+         }
+         if (percentile <= 0 || percentile > 1) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".percentile must be within (0, 1].");
+         }
+         if (maxErrorRatio < 0 || maxErrorRatio > 1) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".maxErrorRatio must be within [0, 1].");
+         }
+         int maxSessions;
+         if (this.maxSessions > 0) {
+            maxSessions = (int) Math.round(this.maxSessions * weight);
+         } else {
+            maxSessions = (int) Math.ceil(maxUsersPerSec * weight);
+         }
+         // By default the search stops when the rate is known within 1% of the upper limit
+         double precision = this.precision > 0 ? this.precision : maxUsersPerSec / 100;
+         double increment = this.increment > 0 ? this.increment : initialUsersPerSec;
+         return new Model.MaxThroughput(initialUsersPerSec * weight, maxUsersPerSec * weight, increment * weight,
+               precision * weight, stepDuration, percentile, maxResponseTime, maxErrorRatio, variance, maxSessions,
+               sessionLimitPolicy, sessionPool, correctCoordinatedOmission);
+      }
+
+      public MaxThroughput initialUsersPerSec(double initialUsersPerSec) {
+         this.initialUsersPerSec = initialUsersPerSec;
+         return this;
+      }
+
+      public MaxThroughput maxUsersPerSec(double maxUsersPerSec) {
+         this.maxUsersPerSec = maxUsersPerSec;
+         return this;
+      }
+
+      /**
+       * @param increment Rate increase after a step that met the criteria. By default this is equal to the initial rate.
+       * @return Self.
+       */
+      public MaxThroughput increment(double increment) {
+         this.increment = increment;
+         return this;
+      }
+
+      /**
+       * @param precision The search stops when the highest passing and lowest failing rate differ at most by this
+       *        value. By default this is 1% of the max rate.
+       * @return Self.
+       */
+      public MaxThroughput precision(double precision) {
+         this.precision = precision;
+         return this;
+      }
+
+      public MaxThroughput stepDuration(long stepDuration) {
+         this.stepDuration = stepDuration;
+         return this;
+      }
+
+      public MaxThroughput percentile(double percentile) {
+         this.percentile = percentile;
+         return this;
+      }
+
+      public MaxThroughput maxResponseTime(long maxResponseTime, TimeUnit timeUnit) {
+         this.maxResponseTime = timeUnit.toNanos(maxResponseTime);
+         return this;
+      }
+
+      public MaxThroughput maxResponseTime(String maxResponseTime) {
+         return maxResponseTime(Util.parseToNanos(maxResponseTime), TimeUnit.NANOSECONDS);
+      }
+
+      public MaxThroughput maxErrorRatio(double maxErrorRatio) {
+         this.maxErrorRatio = maxErrorRatio;
+         return this;
+      }
+   }
+
    public static class Sequentially extends PhaseBuilder<Sequentially> {
       private int repeats;
 
@@ -614,6 +744,10 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          return new ConstantRate(parent, name, usersPerSec);
       }
 
+      public MaxThroughput maxThroughput(double initialUsersPerSec, double maxUsersPerSec) {
+         return new MaxThroughput(parent, name, initialUsersPerSec, maxUsersPerSec);
+      }
+
       public Sequentially sequentially(int repeats) {
          return new Sequentially(parent, name, repeats);
       }
@@ -19,8 +19,11 @@
 package io.hyperfoil.api.config;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -32,6 +35,8 @@ import io.hyperfoil.api.session.AccessVisitor;
 import io.hyperfoil.api.session.ReadAccess;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.WriteAccess;
+import io.hyperfoil.api.statistics.MetricHandles;
+import io.hyperfoil.impl.CollectingVisitor;
 
 public class Scenario implements Serializable {
    private final Sequence[] initialSequences;
@@ -42,6 +47,10 @@ public class Scenario implements Serializable {
    private final int sumConcurrency;
    private final WriteAccess[] writes;
    private final int uniqueVars;
+   // Number of slots occupied by the resource key starting at given slot, 0 for the following slots
+   private final int[] resourceSlotSpans;
+   // Handles are assigned lazily on each agent, these don't need to be shipped with the benchmark
+   private transient volatile MetricHandles metricHandles;
 
    public Scenario(Sequence[] initialSequences, Sequence[] sequences, int maxRequests, int maxSequences) {
       this.initialSequences = initialSequences;
@@ -72,6 +81,44 @@ public class Scenario implements Serializable {
             access.setIndex(keyIndexMap.get(access.key()));
          }
       }
+      resourceSlotSpans = assignResourceSlots(sequences);
+   }
+
+   private static int[] assignResourceSlots(Sequence[] sequences) {
+      Map<Session.SlottedResourceKey<?>, Sequence> owners = new IdentityHashMap<>();
+      List<Session.SlottedResourceKey<?>> ordered = new ArrayList<>();
+      for (Sequence sequence : sequences) {
+         ResourceKeyVisitor visitor = new ResourceKeyVisitor();
+         visitor.visit(sequence.steps());
+         for (Session.SlottedResourceKey<?> key : visitor.keys) {
+            if (!owners.containsKey(key)) {
+               owners.put(key, sequence);
+               ordered.add(key);
+            } else if (owners.get(key) != sequence) {
+               // Shared by several sequences, possibly with different concurrency: use the regular lookup
+               owners.put(key, null);
+            }
+         }
+      }
+      int slots = 0;
+      for (Session.SlottedResourceKey<?> key : ordered) {
+         Sequence owner = owners.get(key);
+         slots += owner == null ? 0 : Math.max(1, owner.concurrency());
+      }
+      int[] spans = new int[slots];
+      int next = 0;
+      for (Session.SlottedResourceKey<?> key : ordered) {
+         Sequence owner = owners.get(key);
+         if (owner == null) {
+            key.setResourceSlot(-1);
+         } else {
+            // Instances for concurrent sequences are laid out contiguously
+            key.setResourceSlot(next);
+            spans[next] = Math.max(1, owner.concurrency());
+            next += spans[next];
+         }
+      }
+      return spans;
    }
 
    public Sequence[] initialSequences() {
@@ -102,6 +149,34 @@ public class Scenario implements Serializable {
       return sequence;
    }
 
+   public MetricHandles metricHandles() {
+      MetricHandles metricHandles = this.metricHandles;
+      if (metricHandles == null) {
+         synchronized (this) {
+            metricHandles = this.metricHandles;
+            if (metricHandles == null) {
+               this.metricHandles = metricHandles = new MetricHandles();
+            }
+         }
+      }
+      return metricHandles;
+   }
+
+   /**
+    * @return Size of the resource table for keys with slot assigned.
+    */
+   public int resourceSlots() {
+      return resourceSlotSpans.length;
+   }
+
+   /**
+    * @param slot Slot assigned to a {@link Session.SlottedResourceKey}.
+    * @return Number of consecutive slots reserved for the key: concurrency of the owning sequence, or 1.
+    */
+   public int resourceSlotSpan(int slot) {
+      return resourceSlotSpans[slot];
+   }
+
    public Session.Var[] createVars(Session session) {
       Session.Var[] vars = new Session.Var[uniqueVars];
       for (WriteAccess access : writes) {
@@ -110,4 +185,20 @@ public class Scenario implements Serializable {
       }
       return vars;
    }
+
+   @SuppressWarnings("rawtypes")
+   private static class ResourceKeyVisitor extends CollectingVisitor<Session.SlottedResourceKey> {
+      private final List<Session.SlottedResourceKey<?>> keys = new ArrayList<>();
+
+      ResourceKeyVisitor() {
+         super(Session.SlottedResourceKey.class);
+      }
+
+      @Override
+      protected boolean process(Session.SlottedResourceKey value) {
+         keys.add(value);
+         // Handlers are often keys themselves and contain other handlers
+         return true;
+      }
+   }
 }
@@ -0,0 +1,14 @@
+package io.hyperfoil.api.config;
+
+public enum SessionPoolType {
+   /**
+    * Sessions are pooled in a queue per event loop and a single usage counter is shared by all event loops.
+    */
+   AFFINITY,
+   /**
+    * Sessions are pooled in a queue per event loop, each with its own usage counter. An event loop that runs out
+    * of sessions steals a batch of them from another event loop. Recommended for phases with many sessions
+    * that are likely to hit the session limit.
+    */
+   STRIPED
+}
@@ -9,17 +9,12 @@ import org.apache.logging.log4j.Logger;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.impl.TimerWheel;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
-import io.netty.util.concurrent.ScheduledFuture;
 
 public abstract class Request implements Callable<Void>, GenericFutureListener<Future<Void>> {
    private static final Logger log = LogManager.getLogger(Request.class);
-   private static final GenericFutureListener<Future<Object>> FAILURE_LISTENER = future -> {
-      if (!future.isSuccess() && !future.isCancelled()) {
-         log.error("Timeout task failed", future.cause());
-      }
-   };
 
    public final Session session;
    private long startTimestampMillis;
@@ -27,7 +22,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    private SequenceInstance sequence;
    private SequenceInstance completionSequence;
    private Statistics statistics;
-   private ScheduledFuture<?> timeoutFuture;
+   private final TimeoutHandler timeout = new TimeoutHandler();
    private Connection connection;
    private Status status = Status.IDLE;
    private Result result = Result.VALID;
@@ -43,7 +38,6 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    public Void call() {
       int uniqueId = session == null ? -1 : session.uniqueId();
       log.warn("#{} Request timeout, closing connection {}", uniqueId, connection);
-      timeoutFuture = null;
       if (status != Status.COMPLETED) {
          result = Result.TIMED_OUT;
          statistics.incrementTimeouts(startTimestampMillis);
@@ -102,10 +96,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setCompleted() {
-      if (timeoutFuture != null) {
-         timeoutFuture.cancel(false);
-         timeoutFuture = null;
-      }
+      timeout.cancel();
       connection = null;
       sequence = null;
       // handleEnd may indirectly call handleThrowable which calls setCompleted first
@@ -129,7 +120,14 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void recordResponse(long endTimestampNanos) {
-      statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos);
+      long responseTime = endTimestampNanos - startTimestampNanos;
+      long startDelay = session.startDelayNanos();
+      if (startDelay < 0) {
+         statistics.recordResponse(startTimestampMillis, responseTime);
+      } else {
+         // the request was delayed as much as the session
+         statistics.recordResponse(startTimestampMillis, responseTime, responseTime + startDelay);
+      }
    }
 
    public long startTimestampMillis() {
@@ -141,8 +139,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setTimeout(long timeout, TimeUnit timeUnit) {
-      timeoutFuture = session.executor().schedule(this, timeout, timeUnit);
-      timeoutFuture.addListener(FAILURE_LISTENER);
+      TimerWheel.current().schedule(this.timeout, timeout, timeUnit);
    }
 
    @Override
@@ -186,6 +183,18 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
       return "(#" + session.uniqueId() + ", " + status + ", " + result + ")";
    }
 
+   private class TimeoutHandler extends TimerWheel.Timeout {
+      @Override
+      protected void onTimeout() {
+         call();
+      }
+
+      @Override
+      public String toString() {
+         return "timeout for " + Request.this;
+      }
+   }
+
    public enum Result {
       VALID,
       INVALID,
@@ -20,6 +20,7 @@ public class SequenceInstance {
    private Step[] steps;
    private int currentStep = 0;
    private int refCnt = 0;
+   private boolean waiting;
 
    public boolean progress(Session session) {
       boolean progressed = false;
@@ -29,6 +30,7 @@ public class SequenceInstance {
             log.trace("#{} {}[{}] invoking step {}", session.uniqueId(), sequence.name(), index, StepBuilder.nameOf(step));
          }
          session.currentSequence(this);
+         waiting = false;
          try {
             if (!step.invoke(session)) {
                if (trace) {
@@ -71,6 +73,7 @@ public class SequenceInstance {
       this.steps = steps;
       this.currentStep = 0;
       this.refCnt = 1;
+      this.waiting = false;
       return this;
    }
 
@@ -78,6 +81,17 @@ public class SequenceInstance {
       return currentStep >= steps.length;
    }
 
+   /**
+    * @return True if the current step is blocked until the sequence is {@link Session#wakeUp(SequenceInstance) woken up}.
+    */
+   public boolean isWaiting() {
+      return waiting;
+   }
+
+   public void setWaiting(boolean waiting) {
+      this.waiting = waiting;
+   }
+
    public boolean isLastStep() {
       return currentStep == steps.length - 1;
    }
@@ -49,6 +49,26 @@ public interface Session {
 
    Statistics statistics(int stepId, String name);
 
+   /**
+    * Registers the metric in this session's scenario; the returned handle can be used in {@link #statistics(int)}.
+    * Callers are expected to cache the handle rather than invoking this for every request,
+    * see {@link io.hyperfoil.api.statistics.MetricResolver}.
+    *
+    * @param stepId Step ID.
+    * @param name Metric name.
+    * @return Dense handle, unique within the scenario.
+    */
+   int metricHandle(int stepId, String name);
+
+   /**
+    * Equivalent to {@link #statistics(int, String)} but looks up the statistics by array index
+    * rather than searching through the phases, steps and metric names.
+    *
+    * @param metricHandle Handle obtained through {@link #metricHandle(int, String)}.
+    * @return Statistics for the current phase.
+    */
+   Statistics statistics(int metricHandle);
+
    void pruneStats(Phase phase);
 
    // Resources
@@ -90,11 +110,48 @@ public interface Session {
 
    void start(PhaseInstance phase);
 
+   /**
+    * Starts the session and tracks how late it started, to correct response times for coordinated omission.
+    *
+    * @param phase Phase this session belongs to.
+    * @param intendedStartNanos {@link System#nanoTime()} when this session should have started.
+    */
+   default void start(PhaseInstance phase, long intendedStartNanos) {
+      start(phase);
+   }
+
+   /**
+    * @return Nanoseconds between the intended and actual start of this session, or -1 if the session was started
+    *         without an intended start time.
+    */
+   default long startDelayNanos() {
+      return -1;
+   }
+
    /**
     * Run anything that can be executed.
     */
    void proceed();
 
+   /**
+    * Marks the current sequence as waiting for an event that will {@link #wakeUp(SequenceInstance) wake it up}.
+    * Steps call this right before returning <code>false</code> from {@link io.hyperfoil.api.config.Step#invoke(Session)};
+    * until woken the session does not invoke the blocked step again. Steps that don't call this are polled
+    * whenever the session runs.
+    */
+   default void awaitWakeUp() {
+   }
+
+   /**
+    * Makes a sequence that is {@link #awaitWakeUp() waiting} runnable again. This does not run the session;
+    * the event source is expected to call {@link #proceed()} afterwards. Waking up a sequence that is not waiting
+    * (or does not belong to this session anymore) is harmless.
+    *
+    * @param sequence Sequence to wake up.
+    */
+   default void wakeUp(SequenceInstance sequence) {
+   }
+
    void reset();
 
    SequenceInstance startSequence(String name, boolean forceSameIndex, ConcurrencyPolicy policy);
@@ -146,6 +203,17 @@ public interface Session {
    interface ResourceKey<R extends Resource> extends Serializable {
    }
 
+   /**
+    * Resource key that can be bound to a fixed position in the session's resource table. The position is assigned
+    * when the {@link Scenario} is built, provided that the key is reachable from a single
+    * sequence; otherwise the slot stays negative and the resource is looked up as any other key.
+    */
+   interface SlottedResourceKey<R extends Resource> extends ResourceKey<R> {
+      int resourceSlot();
+
+      void setResourceSlot(int slot);
+   }
+
    /**
     * Behaviour when a new sequence start is requested but the concurrency factor is exceeded.
     */
@@ -0,0 +1,267 @@
+package io.hyperfoil.api.statistics;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Alternative to the default {@link Statistics} recorder that does not enter the
+ * {@link org.HdrHistogram.WriterReaderPhaser} critical section nor execute any CAS when a value is recorded.
+ * <p>
+ * All recording methods (as well as {@link #start(long)} and {@link #end(long)}) must be invoked from a single
+ * thread - the executor owning the {@link SessionStatistics}. Values are accumulated in thread-confined snapshots
+ * and these are handed over to the reader once per sampling period: when the writer records a value in a later
+ * period or when the statistics end. The reader returns the snapshots after {@link #visitSnapshots(Consumer)}
+ * through another queue; in steady state there are no allocations. When the reader lags behind, snapshots that
+ * do not fit into the bounded queue are appended to an unbounded overflow queue, which the reader drains as well.
+ * <p>
+ * As a consequence values recorded into the last active sampling period are not visible to the reader until
+ * the writer moves on (the same holds for the default recorder) and late responses recorded into older
+ * periods are published only with the next period change.
+ */
+public class BatchingStatistics extends Statistics {
+   private static final Logger log = LogManager.getLogger(BatchingStatistics.class);
+   // Number of sampling periods we can write into without publishing; must be a power of two.
+   private static final int WINDOW = 8;
+   private static final int QUEUE_CAPACITY = 64;
+
+   private final SpscQueue published = new SpscQueue(QUEUE_CAPACITY);
+   private final SpscQueue recycled = new SpscQueue(QUEUE_CAPACITY);
+   // Written by the writer, polled only by the reader
+   private final Queue<StatisticsSnapshot> overflow = new ConcurrentLinkedQueue<>();
+
+   // Following fields are accessed by the writer thread only
+   private final StatisticsSnapshot[] window = new StatisticsSnapshot[WINDOW];
+   private long startTimestamp;
+   private long endTimestamp = Long.MAX_VALUE;
+   private int highestIndex;
+
+   public BatchingStatistics(long startTimestamp) {
+      this.startTimestamp = startTimestamp;
+   }
+
+   @Override
+   public void recordResponse(long startTimestamp, long responseTime) {
+      responseTime = checkResponseTime(responseTime);
+      StatisticsSnapshot active = active(startTimestamp);
+      active.histogram.recordValue(responseTime);
+      active.responseCount++;
+      afterRecord();
+   }
+
+   @Override
+   public void recordResponse(long startTimestamp, long responseTime, long correctedResponseTime) {
+      responseTime = checkResponseTime(responseTime);
+      correctedResponseTime = checkResponseTime(correctedResponseTime);
+      StatisticsSnapshot active = active(startTimestamp);
+      active.histogram.recordValue(responseTime);
+      active.correctedHistogram().recordValue(correctedResponseTime);
+      active.responseCount++;
+      afterRecord();
+   }
+
+   @Override
+   public void incrementRequests(long timestamp) {
+      active(timestamp).requestCount++;
+      afterRecord();
+   }
+
+   @Override
+   public void incrementTimeouts(long timestamp) {
+      active(timestamp).requestTimeouts++;
+      afterRecord();
+   }
+
+   @Override
+   public void incrementConnectionErrors(long timestamp) {
+      active(timestamp).connectionErrors++;
+      afterRecord();
+   }
+
+   @Override
+   public void incrementInternalErrors(long timestamp) {
+      active(timestamp).internalErrors++;
+      afterRecord();
+   }
+
+   @Override
+   public void incrementBlockedTime(long timestamp, long blockedTime) {
+      active(timestamp).blockedTime += blockedTime;
+      afterRecord();
+   }
+
+   @Override
+   public <C extends StatsExtension> void update(String key, long timestamp, Supplier<C> creator, LongUpdater<C> updater,
+         long value) {
+      //noinspection unchecked
+      updater.update((C) extension(active(timestamp), key, creator), value);
+      afterRecord();
+   }
+
+   @Override
+   public <C extends StatsExtension> void update(String key, long timestamp, Supplier<C> creator, ObjectUpdater<C> updater,
+         Object value) {
+      //noinspection unchecked
+      updater.update((C) extension(active(timestamp), key, creator), value);
+      afterRecord();
+   }
+
+   @Override
+   public void addInvalid(long timestamp) {
+      active(timestamp).invalid++;
+      afterRecord();
+   }
+
+   @Override
+   public void visitSnapshots(Consumer<StatisticsSnapshot> consumer) {
+      clearDirty();
+      StatisticsSnapshot snapshot;
+      while ((snapshot = published.poll()) != null) {
+         visit(snapshot, consumer);
+      }
+      // The writer appends here only when the queue above was full, or while this is not empty,
+      // so the snapshots are still visited in the order of publishing.
+      while ((snapshot = overflow.poll()) != null) {
+         visit(snapshot, consumer);
+      }
+   }
+
+   private void visit(StatisticsSnapshot snapshot, Consumer<StatisticsSnapshot> consumer) {
+      if (!snapshot.isEmpty()) {
+         consumer.accept(snapshot);
+      }
+      snapshot.reset();
+      // If the writer does not pick up recycled snapshots fast enough we'll let this one be GCed
+      recycled.offer(snapshot);
+   }
+
+   @Override
+   public void start(long now) {
+      flush();
+      startTimestamp = now;
+      endTimestamp = Long.MAX_VALUE;
+      highestIndex = 0;
+   }
+
+   @Override
+   public void end(long now) {
+      endTimestamp = now;
+      flush();
+   }
+
+   private StatsExtension extension(StatisticsSnapshot active, String key, Supplier<? extends StatsExtension> creator) {
+      StatsExtension custom = active.extensions.get(key);
+      if (custom == null) {
+         custom = creator.get();
+         active.extensions.put(key, custom);
+      }
+      return custom;
+   }
+
+   private StatisticsSnapshot active(long timestamp) {
+      int index = (int) ((timestamp - startTimestamp) / SAMPLING_PERIOD_MILLIS);
+      if (index < 0) {
+         log.error("Record start timestamp {} predates statistics start {}", timestamp, startTimestamp);
+         index = 0;
+      }
+      if (index > highestIndex) {
+         // We have moved to another sampling period: publish everything recorded before
+         for (int i = 0; i < WINDOW; ++i) {
+            StatisticsSnapshot snapshot = window[i];
+            if (snapshot != null && snapshot.sequenceId < index) {
+               window[i] = null;
+               publish(snapshot);
+            }
+         }
+         highestIndex = index;
+      }
+      int position = index & (WINDOW - 1);
+      StatisticsSnapshot snapshot = window[position];
+      if (snapshot != null && snapshot.sequenceId == index) {
+         return snapshot;
+      } else if (snapshot != null) {
+         // Very late response that does not fit into the window
+         publish(snapshot);
+      }
+      snapshot = recycled.poll();
+      if (snapshot == null) {
+         snapshot = new StatisticsSnapshot();
+      }
+      snapshot.sequenceId = index;
+      window[position] = snapshot;
+      return snapshot;
+   }
+
+   private void afterRecord() {
+      if (endTimestamp != Long.MAX_VALUE) {
+         // Nothing should be recorded after the end but if it happens we must not hold it
+         flush();
+      }
+   }
+
+   private void flush() {
+      for (int i = 0; i < WINDOW; ++i) {
+         StatisticsSnapshot snapshot = window[i];
+         if (snapshot != null) {
+            window[i] = null;
+            publish(snapshot);
+         }
+      }
+   }
+
+   private void publish(StatisticsSnapshot snapshot) {
+      int index = snapshot.sequenceId;
+      snapshot.histogram.setStartTimeStamp(startTimestamp + index * SAMPLING_PERIOD_MILLIS);
+      snapshot.histogram.setEndTimeStamp(Math.min(endTimestamp, startTimestamp + (index + 1) * SAMPLING_PERIOD_MILLIS));
+      if (!overflow.isEmpty() || !published.offer(snapshot)) {
+         // The reader is lagging behind; keep the order of snapshots. The reader drains the overflow
+         // without waiting for another publish, so nothing is stranded after end().
+         overflow.add(snapshot);
+      }
+      markDirty();
+   }
+
+   /**
+    * Bounded single-producer single-consumer queue; uses only ordered writes, no CAS.
+    */
+   private static final class SpscQueue {
+      private final AtomicReferenceArray<StatisticsSnapshot> buffer;
+      private final int mask;
+      private final AtomicLong producerIndex = new AtomicLong();
+      private final AtomicLong consumerIndex = new AtomicLong();
+
+      SpscQueue(int capacity) {
+         assert Integer.bitCount(capacity) == 1;
+         buffer = new AtomicReferenceArray<>(capacity);
+         mask = capacity - 1;
+      }
+
+      boolean offer(StatisticsSnapshot snapshot) {
+         long index = producerIndex.get();
+         if (index - consumerIndex.get() >= buffer.length()) {
+            return false;
+         }
+         buffer.lazySet((int) index & mask, snapshot);
+         producerIndex.lazySet(index + 1);
+         return true;
+      }
+
+      StatisticsSnapshot poll() {
+         long index = consumerIndex.get();
+         if (index >= producerIndex.get()) {
+            return null;
+         }
+         int offset = (int) index & mask;
+         StatisticsSnapshot snapshot = buffer.get(offset);
+         buffer.lazySet(offset, null);
+         consumerIndex.lazySet(index + 1);
+         return snapshot;
+      }
+   }
+}
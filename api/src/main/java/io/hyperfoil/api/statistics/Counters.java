@@ -1,5 +1,8 @@
 package io.hyperfoil.api.statistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -11,6 +14,8 @@ import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 
+import io.hyperfoil.impl.Util;
+
 @MetaInfServices(StatsExtension.class)
 @JsonTypeName("counters")
 public class Counters implements StatsExtension {
@@ -106,6 +111,38 @@ public class Counters implements StatsExtension {
       return "<unknown header: " + header + ">";
    }
 
+   @Override
+   public boolean writeCompact(DataOutput output) throws IOException {
+      for (Object key : indices.keySet()) {
+         if (!(key instanceof String) && !(key instanceof Integer)) {
+            return false;
+         }
+      }
+      Util.writeVarLong(output, indices.size());
+      for (var entry : indices.entrySet()) {
+         if (entry.getKey() instanceof Integer) {
+            output.writeBoolean(true);
+            Util.writeVarLong(output, (Integer) entry.getKey());
+         } else {
+            output.writeBoolean(false);
+            output.writeUTF((String) entry.getKey());
+         }
+         Util.writeVarLong(output, counters[entry.getValue()]);
+      }
+      return true;
+   }
+
+   @Override
+   public void readCompact(DataInput input) throws IOException {
+      int size = Util.readVarInt(input);
+      for (int i = 0; i < size; ++i) {
+         Object key = input.readBoolean() ? (Object) Util.readVarInt(input) : input.readUTF();
+         // getIndex may grow the array, so it must be called before dereferencing it
+         int index = getIndex(key);
+         counters[index] = Util.readVarLong(input);
+      }
+   }
+
    @JsonAnyGetter
    public Map<String, Long> serialize() {
       return indices.entrySet().stream().collect(Collectors.toMap(e -> e.getKey().toString(), e -> counters[e.getValue()]));
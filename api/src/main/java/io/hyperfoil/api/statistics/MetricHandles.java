@@ -0,0 +1,56 @@
+package io.hyperfoil.api.statistics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interning table assigning dense integer handles to (step, metric) pairs within a single scenario.
+ * The handle can be used as an index into {@link SessionStatistics.Table} instead of scanning
+ * the phases/steps and looking up the metric by name.
+ * <p>
+ * Registration is synchronized; it is expected to happen only once for each pair, the callers should
+ * cache the handle (see {@link MetricResolver}).
+ */
+public class MetricHandles {
+   private final Map<Integer, Map<String, Integer>> handles = new HashMap<>();
+   private int[] stepIds = new int[16];
+   private String[] metrics = new String[16];
+   private int size;
+
+   public synchronized int handle(int stepId, String metric) {
+      Map<String, Integer> byMetric = handles.computeIfAbsent(stepId, id -> new HashMap<>());
+      Integer handle = byMetric.get(metric);
+      if (handle == null) {
+         if (size == stepIds.length) {
+            stepIds = Arrays.copyOf(stepIds, size * 2);
+            metrics = Arrays.copyOf(metrics, size * 2);
+         }
+         handle = size++;
+         stepIds[handle] = stepId;
+         metrics[handle] = metric;
+         byMetric.put(metric, handle);
+      }
+      return handle;
+   }
+
+   public synchronized int stepId(int handle) {
+      checkHandle(handle);
+      return stepIds[handle];
+   }
+
+   public synchronized String metric(int handle) {
+      checkHandle(handle);
+      return metrics[handle];
+   }
+
+   public synchronized int size() {
+      return size;
+   }
+
+   private void checkHandle(int handle) {
+      if (handle < 0 || handle >= size) {
+         throw new IllegalArgumentException("Invalid metric handle " + handle + ", registered handles: " + size);
+      }
+   }
+}
@@ -0,0 +1,63 @@
+package io.hyperfoil.api.statistics;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.hyperfoil.api.session.Session;
+
+/**
+ * Caches {@link MetricHandles metric handles} for a single step. Steps or handlers are shared between all sessions
+ * (and executors) so the lookup must be thread-safe; we keep a copy-on-write map for metrics with dynamic names
+ * (e.g. selected by the path) and remember the last registered metric name so that constant names are resolved
+ * with a simple identity check, without hashing.
+ */
+public class MetricResolver implements Serializable {
+   private final int stepId;
+   private transient volatile Entry last;
+   private transient volatile Map<String, Integer> handles;
+
+   public MetricResolver(int stepId) {
+      this.stepId = stepId;
+   }
+
+   public int stepId() {
+      return stepId;
+   }
+
+   public Statistics statistics(Session session, String metric) {
+      Entry last = this.last;
+      if (last != null && last.metric == metric) {
+         return session.statistics(last.handle);
+      }
+      Map<String, Integer> handles = this.handles;
+      Integer handle = handles == null ? null : handles.get(metric);
+      if (handle == null) {
+         handle = register(session, metric);
+      }
+      return session.statistics(handle);
+   }
+
+   private synchronized int register(Session session, String metric) {
+      Map<String, Integer> handles = this.handles;
+      Integer handle = handles == null ? null : handles.get(metric);
+      if (handle == null) {
+         handle = session.metricHandle(stepId, metric);
+         Map<String, Integer> copy = handles == null ? new HashMap<>() : new HashMap<>(handles);
+         copy.put(metric, handle);
+         this.handles = copy;
+         this.last = new Entry(metric, handle);
+      }
+      return handle;
+   }
+
+   private static final class Entry {
+      final String metric;
+      final int handle;
+
+      Entry(String metric, int handle) {
+         this.metric = metric;
+         this.handle = handle;
+      }
+   }
+}
@@ -8,16 +8,21 @@ import java.util.NoSuchElementException;
 
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.internal.Properties;
 
 /**
  * This instance holds common statistics shared between all {@link Session sessions} (in given phase) driven by the same
  * executor.
  */
 public class SessionStatistics {
+   // Use "batching" to select the recorder that avoids synchronization on the hot path, see BatchingStatistics
+   private static final boolean BATCHING = "batching".equalsIgnoreCase(Properties.get(Properties.STATISTICS_RECORDER, "phaser"));
+
    private Phase[] phases;
    private int[] stepIds;
    private Map<String, Statistics>[] maps;
    private int size;
+   private Table[] tables = new Table[0];
 
    @SuppressWarnings("unchecked")
    public SessionStatistics() {
@@ -31,7 +36,7 @@ public class SessionStatistics {
          if (stepIds[i] == stepId && phases[i] == phase) {
             Statistics s = maps[i].get(name);
             if (s == null) {
-               s = new Statistics(startTime);
+               s = newStatistics(startTime);
                maps[i].put(name, s);
             }
             return s;
@@ -45,7 +50,7 @@ public class SessionStatistics {
 
       phases[size] = phase;
       stepIds[size] = stepId;
-      Statistics s = new Statistics(startTime);
+      Statistics s = newStatistics(startTime);
       HashMap<String, Statistics> map = new HashMap<>();
       map.put(name, s);
       maps[size] = map;
@@ -53,6 +58,26 @@ public class SessionStatistics {
       return s;
    }
 
+   private static Statistics newStatistics(long startTime) {
+      return BATCHING ? new BatchingStatistics(startTime) : new Statistics(startTime);
+   }
+
+   /**
+    * Returns array-backed lookup for statistics in given phase, indexed by {@link MetricHandles metric handles}.
+    * The table is shared by all sessions running on this executor.
+    */
+   public Table table(Phase phase, MetricHandles metricHandles) {
+      for (Table table : tables) {
+         if (table.phase == phase) {
+            return table;
+         }
+      }
+      Table table = new Table(phase, metricHandles);
+      tables = Arrays.copyOf(tables, tables.length + 1);
+      tables[tables.length - 1] = table;
+      return table;
+   }
+
    public int size() {
       return size;
    }
@@ -70,6 +95,15 @@ public class SessionStatistics {
    }
 
    public void prune(Phase phase) {
+      int remaining = 0;
+      for (Table table : tables) {
+         if (table.phase != phase) {
+            tables[remaining++] = table;
+         }
+      }
+      if (remaining != tables.length) {
+         tables = Arrays.copyOf(tables, remaining);
+      }
       int lastGood = size - 1;
       while (lastGood >= 0 && phases[lastGood] == phase) {
          lastGood--;
@@ -94,6 +128,38 @@ public class SessionStatistics {
       }
    }
 
+   public final class Table {
+      private final Phase phase;
+      private final MetricHandles metricHandles;
+      private Statistics[] statistics = new Statistics[16];
+
+      private Table(Phase phase, MetricHandles metricHandles) {
+         this.phase = phase;
+         this.metricHandles = metricHandles;
+      }
+
+      public Statistics get(int handle, long startTime) {
+         Statistics[] statistics = this.statistics;
+         if (handle < statistics.length) {
+            Statistics s = statistics[handle];
+            if (s != null) {
+               return s;
+            }
+         }
+         return resolve(handle, startTime);
+      }
+
+      private Statistics resolve(int handle, long startTime) {
+         // Register the instance in the maps as well so that these are found by the collector
+         Statistics s = getOrCreate(phase, metricHandles.stepId(handle), metricHandles.metric(handle), startTime);
+         if (handle >= statistics.length) {
+            statistics = Arrays.copyOf(statistics, Math.max(statistics.length * 2, handle + 1));
+         }
+         statistics[handle] = s;
+         return s;
+      }
+   }
+
    private class It implements Iterator<Statistics> {
       int i;
       Iterator<Statistics> it;
@@ -17,7 +17,7 @@ import org.apache.logging.log4j.Logger;
  */
 public class Statistics {
    private static final Logger log = LogManager.getLogger(Statistics.class);
-   private static final long SAMPLING_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(1);
+   protected static final long SAMPLING_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(1);
    private static final ThreadLocal<Long> lastWarnThrottle = ThreadLocal.withInitial(() -> Long.MIN_VALUE);
 
    private static final AtomicIntegerFieldUpdater<Statistics> LU1 = AtomicIntegerFieldUpdater.newUpdater(Statistics.class,
@@ -26,7 +26,6 @@ public class Statistics {
          "lowestActive2");
 
    private final WriterReaderPhaser recordingPhaser = new WriterReaderPhaser();
-   private final long highestTrackableValue;
    // We'll start making space 4 samples (seconds) ahead; in case the readers fall behind the schedule
    // this will help to keep the active array always big enough.
    private int numSamples = 4;
@@ -39,6 +38,8 @@ public class Statistics {
    @SuppressWarnings("AtomicFieldUpdaterNotStaticFinal")
    private volatile AtomicIntegerFieldUpdater<Statistics> lowestActiveUpdater = LU1;
    private volatile AtomicReferenceArray<StatisticsSnapshot> active;
+   // Set by the writer when it records anything, cleared by the reader before it collects the snapshots.
+   private volatile boolean dirty;
    private AtomicReferenceArray<StatisticsSnapshot> inactive;
 
    private long startTimestamp;
@@ -52,18 +53,53 @@ public class Statistics {
       StatisticsSnapshot first = new StatisticsSnapshot();
       first.sequenceId = 0;
       active.set(0, first);
-      highestTrackableValue = first.histogram.getHighestTrackableValue();
+   }
+
+   /**
+    * Constructor for subclasses that replace the phaser-based recording completely.
+    */
+   protected Statistics() {
    }
 
    public void recordResponse(long startTimestamp, long responseTime) {
-      if (responseTime > highestTrackableValue) {
+      responseTime = checkResponseTime(responseTime);
+      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      try {
+         StatisticsSnapshot active = active(startTimestamp);
+         active.histogram.recordValue(responseTime);
+         active.responseCount++;
+      } finally {
+         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+      }
+   }
+
+   /**
+    * Records response time as in {@link #recordResponse(long, long)} and also the response time
+    * measured from the intended start, corrected for coordinated omission.
+    */
+   public void recordResponse(long startTimestamp, long responseTime, long correctedResponseTime) {
+      responseTime = checkResponseTime(responseTime);
+      correctedResponseTime = checkResponseTime(correctedResponseTime);
+      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      try {
+         StatisticsSnapshot active = active(startTimestamp);
+         active.histogram.recordValue(responseTime);
+         active.correctedHistogram().recordValue(correctedResponseTime);
+         active.responseCount++;
+      } finally {
+         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+      }
+   }
+
+   protected long checkResponseTime(long responseTime) {
+      if (responseTime > StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE) {
          // we don't use auto-resize histograms
          long lastWarn = lastWarnThrottle.get();
          long warnings = lastWarn & 0xFFFF;
          long now = System.currentTimeMillis();
          if (now - (lastWarn >> 16) > 100) {
             log.warn("Response time {} exceeded maximum trackable response time {}",
-                  responseTime, highestTrackableValue);
+                  responseTime, StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE);
             if (warnings > 0) {
                log.warn("Response time was also exceeded {} times since last warning", warnings);
             }
@@ -71,19 +107,12 @@ public class Statistics {
          } else if (warnings < 0xFFFF) {
             lastWarnThrottle.set(lastWarn + 1);
          }
-         responseTime = highestTrackableValue;
+         responseTime = StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE;
       } else if (responseTime < 0) {
          log.warn("Response time {} is negative.", responseTime);
          responseTime = 0;
       }
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(startTimestamp);
-         active.histogram.recordValue(responseTime);
-         active.responseCount++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      return responseTime;
    }
 
    public void incrementRequests(long timestamp) {
@@ -180,9 +209,30 @@ public class Statistics {
       }
    }
 
+   /**
+    * @return False if nothing was recorded since the last {@link #visitSnapshots(Consumer)} and therefore there's
+    *         nothing to publish.
+    */
+   public boolean isDirty() {
+      return dirty;
+   }
+
+   protected void markDirty() {
+      // Avoid the volatile write in the common case
+      if (!dirty) {
+         dirty = true;
+      }
+   }
+
+   protected void clearDirty() {
+      dirty = false;
+   }
+
    public void visitSnapshots(Consumer<StatisticsSnapshot> consumer) {
       try {
          recordingPhaser.readerLock();
+         // Must be cleared before the flip; anything recorded after that sets it again
+         clearDirty();
 
          if (++numSamples >= inactive.length()) {
             AtomicReferenceArray<StatisticsSnapshot> temp = new AtomicReferenceArray<>(inactive.length() * 2);
@@ -221,6 +271,10 @@ public class Statistics {
          if (endTimestamp != Long.MAX_VALUE) {
             // all requests must be complete, let's scan the 'active' as well
             publish(active, maxSamples, consumer);
+         } else if (hasData(active, maxSamples)) {
+            // These will be published after the next flip. The last (held back) sample does not require
+            // another visit until the writer records into a later sample or the statistics end.
+            markDirty();
          }
       } finally {
          recordingPhaser.readerUnlock();
@@ -243,6 +297,16 @@ public class Statistics {
       }
    }
 
+   private boolean hasData(AtomicReferenceArray<StatisticsSnapshot> array, int limit) {
+      for (int i = lastLowestIndex; i < limit; ++i) {
+         StatisticsSnapshot snapshot = array.get(i);
+         if (snapshot != null && !snapshot.isEmpty()) {
+            return true;
+         }
+      }
+      return false;
+   }
+
    public void start(long now) {
       recordingPhaser.readerLock();
       try {
@@ -257,6 +321,8 @@ public class Statistics {
       recordingPhaser.readerLock();
       try {
          endTimestamp = now;
+         // The last sample is published only after the end
+         markDirty();
       } finally {
          recordingPhaser.readerUnlock();
       }
@@ -278,6 +344,7 @@ public class Statistics {
          active.set(index, snapshot);
       }
       lowestActiveUpdater.accumulateAndGet(this, index, Math::min);
+      markDirty();
       // Highest active is increasing monotonically and it is updated only by the event-loop thread;
       // therefore we don't have to use CAS operation
       if (index > highestActive) {
@@ -13,8 +13,15 @@ import org.HdrHistogram.Histogram;
  * Non-thread safe mutable set of values.
  */
 public class StatisticsSnapshot implements Serializable {
+   public static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toNanos(1);
+
    public int sequenceId = -1;
-   public final Histogram histogram = new Histogram(TimeUnit.MINUTES.toNanos(1), 2);
+   public final Histogram histogram;
+   /**
+    * Response times measured from the intended start of the session, corrected for coordinated omission.
+    * This is <code>null</code> unless the phase records the corrected values.
+    */
+   public Histogram correctedHistogram;
    public int requestCount;
    public int responseCount;
    public int invalid;
@@ -24,6 +31,31 @@ public class StatisticsSnapshot implements Serializable {
    public long blockedTime;
    public final Map<String, StatsExtension> extensions = new HashMap<>();
 
+   public StatisticsSnapshot() {
+      this(newHistogram());
+   }
+
+   /**
+    * @param histogram Histogram with the same configuration as the default one, e.g. decoded from its binary form.
+    */
+   public StatisticsSnapshot(Histogram histogram) {
+      this.histogram = histogram;
+   }
+
+   /**
+    * @return Histogram of corrected response times, created if needed.
+    */
+   public Histogram correctedHistogram() {
+      if (correctedHistogram == null) {
+         correctedHistogram = newHistogram();
+      }
+      return correctedHistogram;
+   }
+
+   public static Histogram newHistogram() {
+      return new Histogram(HIGHEST_TRACKABLE_VALUE, 2);
+   }
+
    public boolean isEmpty() {
       return requestCount + responseCount + invalid + connectionErrors + requestTimeouts + internalErrors == 0 &&
             extensions.values().stream().allMatch(StatsExtension::isNull);
@@ -31,6 +63,9 @@ public class StatisticsSnapshot implements Serializable {
 
    public void reset() {
       histogram.reset();
+      if (correctedHistogram != null) {
+         correctedHistogram.reset();
+      }
       requestCount = 0;
       responseCount = 0;
       invalid = 0;
@@ -54,6 +89,9 @@ public class StatisticsSnapshot implements Serializable {
 
    public void add(StatisticsSnapshot other) {
       histogram.add(other.histogram);
+      if (other.correctedHistogram != null) {
+         correctedHistogram().add(other.correctedHistogram);
+      }
       requestCount += other.requestCount;
       responseCount += other.responseCount;
       invalid += other.invalid;
@@ -76,6 +114,9 @@ public class StatisticsSnapshot implements Serializable {
 
    public void subtract(StatisticsSnapshot other) {
       histogram.subtract(other.histogram);
+      if (other.correctedHistogram != null) {
+         correctedHistogram().subtract(other.correctedHistogram);
+      }
       requestCount -= other.requestCount;
       responseCount -= other.responseCount;
       invalid -= other.invalid;
@@ -101,13 +142,26 @@ public class StatisticsSnapshot implements Serializable {
 
    public StatisticsSummary summary(double[] percentiles) {
       TreeMap<Double, Long> percentilesMap = getPercentiles(percentiles);
+      long meanCorrected = 0;
+      long maxCorrected = 0;
+      TreeMap<Double, Long> correctedPercentilesMap = null;
+      if (correctedHistogram != null && correctedHistogram.getTotalCount() > 0) {
+         meanCorrected = (long) correctedHistogram.getMean();
+         maxCorrected = correctedHistogram.getMaxValue();
+         correctedPercentilesMap = getPercentiles(correctedHistogram, percentiles);
+      }
       return new StatisticsSummary(histogram.getStartTimeStamp(), histogram.getEndTimeStamp(),
             histogram.getMinValue(), (long) histogram.getMean(), (long) histogram.getStdDeviation(), histogram.getMaxValue(),
             percentilesMap, requestCount, responseCount,
-            invalid, connectionErrors, requestTimeouts, internalErrors, blockedTime, new TreeMap<>(extensions));
+            invalid, connectionErrors, requestTimeouts, internalErrors, blockedTime, new TreeMap<>(extensions),
+            meanCorrected, maxCorrected, correctedPercentilesMap);
    }
 
    public TreeMap<Double, Long> getPercentiles(double[] percentiles) {
+      return getPercentiles(histogram, percentiles);
+   }
+
+   private static TreeMap<Double, Long> getPercentiles(Histogram histogram, double[] percentiles) {
       return DoubleStream.of(percentiles).collect(TreeMap::new,
             (map, p) -> map.put(p * 100, histogram.getValueAtPercentile(p * 100)), TreeMap::putAll);
    }
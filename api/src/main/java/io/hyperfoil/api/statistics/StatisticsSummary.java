@@ -4,6 +4,8 @@ import java.io.PrintWriter;
 import java.util.SortedMap;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class StatisticsSummary {
@@ -22,6 +24,22 @@ public class StatisticsSummary {
    public final int internalErrors;
    public final long blockedTime;
    public final SortedMap<String, StatsExtension> extensions;
+   // Response times measured from the intended start; recorded only with coordinated omission correction.
+   @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+   public final long meanCorrectedResponseTime;
+   @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+   public final long maxCorrectedResponseTime;
+   @JsonInclude(JsonInclude.Include.NON_NULL)
+   public final SortedMap<Double, Long> percentileCorrectedResponseTime;
+
+   public StatisticsSummary(long startTime, long endTime, long minResponseTime, long meanResponseTime,
+         long stdDevResponseTime, long maxResponseTime, SortedMap<Double, Long> percentileResponseTime,
+         int requestCount, int responseCount, int invalid, int connectionErrors, int requestTimeouts,
+         int internalErrors, long blockedTime, SortedMap<String, StatsExtension> extensions) {
+      this(startTime, endTime, minResponseTime, meanResponseTime, stdDevResponseTime, maxResponseTime,
+            percentileResponseTime, requestCount, responseCount, invalid, connectionErrors, requestTimeouts,
+            internalErrors, blockedTime, extensions, 0, 0, null);
+   }
 
    @JsonCreator
    public StatisticsSummary(@JsonProperty("startTime") long startTime,
@@ -38,7 +56,10 @@ public class StatisticsSummary {
          @JsonProperty("requestTimeouts") int requestTimeouts,
          @JsonProperty("internalErrors") int internalErrors,
          @JsonProperty("blockedTime") long blockedTime,
-         @JsonProperty("extensions") SortedMap<String, StatsExtension> extensions) {
+         @JsonProperty("extensions") SortedMap<String, StatsExtension> extensions,
+         @JsonProperty("meanCorrectedResponseTime") long meanCorrectedResponseTime,
+         @JsonProperty("maxCorrectedResponseTime") long maxCorrectedResponseTime,
+         @JsonProperty("percentileCorrectedResponseTime") SortedMap<Double, Long> percentileCorrectedResponseTime) {
       this.startTime = startTime;
       this.endTime = endTime;
       this.minResponseTime = minResponseTime;
@@ -54,6 +75,14 @@ public class StatisticsSummary {
       this.internalErrors = internalErrors;
       this.blockedTime = blockedTime;
       this.extensions = extensions;
+      this.meanCorrectedResponseTime = meanCorrectedResponseTime;
+      this.maxCorrectedResponseTime = maxCorrectedResponseTime;
+      this.percentileCorrectedResponseTime = percentileCorrectedResponseTime;
+   }
+
+   @JsonIgnore
+   public boolean hasCorrectedResponseTime() {
+      return percentileCorrectedResponseTime != null;
    }
 
    public static void printHeader(PrintWriter writer, double[] percentiles) {
@@ -1,5 +1,12 @@
 package io.hyperfoil.api.statistics;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ServiceLoader;
 
@@ -37,4 +44,42 @@ public interface StatsExtension extends Serializable, Cloneable {
    String[] headers();
 
    String byHeader(String header);
+
+   /**
+    * Writes this extension in a compact binary form when shipping statistics from agents to the controller.
+    * Extensions that return <code>false</code> (without writing anything) are sent using Java serialization.
+    * <p>
+    * The default implementation writes the Java-serialized extension, which {@link #readCompact(DataInput)}
+    * understands. Extensions with their own format must override both methods.
+    *
+    * @param output Target.
+    * @return True if the extension was written.
+    * @throws IOException Propagated from the output.
+    */
+   default boolean writeCompact(DataOutput output) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+         objectOutput.writeObject(this);
+      }
+      output.writeInt(bytes.size());
+      output.write(bytes.toByteArray());
+      return true;
+   }
+
+   /**
+    * Reads state written by {@link #writeCompact(DataOutput)} into this freshly constructed instance.
+    * The default implementation reads the Java-serialized extension and adds it to this instance.
+    *
+    * @param input Source.
+    * @throws IOException Propagated from the input.
+    */
+   default void readCompact(DataInput input) throws IOException {
+      byte[] bytes = new byte[input.readInt()];
+      input.readFully(bytes);
+      try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+         add((StatsExtension) objectInput.readObject());
+      } catch (ClassNotFoundException | ClassCastException e) {
+         throw new IOException("Cannot read " + getClass().getName(), e);
+      }
+   }
 }
@@ -0,0 +1,212 @@
+package io.hyperfoil.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.internal.Properties;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.ThreadExecutorMap;
+
+/**
+ * Coarse-grained timer for frequently scheduled and cancelled tasks, such as request timeouts.
+ * <p>
+ * Scheduling through {@link EventExecutor#schedule(Runnable, long, TimeUnit)} allocates a future and inserts it
+ * into the executor's priority queue; with a request rate in the order of millions per second this is a visible
+ * overhead. The wheel keeps the timeouts in intrusive doubly-linked lists, one for each tick modulo wheel size,
+ * so the insertion and cancellation are O(1) and do not allocate. Timeouts are never fired early but can be
+ * fired up to one tick late. The executor runs a single periodic task while there are any scheduled timeouts.
+ * <p>
+ * This class is not thread-safe: there is one instance per event loop (see {@link #current()}) and it must be
+ * accessed only from that event loop.
+ */
+public final class TimerWheel {
+   private static final Logger log = LogManager.getLogger(TimerWheel.class);
+   private static final long DEFAULT_TICK_NANOS = TimeUnit.MICROSECONDS
+         .toNanos(Properties.getLong(Properties.TIMER_TICK, 1000));
+   private static final int DEFAULT_WHEEL_SIZE = 512;
+   private static final FastThreadLocal<TimerWheel> CURRENT = new FastThreadLocal<>() {
+      @Override
+      protected TimerWheel initialValue() {
+         EventExecutor executor = ThreadExecutorMap.currentExecutor();
+         if (executor == null) {
+            throw new IllegalStateException("Timer wheel can be used only from an event loop; current thread is "
+                  + Thread.currentThread());
+         }
+         return new TimerWheel(executor, DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+      }
+   };
+
+   private final EventExecutor executor;
+   private final long tickNanos;
+   private final Timeout[] buckets;
+   private final int mask;
+   private final long startNanos;
+   private final Timeout expired = new Sentinel();
+   private final Runnable tickTask = this::tick;
+   private long currentTick;
+   private int count;
+   private ScheduledFuture<?> tickFuture;
+
+   /**
+    * @param executor Executor running the ticks; the wheel must not be accessed from any other thread.
+    * @param tickNanos Resolution of the timer.
+    * @param wheelSize Number of buckets, rounded up to a power of two. Timeouts longer than
+    *        <code>wheelSize * tickNanos</code> are supported but these are checked on each turn of the wheel.
+    */
+   public TimerWheel(EventExecutor executor, long tickNanos, int wheelSize) {
+      if (tickNanos <= 0) {
+         throw new IllegalArgumentException("Tick must be positive: " + tickNanos);
+      }
+      this.executor = executor;
+      this.tickNanos = tickNanos;
+      this.buckets = new Timeout[wheelSize <= 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1];
+      this.mask = buckets.length - 1;
+      for (int i = 0; i < buckets.length; ++i) {
+         buckets[i] = new Sentinel();
+      }
+      this.startNanos = System.nanoTime();
+   }
+
+   /**
+    * @return Timer wheel of the event loop running current thread.
+    * @throws IllegalStateException when not called from an event loop.
+    */
+   public static TimerWheel current() {
+      return CURRENT.get();
+   }
+
+   /**
+    * Schedules the timeout; if it was already scheduled the previous deadline is replaced.
+    *
+    * @param timeout Timeout.
+    * @param delay Minimum delay before {@link Timeout#onTimeout()} is invoked.
+    * @param unit Unit of the delay.
+    */
+   public void schedule(Timeout timeout, long delay, TimeUnit unit) {
+      assert executor.inEventLoop();
+      timeout.cancel();
+      long nowNanos = System.nanoTime() - startNanos;
+      if (count == 0) {
+         // No need to process ticks that passed while the wheel was empty
+         currentTick = Math.max(currentTick, nowNanos / tickNanos);
+      }
+      long deadlineNanos = nowNanos + unit.toNanos(delay);
+      // round up to not fire early
+      long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+      timeout.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+      timeout.wheel = this;
+      // Insert after the sentinel; the tick does not visit timeouts added to the bucket being processed
+      Timeout head = buckets[(int) (timeout.deadlineTick & mask)];
+      timeout.prev = head;
+      timeout.next = head.next;
+      head.next.prev = timeout;
+      head.next = timeout;
+      count++;
+      if (tickFuture == null) {
+         tickFuture = executor.scheduleAtFixedRate(tickTask, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   /**
+    * @return Number of scheduled timeouts.
+    */
+   public int size() {
+      return count;
+   }
+
+   private void tick() {
+      long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+      while (currentTick < targetTick) {
+         ++currentTick;
+         Timeout head = buckets[(int) (currentTick & mask)];
+         for (Timeout t = head.next; t != head;) {
+            Timeout next = t.next;
+            if (t.deadlineTick <= currentTick) {
+               t.unlink();
+               t.wheel = null;
+               --count;
+               t.prev = expired.prev;
+               t.next = expired;
+               expired.prev.next = t;
+               expired.prev = t;
+            }
+            t = next;
+         }
+         // The handlers can cancel other expired timeouts, therefore we can't iterate
+         Timeout t;
+         while ((t = expired.next) != expired) {
+            t.unlink();
+            try {
+               t.onTimeout();
+            } catch (Throwable e) {
+               log.error("Timeout handler {} failed", t, e);
+            }
+         }
+         if (count == 0) {
+            break;
+         }
+      }
+      if (count == 0 && tickFuture != null) {
+         tickFuture.cancel(false);
+         tickFuture = null;
+      }
+   }
+
+   /**
+    * Entry in the wheel; subclasses are expected to be reused for consecutive schedules.
+    */
+   public abstract static class Timeout {
+      private Timeout prev;
+      private Timeout next;
+      private TimerWheel wheel;
+      private long deadlineTick;
+
+      /**
+       * @return True if this timeout is scheduled and did not fire yet.
+       */
+      public boolean isScheduled() {
+         return next != null;
+      }
+
+      /**
+       * Cancel the timeout if it is scheduled, otherwise this is a no-op.
+       */
+      public void cancel() {
+         if (next != null) {
+            unlink();
+            if (wheel != null) {
+               wheel.count--;
+               wheel = null;
+            }
+         }
+      }
+
+      private void unlink() {
+         prev.next = next;
+         next.prev = prev;
+         prev = null;
+         next = null;
+      }
+
+      /**
+       * Invoked in the event loop when the deadline passes.
+       */
+      protected abstract void onTimeout();
+   }
+
+   private static final class Sentinel extends Timeout {
+      Sentinel() {
+         super.prev = this;
+         super.next = this;
+      }
+
+      @Override
+      protected void onTimeout() {
+         throw new IllegalStateException();
+      }
+   }
+}
@@ -2,6 +2,8 @@ package io.hyperfoil.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
@@ -20,9 +22,13 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
 
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.netty.buffer.ByteBuf;
 import io.netty.util.AsciiString;
 
@@ -537,4 +543,68 @@ public class Util {
       assert value >= 0 && value <= 9;
       buf.writeByte('0' + value);
    }
+
+   /**
+    * Writes the value using ZigZag + LEB128 encoding; small (including small negative) values take a single byte.
+    */
+   public static void writeVarLong(DataOutput output, long value) throws IOException {
+      long zigZag = (value << 1) ^ (value >> 63);
+      while ((zigZag & ~0x7FL) != 0) {
+         output.writeByte((int) ((zigZag & 0x7F) | 0x80));
+         zigZag >>>= 7;
+      }
+      output.writeByte((int) zigZag);
+   }
+
+   public static long readVarLong(DataInput input) throws IOException {
+      long zigZag = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+         byte b = input.readByte();
+         zigZag |= (long) (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+         }
+      }
+      throw new IOException("Malformed variable-length number");
+   }
+
+   public static int readVarInt(DataInput input) throws IOException {
+      return Math.toIntExact(readVarLong(input));
+   }
+
+   /**
+    * Writes the histogram in its compressed form prefixed by the length; <code>null</code> and empty histograms
+    * are written as zero length.
+    */
+   public static void writeHistogram(DataOutput output, Histogram histogram) throws IOException {
+      if (histogram == null || histogram.getTotalCount() == 0) {
+         writeVarLong(output, 0);
+      } else {
+         ByteBuffer histogramBuffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+         int histogramLength = histogram.encodeIntoCompressedByteBuffer(histogramBuffer);
+         writeVarLong(output, histogramLength);
+         output.write(histogramBuffer.array(), 0, histogramLength);
+      }
+   }
+
+   /**
+    * Reads histogram written by {@link #writeHistogram(DataOutput, Histogram)}.
+    *
+    * @param input Source of the data.
+    * @return Decoded histogram or <code>null</code> if it was empty.
+    * @throws IOException When the data cannot be read or decoded.
+    */
+   public static Histogram readHistogram(DataInput input) throws IOException {
+      int histogramLength = readVarInt(input);
+      if (histogramLength == 0) {
+         return null;
+      }
+      byte[] bytes = new byte[histogramLength];
+      input.readFully(bytes);
+      try {
+         return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE);
+      } catch (DataFormatException e) {
+         throw new IOException("Cannot decode histogram", e);
+      }
+   }
 }
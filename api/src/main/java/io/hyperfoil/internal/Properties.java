@@ -3,10 +3,14 @@ package io.hyperfoil.internal;
 import java.util.function.Function;
 
 public interface Properties {
+   String AGENT_DATA_DIR = "io.hyperfoil.agent.data.dir";
    String AGENT_DEBUG_PORT = "io.hyperfoil.agent.debug.port";
    String AGENT_DEBUG_SUSPEND = "io.hyperfoil.agent.debug.suspend";
    String AGENT_JAVA_EXECUTABLE = "io.hyperfoil.agent.java.executable";
    String AGENT_NAME = "io.hyperfoil.agent.name";
+   String AGGREGATOR_FLUSH_PERIOD = "io.hyperfoil.aggregator.flush.period";
+   String AGGREGATOR_NAME = "io.hyperfoil.aggregator.name";
+   String AGGREGATOR_PER_AGENT = "io.hyperfoil.aggregator.per.agent";
    String BENCHMARK_DIR = "io.hyperfoil.benchmarkdir";
    String CONTROLLER_CLUSTER_IP = "io.hyperfoil.controller.cluster.ip";
    String CONTROLLER_CLUSTER_PORT = "io.hyperfoil.controller.cluster.port";
@@ -21,11 +25,15 @@ public interface Properties {
    String CONTROLLER_LOG = "io.hyperfoil.controller.log.file";
    String CONTROLLER_LOG_LEVEL = "io.hyperfoil.controller.log.level";
    String CONTROLLER_PORT = "io.hyperfoil.controller.port";
+   String CONTROLLER_STATS_THREADS = "io.hyperfoil.controller.stats.threads";
    String CPU_WATCHDOG_PERIOD = "io.hyperfoil.cpu.watchdog.period";
    String CPU_WATCHDOG_IDLE_THRESHOLD = "io.hyperfoil.cpu.watchdog.idle.threshold";
    String DEPLOYER = "io.hyperfoil.deployer";
    String DEPLOY_TIMEOUT = "io.hyperfoil.deploy.timeout";
    String DIST_DIR = "io.hyperfoil.distdir";
+   String EVENT_LOOP_OVERLOAD_THRESHOLD = "io.hyperfoil.eventloop.overload.threshold";
+   String EVENT_LOOP_PROBE_PERIOD = "io.hyperfoil.eventloop.probe.period";
+   String HTTP_FAST_PARSER = "io.hyperfoil.http.fast.parser";
    String JITTER_WATCHDOG_PERIOD = "io.hyperfoil.jitter.watchdog.period";
    String JITTER_WATCHDOG_THRESHOLD = "io.hyperfoil.jitter.watchdog.threshold";
    String LOG4J2_CONFIGURATION_FILE = "log4j.configurationFile";
@@ -35,6 +43,9 @@ public interface Properties {
    String ROOT_DIR = "io.hyperfoil.rootdir";
    String RUN_DIR = "io.hyperfoil.rundir";
    String RUN_ID = "io.hyperfoil.runid";
+   String STATISTICS_RECORDER = "io.hyperfoil.statistics.recorder";
+   String STATISTICS_SPILL = "io.hyperfoil.statistics.spill";
+   String TIMER_TICK = "io.hyperfoil.timer.tick";
    String TRIGGER_URL = "io.hyperfoil.trigger.url";
    String CLI_REQUEST_TIMEOUT = "io.hyperfoil.cli.request.timeout";
    String GC_CHECK = "io.hyperfoil.gc.check.enabled";
@@ -0,0 +1,78 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BatchingStatisticsTest {
+   @Test
+   public void testPublishOnPeriodChange() {
+      BatchingStatistics statistics = new BatchingStatistics(0);
+      statistics.incrementRequests(100);
+      statistics.recordResponse(100, 1000);
+      statistics.incrementRequests(500);
+      // nothing is published until we move to another sampling period
+      assertEquals(0, collect(statistics).size());
+
+      statistics.incrementRequests(1500);
+      // late response for the first period
+      statistics.recordResponse(500, 2000);
+      List<StatisticsSnapshot> snapshots = collect(statistics);
+      assertEquals(1, snapshots.size());
+      assertEquals(0, snapshots.get(0).sequenceId);
+      assertEquals(2, snapshots.get(0).requestCount);
+      assertEquals(1, snapshots.get(0).responseCount);
+      assertEquals(0, snapshots.get(0).histogram.getStartTimeStamp());
+      assertEquals(1000, snapshots.get(0).histogram.getEndTimeStamp());
+
+      statistics.end(1800);
+      snapshots = collect(statistics);
+      assertEquals(2, snapshots.size());
+      assertEquals(1, snapshots.get(0).responseCount);
+      assertEquals(1, snapshots.get(1).requestCount);
+      assertEquals(1800, snapshots.get(1).histogram.getEndTimeStamp());
+   }
+
+   @Test
+   public void testLaggingReaderGetsAllSnapshotsAfterEnd() {
+      BatchingStatistics statistics = new BatchingStatistics(0);
+      // more periods than the published queue can hold, without the reader visiting in between
+      int periods = 100;
+      for (int i = 0; i < periods; ++i) {
+         statistics.incrementRequests(i * 1000L);
+      }
+      statistics.end(periods * 1000L);
+      List<StatisticsSnapshot> snapshots = collect(statistics);
+      assertEquals(periods, snapshots.size());
+      for (int i = 0; i < periods; ++i) {
+         assertEquals(i, snapshots.get(i).sequenceId);
+         assertEquals(1, snapshots.get(i).requestCount);
+      }
+      assertEquals(0, collect(statistics).size());
+   }
+
+   @Test
+   public void testSnapshotsAreRecycled() {
+      BatchingStatistics statistics = new BatchingStatistics(0);
+      List<StatisticsSnapshot> seen = new ArrayList<>();
+      for (int i = 0; i < 100; ++i) {
+         statistics.incrementRequests(i * 1000L);
+         statistics.visitSnapshots(snapshot -> {
+            if (seen.stream().noneMatch(s -> s == snapshot)) {
+               seen.add(snapshot);
+            }
+         });
+      }
+      assertTrue(seen.size() <= 2);
+   }
+
+   private static List<StatisticsSnapshot> collect(Statistics statistics) {
+      List<StatisticsSnapshot> list = new ArrayList<>();
+      statistics.visitSnapshots(snapshot -> list.add(snapshot.clone()));
+      return list;
+   }
+}
@@ -0,0 +1,51 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CountersTest {
+   @Test
+   public void testCompactRoundTrip() throws IOException {
+      Counters counters = new Counters();
+      // More keys than the initial capacity so that reading has to grow the array
+      for (int i = 0; i < 20; ++i) {
+         for (int j = 0; j <= i; ++j) {
+            counters.increment(i % 2 == 0 ? (Object) i : "key" + i);
+         }
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream output = new DataOutputStream(bytes)) {
+         assertTrue(counters.writeCompact(output));
+      }
+      Counters decoded = new Counters();
+      try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+         decoded.readCompact(input);
+         assertEquals(-1, input.read());
+      }
+
+      Map<String, Long> values = decoded.serialize();
+      assertEquals(20, values.size());
+      assertEquals(counters.serialize(), values);
+      for (int i = 0; i < 20; ++i) {
+         assertEquals(Long.valueOf(i + 1), values.get(i % 2 == 0 ? String.valueOf(i) : "key" + i));
+      }
+   }
+
+   @Test
+   public void testCompactOnlyWithSimpleKeys() throws IOException {
+      Counters counters = new Counters();
+      counters.increment(Boolean.TRUE);
+      assertFalse(counters.writeCompact(new DataOutputStream(new ByteArrayOutputStream())));
+   }
+}
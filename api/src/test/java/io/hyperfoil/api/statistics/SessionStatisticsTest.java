@@ -0,0 +1,41 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class SessionStatisticsTest {
+   @Test
+   public void testTableMatchesLookupByName() {
+      SessionStatistics statistics = new SessionStatistics();
+      MetricHandles handles = new MetricHandles();
+      SessionStatistics.Table table = statistics.table(null, handles);
+
+      int foo = handles.handle(1, "foo");
+      int bar = handles.handle(1, "bar");
+      int otherFoo = handles.handle(2, "foo");
+      assertEquals(foo, handles.handle(1, "foo"));
+      assertEquals(3, handles.size());
+
+      Statistics fooStats = statistics.getOrCreate(null, 1, "foo", 0);
+      assertSame(fooStats, table.get(foo, 0));
+      Statistics barStats = table.get(bar, 0);
+      assertSame(barStats, statistics.getOrCreate(null, 1, "bar", 0));
+      assertNotSame(fooStats, table.get(otherFoo, 0));
+      assertSame(table.get(otherFoo, 0), statistics.getOrCreate(null, 2, "foo", 0));
+   }
+
+   @Test
+   public void testTableGrows() {
+      SessionStatistics statistics = new SessionStatistics();
+      MetricHandles handles = new MetricHandles();
+      SessionStatistics.Table table = statistics.table(null, handles);
+      for (int i = 0; i < 100; ++i) {
+         int handle = handles.handle(0, "metric" + i);
+         assertSame(statistics.getOrCreate(null, 0, "metric" + i, 0), table.get(handle, 0));
+      }
+      assertEquals(100, statistics.stats(0).size());
+   }
+}
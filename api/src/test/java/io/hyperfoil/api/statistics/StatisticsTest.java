@@ -0,0 +1,85 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class StatisticsTest {
+   @Test
+   public void testDirtyTracking() {
+      Statistics statistics = new Statistics(0);
+      assertFalse(statistics.isDirty());
+      statistics.incrementRequests(100);
+      assertTrue(statistics.isDirty());
+      // The last sample is held back and there's no point in visiting again
+      assertEquals(0, collect(statistics).size());
+      assertFalse(statistics.isDirty());
+
+      statistics.incrementRequests(1100);
+      assertTrue(statistics.isDirty());
+      // The first sample was recorded into the other array and it is published only after another flip
+      assertEquals(0, collect(statistics).size());
+      assertTrue(statistics.isDirty());
+      assertEquals(1, collect(statistics).size());
+      assertFalse(statistics.isDirty());
+
+      statistics.end(1500);
+      assertTrue(statistics.isDirty());
+      List<StatisticsSnapshot> snapshots = collect(statistics);
+      assertEquals(1, snapshots.size());
+      assertEquals(1, snapshots.get(0).sequenceId);
+      assertFalse(statistics.isDirty());
+   }
+
+   @Test
+   public void testBatchingDirtyTracking() {
+      Statistics statistics = new BatchingStatistics(0);
+      statistics.incrementRequests(100);
+      assertFalse(statistics.isDirty());
+      statistics.incrementRequests(1100);
+      assertTrue(statistics.isDirty());
+      assertEquals(1, collect(statistics).size());
+      assertFalse(statistics.isDirty());
+      statistics.end(1500);
+      assertTrue(statistics.isDirty());
+      assertEquals(1, collect(statistics).size());
+   }
+
+   @Test
+   public void testCorrectedResponseTime() {
+      Statistics statistics = new Statistics(0);
+      statistics.recordResponse(100, 1_000_000);
+      statistics.recordResponse(200, 2_000_000, 50_000_000);
+      statistics.end(500);
+      List<StatisticsSnapshot> snapshots = collect(statistics);
+      assertEquals(1, snapshots.size());
+      StatisticsSnapshot snapshot = snapshots.get(0);
+      assertEquals(2, snapshot.histogram.getTotalCount());
+      assertEquals(1, snapshot.correctedHistogram.getTotalCount());
+
+      StatisticsSummary summary = snapshot.summary(new double[] { 0.5, 0.99 });
+      assertTrue(summary.hasCorrectedResponseTime());
+      assertEquals(50_000_000, summary.maxCorrectedResponseTime, 500_000);
+      assertEquals(50_000_000, summary.percentileCorrectedResponseTime.get(99d), 500_000);
+      assertTrue(summary.maxResponseTime < 3_000_000);
+
+      StatisticsSnapshot plain = new StatisticsSnapshot();
+      plain.histogram.recordValue(1_000_000);
+      assertFalse(plain.summary(new double[] { 0.5 }).hasCorrectedResponseTime());
+      assertNull(plain.correctedHistogram);
+      plain.add(snapshot);
+      assertEquals(1, plain.correctedHistogram.getTotalCount());
+   }
+
+   private static List<StatisticsSnapshot> collect(Statistics statistics) {
+      List<StatisticsSnapshot> list = new ArrayList<>();
+      statistics.visitSnapshots(snapshot -> list.add(snapshot.clone()));
+      return list;
+   }
+}
@@ -0,0 +1,86 @@
+package io.hyperfoil.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.netty.channel.DefaultEventLoop;
+
+public class TimerWheelTest {
+   private final DefaultEventLoop eventLoop = new DefaultEventLoop();
+
+   @After
+   public void shutdown() {
+      eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   @Test
+   public void testFireAndCancel() throws Exception {
+      // small wheel to make the long timeout wrap around
+      TimerWheel wheel = new TimerWheel(eventLoop, TimeUnit.MILLISECONDS.toNanos(1), 8);
+      List<String> fired = new CopyOnWriteArrayList<>();
+      CountDownLatch latch = new CountDownLatch(2);
+      long start = System.nanoTime();
+      TestTimeout shortTimeout = new TestTimeout("short", fired, latch);
+      TestTimeout cancelled = new TestTimeout("cancelled", fired, latch);
+      TestTimeout longTimeout = new TestTimeout("long", fired, latch);
+      eventLoop.submit(() -> {
+         wheel.schedule(longTimeout, 50, TimeUnit.MILLISECONDS);
+         wheel.schedule(cancelled, 5, TimeUnit.MILLISECONDS);
+         wheel.schedule(shortTimeout, 2, TimeUnit.MILLISECONDS);
+         cancelled.cancel();
+         assertFalse(cancelled.isScheduled());
+         assertEquals(2, wheel.size());
+      }).get();
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+      assertEquals(List.of("short", "long"), fired);
+      assertEquals(0, (int) eventLoop.submit(wheel::size).get());
+   }
+
+   @Test
+   public void testReschedule() throws Exception {
+      TimerWheel wheel = new TimerWheel(eventLoop, TimeUnit.MILLISECONDS.toNanos(1), 16);
+      List<String> fired = new CopyOnWriteArrayList<>();
+      CountDownLatch latch = new CountDownLatch(1);
+      TestTimeout timeout = new TestTimeout("timeout", fired, latch);
+      eventLoop.submit(() -> {
+         wheel.schedule(timeout, 1, TimeUnit.HOURS);
+         wheel.schedule(timeout, 1, TimeUnit.MILLISECONDS);
+         assertEquals(1, wheel.size());
+      }).get();
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertEquals(List.of("timeout"), fired);
+      // the wheel can be reused after it becomes empty
+      CountDownLatch latch2 = new CountDownLatch(1);
+      eventLoop.submit(() -> wheel.schedule(new TestTimeout("again", fired, latch2), 1, TimeUnit.MILLISECONDS)).get();
+      assertTrue(latch2.await(10, TimeUnit.SECONDS));
+      assertEquals(List.of("timeout", "again"), fired);
+   }
+
+   private static class TestTimeout extends TimerWheel.Timeout {
+      private final String name;
+      private final List<String> fired;
+      private final CountDownLatch latch;
+
+      TestTimeout(String name, List<String> fired, CountDownLatch latch) {
+         this.name = name;
+         this.fired = fired;
+         this.latch = latch;
+      }
+
+      @Override
+      protected void onTimeout() {
+         fired.add(name);
+         latch.countDown();
+      }
+   }
+}
@@ -0,0 +1,116 @@
+package io.hyperfoil.core.handlers.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Runs a large JSON body, split into fragments as it would arrive from the network, through several queries.
+ * Without <code>combined</code> each query is evaluated by its own {@link JsonHandler} that parses the whole body;
+ * with it all queries are evaluated by a single {@link MultiJsonHandler}.
+ */
+@State(Scope.Thread)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonQueriesBenchmark {
+   private static final String[] QUERIES = { ".items[].id", ".items[].name", ".items[].email", ".items[].address.city",
+         ".items[].address.zip", ".next" };
+
+   @Param({ "1048576", "10485760" })
+   private int size;
+   @Param({ "1", "6" })
+   private int queries;
+   @Param({ "false", "true" })
+   private boolean combined;
+   @Param({ "16384" })
+   private int fragmentSize;
+
+   private Session session;
+   private Processor[] handlers;
+   private ByteBuf[] fragments;
+   private CountingProcessor counter;
+
+   @Setup
+   public void setup() {
+      counter = new CountingProcessor();
+      JsonHandler[] jsonHandlers = new JsonHandler[queries];
+      for (int i = 0; i < queries; ++i) {
+         jsonHandlers[i] = new JsonHandler(QUERIES[i], false, null, counter);
+      }
+      handlers = combined ? new Processor[] { new MultiJsonHandler(jsonHandlers) } : jsonHandlers;
+      session = SessionFactory.forTesting();
+      for (Processor handler : handlers) {
+         ResourceUtilizer.reserveForTesting(session, handler);
+      }
+
+      byte[] body = generateBody(size);
+      fragments = new ByteBuf[(body.length + fragmentSize - 1) / fragmentSize];
+      for (int i = 0; i < fragments.length; ++i) {
+         int offset = i * fragmentSize;
+         fragments[i] = Unpooled.wrappedBuffer(body, offset, Math.min(fragmentSize, body.length - offset));
+      }
+   }
+
+   private static byte[] generateBody(int size) {
+      StringBuilder sb = new StringBuilder(size + 256).append("{ \"items\": [");
+      for (int i = 0; sb.length() < size; ++i) {
+         if (i > 0) {
+            sb.append(",");
+         }
+         sb.append("\n  { \"id\": ").append(i)
+               .append(", \"name\": \"User ").append(i)
+               .append("\", \"email\": \"user").append(i).append("@example.com\"")
+               .append(", \"tags\": [\"a\", \"b\", \"c\"]")
+               .append(", \"address\": { \"street\": \"").append(i).append(" Main St.\", \"city\": \"Springfield\"")
+               .append(", \"zip\": \"").append(10000 + i % 90000).append("\" } }");
+      }
+      sb.append("\n], \"next\": \"/users?page=2\" }");
+      return sb.toString().getBytes(StandardCharsets.UTF_8);
+   }
+
+   @Benchmark
+   public long parse() {
+      counter.bytes = 0;
+      for (Processor handler : handlers) {
+         handler.before(session);
+      }
+      for (int i = 0; i < fragments.length; ++i) {
+         ByteBuf fragment = fragments[i];
+         boolean isLastPart = i == fragments.length - 1;
+         for (Processor handler : handlers) {
+            handler.process(session, fragment, fragment.readerIndex(), fragment.readableBytes(), isLastPart);
+         }
+      }
+      for (Processor handler : handlers) {
+         handler.after(session);
+      }
+      return counter.bytes;
+   }
+
+   private static class CountingProcessor implements Processor {
+      private long bytes;
+
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         bytes += length;
+      }
+   }
+}
@@ -110,6 +110,16 @@ public class FakeSession implements Session {
       return null;
    }
 
+   @Override
+   public int metricHandle(int stepId, String name) {
+      return 0;
+   }
+
+   @Override
+   public Statistics statistics(int metricHandle) {
+      return null;
+   }
+
    @Override
    public void pruneStats(Phase phase) {
 
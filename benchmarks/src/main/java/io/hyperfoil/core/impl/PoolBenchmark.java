@@ -38,8 +38,11 @@ public class PoolBenchmark {
    private int capacity;
    @Param({ "1" })
    private int burst;
-   @Param({ "true" })
-   private boolean workStealingPool;
+   /**
+    * One of <code>lock</code>, <code>affinity</code> or <code>striped</code>.
+    */
+   @Param({ "affinity", "striped" })
+   private String poolType;
    @Param({ "0", "16" })
    private int fakeEventExecutors;
 
@@ -63,13 +66,19 @@ public class PoolBenchmark {
       }
       // sessions are distributed among the perceived event executors, in round-robin
       var sessions = createSessions(executors, capacity);
-      if (!workStealingPool) {
-         pool = new LockBasedElasticPool<>(sessions::poll, () -> {
-            System.exit(1);
-            return null;
-         });
-      } else {
-         pool = new AffinityAwareSessionPool(executors, sessions::poll);
+      switch (poolType) {
+         case "lock":
+            // depletion is expected in acquireUntilDepleted
+            pool = new LockBasedElasticPool<>(sessions::poll, () -> null);
+            break;
+         case "affinity":
+            pool = new AffinityAwareSessionPool(executors, sessions::poll);
+            break;
+         case "striped":
+            pool = new StripedSessionPool(executors, sessions::poll);
+            break;
+         default:
+            throw new IllegalArgumentException("Unknown pool type: " + poolType);
       }
       pool.reserve(capacity);
    }
@@ -90,11 +99,12 @@ public class PoolBenchmark {
    public static class Counters {
       public long acquired;
       public long released;
+      public long depleted;
       private ArrayDeque<Session> pooledAcquired;
 
       @Setup
       public void setup(PoolBenchmark benchmark) {
-         pooledAcquired = new ArrayDeque<>(benchmark.burst);
+         pooledAcquired = new ArrayDeque<>(Math.max(benchmark.burst, benchmark.capacity));
       }
    }
 
@@ -119,4 +129,30 @@ public class PoolBenchmark {
       return acquired;
    }
 
+   /**
+    * Each thread acquires sessions until the pool is depleted (threads compete for the last sessions)
+    * and then releases all of them.
+    */
+   @Benchmark
+   public int acquireUntilDepleted(Counters counters) {
+      var pool = this.pool;
+      var pooledAcquired = counters.pooledAcquired;
+      int acquired = 0;
+      Session session;
+      while ((session = pool.acquire()) != null) {
+         pooledAcquired.add(session);
+         acquired++;
+      }
+      counters.acquired += acquired;
+      counters.depleted++;
+      int work = this.work;
+      if (work > 0) {
+         Blackhole.consumeCPU(work);
+      }
+      while ((session = pooledAcquired.poll()) != null) {
+         pool.release(session);
+      }
+      counters.released += acquired;
+      return acquired;
+   }
 }
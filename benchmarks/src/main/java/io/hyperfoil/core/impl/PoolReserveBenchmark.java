@@ -2,6 +2,7 @@ package io.hyperfoil.core.impl;
 
 import java.util.ArrayDeque;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -29,6 +30,9 @@ public class PoolReserveBenchmark {
    @Param({ "0", "1", "2", "4" })
    private int eventExecutors;
 
+   @Param({ "false", "true" })
+   private boolean striped;
+
    private ElasticPool<Session> pool;
 
    @Setup
@@ -53,7 +57,7 @@ public class PoolReserveBenchmark {
       // but need to be careful to not trigger too much JIT!
       var sessionsCopy = new ArrayDeque<>(sessions);
       if (eventExecutors.length > 0) {
-         pool = new AffinityAwareSessionPool(eventExecutors, sessionsCopy::poll);
+         pool = createPool(eventExecutors, sessionsCopy::poll);
       } else {
          pool = new LockBasedElasticPool<>(sessionsCopy::poll, () -> {
             System.exit(1);
@@ -62,7 +66,7 @@ public class PoolReserveBenchmark {
       }
       if (eventExecutors.length > 0) {
          pool.reserve(eventExecutors.length);
-         pool = new AffinityAwareSessionPool(eventExecutors, sessions::poll);
+         pool = createPool(eventExecutors, sessions::poll);
       } else {
          pool.reserve(1);
          pool = new LockBasedElasticPool<>(sessions::poll, () -> {
@@ -72,6 +76,11 @@ public class PoolReserveBenchmark {
       }
    }
 
+   private ElasticPool<Session> createPool(EventExecutor[] eventExecutors, Supplier<Session> sessionSupplier) {
+      return striped ? new StripedSessionPool(eventExecutors, sessionSupplier)
+            : new AffinityAwareSessionPool(eventExecutors, sessionSupplier);
+   }
+
    @Benchmark
    public void reserve() {
       pool.reserve(capacity);
@@ -0,0 +1,85 @@
+package io.hyperfoil.core.impl.statistics;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.statistics.MetricHandles;
+import io.hyperfoil.api.statistics.SessionStatistics;
+import io.hyperfoil.api.statistics.Statistics;
+
+/**
+ * Compares looking up {@link Statistics} through {@link SessionStatistics#getOrCreate} (linear scan over phases
+ * and steps followed by a map lookup) and through metric handles.
+ */
+@State(Scope.Thread)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticsLookupBenchmark {
+   private static final int LOOKUPS = 1024;
+
+   @Param({ "1", "100", "500" })
+   private int steps;
+   @Param({ "1", "16" })
+   private int metricsPerStep;
+
+   private SessionStatistics statistics;
+   private SessionStatistics.Table table;
+   private int[] stepIds;
+   private String[] metrics;
+   private int[] handles;
+   private int next;
+
+   @Setup
+   public void setup() {
+      statistics = new SessionStatistics();
+      MetricHandles metricHandles = new MetricHandles();
+      // The phase is compared by identity only so we don't need to construct one
+      table = statistics.table(null, metricHandles);
+      for (int step = 0; step < steps; ++step) {
+         for (int metric = 0; metric < metricsPerStep; ++metric) {
+            String name = "/path/" + metric;
+            statistics.getOrCreate(null, step, name, 0);
+            table.get(metricHandles.handle(step, name), 0);
+         }
+      }
+      Random random = new Random(42);
+      stepIds = new int[LOOKUPS];
+      metrics = new String[LOOKUPS];
+      handles = new int[LOOKUPS];
+      for (int i = 0; i < LOOKUPS; ++i) {
+         stepIds[i] = random.nextInt(steps);
+         // Use a distinct instance to account for the equals() check in the map
+         metrics[i] = new String("/path/" + random.nextInt(metricsPerStep));
+         handles[i] = metricHandles.handle(stepIds[i], metrics[i]);
+      }
+   }
+
+   private int nextIndex() {
+      int index = next;
+      next = (index + 1) & (LOOKUPS - 1);
+      return index;
+   }
+
+   @Benchmark
+   public Statistics lookupByName() {
+      int index = nextIndex();
+      return statistics.getOrCreate(null, stepIds[index], metrics[index], 0);
+   }
+
+   @Benchmark
+   public Statistics lookupByHandle() {
+      return table.get(handles[nextIndex()], 0);
+   }
+}
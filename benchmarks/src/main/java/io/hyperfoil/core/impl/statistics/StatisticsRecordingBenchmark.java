@@ -0,0 +1,48 @@
+package io.hyperfoil.core.impl.statistics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.statistics.BatchingStatistics;
+import io.hyperfoil.api.statistics.Statistics;
+
+/**
+ * Measures the cost of recording a request and its response time, as done for every HTTP request.
+ * The timestamp does not change so that we measure the recording itself, without publishing to the reader.
+ */
+@State(Scope.Thread)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticsRecordingBenchmark {
+   @Param({ "phaser", "batching" })
+   private String recorder;
+
+   private Statistics statistics;
+   private long timestamp;
+   private long responseTime;
+
+   @Setup
+   public void setup() {
+      timestamp = System.currentTimeMillis();
+      statistics = "batching".equals(recorder) ? new BatchingStatistics(timestamp) : new Statistics(timestamp);
+   }
+
+   @Benchmark
+   public void recordRequest() {
+      statistics.incrementRequests(timestamp);
+      // vary the value a bit to hit different histogram buckets
+      responseTime = (responseTime + 7919) & 0xFFFFF;
+      statistics.recordResponse(timestamp, responseTime);
+   }
+}
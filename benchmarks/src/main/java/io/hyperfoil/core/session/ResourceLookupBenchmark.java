@@ -0,0 +1,123 @@
+package io.hyperfoil.core.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.SearchHandler;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Runs a response chunk through several {@link SearchHandler handlers}, each looking up its context
+ * in the session on every invocation. With <code>slots</code> the contexts are found in the resource table
+ * through slots assigned when the scenario is built; without it we clear the slots to measure the map lookup.
+ * The session also holds other resources, as a session in an HTTP scenario would.
+ */
+@State(Scope.Thread)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResourceLookupBenchmark {
+   private static final int OTHER_RESOURCES = 16;
+
+   @Param({ "1", "4", "16" })
+   private int handlers;
+   @Param({ "false", "true" })
+   private boolean slots;
+
+   private Session session;
+   private SearchHandler[] searchHandlers;
+   private ByteBuf chunk;
+
+   @Setup
+   public void setup() {
+      searchHandlers = new SearchHandler[handlers];
+      for (int i = 0; i < handlers; ++i) {
+         searchHandlers[i] = new SearchHandler("\"field" + i + "\":\"", "\"", new NoopProcessor());
+      }
+      Sequence sequence = new Sequence("response", 0, 0, 0, new Step[] { new HandlersStep(searchHandlers) });
+      Scenario scenario = new Scenario(new Sequence[] { sequence }, new Sequence[] { sequence }, 16, 16);
+      if (!slots) {
+         for (SearchHandler handler : searchHandlers) {
+            handler.setResourceSlot(-1);
+         }
+      }
+      session = SessionFactory.create(scenario, 0, 0);
+      session.reserve(scenario);
+      session.currentSequence(new SequenceInstance().reset(sequence, 0, null, null));
+      chunk = Unpooled.wrappedBuffer("{\"field0\":\"foo\",\"field1\":\"bar\",\"other\":42}"
+            .getBytes(StandardCharsets.UTF_8));
+   }
+
+   @Benchmark
+   public void processChunk() {
+      for (SearchHandler handler : searchHandlers) {
+         handler.before(session);
+         handler.process(session, chunk, chunk.readerIndex(), chunk.readableBytes(), true);
+         handler.after(session);
+      }
+   }
+
+   @Benchmark
+   public void lookup(Blackhole blackhole) {
+      for (SearchHandler handler : searchHandlers) {
+         blackhole.consume(session.getResource(handler));
+      }
+   }
+
+   private static class NoopProcessor implements Processor {
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+      }
+   }
+
+   private static class OtherKey implements Session.ResourceKey<OtherResource> {
+   }
+
+   private static class OtherResource implements Session.Resource {
+   }
+
+   private static class HandlersStep implements Step, ResourceUtilizer {
+      private final SearchHandler[] handlers;
+      private final OtherKey[] otherKeys = new OtherKey[OTHER_RESOURCES];
+
+      HandlersStep(SearchHandler[] handlers) {
+         this.handlers = handlers;
+         for (int i = 0; i < otherKeys.length; ++i) {
+            otherKeys[i] = new OtherKey();
+         }
+      }
+
+      @Override
+      public boolean invoke(Session session) {
+         return true;
+      }
+
+      @Override
+      public void reserve(Session session) {
+         // the handlers are found and reserved by the sequence on their own
+         for (OtherKey key : otherKeys) {
+            session.declareResource(key, OtherResource::new);
+         }
+      }
+   }
+}
@@ -0,0 +1,77 @@
+package io.hyperfoil.core.session;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.management.ThreadMXBean;
+
+import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.parser.BenchmarkParser;
+import io.hyperfoil.core.parser.ParserException;
+
+/**
+ * Creates and reserves sessions for representative scenarios (see <code>footprint/*.hf.yaml</code>) and reports
+ * heap allocated per session as the <code>bytesPerSession</code> secondary result. Nearly everything allocated
+ * when the session is created is retained, so this approximates the footprint of sessions in closed-model phases.
+ * Resources added by plugins when the session is initialized (e.g. HTTP request pools) are not included.
+ */
+@State(Scope.Thread)
+@Fork(value = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SessionFootprintBenchmark {
+   @Param({ "single-request", "json-api", "embedded-resources" })
+   private String scenario;
+   @Param({ "100000" })
+   private int sessions;
+
+   private Scenario definition;
+
+   @Setup
+   public void setup() throws IOException, ParserException {
+      try (InputStream stream = getClass().getResourceAsStream("/footprint/" + scenario + ".hf.yaml")) {
+         var benchmark = BenchmarkParser.instance().buildBenchmark(stream, BenchmarkData.EMPTY, Collections.emptyMap());
+         definition = benchmark.phases().iterator().next().scenario;
+      }
+   }
+
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   @State(Scope.Thread)
+   public static class Footprint {
+      public long bytesPerSession;
+   }
+
+   @Benchmark
+   public Session[] createSessions(Footprint footprint) {
+      ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+      Session[] array = new Session[sessions];
+      long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+      for (int i = 0; i < array.length; ++i) {
+         Session session = SessionFactory.create(definition, 0, i);
+         session.reserve(definition);
+         array[i] = session;
+      }
+      footprint.bytesPerSession = (threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore) / sessions;
+      return array;
+   }
+}
@@ -0,0 +1,186 @@
+package io.hyperfoil.http.connection;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.http.api.HttpConnection;
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.impl.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.AsciiString;
+
+/**
+ * Feeds responses captured from common servers to {@link Http1xResponseHandler}, split into TCP segments.
+ * With <code>materializeHeaders</code> each header name and value is copied as it would be when a header handler
+ * is registered; without it we measure just the parsing. <code>fastParser</code> compares the byte-by-byte parser
+ * with the word-at-a-time scanner.
+ */
+@State(Scope.Thread)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Http1xResponseHandlerBenchmark {
+   private static final String NGINX_STATIC = "HTTP/1.1 200 OK\r\n" +
+         "Server: nginx/1.24.0\r\n" +
+         "Date: Tue, 14 May 2024 09:12:44 GMT\r\n" +
+         "Content-Type: text/html\r\n" +
+         "Content-Length: 615\r\n" +
+         "Last-Modified: Tue, 11 Apr 2023 01:45:34 GMT\r\n" +
+         "Connection: keep-alive\r\n" +
+         "ETag: \"6434bbbe-267\"\r\n" +
+         "Accept-Ranges: bytes\r\n" +
+         "\r\n" + "x".repeat(615);
+   private static final String CHUNKED_JSON = "HTTP/1.1 200 OK\r\n" +
+         "content-type: application/json;charset=UTF-8\r\n" +
+         "transfer-encoding: chunked\r\n" +
+         "\r\n" +
+         "400\r\n" + "j".repeat(0x400) + "\r\n" +
+         "400\r\n" + "j".repeat(0x400) + "\r\n" +
+         "1f3\r\n" + "j".repeat(0x1f3) + "\r\n" +
+         "0\r\n\r\n";
+   private static final String CDN = "HTTP/1.1 200 OK\r\n" +
+         "Content-Type: text/html; charset=utf-8\r\n" +
+         "Content-Length: 2048\r\n" +
+         "Connection: keep-alive\r\n" +
+         "Date: Tue, 14 May 2024 09:14:02 GMT\r\n" +
+         "Cache-Control: public, max-age=300, s-maxage=600, stale-while-revalidate=60\r\n" +
+         "Last-Modified: Tue, 14 May 2024 08:59:31 GMT\r\n" +
+         "ETag: W/\"5e1f-18f763c1a7d\"\r\n" +
+         "Vary: Accept-Encoding, Accept-Language\r\n" +
+         "Set-Cookie: session=6f1e3a2b9c4d4e5f8a7b6c5d4e3f2a1b; Path=/; Secure; HttpOnly; SameSite=Lax\r\n" +
+         "Set-Cookie: region=eu-central-1; Path=/; Max-Age=86400; Secure\r\n" +
+         "Set-Cookie: ab_test=variant-b; Path=/; Max-Age=2592000\r\n" +
+         "Strict-Transport-Security: max-age=31536000; includeSubDomains; preload\r\n" +
+         "Content-Security-Policy: default-src 'self'; script-src 'self' 'unsafe-inline' https://cdn.example.com; " +
+         "style-src 'self' 'unsafe-inline' https://fonts.googleapis.com; img-src 'self' data: https:; " +
+         "font-src 'self' https://fonts.gstatic.com; connect-src 'self' https://api.example.com\r\n" +
+         "X-Content-Type-Options: nosniff\r\n" +
+         "X-Frame-Options: SAMEORIGIN\r\n" +
+         "Referrer-Policy: strict-origin-when-cross-origin\r\n" +
+         "X-Cache: Hit from cloudfront\r\n" +
+         "Via: 1.1 4c2e8a9f3b1d7e6a5c4b3a2f1e0d9c8b.cloudfront.net (CloudFront)\r\n" +
+         "X-Amz-Cf-Pop: FRA56-P7\r\n" +
+         "X-Amz-Cf-Id: 3kDe9fG0hIjKlMnOpQrStUvWxYz1A2b3C4d5E6f7G8h9I0jKlMnOpQ==\r\n" +
+         "Age: 137\r\n" +
+         "\r\n" + "c".repeat(2048);
+
+   @Param({ "nginx", "chunked", "cdn" })
+   private String response;
+   @Param({ "1448", "65536" })
+   private int segmentSize;
+   @Param({ "false", "true" })
+   private boolean materializeHeaders;
+   @Param({ "false", "true" })
+   private boolean fastParser;
+
+   private final List<ByteBuf> segments = new ArrayList<>();
+   private EmbeddedChannel channel;
+   private ChannelHandlerContext ctx;
+   private CountingHandler handler;
+
+   @Setup
+   public void setup() {
+      String content;
+      switch (response) {
+         case "nginx":
+            content = NGINX_STATIC;
+            break;
+         case "chunked":
+            content = CHUNKED_JSON;
+            break;
+         case "cdn":
+            content = CDN;
+            break;
+         default:
+            throw new IllegalArgumentException(response);
+      }
+      byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1);
+      for (int offset = 0; offset < bytes.length; offset += segmentSize) {
+         int length = Math.min(segmentSize, bytes.length - offset);
+         segments.add(Unpooled.directBuffer(length).writeBytes(bytes, offset, length));
+      }
+      HttpConnection connection = (HttpConnection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class[] { HttpConnection.class }, (proxy, method, args) -> {
+               switch (method.getName()) {
+                  case "peekRequest":
+                     return null;
+                  case "toString":
+                     return "mock connection";
+                  default:
+                     throw new UnsupportedOperationException(method.getName());
+               }
+            });
+      handler = new CountingHandler(connection, fastParser, materializeHeaders);
+      channel = new EmbeddedChannel(handler);
+      ctx = channel.pipeline().context(handler);
+   }
+
+   @TearDown
+   public void tearDown() {
+      segments.forEach(ByteBuf::release);
+      channel.finishAndReleaseAll();
+   }
+
+   @Benchmark
+   public int parse() throws Exception {
+      for (ByteBuf segment : segments) {
+         handler.channelRead(ctx, segment.retainedDuplicate());
+      }
+      return handler.completed + handler.sink;
+   }
+
+   private static class CountingHandler extends Http1xResponseHandler {
+      private final boolean materializeHeaders;
+      private int completed;
+      private int sink;
+      // stored to prevent scalar replacement
+      private AsciiString lastName;
+      private AsciiString lastValue;
+
+      CountingHandler(HttpConnection connection, boolean fastParser, boolean materializeHeaders) {
+         super(connection, fastParser);
+         this.materializeHeaders = materializeHeaders;
+      }
+
+      @Override
+      protected void onStatus(int status) {
+         sink += status;
+      }
+
+      @Override
+      protected void onHeaderRead(ByteBuf buf, int startOfName, int endOfName, int startOfValue, int endOfValue) {
+         if (materializeHeaders) {
+            lastName = Util.toAsciiString(buf, startOfName, endOfName - startOfName);
+            lastValue = Util.toAsciiString(buf, startOfValue, endOfValue - startOfValue);
+         }
+      }
+
+      @Override
+      protected void onBodyPart(ByteBuf buf, int startOffset, int length, boolean isLastPart) {
+         sink += length;
+      }
+
+      @Override
+      protected void onCompletion(HttpRequest request) {
+         completed++;
+      }
+   }
+}
@@ -0,0 +1,106 @@
+package io.hyperfoil.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Compares scheduling request timeouts directly in the event loop with {@link TimerWheel}. Each operation
+ * schedules a timeout for a new request and cancels the timeout of the oldest one, keeping
+ * <code>inFlight</code> timeouts scheduled as with requests waiting for responses.
+ * The operations run in batches inside the event loop, as the scheduling would not take the fast path otherwise.
+ */
+@State(Scope.Thread)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimerWheelBenchmark {
+   private static final int BATCH = 1000;
+   private static final long TIMEOUT_MS = 30_000;
+
+   @Param({ "16", "1024" })
+   private int inFlight;
+
+   private DefaultEventLoop eventLoop;
+   private TimerWheel wheel;
+   private ScheduledFuture<?>[] futures;
+   private Timeout[] timeouts;
+   private int index;
+   private final Runnable noop = () -> {
+   };
+   private final Callable<Integer> scheduleBatch = this::scheduleBatch;
+   private final Callable<Integer> timerWheelBatch = this::timerWheelBatch;
+
+   @Setup
+   public void setup() throws Exception {
+      eventLoop = new DefaultEventLoop();
+      futures = new ScheduledFuture[inFlight];
+      timeouts = new Timeout[inFlight];
+      for (int i = 0; i < inFlight; ++i) {
+         timeouts[i] = new Timeout();
+      }
+      wheel = eventLoop.submit(() -> new TimerWheel(eventLoop, TimeUnit.MILLISECONDS.toNanos(1), 512)).get();
+      eventLoop.submit(() -> {
+         for (int i = 0; i < inFlight; ++i) {
+            futures[i] = eventLoop.schedule(noop, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            wheel.schedule(timeouts[i], TIMEOUT_MS, TimeUnit.MILLISECONDS);
+         }
+      }).get();
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(BATCH)
+   public int scheduledFuture() throws Exception {
+      return eventLoop.submit(scheduleBatch).get();
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(BATCH)
+   public int timerWheel() throws Exception {
+      return eventLoop.submit(timerWheelBatch).get();
+   }
+
+   private int scheduleBatch() {
+      for (int i = 0; i < BATCH; ++i) {
+         futures[index].cancel(false);
+         futures[index] = eventLoop.schedule(noop, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+         index = (index + 1) % inFlight;
+      }
+      return index;
+   }
+
+   private int timerWheelBatch() {
+      for (int i = 0; i < BATCH; ++i) {
+         timeouts[index].cancel();
+         wheel.schedule(timeouts[index], TIMEOUT_MS, TimeUnit.MILLISECONDS);
+         index = (index + 1) % inFlight;
+      }
+      return index;
+   }
+
+   private static class Timeout extends TimerWheel.Timeout {
+      @Override
+      protected void onTimeout() {
+      }
+   }
+}
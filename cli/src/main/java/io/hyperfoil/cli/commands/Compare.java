@@ -32,6 +32,17 @@ public class Compare extends ServerCommand {
          .column("p99", c -> compareNanos(c, ss -> ss.percentileResponseTime.get(99d)), Table.Align.RIGHT)
          .column("p99.9", c -> compareNanos(c, ss -> ss.percentileResponseTime.get(99.9)), Table.Align.RIGHT)
          .column("p99.99", c -> compareNanos(c, ss -> ss.percentileResponseTime.get(99.99)), Table.Align.RIGHT);
+   private final Table<Comparison> CORRECTED_TABLE = new Table<Comparison>()
+         .column("PHASE", c -> c.phase)
+         .column("METRIC", c -> c.metric)
+         .column("REQUESTS", c -> compare(c, ss -> ss.requestCount), Table.Align.RIGHT)
+         .column("MEAN", c -> compareCorrected(c, ss -> ss.meanCorrectedResponseTime), Table.Align.RIGHT)
+         .column("p50", c -> compareCorrected(c, ss -> ss.percentileCorrectedResponseTime.get(50d)), Table.Align.RIGHT)
+         .column("p90", c -> compareCorrected(c, ss -> ss.percentileCorrectedResponseTime.get(90d)), Table.Align.RIGHT)
+         .column("p99", c -> compareCorrected(c, ss -> ss.percentileCorrectedResponseTime.get(99d)), Table.Align.RIGHT)
+         .column("p99.9", c -> compareCorrected(c, ss -> ss.percentileCorrectedResponseTime.get(99.9)), Table.Align.RIGHT)
+         .column("p99.99", c -> compareCorrected(c, ss -> ss.percentileCorrectedResponseTime.get(99.99)),
+               Table.Align.RIGHT);
 
    @Arguments(required = true, description = "Runs that should be compared.", completer = RunCompleter.class)
    private List<String> runIds;
@@ -42,6 +53,9 @@ public class Compare extends ServerCommand {
    @Option(shortName = 'w', description = "Include statistics from warm-up phases.", hasValue = false)
    private boolean warmup;
 
+   @Option(shortName = 'c', description = "Compare response times measured from the intended start (phases with coordinated omission correction).", hasValue = false)
+   private boolean corrected;
+
    private String compare(Comparison c, ToIntFunction<StatisticsSummary> f) {
       if (c.first == null || c.second == null) {
          return "N/A";
@@ -77,6 +91,13 @@ public class Compare extends ServerCommand {
       return sb.toString();
    }
 
+   private String compareCorrected(Comparison c, ToLongFunction<StatisticsSummary> f) {
+      if (c.first != null && !c.first.hasCorrectedResponseTime() || c.second != null && !c.second.hasCorrectedResponseTime()) {
+         return "N/A";
+      }
+      return compareNanos(c, f);
+   }
+
    public static String prettyPrintNanosDiff(long meanResponseTime) {
       if (meanResponseTime < 1000 && meanResponseTime > -1000) {
          return String.format("%+6d ns", meanResponseTime);
@@ -122,7 +143,7 @@ public class Compare extends ServerCommand {
             comparisons.add(new Comparison(stats.phase, stats.metric).second(stats.summary));
          }
       }
-      TABLE.print(invocation, comparisons.stream());
+      (corrected ? CORRECTED_TABLE : TABLE).print(invocation, comparisons.stream());
       return CommandResult.SUCCESS;
    }
 
@@ -1,6 +1,7 @@
 package io.hyperfoil.cli.commands;
 
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import org.aesh.command.CommandDefinition;
@@ -9,6 +10,7 @@ import org.aesh.command.CommandResult;
 import org.aesh.command.option.Option;
 import org.aesh.terminal.utils.ANSI;
 
+import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.api.statistics.StatsExtension;
 import io.hyperfoil.cli.Table;
 import io.hyperfoil.cli.context.HyperfoilCommandInvocation;
@@ -17,6 +19,7 @@ import io.hyperfoil.controller.Client;
 import io.hyperfoil.controller.model.RequestStatisticsResponse;
 import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.http.statistics.HttpStats;
+import io.hyperfoil.impl.Util;
 
 @CommandDefinition(name = "stats", description = "Show run statistics")
 public class Stats extends BaseRunIdCommand {
@@ -39,6 +42,27 @@ public class Stats extends BaseRunIdCommand {
          .columnInt("TIMEOUTS", r -> r.summary.requestTimeouts)
          .columnInt("ERRORS", r -> r.summary.connectionErrors + r.summary.internalErrors)
          .columnNanos("BLOCKED", r -> r.summary.blockedTime);
+   // Response times measured from the intended start (coordinated omission correction); SERVICE_MEAN is measured
+   // from the actual start of the request.
+   private static final Table<RequestStats> CORRECTED_STATS_TABLE = new Table<RequestStats>()
+         .idColumns(2)
+         .rowPrefix(r -> r.failedSLAs.isEmpty() ? null : ANSI.RED_TEXT)
+         .rowSuffix(r -> ANSI.RESET)
+         .column("PHASE", r -> r.phase)
+         .column("METRIC", r -> r.metric)
+         .column("THROUGHPUT", Stats::throughput, Table.Align.RIGHT)
+         .columnInt("REQUESTS", r -> r.summary.requestCount)
+         .columnNanos("SERVICE_MEAN", r -> r.summary.meanResponseTime)
+         .column("MEAN", r -> corrected(r, ss -> ss.meanCorrectedResponseTime), Table.Align.RIGHT)
+         .column("MAX", r -> corrected(r, ss -> ss.maxCorrectedResponseTime), Table.Align.RIGHT)
+         .column("p50", r -> corrected(r, ss -> ss.percentileCorrectedResponseTime.get(50d)), Table.Align.RIGHT)
+         .column("p90", r -> corrected(r, ss -> ss.percentileCorrectedResponseTime.get(90d)), Table.Align.RIGHT)
+         .column("p99", r -> corrected(r, ss -> ss.percentileCorrectedResponseTime.get(99d)), Table.Align.RIGHT)
+         .column("p99.9", r -> corrected(r, ss -> ss.percentileCorrectedResponseTime.get(99.9)), Table.Align.RIGHT)
+         .column("p99.99", r -> corrected(r, ss -> ss.percentileCorrectedResponseTime.get(99.99)), Table.Align.RIGHT)
+         .columnInt("TIMEOUTS", r -> r.summary.requestTimeouts)
+         .columnInt("ERRORS", r -> r.summary.connectionErrors + r.summary.internalErrors)
+         .columnNanos("BLOCKED", r -> r.summary.blockedTime);
 
    private static final String[] DIRECT_EXTENSIONS = { HttpStats.HTTP };
 
@@ -51,6 +75,13 @@ public class Stats extends BaseRunIdCommand {
    @Option(shortName = 'w', description = "Include statistics from warmup phases.", hasValue = false)
    private boolean warmup;
 
+   @Option(shortName = 'c', description = "Show response times measured from the intended start (phases with coordinated omission correction).", hasValue = false)
+   private boolean corrected;
+
+   private static String corrected(RequestStats r, Function<StatisticsSummary, Long> f) {
+      return r.summary.hasCorrectedResponseTime() ? Util.prettyPrintNanos(f.apply(r.summary)) : "N/A";
+   }
+
    private static String throughput(RequestStats r) {
       if (r.summary.endTime <= r.summary.startTime) {
          return "<none>";
@@ -115,7 +146,7 @@ public class Stats extends BaseRunIdCommand {
          invocation.println(String.join(", ", extensions));
          prevLines++;
       }
-      Table<RequestStats> table = new Table<>(REQUEST_STATS_TABLE);
+      Table<RequestStats> table = new Table<>(corrected ? CORRECTED_STATS_TABLE : REQUEST_STATS_TABLE);
       addDirectExtensions(stats, table);
       prevLines += table.print(invocation, stream(stats));
       for (RequestStats rs : stats.statistics) {
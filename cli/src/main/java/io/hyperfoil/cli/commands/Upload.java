@@ -88,6 +88,8 @@ public class Upload extends BaseUploadCommand {
                   Path path = Paths.get(file);
                   return path.isAbsolute() ? path : benchmarkDir.resolve(file);
                }));
+         // Memory-mapped files are not loaded by the parser; the upload streams them from disk
+         extraFiles.putAll(data.externalFiles());
          HyperfoilCliContext ctx = invocation.context();
          Client.BenchmarkRef benchmarkRef = ctx.client().register(
                Paths.get(sanitizedPath).toAbsolutePath(), extraFiles, null, null);
@@ -33,6 +33,7 @@ import org.jgroups.protocols.TP;
 
 import io.hyperfoil.api.Version;
 import io.hyperfoil.clustering.AgentVerticle;
+import io.hyperfoil.clustering.AggregatorVerticle;
 import io.hyperfoil.clustering.Codecs;
 import io.hyperfoil.clustering.ControllerVerticle;
 import io.hyperfoil.internal.Properties;
@@ -237,6 +238,14 @@ public class Hyperfoil {
       }
    }
 
+   public static class Aggregator extends Hyperfoil {
+      public static void main(String[] args) {
+         clusteredVertx(false)
+               .onSuccess(vertx -> deploy(vertx, AggregatorVerticle.class))
+               .onFailure(error -> System.exit(1));
+      }
+   }
+
    public static class Controller extends Hyperfoil {
       public static void main(String[] args) {
          clusteredVertx(true)
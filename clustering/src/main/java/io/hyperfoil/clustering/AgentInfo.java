@@ -11,6 +11,8 @@ class AgentInfo {
    final int id;
    String nodeId;
    String deploymentId;
+   // Feed of the aggregator this agent sends statistics to, or null when it sends them directly to the controller
+   String statsFeed;
    Status status = Status.STARTING;
    Map<String, PhaseInstance.Status> phases = new HashMap<>();
    DeployedAgent deployedAgent;
@@ -0,0 +1,80 @@
+package io.hyperfoil.clustering;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.controller.StatisticsStore;
+
+/**
+ * Validates SLAs with a window against statistics of this agent as these are published, so that a failing SLA
+ * is noticed within one statistics collection period. The controller validates the SLAs on merged statistics
+ * only with a delay; it is still the authority for the final result.
+ * <p>
+ * Each SLA is reported at most once for given phase, step and metric.
+ */
+class AgentSlaEvaluator {
+   private final long collectionPeriod;
+   private final Map<Integer, SLA.Provider> slaProviders;
+   private final Consumer<SLA.Failure> failureHandler;
+   // (phaseId << 16) + stepId -> metric -> windows
+   private final Map<Integer, Map<String, Map<SLA, StatisticsStore.Window>>> windows = new HashMap<>();
+
+   AgentSlaEvaluator(Benchmark benchmark, Consumer<SLA.Failure> failureHandler) {
+      this.collectionPeriod = benchmark.statisticsCollectionPeriod();
+      this.slaProviders = benchmark.steps()
+            .filter(SLA.Provider.class::isInstance).map(SLA.Provider.class::cast)
+            .collect(Collectors.toMap(SLA.Provider::id, Function.identity(), (s1, s2) -> s1));
+      this.failureHandler = failureHandler;
+   }
+
+   void accept(Phase phase, int stepId, String metric, StatisticsSnapshot statistics) {
+      Map<SLA, StatisticsStore.Window> byMetric = windows.computeIfAbsent((phase.id() << 16) + stepId, k -> new HashMap<>())
+            .computeIfAbsent(metric, m -> createWindows(phase, stepId, m));
+      if (byMetric.isEmpty()) {
+         return;
+      }
+      // The snapshot is passed to the event bus; we must not share it
+      StatisticsSnapshot copy = statistics.clone();
+      for (Iterator<Map.Entry<SLA, StatisticsStore.Window>> it = byMetric.entrySet().iterator(); it.hasNext();) {
+         Map.Entry<SLA, StatisticsStore.Window> entry = it.next();
+         StatisticsStore.Window window = entry.getValue();
+         window.add(copy);
+         if (window.isFull()) {
+            SLA.Failure failure = entry.getKey().validate(phase.name(), metric, window.current());
+            if (failure != null) {
+               it.remove();
+               failureHandler.accept(failure);
+            }
+         }
+      }
+   }
+
+   private Map<SLA, StatisticsStore.Window> createWindows(Phase phase, int stepId, String metric) {
+      SLA[] sla;
+      if (stepId != 0) {
+         SLA.Provider slaProvider = slaProviders.get(stepId);
+         sla = slaProvider == null ? null : slaProvider.sla();
+      } else {
+         sla = phase.customSlas.get(metric);
+      }
+      if (sla == null) {
+         return Collections.emptyMap();
+      }
+      Map<SLA, StatisticsStore.Window> byMetric = new HashMap<>();
+      for (SLA s : sla) {
+         if (s.window() > 0) {
+            byMetric.put(s, new StatisticsStore.Window((int) Math.max(1, s.window() / collectionPeriod)));
+         }
+      }
+      return byMetric.isEmpty() ? Collections.emptyMap() : byMetric;
+   }
+}
@@ -16,6 +16,7 @@ import io.hyperfoil.clustering.messages.AgentReadyMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
+import io.hyperfoil.clustering.messages.SlaViolationMessage;
 import io.hyperfoil.core.impl.SimulationRunner;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.impl.Util;
@@ -45,6 +46,7 @@ public class AgentVerticle extends AbstractVerticle {
    private CountDown statisticsCountDown;
    private SessionStatsSender sessionStatsSender;
    private ConnectionStatsSender connectionStatsSender;
+   private EventLoopStatsSender eventLoopStatsSender;
 
    @Override
    public void start() {
@@ -114,7 +116,7 @@ public class AgentVerticle extends AbstractVerticle {
          case INITIALIZE:
             log.info("Initializing agent");
             try {
-               initBenchmark(controlMessage.benchmark(), controlMessage.agentId());
+               initBenchmark(controlMessage.benchmark(), controlMessage.agentId(), controlMessage.statsFeed());
                message.reply("OK");
             } catch (Throwable e) {
                log.error("Failed to initialize agent", e);
@@ -219,7 +221,7 @@ public class AgentVerticle extends AbstractVerticle {
       }
    }
 
-   private void initBenchmark(Benchmark benchmark, int agentId) {
+   private void initBenchmark(Benchmark benchmark, int agentId, String statsFeed) {
       if (runner != null) {
          throw new IllegalStateException("Another simulation is running!");
       }
@@ -229,17 +231,27 @@ public class AgentVerticle extends AbstractVerticle {
       runner = new SimulationRunner(benchmark, runId, agentId,
             error -> eb.send(Feeds.RESPONSE, new ErrorMessage(deploymentId, runId, error, false)));
       controlFeedConsumer = listenOnControl();
-      requestStatsSender = new RequestStatsSender(benchmark, eb, deploymentId, runId);
+      // Statistics go either directly to the controller or through an aggregator
+      String feed = statsFeed == null ? Feeds.STATS : statsFeed;
+      requestStatsSender = new RequestStatsSender(benchmark, eb, deploymentId, runId, feed, runner.statisticsFeedback(),
+            failure -> {
+               log.warn("{} SLA failed on this agent for {}/{}: {}", runId, failure.phase(), failure.metric(),
+                     failure.message());
+               eb.send(Feeds.RESPONSE,
+                     new SlaViolationMessage(deploymentId, runId, failure.phase(), failure.metric(), failure.message()));
+            });
       statisticsCountDown = new CountDown(1);
-      sessionStatsSender = new SessionStatsSender(eb, deploymentId, runId);
-      connectionStatsSender = new ConnectionStatsSender(eb, deploymentId, runId);
+      sessionStatsSender = new SessionStatsSender(eb, deploymentId, runId, feed);
+      connectionStatsSender = new ConnectionStatsSender(eb, deploymentId, runId, feed);
+      eventLoopStatsSender = new EventLoopStatsSender(eb, deploymentId, runId, feed);
 
       runner.setControllerListener((phase, status, sessionLimitExceeded, error, globalData) -> {
          log.debug("{} changed phase {} to {}", deploymentId, phase, status);
          log.debug("New global data is {}", globalData);
          String cpuUsage = runner.getCpuUsage(phase.name());
+         Double maxThroughput = status.isFinished() ? runner.getMaxThroughput(phase.name()) : null;
          eb.send(Feeds.RESPONSE, new PhaseChangeMessage(deploymentId, runId, phase.name(), status, sessionLimitExceeded,
-               cpuUsage, error, globalData));
+               cpuUsage, maxThroughput, error, globalData));
          if (status == PhaseInstance.Status.TERMINATED) {
             context.runOnContext(nil -> {
                if (runner != null) {
@@ -259,6 +271,8 @@ public class AgentVerticle extends AbstractVerticle {
          requestStatsSender.send(statisticsCountDown);
          runner.visitSessionPoolStats(sessionStatsSender);
          sessionStatsSender.send();
+         runner.visitEventLoopStats(eventLoopStatsSender);
+         eventLoopStatsSender.send();
          runner.visitConnectionStats(connectionStatsSender);
          connectionStatsSender.send();
       });
@@ -0,0 +1,241 @@
+package io.hyperfoil.clustering;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.clustering.messages.AggregatorHello;
+import io.hyperfoil.clustering.messages.AuxiliaryHello;
+import io.hyperfoil.clustering.messages.ConnectionStatsMessage;
+import io.hyperfoil.clustering.messages.DelayStatsCompletionMessage;
+import io.hyperfoil.clustering.messages.EventLoopStatsMessage;
+import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
+import io.hyperfoil.clustering.messages.RequestStatsBatchMessage;
+import io.hyperfoil.clustering.messages.RequestStatsMessage;
+import io.hyperfoil.clustering.messages.SessionStatsMessage;
+import io.hyperfoil.clustering.messages.StatsMessage;
+import io.hyperfoil.core.util.LowHigh;
+import io.hyperfoil.internal.Properties;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+
+/**
+ * Intermediate tier between agents and the controller: agents assigned to this aggregator send statistics here
+ * and the aggregator periodically forwards single merged stream to the controller. With many agents this reduces
+ * the number of messages the controller has to decode and merge.
+ * <p>
+ * Request statistics from different agents with the same phase, step, metric and sequence ID are merged
+ * into one snapshot; session and connection pool stats are summed. The merged statistics are reported under
+ * the name of the aggregator. When per-agent series are requested (see {@link Properties#AGGREGATOR_PER_AGENT})
+ * the statistics are only batched and keep the identity of the agent.
+ * <p>
+ * Phase completion messages are forwarded as they come (after all statistics pending for the run) since
+ * the controller needs to see completion from every agent.
+ */
+public class AggregatorVerticle extends BaseAuxiliaryVerticle {
+   private static final long FLUSH_PERIOD = Properties.getLong(Properties.AGGREGATOR_FLUSH_PERIOD, 1000);
+   private static final boolean PER_AGENT = Properties.getBoolean(Properties.AGGREGATOR_PER_AGENT);
+   // Forget about the run when we haven't received anything for this long
+   private static final long RUN_EXPIRATION = 60_000;
+   // Limits the size of a single message when there are many active metrics
+   private static final int MAX_BATCH_SIZE = 1024;
+
+   private final Map<String, RunStats> runs = new HashMap<>();
+   private String name;
+   private EventBus eb;
+
+   @Override
+   public void start() {
+      super.start();
+      name = Properties.get(Properties.AGGREGATOR_NAME, null);
+      if (name == null) {
+         name = "aggregator-" + deploymentID();
+      }
+      eb = vertx.eventBus();
+      eb.consumer(Feeds.aggregatorStats(deploymentID()), this::handleStats);
+      vertx.setPeriodic(FLUSH_PERIOD, timerId -> flushAll());
+   }
+
+   @Override
+   protected AuxiliaryHello hello(String nodeId) {
+      return new AggregatorHello(name, nodeId, deploymentID());
+   }
+
+   private void handleStats(Message<Object> message) {
+      // Agents wait for the reply before completing the phase; we don't need to wait for the controller
+      message.reply("OK");
+      if (!(message.body() instanceof StatsMessage)) {
+         log.error("Unknown message type: {}", message.body());
+         return;
+      }
+      StatsMessage statsMessage = (StatsMessage) message.body();
+      RunStats run = runs.computeIfAbsent(statsMessage.runId, RunStats::new);
+      run.lastUpdate = System.currentTimeMillis();
+      String source = PER_AGENT ? statsMessage.address : deploymentID();
+      if (statsMessage instanceof RequestStatsBatchMessage) {
+         for (RequestStatsBatchMessage.Entry entry : ((RequestStatsBatchMessage) statsMessage).entries) {
+            run.addRequestStats(source, entry.phaseId, entry.stepId, entry.metric, entry.statistics);
+         }
+      } else if (statsMessage instanceof RequestStatsMessage) {
+         RequestStatsMessage rsm = (RequestStatsMessage) statsMessage;
+         // Messages without statistics only tell the agent that everything was sent; the controller ignores them
+         if (rsm.statistics != null) {
+            run.addRequestStats(source, rsm.phaseId, rsm.stepId, rsm.metric, rsm.statistics);
+         }
+      } else if (statsMessage instanceof SessionStatsMessage) {
+         SessionStatsMessage ssm = (SessionStatsMessage) statsMessage;
+         run.sessionStats.put(statsMessage.address, ssm);
+         run.sessionStatsChanged = true;
+      } else if (statsMessage instanceof ConnectionStatsMessage) {
+         ConnectionStatsMessage csm = (ConnectionStatsMessage) statsMessage;
+         run.connectionStats.put(statsMessage.address, csm);
+         run.connectionStatsChanged = true;
+      } else if (statsMessage instanceof EventLoopStatsMessage) {
+         // These are specific to the agent, there's nothing to merge
+         forward(statsMessage);
+      } else if (statsMessage instanceof PhaseStatsCompleteMessage
+            || statsMessage instanceof DelayStatsCompletionMessage) {
+         // Anything the agent has sent before must reach the controller before this message
+         flush(run);
+         forward(statsMessage);
+      } else {
+         log.error("Unknown message type: {}", statsMessage);
+      }
+   }
+
+   private void flushAll() {
+      long now = System.currentTimeMillis();
+      for (Iterator<RunStats> it = runs.values().iterator(); it.hasNext();) {
+         RunStats run = it.next();
+         flush(run);
+         if (run.lastUpdate < now - RUN_EXPIRATION) {
+            it.remove();
+         }
+      }
+   }
+
+   private void flush(RunStats run) {
+      for (Map.Entry<String, Map<Key, StatisticsSnapshot>> bySource : run.requestStats.entrySet()) {
+         List<RequestStatsBatchMessage.Entry> batch = new ArrayList<>();
+         for (Map.Entry<Key, StatisticsSnapshot> entry : bySource.getValue().entrySet()) {
+            Key key = entry.getKey();
+            batch.add(new RequestStatsBatchMessage.Entry(key.phaseId, key.stepId, key.metric, entry.getValue()));
+            if (batch.size() >= MAX_BATCH_SIZE) {
+               forward(new RequestStatsBatchMessage(bySource.getKey(), run.runId, batch));
+               batch = new ArrayList<>();
+            }
+         }
+         if (!batch.isEmpty()) {
+            forward(new RequestStatsBatchMessage(bySource.getKey(), run.runId, batch));
+         }
+      }
+      run.requestStats.clear();
+      if (run.sessionStatsChanged) {
+         run.sessionStatsChanged = false;
+         if (PER_AGENT) {
+            run.sessionStats.values().forEach(this::forward);
+            run.sessionStats.clear();
+         } else {
+            // Keep the last value from each agent; these represent current state rather than a delta
+            long timestamp = 0;
+            Map<String, LowHigh> sum = new HashMap<>();
+            for (SessionStatsMessage ssm : run.sessionStats.values()) {
+               timestamp = Math.max(timestamp, ssm.timestamp);
+               ssm.sessionStats.forEach((phase, lowHigh) -> sum.merge(phase, lowHigh, LowHigh::sum));
+            }
+            forward(new SessionStatsMessage(deploymentID(), run.runId, timestamp, sum));
+         }
+      }
+      if (run.connectionStatsChanged) {
+         run.connectionStatsChanged = false;
+         if (PER_AGENT) {
+            run.connectionStats.values().forEach(this::forward);
+            run.connectionStats.clear();
+         } else {
+            long timestamp = 0;
+            Map<String, Map<String, LowHigh>> sum = new HashMap<>();
+            for (ConnectionStatsMessage csm : run.connectionStats.values()) {
+               timestamp = Math.max(timestamp, csm.timestamp);
+               csm.stats.forEach((authority, byTag) -> {
+                  Map<String, LowHigh> sumByTag = sum.computeIfAbsent(authority, a -> new HashMap<>());
+                  byTag.forEach((tag, lowHigh) -> sumByTag.merge(tag, lowHigh, LowHigh::sum));
+               });
+            }
+            forward(new ConnectionStatsMessage(deploymentID(), run.runId, timestamp, sum));
+         }
+      }
+   }
+
+   private void forward(StatsMessage message) {
+      eb.request(Feeds.STATS, message, reply -> {
+         if (reply.failed()) {
+            log.error("Failed to forward statistics for run {} from {}", message.runId, message.address, reply.cause());
+         }
+      });
+   }
+
+   private static class RunStats {
+      final String runId;
+      // Source (aggregator or agent) -> merged snapshots
+      final Map<String, Map<Key, StatisticsSnapshot>> requestStats = new LinkedHashMap<>();
+      // Agent address -> last received stats
+      final Map<String, SessionStatsMessage> sessionStats = new HashMap<>();
+      final Map<String, ConnectionStatsMessage> connectionStats = new HashMap<>();
+      boolean sessionStatsChanged;
+      boolean connectionStatsChanged;
+      long lastUpdate;
+
+      RunStats(String runId) {
+         this.runId = runId;
+      }
+
+      void addRequestStats(String source, int phaseId, int stepId, String metric, StatisticsSnapshot statistics) {
+         Map<Key, StatisticsSnapshot> snapshots = requestStats.computeIfAbsent(source, s -> new LinkedHashMap<>());
+         Key key = new Key(phaseId, stepId, metric, statistics.sequenceId);
+         StatisticsSnapshot existing = snapshots.get(key);
+         if (existing == null) {
+            // The snapshot was decoded for us (or the sender does not reuse it), we can keep it
+            snapshots.put(key, statistics);
+         } else {
+            existing.add(statistics);
+         }
+      }
+   }
+
+   private static final class Key {
+      final int phaseId;
+      final int stepId;
+      final String metric;
+      final int sequenceId;
+
+      Key(int phaseId, int stepId, String metric, int sequenceId) {
+         this.phaseId = phaseId;
+         this.stepId = stepId;
+         this.metric = metric;
+         this.sequenceId = sequenceId;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (o == null || getClass() != o.getClass()) {
+            return false;
+         }
+         Key key = (Key) o;
+         return phaseId == key.phaseId && stepId == key.stepId && sequenceId == key.sequenceId
+               && Objects.equals(metric, key.metric);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(phaseId, stepId, metric, sequenceId);
+      }
+   }
+}
@@ -32,7 +32,7 @@ public class BaseAuxiliaryVerticle extends AbstractVerticle implements NodeListe
          }
       }
       vertx.setPeriodic(1000, timerId -> {
-         vertx.eventBus().request(Feeds.DISCOVERY, new AuxiliaryHello("CE Receiver", nodeId, deploymentID()), response -> {
+         vertx.eventBus().request(Feeds.DISCOVERY, hello(nodeId), response -> {
             if (response.succeeded()) {
                log.info("Successfully registered at controller {}!", response.result().body());
                vertx.cancelTimer(timerId);
@@ -65,6 +65,10 @@ public class BaseAuxiliaryVerticle extends AbstractVerticle implements NodeListe
       }
    }
 
+   protected AuxiliaryHello hello(String nodeId) {
+      return new AuxiliaryHello("CE Receiver", nodeId, deploymentID());
+   }
+
    public void onRegistered() {
    }
 }
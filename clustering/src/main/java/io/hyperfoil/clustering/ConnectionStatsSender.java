@@ -12,16 +12,18 @@ public class ConnectionStatsSender implements ConnectionStatsConsumer {
    private final EventBus eventBus;
    private final String address;
    private final String runId;
+   private final String feed;
    private Map<String, Map<String, LowHigh>> stats = new HashMap<>();
 
-   public ConnectionStatsSender(EventBus eb, String address, String runId) {
+   public ConnectionStatsSender(EventBus eb, String address, String runId, String feed) {
       this.eventBus = eb;
       this.address = address;
       this.runId = runId;
+      this.feed = feed;
    }
 
    public void send() {
-      eventBus.send(Feeds.STATS, new ConnectionStatsMessage(address, runId, System.currentTimeMillis(), stats));
+      eventBus.send(feed, new ConnectionStatsMessage(address, runId, System.currentTimeMillis(), stats));
       // the eventBus may process this asynchronously so we can't reuse the map
       stats = new HashMap<>();
    }
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
@@ -43,13 +44,11 @@ import io.hyperfoil.api.config.BenchmarkData;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.config.BenchmarkSource;
 import io.hyperfoil.api.config.Model;
-import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.clustering.util.PersistedBenchmarkData;
 import io.hyperfoil.clustering.webcli.WebCLI;
 import io.hyperfoil.controller.ApiService;
 import io.hyperfoil.controller.Client;
 import io.hyperfoil.controller.StatisticsStore;
-import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.controller.router.ApiRouter;
 import io.hyperfoil.core.impl.LocalBenchmarkData;
@@ -966,34 +965,26 @@ class ControllerServer implements ApiService {
 
    @Override
    public void getRecentStats(RoutingContext ctx, String runId) {
-      withStats(ctx, runId, run -> {
-         List<RequestStats> stats = run.statisticsStore().recentSummary(System.currentTimeMillis() - 5000);
-         respondWithJson(ctx, false, statsToJson(run, stats));
-      });
+      withStats(ctx, runId, run -> respondWithStats(ctx,
+            run.statisticsStore().recentSummary(System.currentTimeMillis() - 5000), stats -> statsToJson(run, stats)));
    }
 
    @Override
    public void getTotalStats(RoutingContext ctx, String runId) {
-      withStats(ctx, runId, run -> {
-         List<RequestStats> stats = run.statisticsStore().totalSummary();
-         respondWithJson(ctx, false, statsToJson(run, stats));
-      });
+      withStats(ctx, runId, run -> respondWithStats(ctx,
+            run.statisticsStore().totalSummary(), stats -> statsToJson(run, stats)));
    }
 
    @Override
    public void getHistogramStats(RoutingContext ctx, String runId, String phase, int stepId, String metric) {
-      withStats(ctx, runId, run -> {
-         Histogram histogram = run.statisticsStore().histogram(phase, stepId, metric);
-         respondWithJson(ctx, false, histogram);
-      });
+      withStats(ctx, runId, run -> respondWithStats(ctx,
+            run.statisticsStore().histogram(phase, stepId, metric), Function.identity()));
    }
 
    @Override
    public void getSeries(RoutingContext ctx, String runId, String phase, int stepId, String metric) {
-      withStats(ctx, runId, run -> {
-         List<StatisticsSummary> series = run.statisticsStore().series(phase, stepId, metric);
-         respondWithJson(ctx, false, series);
-      });
+      withStats(ctx, runId, run -> respondWithStats(ctx,
+            run.statisticsStore().series(phase, stepId, metric), Function.identity()));
    }
 
    @Override
@@ -1021,6 +1012,17 @@ class ControllerServer implements ApiService {
       });
    }
 
+   private <T> void respondWithStats(RoutingContext ctx, CompletableFuture<T> stats, Function<T, ?> toEntity) {
+      controller.statsResult(stats).onComplete(result -> {
+         if (result.succeeded()) {
+            respondWithJson(ctx, false, toEntity.apply(result.result()));
+         } else {
+            log.error("Failed to compute statistics", result.cause());
+            ctx.response().setStatusCode(HttpResponseStatus.INTERNAL_SERVER_ERROR.code()).end();
+         }
+      });
+   }
+
    private io.hyperfoil.controller.model.RequestStatisticsResponse statsToJson(Run run, List<RequestStats> stats) {
       String status;
       if (run.terminateTime.future().isComplete()) {
@@ -11,11 +11,14 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
@@ -41,19 +44,24 @@ import io.hyperfoil.api.deployment.DeployedAgent;
 import io.hyperfoil.api.deployment.Deployer;
 import io.hyperfoil.api.session.GlobalData;
 import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.clustering.messages.AgentControlMessage;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
+import io.hyperfoil.clustering.messages.AggregatorHello;
 import io.hyperfoil.clustering.messages.AgentStatusMessage;
 import io.hyperfoil.clustering.messages.AuxiliaryHello;
 import io.hyperfoil.clustering.messages.ConnectionStatsMessage;
 import io.hyperfoil.clustering.messages.DelayStatsCompletionMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.clustering.messages.EventLoopStatsMessage;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
 import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
+import io.hyperfoil.clustering.messages.RequestStatsBatchMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
 import io.hyperfoil.clustering.messages.SessionStatsMessage;
+import io.hyperfoil.clustering.messages.SlaViolationMessage;
 import io.hyperfoil.clustering.messages.StatsMessage;
 import io.hyperfoil.clustering.util.PersistenceUtil;
 import io.hyperfoil.controller.CsvWriter;
@@ -67,12 +75,17 @@ import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.util.LowHigh;
 import io.hyperfoil.internal.Controller;
 import io.hyperfoil.internal.Properties;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.ReplyException;
@@ -86,18 +99,32 @@ import io.vertx.ext.cluster.infinispan.InfinispanClusterManager;
 public class ControllerVerticle extends AbstractVerticle implements NodeListener {
    private static final Logger log = LogManager.getLogger(ControllerVerticle.class);
    private static final int MAX_IN_MEMORY_RUNS = Properties.getInt(Properties.MAX_IN_MEMORY_RUNS, 20);
+   // Store series on disk instead of heap (useful for long runs)
+   private static final boolean STATISTICS_SPILL = Properties.getBoolean(Properties.STATISTICS_SPILL);
+   // Number of threads merging statistics from agents; 0 means merging in the verticle
+   private static final int STATS_THREADS = Properties.getInt(Properties.CONTROLLER_STATS_THREADS,
+         Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
    static final String DEFAULT_STATS_JSON = "all.json";
 
    private EventBus eb;
    private ControllerServer server;
    private Deployer deployer;
+   private EventExecutorGroup statsExecutors;
    private final AtomicInteger runIds = new AtomicInteger();
    private final Map<String, Benchmark> benchmarks = new HashMap<>();
    private final Map<String, BenchmarkSource> templates = new HashMap<>();
+   // Registered statistics aggregators by deployment ID
+   private final Map<String, AggregatorHello> aggregators = new LinkedHashMap<>();
    private long timerId = -1;
 
    Map<String, Run> runs = new HashMap<>();
 
+   @Override
+   public void init(Vertx vertx, Context context) {
+      super.init(vertx, context);
+      eb = vertx.eventBus();
+   }
+
    @Override
    public void start(Promise<Void> future) {
       log.info("Starting in directory {}...", Controller.ROOT_DIR);
@@ -118,11 +145,15 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       //noinspection ResultOfMethodCallIgnored
       Controller.HOOKS_DIR.resolve("post").toFile().mkdirs();
 
-      eb = vertx.eventBus();
-
       eb.consumer(Feeds.DISCOVERY, message -> {
          if (message.body() instanceof AgentHello) {
             handleAgentHello(message, (AgentHello) message.body());
+         } else if (message.body() instanceof AggregatorHello) {
+            AggregatorHello hello = (AggregatorHello) message.body();
+            log.info("Noticed aggregator {} (node {}, {})", hello.name(), hello.nodeId(), hello.deploymentId());
+            aggregators.put(hello.deploymentId(), hello);
+            String nodeId = ((VertxInternal) vertx).getClusterManager().getNodeId();
+            message.reply(nodeId);
          } else if (message.body() instanceof AuxiliaryHello) {
             AuxiliaryHello hello = (AuxiliaryHello) message.body();
             log.info("Noticed auxiliary {} (node {}, {})", hello.name(), hello.nodeId(), hello.deploymentId());
@@ -154,6 +185,8 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                agent.status = AgentInfo.Status.FAILED;
                stopSimulation(run);
             }
+         } else if (msg instanceof SlaViolationMessage) {
+            handleSlaViolation(run, agent, (SlaViolationMessage) msg);
          } else if (msg instanceof AgentReadyMessage) {
             if (!run.validation) {
                agent.status = AgentInfo.Status.READY;
@@ -179,22 +212,21 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          if (run != null) {
             String agentName = run.agents.stream()
                   .filter(ai -> ai.deploymentId.equals(statsMessage.address))
-                  .map(ai -> ai.name).findFirst().orElse("<unknown>");
-            if (statsMessage instanceof RequestStatsMessage) {
+                  .map(ai -> ai.name).findFirst().orElseGet(() -> {
+                     // Statistics merged by an aggregator are reported under its name
+                     AggregatorHello aggregator = aggregators.get(statsMessage.address);
+                     return aggregator == null ? "<unknown>" : aggregator.name();
+                  });
+            if (statsMessage instanceof RequestStatsBatchMessage) {
+               RequestStatsBatchMessage batch = (RequestStatsBatchMessage) statsMessage;
+               for (RequestStatsBatchMessage.Entry entry : batch.entries) {
+                  recordRequestStats(run, agentName, batch.address, entry.phaseId, entry.stepId, entry.metric,
+                        entry.statistics);
+               }
+            } else if (statsMessage instanceof RequestStatsMessage) {
                RequestStatsMessage rsm = (RequestStatsMessage) statsMessage;
-               String phase = run.phase(rsm.phaseId);
                if (rsm.statistics != null) {
-                  log.debug("Run {}: Received stats from {}({}): {}/{}/{}:{} ({} requests)",
-                        rsm.runId, agentName, rsm.address, phase, rsm.stepId, rsm.metric,
-                        rsm.statistics.sequenceId, rsm.statistics.requestCount);
-                  boolean added = run.statisticsStore().record(agentName, rsm.phaseId, rsm.stepId, rsm.metric, rsm.statistics);
-                  if (!added) {
-                     // warning already logged
-                     String errorMessage = String.format(
-                           "Received statistics for %s/%d/%s:%d with %d requests but the statistics are already completed; these statistics won't be reported.",
-                           phase, rsm.stepId, rsm.metric, rsm.statistics.sequenceId, rsm.statistics.requestCount);
-                     run.errors.add(new Run.Error(null, new BenchmarkExecutionException(errorMessage)));
-                  }
+                  recordRequestStats(run, agentName, rsm.address, rsm.phaseId, rsm.stepId, rsm.metric, rsm.statistics);
                }
             } else if (statsMessage instanceof PhaseStatsCompleteMessage) {
                PhaseStatsCompleteMessage pscm = (PhaseStatsCompleteMessage) statsMessage;
@@ -233,6 +265,14 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                      connectionStatsMessage.address);
                run.statisticsStore().recordConnectionStats(agentName, connectionStatsMessage.timestamp,
                      connectionStatsMessage.stats);
+            } else if (statsMessage instanceof EventLoopStatsMessage) {
+               EventLoopStatsMessage eventLoopStatsMessage = (EventLoopStatsMessage) statsMessage;
+               log.trace("Run {}: Received event loop stats from {}", eventLoopStatsMessage.runId,
+                     eventLoopStatsMessage.address);
+               for (EventLoopStatsMessage.Entry entry : eventLoopStatsMessage.entries) {
+                  run.statisticsStore().recordEventLoopStats(agentName, eventLoopStatsMessage.timestamp, entry.executor,
+                        entry.queueDelay, entry.iteration);
+               }
             } else if (statsMessage instanceof DelayStatsCompletionMessage) {
                DelayStatsCompletionMessage delayStatsCompletionMessage = (DelayStatsCompletionMessage) statsMessage;
                String phase = run.phase(delayStatsCompletionMessage.phaseId);
@@ -275,19 +315,38 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       startCountDown.countDown();
    }
 
+   private void recordRequestStats(Run run, String agentName, String address, int phaseId, int stepId, String metric,
+         StatisticsSnapshot statistics) {
+      String phase = run.phase(phaseId);
+      log.debug("Run {}: Received stats from {}({}): {}/{}/{}:{} ({} requests)",
+            run.id, agentName, address, phase, stepId, metric, statistics.sequenceId, statistics.requestCount);
+      boolean added = run.statisticsStore().record(agentName, phaseId, stepId, metric, statistics);
+      if (!added) {
+         // warning already logged
+         String errorMessage = String.format(
+               "Received statistics for %s/%d/%s:%d with %d requests but the statistics are already completed; these statistics won't be reported.",
+               phase, stepId, metric, statistics.sequenceId, statistics.requestCount);
+         run.errors.add(new Run.Error(null, new BenchmarkExecutionException(errorMessage)));
+      }
+   }
+
    private void tryCompletePhase(Run run, String phase, ControllerPhase controllerPhase) {
       long delay = controllerPhase.delayStatsCompletionUntil() == null ? -1
             : controllerPhase.delayStatsCompletionUntil() - System.currentTimeMillis();
       if (delay <= 0) {
          log.info("Run {}: completing stats for phase {}", run.id, phase);
-         run.statisticsStore().completePhase(phase);
-         if (!run.statisticsStore().validateSlas()) {
-            log.info("SLA validation failed for {}", phase);
-            controllerPhase.setFailed();
-            if (run.benchmark.failurePolicy() == Benchmark.FailurePolicy.CANCEL) {
-               failNotStartedPhases(run, controllerPhase);
+         statsResult(run.statisticsStore().completePhase(phase)).onComplete(result -> {
+            if (result.failed()) {
+               log.error("Run {}: failed to complete stats for phase {}", run.id, phase, result.cause());
             }
-         }
+            if (!run.statisticsStore().validateSlas()) {
+               log.info("SLA validation failed for {}", phase);
+               controllerPhase.setFailed();
+               if (run.benchmark.failurePolicy() != Benchmark.FailurePolicy.CONTINUE) {
+                  failNotStartedPhases(run, controllerPhase);
+               }
+            }
+         });
       } else {
          log.info("Run {}: all agents completed stats for phase {} but delaying for {} ms", run.id, phase, delay);
          vertx.setTimer(delay, ignored -> tryCompletePhase(run, phase, controllerPhase));
@@ -337,6 +396,9 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       if (phaseChange.cpuUsage() != null) {
          run.statisticsStore().recordCpuUsage(phaseChange.phase(), agent.name, phaseChange.cpuUsage());
       }
+      if (phaseChange.maxThroughput() != null) {
+         run.statisticsStore().recordMaxThroughput(phaseChange.phase(), agent.name, phaseChange.maxThroughput());
+      }
       if (phaseChange.sessionLimitExceeded()) {
          Phase def = controllerPhase.definition();
          SessionLimitPolicy sessionLimitPolicy = def.model instanceof Model.OpenModel
@@ -369,20 +431,37 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
 
    @Override
    public void nodeLeft(String nodeID) {
+      Set<String> lostFeeds = new HashSet<>();
+      aggregators.values().removeIf(aggregator -> {
+         if (Objects.equals(aggregator.nodeId(), nodeID)) {
+            log.warn("Aggregator {} (node {}) left the cluster", aggregator.name(), nodeID);
+            lostFeeds.add(Feeds.aggregatorStats(aggregator.deploymentId()));
+            return true;
+         }
+         return false;
+      });
       for (Run run : runs.values()) {
          if (run.terminateTime.future().isComplete()) {
             continue;
          }
          for (AgentInfo agent : run.agents) {
+            String error;
             if (Objects.equals(agent.nodeId, nodeID)) {
                agent.status = AgentInfo.Status.FAILED;
-               run.errors.add(new Run.Error(agent, new BenchmarkExecutionException("Agent unexpectedly left the cluster.")));
-               kill(run, result -> {
-                  /* used version of checkstyle does not implement allowEmptyLambdas */
-               });
-               stopSimulation(run);
-               break;
+               error = "Agent unexpectedly left the cluster.";
+            } else if (agent.statsFeed != null && lostFeeds.contains(agent.statsFeed)) {
+               // Statistics merged by the aggregator are lost and the agent would keep sending them to a dead address;
+               // the results would be incomplete so we rather fail the run.
+               error = "Statistics aggregator unexpectedly left the cluster.";
+            } else {
+               continue;
             }
+            run.errors.add(new Run.Error(agent, new BenchmarkExecutionException(error)));
+            kill(run, result -> {
+               /* used version of checkstyle does not implement allowEmptyLambdas */
+            });
+            stopSimulation(run);
+            break;
          }
       }
    }
@@ -453,9 +532,35 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       if (deployer != null) {
          deployer.close();
       }
+      if (statsExecutors != null) {
+         statsExecutors.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+      }
       server.stop(stopFuture);
    }
 
+   void handleSlaViolation(Run run, AgentInfo agent, SlaViolationMessage msg) {
+      log.warn("{} Agent {} reports failed SLA for {}/{}: {}", run.id, agent.name, msg.phase(), msg.metric(), msg.message());
+      if (run.benchmark.failurePolicy() != Benchmark.FailurePolicy.ABORT) {
+         // Only a warning, the SLAs are validated when the phase completes
+         return;
+      }
+      ControllerPhase controllerPhase = run.phases.get(msg.phase());
+      if (controllerPhase == null) {
+         log.error("{} Cannot find phase {}", run.id, msg.phase());
+         return;
+      } else if (!controllerPhase.status().isStarted()
+            || controllerPhase.status().ordinal() >= ControllerPhase.Status.TERMINATING.ordinal()) {
+         return;
+      }
+      log.info("{} Aborting phase {} due to failed SLA", run.id, msg.phase());
+      run.statisticsStore().addFailure(msg.phase(), msg.metric(), controllerPhase.absoluteStartTime(),
+            System.currentTimeMillis(), msg.message() + " (on agent " + agent.name + ")");
+      controllerPhase.setFailed();
+      controllerPhase.status(run.id, ControllerPhase.Status.TERMINATING);
+      eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.TERMINATE, msg.phase(), null));
+      failNotStartedPhases(run, controllerPhase);
+   }
+
    private void tryProgressStatus(Run run, String phase) {
       PhaseInstance.Status minStatus = PhaseInstance.Status.TERMINATED;
       for (AgentInfo a : run.agents) {
@@ -507,8 +612,12 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       //noinspection ResultOfMethodCallIgnored
       runDir.toFile().mkdirs();
       Run run = new Run(runId, runDir, benchmark, validate);
+      Path seriesPath = STATISTICS_SPILL ? runDir.resolve("series.bin") : null;
+      if (statsExecutors == null && STATS_THREADS > 0) {
+         statsExecutors = new DefaultEventExecutorGroup(STATS_THREADS, new DefaultThreadFactory("stats", true));
+      }
       run.initStore(new StatisticsStore(benchmark, failure -> log.warn("Failed verify SLA(s) for {}/{}: {}",
-            failure.phase(), failure.metric(), failure.message())));
+            failure.phase(), failure.metric(), failure.message()), seriesPath, statsExecutors));
       run.description = description;
       runs.put(run.id, run);
       if (run.benchmark.source() != null) {
@@ -611,8 +720,10 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             log.error("{} Agent {}({}) already initializing, status is {}!", run.id, agent.name, agent.deploymentId,
                   agent.status);
          } else {
+            agent.statsFeed = statsFeed(agent);
             eb.request(agent.deploymentId,
-                  new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, agent.id, run.benchmark), reply -> {
+                  new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, agent.id, run.benchmark, agent.statsFeed),
+                  reply -> {
                      Throwable cause;
                      if (reply.failed()) {
                         cause = reply.cause();
@@ -638,6 +749,17 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
    }
 
+   private String statsFeed(AgentInfo agent) {
+      if (aggregators.isEmpty()) {
+         return null;
+      }
+      // Spread the agents evenly; aggregators are kept in the order of registration
+      int index = agent.id % aggregators.size();
+      String deploymentId = aggregators.keySet().stream().skip(index).findFirst().orElseThrow();
+      log.debug("Agent {} will send statistics through aggregator {}", agent.name, aggregators.get(deploymentId).name());
+      return Feeds.aggregatorStats(deploymentId);
+   }
+
    private void startSimulation(Run run) {
       vertx.executeBlocking(future -> {
          // combine shared and benchmark-private hooks
@@ -777,15 +899,29 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             run.statisticsStore().adjustPhaseTimestamps(phase.definition().name(), phase.absoluteStartTime(),
                   phase.absoluteCompletionTime());
          }
-         run.statisticsStore().completeAll(error -> {
-            log.warn("Run {}: {}", run.id, error);
-            run.errors.add(new Run.Error(null, new BenchmarkExecutionException(error)));
+         statsResult(run.statisticsStore().completeAll()).onComplete(result -> {
+            if (result.failed()) {
+               log.error("Run {}: failed to complete stats", run.id, result.cause());
+               run.errors.add(new Run.Error(null, result.cause()));
+            } else {
+               for (String error : result.result()) {
+                  log.warn("Run {}: {}", run.id, error);
+                  run.errors.add(new Run.Error(null, new BenchmarkExecutionException(error)));
+               }
+            }
+            persistRun(run);
+            log.info("Run {} completed", run.id);
          });
-         persistRun(run);
-         log.info("Run {} completed", run.id);
       }
    }
 
+   /**
+    * The statistics store may compute the results on its own executors; this continues in the verticle's context.
+    */
+   <T> Future<T> statsResult(CompletableFuture<T> future) {
+      return Future.fromCompletionStage(future, context);
+   }
+
    private void persistRun(Run run) {
       vertx.executeBlocking(future -> {
          try {
@@ -0,0 +1,43 @@
+package io.hyperfoil.clustering;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.HdrHistogram.Histogram;
+
+import io.hyperfoil.clustering.messages.EventLoopStatsMessage;
+import io.hyperfoil.core.impl.EventLoopStatsConsumer;
+import io.vertx.core.eventbus.EventBus;
+
+public class EventLoopStatsSender implements EventLoopStatsConsumer {
+   private final String address;
+   private final String runId;
+   private final EventBus eb;
+   private final String feed;
+   private List<EventLoopStatsMessage.Entry> entries;
+
+   public EventLoopStatsSender(EventBus eb, String address, String runId, String feed) {
+      this.address = address;
+      this.runId = runId;
+      this.eb = eb;
+      this.feed = feed;
+   }
+
+   public void send() {
+      if (entries != null) {
+         eb.send(feed, new EventLoopStatsMessage(address, runId, System.currentTimeMillis(), entries));
+         entries = null;
+      }
+   }
+
+   @Override
+   public void accept(int executor, Histogram queueDelay, Histogram iteration) {
+      if (queueDelay.getTotalCount() == 0 && iteration.getTotalCount() == 0) {
+         return;
+      }
+      if (entries == null) {
+         entries = new ArrayList<>();
+      }
+      entries.add(new EventLoopStatsMessage.Entry(executor, queueDelay, iteration));
+   }
+}
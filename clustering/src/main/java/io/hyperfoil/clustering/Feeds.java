@@ -5,4 +5,12 @@ public final class Feeds {
    public static final String CONTROL = "control-feed";
    public static final String RESPONSE = "response-feed";
    public static final String STATS = "stats-feed";
+
+   /**
+    * @param deploymentId Deployment ID of the aggregator verticle.
+    * @return Address where the agents assigned to this aggregator send statistics.
+    */
+   public static String aggregatorStats(String deploymentId) {
+      return STATS + "/" + deploymentId;
+   }
 }
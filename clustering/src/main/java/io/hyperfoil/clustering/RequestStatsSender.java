@@ -1,12 +1,18 @@
 package io.hyperfoil.clustering;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
+import io.hyperfoil.clustering.messages.RequestStatsBatchMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
 import io.hyperfoil.core.impl.statistics.StatisticsCollector;
 import io.hyperfoil.core.util.CountDown;
@@ -14,34 +20,53 @@ import io.vertx.core.eventbus.EventBus;
 
 public class RequestStatsSender extends StatisticsCollector {
    private static final Logger log = LogManager.getLogger(RequestStatsSender.class);
+   // Limits the size of a single message when there are many active metrics
+   private static final int MAX_BATCH_SIZE = 1024;
 
    private final String address;
    private final String runId;
    private final EventBus eb;
+   private final String feed;
+   private final AgentSlaEvaluator slaEvaluator;
    private final StatisticsConsumer sendStats = this::sendStats;
+   private List<RequestStatsBatchMessage.Entry> batch = new ArrayList<>();
 
-   public RequestStatsSender(Benchmark benchmark, EventBus eb, String address, String runId) {
-      super(benchmark);
+   public RequestStatsSender(Benchmark benchmark, EventBus eb, String address, String runId, String feed,
+         StatisticsConsumer feedback, Consumer<SLA.Failure> slaFailureHandler) {
+      super(benchmark, feedback);
       this.eb = eb;
       this.address = address;
       this.runId = runId;
+      this.feed = feed;
+      this.slaEvaluator = new AgentSlaEvaluator(benchmark, slaFailureHandler);
    }
 
    public void send(CountDown completion) {
       visitStatistics(sendStats, completion);
+      flush(completion);
    }
 
    private void sendStats(Phase phase, int stepId, String metric, StatisticsSnapshot statistics, CountDown countDown) {
       if (statistics.histogram.getEndTimeStamp() >= statistics.histogram.getStartTimeStamp()) {
          log.debug("Sending stats for {} {}/{}, id {}: {} requests, {} responses", phase.name(), stepId, metric,
                statistics.sequenceId, statistics.requestCount, statistics.responseCount);
-         // On clustered eventbus, ObjectCodec is not called synchronously so we *must* do a copy here.
-         // (on a local eventbus we'd have to do a copy in transform() anyway)
-         StatisticsSnapshot copy = statistics.clone();
-         countDown.increment();
-         eb.request(Feeds.STATS, new RequestStatsMessage(address, runId, phase.id(), stepId, metric, copy),
-               reply -> countDown.countDown());
+         slaEvaluator.accept(phase, stepId, metric, statistics);
+         // The collector does not reuse the snapshot after passing it here so we don't need a copy
+         // (on clustered eventbus the codec is not called synchronously).
+         batch.add(new RequestStatsBatchMessage.Entry(phase.id(), stepId, metric, statistics));
+         if (batch.size() >= MAX_BATCH_SIZE) {
+            flush(countDown);
+         }
+      }
+   }
+
+   private void flush(CountDown countDown) {
+      if (batch.isEmpty()) {
+         return;
       }
+      countDown.increment();
+      eb.request(feed, new RequestStatsBatchMessage(address, runId, batch), reply -> countDown.countDown());
+      batch = new ArrayList<>();
    }
 
    public void sendPhaseComplete(Phase phase, CountDown countDown) {
@@ -51,16 +76,16 @@ public class RequestStatsSender extends StatisticsCollector {
          }
 
          countDown.increment();
-         eb.request(Feeds.STATS, new RequestStatsMessage(address, runId, phaseAndStepId >> 16, -1, null, null),
+         eb.request(feed, new RequestStatsMessage(address, runId, phaseAndStepId >> 16, -1, null, null),
                reply -> countDown.countDown());
       }
       if (phase == null) {
          // TODO: it would be better to not send this for those phases that are already complete
          for (Phase p : phases) {
-            eb.request(Feeds.STATS, new PhaseStatsCompleteMessage(address, runId, p.name()));
+            eb.request(feed, new PhaseStatsCompleteMessage(address, runId, p.name()));
          }
       } else {
-         eb.request(Feeds.STATS, new PhaseStatsCompleteMessage(address, runId, phase.name()));
+         eb.request(feed, new PhaseStatsCompleteMessage(address, runId, phase.name()));
       }
    }
 }
@@ -100,6 +100,9 @@ class Run {
    }
 
    public void unload() {
+      if (statisticsStore != null) {
+         statisticsStore.close();
+      }
       statisticsStore = null;
    }
 
@@ -12,17 +12,19 @@ public class SessionStatsSender implements SessionStatsConsumer {
    private final String address;
    private final String runId;
    private final EventBus eb;
+   private final String feed;
    private Map<String, LowHigh> sessionStats;
 
-   public SessionStatsSender(EventBus eb, String address, String runId) {
+   public SessionStatsSender(EventBus eb, String address, String runId, String feed) {
       this.address = address;
       this.runId = runId;
       this.eb = eb;
+      this.feed = feed;
    }
 
    public void send() {
       if (sessionStats != null) {
-         eb.send(Feeds.STATS, new SessionStatsMessage(address, runId, System.currentTimeMillis(), sessionStats));
+         eb.send(feed, new SessionStatsMessage(address, runId, System.currentTimeMillis(), sessionStats));
          sessionStats = null;
       }
    }
@@ -8,11 +8,17 @@ public class AgentControlMessage implements Serializable {
    private Command command;
    private int agentId;
    private Object param;
+   private String statsFeed;
 
    public AgentControlMessage(Command command, int agentId, Object param) {
+      this(command, agentId, param, null);
+   }
+
+   public AgentControlMessage(Command command, int agentId, Object param, String statsFeed) {
       this.command = command;
       this.agentId = agentId;
       this.param = param;
+      this.statsFeed = statsFeed;
    }
 
    public Command command() {
@@ -31,6 +37,13 @@ public class AgentControlMessage implements Serializable {
       return agentId;
    }
 
+   /**
+    * @return Address where the agent should send statistics, or <code>null</code> to send these to the controller.
+    */
+   public String statsFeed() {
+      return statsFeed;
+   }
+
    public enum Command {
       INITIALIZE,
       STOP,
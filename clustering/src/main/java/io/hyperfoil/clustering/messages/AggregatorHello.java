@@ -0,0 +1,13 @@
+package io.hyperfoil.clustering.messages;
+
+/**
+ * Registration of an auxiliary verticle that merges statistics from a subset of agents.
+ */
+public class AggregatorHello extends AuxiliaryHello {
+   public AggregatorHello(String name, String nodeId, String deploymentId) {
+      super(name, nodeId, deploymentId);
+   }
+
+   public static class Codec extends ObjectCodec<AggregatorHello> {
+   }
+}
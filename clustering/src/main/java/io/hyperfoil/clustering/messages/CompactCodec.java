@@ -0,0 +1,245 @@
+package io.hyperfoil.clustering.messages;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.HdrHistogram.Histogram;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.core.util.LowHigh;
+import io.hyperfoil.impl.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Base for codecs of messages that are sent frequently (statistics) and should not pay the price of Java
+ * serialization - class descriptors, field names and boxed values in each message. Numbers are written as
+ * variable-length integers and histograms use their own compressed encoding.
+ * <p>
+ * The encoded message is prefixed by its length, as in {@link ObjectCodec}.
+ */
+public abstract class CompactCodec<T> extends ObjectCodec<T> {
+   private static final byte EXTENSION_COMPACT = 0;
+   private static final byte EXTENSION_SERIALIZED = 1;
+   private static final Map<String, Class<? extends StatsExtension>> EXTENSION_TYPES = new ConcurrentHashMap<>();
+
+   protected abstract void write(DataOutput output, T object) throws IOException;
+
+   protected abstract T read(DataInput input) throws IOException;
+
+   @Override
+   public void encodeToWire(Buffer buffer, T object) {
+      int lengthPosition = buffer.length();
+      buffer.appendInt(0);
+      ByteBuf target = Unpooled.buffer(256);
+      try (DataOutputStream output = new DataOutputStream(new ByteBufOutputStream(target))) {
+         write(output, object);
+         output.flush();
+         buffer.setInt(lengthPosition, target.readableBytes());
+         buffer.appendBytes(target.array(), target.arrayOffset() + target.readerIndex(), target.readableBytes());
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      } finally {
+         target.release();
+      }
+   }
+
+   @Override
+   public T decodeFromWire(int position, Buffer buffer) {
+      int length = buffer.getInt(position);
+      ByteBuf byteBuf = buffer.getByteBuf().slice(position + 4, length);
+      try (DataInputStream input = new DataInputStream(new ByteBufInputStream(byteBuf))) {
+         return read(input);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   protected static void writeString(DataOutput output, String value) throws IOException {
+      output.writeBoolean(value != null);
+      if (value != null) {
+         output.writeUTF(value);
+      }
+   }
+
+   protected static String readString(DataInput input) throws IOException {
+      return input.readBoolean() ? input.readUTF() : null;
+   }
+
+   protected static void writeLowHigh(DataOutput output, LowHigh value) throws IOException {
+      Util.writeVarLong(output, value.low);
+      Util.writeVarLong(output, value.high);
+   }
+
+   protected static LowHigh readLowHigh(DataInput input) throws IOException {
+      return new LowHigh(Util.readVarInt(input), Util.readVarInt(input));
+   }
+
+   protected static void writeSnapshot(DataOutput output, StatisticsSnapshot snapshot) throws IOException {
+      output.writeBoolean(snapshot != null);
+      if (snapshot == null) {
+         return;
+      }
+      Histogram histogram = snapshot.histogram;
+      Util.writeVarLong(output, snapshot.sequenceId);
+      Util.writeVarLong(output, histogram.getStartTimeStamp());
+      Util.writeVarLong(output, histogram.getEndTimeStamp() - histogram.getStartTimeStamp());
+      Util.writeVarLong(output, snapshot.requestCount);
+      Util.writeVarLong(output, snapshot.responseCount);
+      Util.writeVarLong(output, snapshot.invalid);
+      Util.writeVarLong(output, snapshot.connectionErrors);
+      Util.writeVarLong(output, snapshot.requestTimeouts);
+      Util.writeVarLong(output, snapshot.internalErrors);
+      Util.writeVarLong(output, snapshot.blockedTime);
+      Util.writeHistogram(output, histogram);
+      // Always present, with zero length when coordinated omission is not corrected; this changed the format
+      // so agents and controller must run the same version.
+      Util.writeHistogram(output, snapshot.correctedHistogram);
+      Util.writeVarLong(output, snapshot.extensions.size());
+      for (var entry : snapshot.extensions.entrySet()) {
+         output.writeUTF(entry.getKey());
+         writeExtension(output, entry.getValue());
+      }
+   }
+
+   protected static StatisticsSnapshot readSnapshot(DataInput input) throws IOException {
+      if (!input.readBoolean()) {
+         return null;
+      }
+      int sequenceId = Util.readVarInt(input);
+      long startTimestamp = Util.readVarLong(input);
+      long endTimestamp = startTimestamp + Util.readVarLong(input);
+      int requestCount = Util.readVarInt(input);
+      int responseCount = Util.readVarInt(input);
+      int invalid = Util.readVarInt(input);
+      int connectionErrors = Util.readVarInt(input);
+      int requestTimeouts = Util.readVarInt(input);
+      int internalErrors = Util.readVarInt(input);
+      long blockedTime = Util.readVarLong(input);
+      Histogram histogram = Util.readHistogram(input);
+      StatisticsSnapshot snapshot = histogram == null ? new StatisticsSnapshot() : new StatisticsSnapshot(histogram);
+      snapshot.correctedHistogram = Util.readHistogram(input);
+      snapshot.sequenceId = sequenceId;
+      snapshot.histogram.setStartTimeStamp(startTimestamp);
+      snapshot.histogram.setEndTimeStamp(endTimestamp);
+      snapshot.requestCount = requestCount;
+      snapshot.responseCount = responseCount;
+      snapshot.invalid = invalid;
+      snapshot.connectionErrors = connectionErrors;
+      snapshot.requestTimeouts = requestTimeouts;
+      snapshot.internalErrors = internalErrors;
+      snapshot.blockedTime = blockedTime;
+      int extensions = Util.readVarInt(input);
+      for (int i = 0; i < extensions; ++i) {
+         String key = input.readUTF();
+         snapshot.extensions.put(key, readExtension(input));
+      }
+      return snapshot;
+   }
+
+   public static void writeExtension(DataOutput output, StatsExtension extension) throws IOException {
+      // We cannot tell upfront whether the extension writes anything so we need an intermediate buffer
+      ByteBuf buf = Unpooled.buffer(64);
+      try (DataOutputStream extensionOutput = new DataOutputStream(new ByteBufOutputStream(buf))) {
+         if (extension.writeCompact(extensionOutput)) {
+            extensionOutput.flush();
+            output.writeByte(EXTENSION_COMPACT);
+            output.writeUTF(extension.getClass().getName());
+            output.write(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes());
+            return;
+         }
+      } finally {
+         buf.release();
+      }
+      output.writeByte(EXTENSION_SERIALIZED);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+         objectOutput.writeObject(extension);
+      }
+      Util.writeVarLong(output, bytes.size());
+      output.write(bytes.toByteArray());
+   }
+
+   public static StatsExtension readExtension(DataInput input) throws IOException {
+      byte type = input.readByte();
+      if (type == EXTENSION_COMPACT) {
+         String className = input.readUTF();
+         StatsExtension extension = newExtension(className);
+         extension.readCompact(input);
+         return extension;
+      } else if (type == EXTENSION_SERIALIZED) {
+         byte[] bytes = new byte[Util.readVarInt(input)];
+         input.readFully(bytes);
+         try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (StatsExtension) objectInput.readObject();
+         } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+         }
+      } else {
+         throw new IOException("Unknown extension encoding " + type);
+      }
+   }
+
+   private static StatsExtension newExtension(String className) throws IOException {
+      Class<? extends StatsExtension> clazz = EXTENSION_TYPES.get(className);
+      try {
+         if (clazz == null) {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader == null) {
+               classLoader = CompactCodec.class.getClassLoader();
+            }
+            clazz = Class.forName(className, true, classLoader).asSubclass(StatsExtension.class);
+            EXTENSION_TYPES.put(className, clazz);
+         }
+         return clazz.getDeclaredConstructor().newInstance();
+      } catch (ClassNotFoundException | ClassCastException | NoSuchMethodException | InstantiationException
+            | IllegalAccessException | InvocationTargetException e) {
+         throw new IOException("Cannot instantiate statistics extension " + className, e);
+      }
+   }
+
+   protected static <V> void writeMap(DataOutput output, Map<String, V> map, ValueWriter<V> valueWriter)
+         throws IOException {
+      Util.writeVarLong(output, map.size());
+      for (var entry : map.entrySet()) {
+         output.writeUTF(entry.getKey());
+         valueWriter.write(output, entry.getValue());
+      }
+   }
+
+   protected static <V> Map<String, V> readMap(DataInput input, ValueReader<V> valueReader) throws IOException {
+      int size = Util.readVarInt(input);
+      Map<String, V> map = new HashMap<>();
+      for (int i = 0; i < size; ++i) {
+         String key = input.readUTF();
+         map.put(key, valueReader.read(input));
+      }
+      return map;
+   }
+
+   @FunctionalInterface
+   protected interface ValueWriter<V> {
+      void write(DataOutput output, V value) throws IOException;
+   }
+
+   @FunctionalInterface
+   protected interface ValueReader<V> {
+      V read(DataInput input) throws IOException;
+   }
+}
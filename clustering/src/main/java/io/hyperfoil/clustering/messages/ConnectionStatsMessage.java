@@ -1,8 +1,12 @@
 package io.hyperfoil.clustering.messages;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 import io.hyperfoil.core.util.LowHigh;
+import io.hyperfoil.impl.Util;
 
 public class ConnectionStatsMessage extends StatsMessage {
    public final long timestamp;
@@ -14,6 +18,19 @@ public class ConnectionStatsMessage extends StatsMessage {
       this.stats = stats;
    }
 
-   public static class Codec extends ObjectCodec<ConnectionStatsMessage> {
+   public static class Codec extends CompactCodec<ConnectionStatsMessage> {
+      @Override
+      protected void write(DataOutput output, ConnectionStatsMessage message) throws IOException {
+         output.writeUTF(message.address);
+         output.writeUTF(message.runId);
+         Util.writeVarLong(output, message.timestamp);
+         writeMap(output, message.stats, (o, byType) -> writeMap(o, byType, CompactCodec::writeLowHigh));
+      }
+
+      @Override
+      protected ConnectionStatsMessage read(DataInput input) throws IOException {
+         return new ConnectionStatsMessage(input.readUTF(), input.readUTF(), Util.readVarLong(input),
+               readMap(input, i -> readMap(i, CompactCodec::readLowHigh)));
+      }
    }
 }
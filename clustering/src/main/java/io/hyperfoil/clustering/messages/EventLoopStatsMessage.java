@@ -0,0 +1,65 @@
+package io.hyperfoil.clustering.messages;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import org.HdrHistogram.Histogram;
+
+import io.hyperfoil.impl.Util;
+
+/**
+ * Scheduling lag of each event loop on the agent, recorded since the previous message.
+ */
+public class EventLoopStatsMessage extends StatsMessage {
+   public final long timestamp;
+   public final List<Entry> entries;
+
+   public EventLoopStatsMessage(String address, String runId, long timestamp, List<Entry> entries) {
+      super(address, runId);
+      this.timestamp = timestamp;
+      this.entries = entries;
+   }
+
+   public static class Entry {
+      public final int executor;
+      public final Histogram queueDelay;
+      public final Histogram iteration;
+
+      public Entry(int executor, Histogram queueDelay, Histogram iteration) {
+         this.executor = executor;
+         this.queueDelay = queueDelay;
+         this.iteration = iteration;
+      }
+   }
+
+   public static class Codec extends CompactCodec<EventLoopStatsMessage> {
+      @Override
+      protected void write(DataOutput output, EventLoopStatsMessage message) throws IOException {
+         output.writeUTF(message.address);
+         output.writeUTF(message.runId);
+         Util.writeVarLong(output, message.timestamp);
+         Util.writeVarLong(output, message.entries.size());
+         for (Entry entry : message.entries) {
+            Util.writeVarLong(output, entry.executor);
+            Util.writeHistogram(output, entry.queueDelay);
+            Util.writeHistogram(output, entry.iteration);
+         }
+      }
+
+      @Override
+      protected EventLoopStatsMessage read(DataInput input) throws IOException {
+         String address = input.readUTF();
+         String runId = input.readUTF();
+         long timestamp = Util.readVarLong(input);
+         int size = Util.readVarInt(input);
+         // ObjectCodec.ArrayList shadows the import
+         List<Entry> entries = new java.util.ArrayList<>(size);
+         for (int i = 0; i < size; ++i) {
+            entries.add(new Entry(Util.readVarInt(input), Util.readHistogram(input), Util.readHistogram(input)));
+         }
+         return new EventLoopStatsMessage(address, runId, timestamp, entries);
+      }
+   }
+}
@@ -31,16 +31,19 @@ public class PhaseChangeMessage extends AgentStatusMessage {
    private final PhaseInstance.Status status;
    private final boolean sessionLimitExceeded;
    private final String cpuUsage;
+   private final Double maxThroughput;
    private final Throwable error;
    private final Map<String, GlobalData.Element> globalData;
 
    public PhaseChangeMessage(String senderId, String runId, String phase, PhaseInstance.Status status,
-         boolean sessionLimitExceeded, String cpuUsage, Throwable error, Map<String, GlobalData.Element> globalData) {
+         boolean sessionLimitExceeded, String cpuUsage, Double maxThroughput, Throwable error,
+         Map<String, GlobalData.Element> globalData) {
       super(senderId, runId);
       this.phase = phase;
       this.status = status;
       this.sessionLimitExceeded = sessionLimitExceeded;
       this.cpuUsage = cpuUsage;
+      this.maxThroughput = maxThroughput;
       this.error = error;
       this.globalData = globalData;
    }
@@ -52,6 +55,7 @@ public class PhaseChangeMessage extends AgentStatusMessage {
       sb.append(", phase=").append(phase);
       sb.append(", status=").append(status);
       sb.append(", cpuUsage=").append(cpuUsage);
+      sb.append(", maxThroughput=").append(maxThroughput);
       sb.append(", error=").append(Util.explainCauses(error));
       sb.append(", globalData=").append(globalData);
       sb.append('}');
@@ -78,6 +82,14 @@ public class PhaseChangeMessage extends AgentStatusMessage {
       return cpuUsage;
    }
 
+   /**
+    * @return Highest rate found by max throughput phase on the agent, <code>null</code> for other phases
+    *         or before the phase finishes.
+    */
+   public Double maxThroughput() {
+      return maxThroughput;
+   }
+
    public Map<String, GlobalData.Element> globalData() {
       return globalData;
    }
@@ -0,0 +1,64 @@
+package io.hyperfoil.clustering.messages;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.impl.Util;
+
+/**
+ * Statistics for all metrics that have changed on the agent since the last period, sent in a single message.
+ * The message is always encoded by {@link Codec}, never through Java serialization.
+ */
+public class RequestStatsBatchMessage extends StatsMessage {
+   public final List<Entry> entries;
+
+   public RequestStatsBatchMessage(String address, String runId, List<Entry> entries) {
+      super(address, runId);
+      this.entries = entries;
+   }
+
+   public static class Entry {
+      public final int phaseId;
+      public final int stepId;
+      public final String metric;
+      public final StatisticsSnapshot statistics;
+
+      public Entry(int phaseId, int stepId, String metric, StatisticsSnapshot statistics) {
+         this.phaseId = phaseId;
+         this.stepId = stepId;
+         this.metric = metric;
+         this.statistics = statistics;
+      }
+   }
+
+   public static class Codec extends CompactCodec<RequestStatsBatchMessage> {
+      @Override
+      protected void write(DataOutput output, RequestStatsBatchMessage message) throws IOException {
+         output.writeUTF(message.address);
+         output.writeUTF(message.runId);
+         Util.writeVarLong(output, message.entries.size());
+         for (Entry entry : message.entries) {
+            Util.writeVarLong(output, entry.phaseId);
+            Util.writeVarLong(output, entry.stepId);
+            output.writeUTF(entry.metric);
+            writeSnapshot(output, entry.statistics);
+         }
+      }
+
+      @Override
+      protected RequestStatsBatchMessage read(DataInput input) throws IOException {
+         String address = input.readUTF();
+         String runId = input.readUTF();
+         int size = Util.readVarInt(input);
+         // ObjectCodec.ArrayList shadows the import
+         List<Entry> entries = new java.util.ArrayList<>(size);
+         for (int i = 0; i < size; ++i) {
+            entries.add(new Entry(Util.readVarInt(input), Util.readVarInt(input), input.readUTF(), readSnapshot(input)));
+         }
+         return new RequestStatsBatchMessage(address, runId, entries);
+      }
+   }
+}
@@ -1,6 +1,11 @@
 package io.hyperfoil.clustering.messages;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.impl.Util;
 
 public class RequestStatsMessage extends StatsMessage {
    public final int phaseId;
@@ -17,6 +22,21 @@ public class RequestStatsMessage extends StatsMessage {
       this.statistics = statistics;
    }
 
-   public static class Codec extends ObjectCodec<RequestStatsMessage> {
+   public static class Codec extends CompactCodec<RequestStatsMessage> {
+      @Override
+      protected void write(DataOutput output, RequestStatsMessage message) throws IOException {
+         output.writeUTF(message.address);
+         output.writeUTF(message.runId);
+         Util.writeVarLong(output, message.phaseId);
+         Util.writeVarLong(output, message.stepId);
+         writeString(output, message.metric);
+         writeSnapshot(output, message.statistics);
+      }
+
+      @Override
+      protected RequestStatsMessage read(DataInput input) throws IOException {
+         return new RequestStatsMessage(input.readUTF(), input.readUTF(), Util.readVarInt(input), Util.readVarInt(input),
+               readString(input), readSnapshot(input));
+      }
    }
 }
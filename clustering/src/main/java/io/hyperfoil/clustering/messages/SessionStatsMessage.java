@@ -1,8 +1,12 @@
 package io.hyperfoil.clustering.messages;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 import io.hyperfoil.core.util.LowHigh;
+import io.hyperfoil.impl.Util;
 
 public class SessionStatsMessage extends StatsMessage {
    public final long timestamp;
@@ -14,6 +18,19 @@ public class SessionStatsMessage extends StatsMessage {
       this.sessionStats = sessionStats;
    }
 
-   public static class Codec extends ObjectCodec<SessionStatsMessage> {
+   public static class Codec extends CompactCodec<SessionStatsMessage> {
+      @Override
+      protected void write(DataOutput output, SessionStatsMessage message) throws IOException {
+         output.writeUTF(message.address);
+         output.writeUTF(message.runId);
+         Util.writeVarLong(output, message.timestamp);
+         writeMap(output, message.sessionStats, CompactCodec::writeLowHigh);
+      }
+
+      @Override
+      protected SessionStatsMessage read(DataInput input) throws IOException {
+         return new SessionStatsMessage(input.readUTF(), input.readUTF(), Util.readVarLong(input),
+               readMap(input, CompactCodec::readLowHigh));
+      }
    }
 }
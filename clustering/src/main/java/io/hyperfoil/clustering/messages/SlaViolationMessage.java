@@ -0,0 +1,32 @@
+package io.hyperfoil.clustering.messages;
+
+/**
+ * Sent by an agent when a windowed SLA fails on statistics collected by this agent.
+ */
+public class SlaViolationMessage extends AgentStatusMessage {
+   private final String phase;
+   private final String metric;
+   private final String message;
+
+   public SlaViolationMessage(String senderId, String runId, String phase, String metric, String message) {
+      super(senderId, runId);
+      this.phase = phase;
+      this.metric = metric;
+      this.message = message;
+   }
+
+   public String phase() {
+      return phase;
+   }
+
+   public String metric() {
+      return metric;
+   }
+
+   public String message() {
+      return message;
+   }
+
+   public static class Codec extends ObjectCodec<SlaViolationMessage> {
+   }
+}
@@ -39,6 +39,12 @@ public class PersistedBenchmarkData implements BenchmarkData {
       }
    }
 
+   @Override
+   public Path file(String file) {
+      Path path = dir.resolve(BenchmarkData.sanitize(file));
+      return Files.isRegularFile(path) ? path : null;
+   }
+
    @Override
    public Map<String, byte[]> files() {
       if (!dir.toFile().exists() || !dir.toFile().isDirectory()) {
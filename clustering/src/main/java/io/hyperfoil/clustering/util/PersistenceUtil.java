@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
 import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
@@ -13,6 +15,7 @@ import org.apache.logging.log4j.message.FormattedMessage;
 
 import io.hyperfoil.api.config.BenchmarkData;
 import io.hyperfoil.api.config.BenchmarkSource;
+import io.hyperfoil.core.impl.LocalBenchmarkData;
 import io.hyperfoil.core.parser.BenchmarkParser;
 import io.hyperfoil.core.parser.ParserException;
 
@@ -36,6 +39,9 @@ public class PersistenceUtil {
       Path dataDirPath = dir.resolve(name + ".data");
       File dataDir = dataDirPath.toFile();
       Map<String, byte[]> files = source.data.files();
+      Map<String, Path> externalFiles = source.data instanceof LocalBenchmarkData
+            ? ((LocalBenchmarkData) source.data).externalFiles()
+            : Collections.emptyMap();
       if (dataDir.exists()) {
          if (!dataDir.isDirectory()) {
             if (!dataDir.delete() || !dataDir.mkdir()) {
@@ -50,11 +56,11 @@ public class PersistenceUtil {
                log.warn("Could not delete old file {}", file);
             }
          }
-         if (files.isEmpty()) {
+         if (files.isEmpty() && externalFiles.isEmpty()) {
             //noinspection ResultOfMethodCallIgnored
             dataDir.delete();
          }
-      } else if (!dataDir.exists() && !files.isEmpty()) {
+      } else if (!dataDir.exists() && (!files.isEmpty() || !externalFiles.isEmpty())) {
          if (!dataDir.mkdir()) {
             log.error("Couldn't create data dir {}", dataDir);
             return;
@@ -62,6 +68,11 @@ public class PersistenceUtil {
       }
       try {
          PersistedBenchmarkData.store(files, dataDirPath);
+         for (Map.Entry<String, Path> entry : externalFiles.entrySet()) {
+            // Copy rather than load large files that are accessed directly
+            Files.copy(entry.getValue(), dataDirPath.resolve(BenchmarkData.sanitize(entry.getKey())),
+                  StandardCopyOption.REPLACE_EXISTING);
+         }
       } catch (IOException e) {
          log.error("Couldn't persist files for benchmark " + source.name, e);
       }
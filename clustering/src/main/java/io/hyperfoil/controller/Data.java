@@ -1,6 +1,5 @@
 package io.hyperfoil.controller;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,7 +12,12 @@ import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
+import io.netty.util.concurrent.EventExecutor;
 
+/**
+ * Statistics for one phase, step and metric. When the store uses ingest executors all methods except
+ * the constructor are invoked from {@link #executor}; the final fields can be read from any thread.
+ */
 final class Data {
    private static final Logger log = LogManager.getLogger(Data.class);
 
@@ -30,23 +34,37 @@ final class Data {
    final StatisticsSnapshot total = new StatisticsSnapshot();
    final Map<String, StatisticsSnapshot> perAgent = new HashMap<>();
    final Map<String, IntObjectMap<StatisticsSnapshot>> lastStats = new HashMap<>();
-   final List<StatisticsSummary> series = new ArrayList<>();
+   final List<StatisticsSummary> series;
    final Map<String, List<StatisticsSummary>> agentSeries = new HashMap<>();
    // floating statistics for SLAs
    private final Map<SLA, StatisticsStore.Window> windowSlas;
    private final SLA[] totalSlas;
+   // null when the data are accessed from a single thread
+   final EventExecutor executor;
+   // accessed only from the thread calling StatisticsStore, set when the completion is scheduled
+   boolean completing;
    private int highestSequenceId = 0;
    private boolean completed;
+   // Series can be stored on disk; we don't want to read them back just for the sanity checks
+   private long seriesRequestCount;
+   private long agentSeriesRequestCount;
 
    Data(StatisticsStore statisticsStore, String phase, boolean isWarmup, int stepId, String metric,
          Map<SLA, StatisticsStore.Window> periodSlas, SLA[] totalSlas) {
+      this(statisticsStore, phase, isWarmup, stepId, metric, periodSlas, totalSlas, null);
+   }
+
+   Data(StatisticsStore statisticsStore, String phase, boolean isWarmup, int stepId, String metric,
+         Map<SLA, StatisticsStore.Window> periodSlas, SLA[] totalSlas, EventExecutor executor) {
       this.statisticsStore = statisticsStore;
       this.phase = phase;
       this.isWarmup = isWarmup;
       this.stepId = stepId;
       this.metric = metric;
+      this.series = statisticsStore.newSeries();
       this.windowSlas = periodSlas;
       this.totalSlas = totalSlas;
+      this.executor = executor;
    }
 
    boolean record(String agentName, StatisticsSnapshot stats) {
@@ -81,12 +99,14 @@ final class Data {
          StatisticsSnapshot snapshot = entry.getValue().remove(sequenceId);
          if (snapshot != null) {
             sum.add(snapshot);
-            agentSeries.computeIfAbsent(entry.getKey(), a -> new ArrayList<>())
+            agentSeries.computeIfAbsent(entry.getKey(), a -> statisticsStore.newSeries())
                   .add(snapshot.summary(StatisticsStore.PERCENTILES));
+            agentSeriesRequestCount += snapshot.requestCount;
          }
       }
       if (!sum.isEmpty()) {
          series.add(sum.summary(StatisticsStore.PERCENTILES));
+         seriesRequestCount += sum.requestCount;
       }
       for (Map.Entry<SLA, StatisticsStore.Window> entry : windowSlas.entrySet()) {
          SLA sla = entry.getKey();
@@ -107,10 +127,10 @@ final class Data {
          mergeSnapshots(i);
       }
       // Just sanity checks
-      if (series.stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (seriesRequestCount != total.requestCount) {
          log.error("We lost some data (series) in phase {} metric {}", phase, metric);
       }
-      if (agentSeries.values().stream().flatMap(List::stream).mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (agentSeriesRequestCount != total.requestCount) {
          log.error("We lost some data (agent series) in phase {} metric {}", phase, metric);
       }
       if (perAgent.values().stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
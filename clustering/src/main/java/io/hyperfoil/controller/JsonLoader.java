@@ -111,6 +111,35 @@ public class JsonLoader {
          }
       }
 
+      JsonObject maxThroughput = object.getJsonObject("maxThroughput");
+      if (maxThroughput != null) {
+         for (var phaseEntry : maxThroughput) {
+            JsonObject agents = ((JsonObject) phaseEntry.getValue()).getJsonObject("agents");
+            if (agents != null) {
+               for (var agentEntry : agents) {
+                  store.recordMaxThroughput(phaseEntry.getKey(), agentEntry.getKey(),
+                        ((Number) agentEntry.getValue()).doubleValue());
+               }
+            }
+         }
+      }
+
+      JsonObject eventLoops = object.getJsonObject("eventLoops");
+      if (eventLoops != null) {
+         for (var agentEntry : eventLoops) {
+            for (Object item : (JsonArray) agentEntry.getValue()) {
+               JsonObject record = (JsonObject) item;
+               JsonObject queueDelay = record.getJsonObject("queueDelay");
+               JsonObject iteration = record.getJsonObject("iteration");
+               store.addEventLoopRecord(agentEntry.getKey(), new StatisticsStore.EventLoopRecord(record.getLong("timestamp"),
+                     record.getInteger("executor"), queueDelay.getLong("p50"), queueDelay.getLong("p99"),
+                     queueDelay.getLong("max"), iteration.getLong("p99"), iteration.getLong("max"),
+                     // the threshold used during the run could differ from the current one
+                     record.getBoolean("overloaded", false)));
+            }
+         }
+      }
+
       return store;
    }
 
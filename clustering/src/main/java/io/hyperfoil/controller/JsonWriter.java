@@ -13,6 +13,8 @@ import java.util.function.Function;
 import org.HdrHistogram.HistogramIterationValue;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import io.hyperfoil.api.Version;
 import io.hyperfoil.api.config.SLA;
@@ -23,6 +25,7 @@ import io.vertx.core.json.JsonObject;
 
 public class JsonWriter {
    static final String RUN_SCHEMA = "http://hyperfoil.io/run-schema/v3.0";
+   private static final ObjectMapper MAPPER = new ObjectMapper();
 
    public static void writeArrayJsons(StatisticsStore store, JsonGenerator jGenerator, JsonObject info) throws IOException {
       Data[] sorted = store.data.values().stream().flatMap(map -> map.values().stream()).toArray(Data[]::new);
@@ -86,7 +89,7 @@ public class JsonWriter {
          jGenerator.writeEndObject(); //histogram
 
          jGenerator.writeFieldName("series");
-         seriesArray(jGenerator, data.series);
+         seriesArray(jGenerator, store, null, data.series);
 
          jGenerator.writeEndObject(); //entry
       }
@@ -174,7 +177,7 @@ public class JsonWriter {
                jGenerator.writeEndObject(); // histograms
 
                jGenerator.writeFieldName("series");
-               seriesArray(jGenerator, data.agentSeries.get(agent));
+               seriesArray(jGenerator, store, agent, data.agentSeries.get(agent));
 
                jGenerator.writeEndObject(); // agent stats entry
             }
@@ -214,6 +217,42 @@ public class JsonWriter {
       }
       jGenerator.writeEndObject(); // agentCpu
 
+      jGenerator.writeObjectFieldStart("maxThroughput");
+      for (var phaseEntry : store.maxThroughput.entrySet()) {
+         jGenerator.writeObjectFieldStart(phaseEntry.getKey());
+         jGenerator.writeNumberField("total", phaseEntry.getValue().values().stream().mapToDouble(Double::doubleValue).sum());
+         jGenerator.writeObjectFieldStart("agents");
+         for (var agentEntry : phaseEntry.getValue().entrySet()) {
+            jGenerator.writeNumberField(agentEntry.getKey(), agentEntry.getValue());
+         }
+         jGenerator.writeEndObject(); // agents
+         jGenerator.writeEndObject(); // phase
+      }
+      jGenerator.writeEndObject(); // maxThroughput
+
+      jGenerator.writeObjectFieldStart("eventLoops");
+      for (var agentEntry : store.eventLoopStats.entrySet()) {
+         jGenerator.writeArrayFieldStart(agentEntry.getKey());
+         for (StatisticsStore.EventLoopRecord record : agentEntry.getValue()) {
+            jGenerator.writeStartObject();
+            jGenerator.writeNumberField("timestamp", record.timestamp);
+            jGenerator.writeNumberField("executor", record.executor);
+            jGenerator.writeObjectFieldStart("queueDelay");
+            jGenerator.writeNumberField("p50", record.queueDelayP50);
+            jGenerator.writeNumberField("p99", record.queueDelayP99);
+            jGenerator.writeNumberField("max", record.queueDelayMax);
+            jGenerator.writeEndObject();
+            jGenerator.writeObjectFieldStart("iteration");
+            jGenerator.writeNumberField("p99", record.iterationP99);
+            jGenerator.writeNumberField("max", record.iterationMax);
+            jGenerator.writeEndObject();
+            jGenerator.writeBooleanField("overloaded", record.overloaded);
+            jGenerator.writeEndObject();
+         }
+         jGenerator.writeEndArray(); // agent
+      }
+      jGenerator.writeEndObject(); // eventLoops
+
       jGenerator.writeEndObject(); //root of object
    }
 
@@ -313,11 +352,19 @@ public class JsonWriter {
       jGenerator.writeEndObject();
    }
 
-   private static void seriesArray(JsonGenerator jGenerator, List<StatisticsSummary> series) throws IOException {
+   private static void seriesArray(JsonGenerator jGenerator, StatisticsStore store, String agent,
+         List<StatisticsSummary> series) throws IOException {
       jGenerator.writeStartArray(); //series
       if (series != null) {
          for (StatisticsSummary summary : series) {
-            jGenerator.writeObject(summary);
+            if (store.isOverloaded(agent, summary.startTime, summary.endTime)) {
+               // the numbers are likely skewed by the driver itself rather than reflecting the SUT
+               ObjectNode node = MAPPER.valueToTree(summary);
+               node.put("driverOverloaded", true);
+               jGenerator.writeTree(node);
+            } else {
+               jGenerator.writeObject(summary);
+            }
          }
       }
       jGenerator.writeEndArray(); //end series
@@ -0,0 +1,272 @@
+package io.hyperfoil.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.clustering.messages.CompactCodec;
+import io.hyperfoil.impl.Util;
+
+/**
+ * Append-only file holding the per-period {@link StatisticsSummary series} for all metrics in a run. Each series
+ * keeps only the last (incomplete) block of summaries in memory; full blocks are written to the file column by
+ * column (timestamps delta-encoded, all numbers as variable-length integers) and read back when the series is
+ * accessed.
+ */
+final class SeriesFile implements Closeable {
+   private static final int BLOCK_SIZE = 64;
+   private static final List<ToLongFunction<StatisticsSummary>> COLUMNS = Arrays.asList(
+         s -> s.endTime - s.startTime,
+         s -> s.minResponseTime,
+         s -> s.meanResponseTime,
+         s -> s.stdDevResponseTime,
+         s -> s.maxResponseTime,
+         s -> s.requestCount,
+         s -> s.responseCount,
+         s -> s.invalid,
+         s -> s.connectionErrors,
+         s -> s.requestTimeouts,
+         s -> s.internalErrors,
+         s -> s.blockedTime,
+         s -> s.meanCorrectedResponseTime,
+         s -> s.maxCorrectedResponseTime);
+
+   private final Path path;
+   private final FileChannel channel;
+   private long size;
+
+   SeriesFile(Path path) throws IOException {
+      this.path = path;
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+   }
+
+   List<StatisticsSummary> newSeries() {
+      return new Series();
+   }
+
+   private synchronized long append(byte[] bytes) throws IOException {
+      long offset = size;
+      ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length);
+      buffer.putInt(bytes.length).put(bytes).flip();
+      while (buffer.hasRemaining()) {
+         size += channel.write(buffer, size);
+      }
+      return offset;
+   }
+
+   private byte[] read(long offset) throws IOException {
+      ByteBuffer length = ByteBuffer.allocate(4);
+      readFully(length, offset);
+      ByteBuffer buffer = ByteBuffer.allocate(length.flip().getInt());
+      readFully(buffer, offset + 4);
+      return buffer.array();
+   }
+
+   private void readFully(ByteBuffer buffer, long offset) throws IOException {
+      while (buffer.hasRemaining()) {
+         int read = channel.read(buffer, offset + buffer.position());
+         if (read < 0) {
+            throw new IOException("Unexpected end of " + path);
+         }
+      }
+   }
+
+   @Override
+   public void close() throws IOException {
+      channel.close();
+      Files.deleteIfExists(path);
+   }
+
+   private static byte[] encode(List<StatisticsSummary> block) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(bytes);
+      Util.writeVarLong(output, block.size());
+      long last = 0;
+      for (StatisticsSummary summary : block) {
+         Util.writeVarLong(output, summary.startTime - last);
+         last = summary.startTime;
+      }
+      for (ToLongFunction<StatisticsSummary> column : COLUMNS) {
+         for (StatisticsSummary summary : block) {
+            Util.writeVarLong(output, column.applyAsLong(summary));
+         }
+      }
+      // All summaries in the series are created with the same percentiles
+      Double[] percentiles = block.get(0).percentileResponseTime.keySet().toArray(new Double[0]);
+      Util.writeVarLong(output, percentiles.length);
+      for (Double percentile : percentiles) {
+         output.writeDouble(percentile);
+      }
+      for (Double percentile : percentiles) {
+         for (StatisticsSummary summary : block) {
+            Util.writeVarLong(output, summary.percentileResponseTime.get(percentile));
+         }
+      }
+      // Corrected response times are present only in periods that recorded some
+      for (StatisticsSummary summary : block) {
+         output.writeBoolean(summary.hasCorrectedResponseTime());
+      }
+      for (Double percentile : percentiles) {
+         for (StatisticsSummary summary : block) {
+            if (summary.hasCorrectedResponseTime()) {
+               Util.writeVarLong(output, summary.percentileCorrectedResponseTime.get(percentile));
+            }
+         }
+      }
+      for (StatisticsSummary summary : block) {
+         writeExtensions(output, summary.extensions);
+      }
+      output.flush();
+      return bytes.toByteArray();
+   }
+
+   private static List<StatisticsSummary> decode(byte[] bytes) throws IOException {
+      DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+      int count = Util.readVarInt(input);
+      long[] startTimes = new long[count];
+      long last = 0;
+      for (int i = 0; i < count; ++i) {
+         startTimes[i] = last += Util.readVarLong(input);
+      }
+      long[][] columns = new long[COLUMNS.size()][count];
+      for (long[] column : columns) {
+         for (int i = 0; i < count; ++i) {
+            column[i] = Util.readVarLong(input);
+         }
+      }
+      double[] percentiles = new double[Util.readVarInt(input)];
+      for (int p = 0; p < percentiles.length; ++p) {
+         percentiles[p] = input.readDouble();
+      }
+      long[][] percentileValues = new long[percentiles.length][count];
+      for (long[] values : percentileValues) {
+         for (int i = 0; i < count; ++i) {
+            values[i] = Util.readVarLong(input);
+         }
+      }
+      boolean[] corrected = new boolean[count];
+      for (int i = 0; i < count; ++i) {
+         corrected[i] = input.readBoolean();
+      }
+      long[][] correctedValues = new long[percentiles.length][count];
+      for (long[] values : correctedValues) {
+         for (int i = 0; i < count; ++i) {
+            if (corrected[i]) {
+               values[i] = Util.readVarLong(input);
+            }
+         }
+      }
+      List<StatisticsSummary> block = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+         TreeMap<Double, Long> percentileMap = new TreeMap<>();
+         TreeMap<Double, Long> correctedMap = corrected[i] ? new TreeMap<>() : null;
+         for (int p = 0; p < percentiles.length; ++p) {
+            percentileMap.put(percentiles[p], percentileValues[p][i]);
+            if (correctedMap != null) {
+               correctedMap.put(percentiles[p], correctedValues[p][i]);
+            }
+         }
+         block.add(new StatisticsSummary(startTimes[i], startTimes[i] + columns[0][i], columns[1][i], columns[2][i],
+               columns[3][i], columns[4][i], percentileMap, (int) columns[5][i], (int) columns[6][i], (int) columns[7][i],
+               (int) columns[8][i], (int) columns[9][i], (int) columns[10][i], columns[11][i], readExtensions(input),
+               columns[12][i], columns[13][i], correctedMap));
+      }
+      return block;
+   }
+
+   private static void writeExtensions(DataOutput output, SortedMap<String, StatsExtension> extensions) throws IOException {
+      Util.writeVarLong(output, extensions.size());
+      for (Map.Entry<String, StatsExtension> entry : extensions.entrySet()) {
+         output.writeUTF(entry.getKey());
+         CompactCodec.writeExtension(output, entry.getValue());
+      }
+   }
+
+   private static SortedMap<String, StatsExtension> readExtensions(DataInput input) throws IOException {
+      int size = Util.readVarInt(input);
+      if (size == 0) {
+         return Collections.emptySortedMap();
+      }
+      SortedMap<String, StatsExtension> extensions = new TreeMap<>();
+      for (int i = 0; i < size; ++i) {
+         String key = input.readUTF();
+         extensions.put(key, CompactCodec.readExtension(input));
+      }
+      return extensions;
+   }
+
+   private final class Series extends AbstractList<StatisticsSummary> implements RandomAccess {
+      private long[] blocks = new long[4];
+      private int blockCount;
+      private final List<StatisticsSummary> tail = new ArrayList<>(BLOCK_SIZE);
+      // Sequential access (iteration) reads each block only once
+      private int cachedBlock = -1;
+      private List<StatisticsSummary> cached;
+
+      @Override
+      public synchronized boolean add(StatisticsSummary summary) {
+         tail.add(summary);
+         if (tail.size() == BLOCK_SIZE) {
+            if (blockCount == blocks.length) {
+               blocks = Arrays.copyOf(blocks, blocks.length * 2);
+            }
+            try {
+               blocks[blockCount] = append(encode(tail));
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+            ++blockCount;
+            tail.clear();
+         }
+         return true;
+      }
+
+      @Override
+      public synchronized StatisticsSummary get(int index) {
+         int block = index / BLOCK_SIZE;
+         if (index < 0 || block > blockCount) {
+            throw new IndexOutOfBoundsException(index);
+         } else if (block == blockCount) {
+            return tail.get(index % BLOCK_SIZE);
+         }
+         if (block != cachedBlock) {
+            try {
+               cached = decode(read(blocks[block]));
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+            cachedBlock = block;
+         }
+         return cached.get(index % BLOCK_SIZE);
+      }
+
+      @Override
+      public synchronized int size() {
+         return blockCount * BLOCK_SIZE + tail.size();
+      }
+   }
+}
@@ -1,5 +1,8 @@
 package io.hyperfoil.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -8,13 +11,21 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.OptionalInt;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.SLA;
@@ -23,9 +34,27 @@ import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.core.util.LowHigh;
-
+import io.hyperfoil.internal.Properties;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+/**
+ * Aggregates statistics received from agents. All methods are expected to be invoked from a single thread
+ * (the controller verticle).
+ * <p>
+ * When the store is created with an executor group the {@link Data} for each phase, step and metric is pinned
+ * to one of its executors: merging the snapshots (including the per-period summaries and SLA checks) runs there,
+ * preserving the order of records for given data while different metrics are processed in parallel. Methods
+ * reading the data run the computation on these executors and return a future that is completed from one of
+ * the executors; callers must not block on it and should continue in their own thread. Without the executors
+ * the returned futures are already completed. {@link #getData()} and the other direct accesses used by the writers
+ * are safe only after the future returned from {@link #completeAll()} is completed.
+ */
 public class StatisticsStore {
+   private static final Logger log = LogManager.getLogger(StatisticsStore.class);
    static final double[] PERCENTILES = new double[] { 0.5, 0.9, 0.99, 0.999, 0.9999 };
+   private static final long EVENT_LOOP_OVERLOAD_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(
+         Properties.getLong(Properties.EVENT_LOOP_OVERLOAD_THRESHOLD, 20));
    private static final Comparator<RequestStats> REQUEST_STATS_COMPARATOR = Comparator
          .<RequestStats, Long> comparing(rs -> rs.summary.startTime)
          .thenComparing(rs -> rs.phase).thenComparing(rs -> rs.metric);
@@ -33,16 +62,48 @@ public class StatisticsStore {
    private final Benchmark benchmark;
    final Map<Integer, Map<String, Data>> data = new HashMap<>();
    private final Consumer<SLA.Failure> failureHandler;
-   final List<SLA.Failure> failures = new ArrayList<>();
+   // Failures are added from the executors but read from the controller thread
+   final List<SLA.Failure> failures = new CopyOnWriteArrayList<>();
    private final int maxFailures = 100;
    private final Map<Integer, SLA.Provider> slaProviders;
    final Map<String, SessionPoolStats> sessionPoolStats = new HashMap<>();
    final Map<String, Map<String, Map<String, List<ConnectionPoolStats>>>> connectionPoolStats = new HashMap<>();
    final Map<String, Map<String, String>> cpuUsage = new HashMap<>();
+   // agent -> records from all its event loops, in order of arrival
+   final Map<String, List<EventLoopRecord>> eventLoopStats = new HashMap<>();
+   // agent -> timestamps of records with an overloaded event loop; indexed for isOverloaded()
+   private final Map<String, NavigableSet<Long>> overloadedTimestamps = new HashMap<>();
+   private final NavigableSet<Long> allOverloadedTimestamps = new TreeSet<>();
+   // phase -> agent -> users per second
+   final Map<String, Map<String, Double>> maxThroughput = new HashMap<>();
+   private final SeriesFile seriesFile;
+   private final EventExecutor[] executors;
 
    public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler) {
+      this(benchmark, failureHandler, null, null);
+   }
+
+   /**
+    * @param seriesPath When set the per-period series are stored in this file rather than kept in memory.
+    * @param executorGroup When set the snapshots are merged in executors from this group, otherwise in the calling
+    *        thread. The failure handler can be invoked from these executors, too.
+    */
+   public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler, Path seriesPath,
+         EventExecutorGroup executorGroup) {
       this.benchmark = benchmark;
       this.failureHandler = failureHandler;
+      try {
+         this.seriesFile = seriesPath == null ? null : new SeriesFile(seriesPath);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      if (executorGroup == null) {
+         this.executors = null;
+      } else {
+         List<EventExecutor> list = new ArrayList<>();
+         executorGroup.forEach(list::add);
+         this.executors = list.toArray(new EventExecutor[0]);
+      }
       this.slaProviders = benchmark.steps()
             .filter(SLA.Provider.class::isInstance).map(SLA.Provider.class::cast)
             .collect(Collectors.toMap(SLA.Provider::id, Function.identity(), (s1, s2) -> {
@@ -70,9 +131,89 @@ public class StatisticsStore {
                : Stream.of(sla).filter(s -> s.window() > 0).collect(
                      Collectors.toMap(Function.identity(), s -> new Window((int) (s.window() / collectionPeriod))));
          SLA[] total = sla == null ? new SLA[0] : Stream.of(sla).filter(s -> s.window() <= 0).toArray(SLA[]::new);
-         map.put(metric, data = new Data(this, phase.name, phase.isWarmup, stepId, metric, rings, total));
+         EventExecutor executor = executors == null ? null
+               : executors[Math.floorMod(Objects.hash(phaseId, stepId, metric), executors.length)];
+         map.put(metric, data = new Data(this, phase.name, phase.isWarmup, stepId, metric, rings, total, executor));
+      }
+      if (data.executor == null) {
+         return data.record(agentName, stats);
+      } else if (data.completing) {
+         log.warn("Ignoring statistics for completed {}/{}/{} (from {}, {} requests)", data.phase, stepId, metric,
+               agentName, stats.requestCount);
+         return false;
+      } else {
+         Data d = data;
+         data.executor.execute(() -> d.record(agentName, stats));
+         return true;
+      }
+   }
+
+   /**
+    * Applies the function to all data in their executors, in parallel. The function runs after all snapshots
+    * recorded so far for given data.
+    *
+    * @return Results in the order of the data, except for <code>null</code> results which are omitted.
+    */
+   private <T> CompletableFuture<List<T>> compute(List<Data> list, Function<Data, T> function) {
+      if (executors == null) {
+         List<T> results = new ArrayList<>(list.size());
+         for (Data data : list) {
+            T result = function.apply(data);
+            if (result != null) {
+               results.add(result);
+            }
+         }
+         return CompletableFuture.completedFuture(results);
+      }
+      @SuppressWarnings("unchecked")
+      CompletableFuture<T>[] futures = new CompletableFuture[list.size()];
+      for (int i = 0; i < futures.length; ++i) {
+         Data data = list.get(i);
+         futures[i] = CompletableFuture.supplyAsync(() -> function.apply(data), data.executor);
+      }
+      return CompletableFuture.allOf(futures).thenApply(nil -> {
+         List<T> results = new ArrayList<>(futures.length);
+         for (CompletableFuture<T> future : futures) {
+            // all futures are completed at this point
+            T result = future.join();
+            if (result != null) {
+               results.add(result);
+            }
+         }
+         return results;
+      });
+   }
+
+   private <T> CompletableFuture<T> compute(Data data, Function<Data, T> function) {
+      if (data.executor == null) {
+         return CompletableFuture.completedFuture(function.apply(data));
+      }
+      return CompletableFuture.supplyAsync(() -> function.apply(data), data.executor);
+   }
+
+   private List<Data> allData() {
+      List<Data> list = new ArrayList<>();
+      for (Map<String, Data> m : this.data.values()) {
+         list.addAll(m.values());
+      }
+      return list;
+   }
+
+   List<StatisticsSummary> newSeries() {
+      return seriesFile == null ? new ArrayList<>() : seriesFile.newSeries();
+   }
+
+   /**
+    * Releases the resources (namely the file with series); the store must not be used afterwards.
+    */
+   public void close() {
+      if (seriesFile != null) {
+         try {
+            seriesFile.close();
+         } catch (IOException e) {
+            log.error("Failed to close series file", e);
+         }
       }
-      return data.record(agentName, stats);
    }
 
    public void addFailure(String phase, String metric, long startTimestamp, long endTimestamp, String cause) {
@@ -82,105 +223,112 @@ public class StatisticsStore {
       failures.add(new SLA.Failure(null, phase, metric, statistics, cause));
    }
 
-   public void completePhase(String phase) {
-      for (Map<String, Data> m : this.data.values()) {
-         for (Data data : m.values()) {
-            if (data.phase.equals(phase)) {
-               data.completePhase();
-            }
-         }
-      }
+   /**
+    * Merges the remaining snapshots and validates SLAs of given phase. Statistics for this phase recorded later
+    * are rejected.
+    *
+    * @return Future completed when the data are completed; {@link #validateSlas()} can be checked then.
+    */
+   public CompletableFuture<Void> completePhase(String phase) {
+      List<Data> list = allData();
+      list.removeIf(data -> !data.phase.equals(phase));
+      list.forEach(data -> data.completing = true);
+      return compute(list, data -> {
+         data.completePhase();
+         return null;
+      }).thenApply(nil -> null);
    }
 
-   public void completeAll(Consumer<String> errorHandler) {
-      for (Map<String, Data> m : this.data.values()) {
-         for (Data data : m.values()) {
-            if (!data.isCompleted()) {
-               String message = String.format(
-                     "Data for %s/%d/%s were not completed when the phase terminated - was the data received after that?",
-                     data.phase, data.stepId, data.metric);
-               errorHandler.accept(message);
-               data.completePhase();
-            }
+   /**
+    * Completes data of all phases; any statistics recorded later are rejected.
+    *
+    * @return Future with errors describing the data that had not been completed through {@link #completePhase(String)}.
+    */
+   public CompletableFuture<List<String>> completeAll() {
+      List<Data> list = allData();
+      list.removeIf(data -> data.completing);
+      list.forEach(data -> data.completing = true);
+      return compute(list, data -> {
+         if (data.isCompleted()) {
+            return null;
          }
-      }
+         data.completePhase();
+         return String.format(
+               "Data for %s/%d/%s were not completed when the phase terminated - was the data received after that?",
+               data.phase, data.stepId, data.metric);
+      });
    }
 
    // When there's only few requests during the phase we could use too short interval for throughput calculation.
    // We cannot do this in completePhase() because that's invoked from the STATS feed and the overall completion
    // is notified from the RESPONSE feed.
+   // The adjustment is applied asynchronously but before any computation requested later.
    public void adjustPhaseTimestamps(String phase, long start, long completion) {
-      for (Map<String, Data> m : this.data.values()) {
-         for (Data data : m.values()) {
-            if (data.phase.equals(phase)) {
-               data.total.histogram.setStartTimeStamp(Math.min(start, data.total.histogram.getStartTimeStamp()));
-               data.total.histogram.setEndTimeStamp(Math.max(completion, data.total.histogram.getEndTimeStamp()));
-            }
-         }
-      }
+      List<Data> list = allData();
+      list.removeIf(data -> !data.phase.equals(phase));
+      compute(list, data -> {
+         data.total.histogram.setStartTimeStamp(Math.min(start, data.total.histogram.getStartTimeStamp()));
+         data.total.histogram.setEndTimeStamp(Math.max(completion, data.total.histogram.getEndTimeStamp()));
+         return null;
+      });
    }
 
    public boolean validateSlas() {
       return failures.isEmpty();
    }
 
-   public List<RequestStats> recentSummary(long minValidTimestamp) {
-      ArrayList<RequestStats> result = new ArrayList<>();
-      for (Map<String, Data> m : this.data.values()) {
-         for (Data data : m.values()) {
-            OptionalInt lastSequenceId = data.lastStats.values().stream()
-                  .flatMapToInt(map -> map.keySet().stream().mapToInt(Integer::intValue)).max();
-            if (lastSequenceId.isEmpty()) {
-               continue;
-            }
-            // We'll use one id before the last one since the last one is likely not completed yet
-            int penultimateId = lastSequenceId.getAsInt() - 1;
-            StatisticsSnapshot sum = new StatisticsSnapshot();
-            data.lastStats.values().stream().map(map -> map.get(penultimateId))
-                  .filter(Objects::nonNull).forEach(sum::add);
-            if (sum.isEmpty() || sum.histogram.getStartTimeStamp() < minValidTimestamp) {
-               continue;
-            }
-            List<String> failures = this.failures.stream()
-                  .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
-                  .map(SLA.Failure::message).collect(Collectors.toList());
-            result.add(
-                  new RequestStats(data.phase, data.stepId, data.metric, sum.summary(PERCENTILES), failures, data.isWarmup));
+   public CompletableFuture<List<RequestStats>> recentSummary(long minValidTimestamp) {
+      return compute(allData(), data -> {
+         OptionalInt lastSequenceId = data.lastStats.values().stream()
+               .flatMapToInt(map -> map.keySet().stream().mapToInt(Integer::intValue)).max();
+         if (lastSequenceId.isEmpty()) {
+            return null;
          }
-      }
-      result.sort(REQUEST_STATS_COMPARATOR);
-      return result;
+         // We'll use one id before the last one since the last one is likely not completed yet
+         int penultimateId = lastSequenceId.getAsInt() - 1;
+         StatisticsSnapshot sum = new StatisticsSnapshot();
+         data.lastStats.values().stream().map(map -> map.get(penultimateId))
+               .filter(Objects::nonNull).forEach(sum::add);
+         if (sum.isEmpty() || sum.histogram.getStartTimeStamp() < minValidTimestamp) {
+            return null;
+         }
+         return new RequestStats(data.phase, data.stepId, data.metric, sum.summary(PERCENTILES), failures(data),
+               data.isWarmup);
+      }).thenApply(StatisticsStore::sortRequestStats);
    }
 
-   public List<RequestStats> totalSummary() {
-      ArrayList<RequestStats> result = new ArrayList<>();
-      for (Map<String, Data> m : this.data.values()) {
-         for (Data data : m.values()) {
-            StatisticsSummary last = data.total.summary(PERCENTILES);
-            List<String> failures = this.failures.stream()
-                  .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
-                  .map(SLA.Failure::message).collect(Collectors.toList());
-            result.add(new RequestStats(data.phase, data.stepId, data.metric, last, failures, data.isWarmup));
-         }
-      }
-      result.sort(REQUEST_STATS_COMPARATOR);
-      return result;
+   public CompletableFuture<List<RequestStats>> totalSummary() {
+      return compute(allData(), data -> new RequestStats(data.phase, data.stepId, data.metric,
+            data.total.summary(PERCENTILES), failures(data), data.isWarmup))
+            .thenApply(StatisticsStore::sortRequestStats);
+   }
+
+   private static List<RequestStats> sortRequestStats(List<RequestStats> list) {
+      list.sort(REQUEST_STATS_COMPARATOR);
+      return list;
+   }
+
+   private List<String> failures(Data data) {
+      return this.failures.stream()
+            .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
+            .map(SLA.Failure::message).collect(Collectors.toList());
    }
 
-   public Histogram histogram(String phase, int stepId, String metric) {
+   public CompletableFuture<Histogram> histogram(String phase, int stepId, String metric) {
       Data data = getData(phase, stepId, metric);
       if (data == null) {
-         return null;
+         return CompletableFuture.completedFuture(null);
       }
-      return HistogramConverter.convert(phase, metric, data.total.histogram);
+      return compute(data, d -> HistogramConverter.convert(phase, metric, d.total.histogram));
    }
 
-   public List<StatisticsSummary> series(String phase, int stepId, String metric) {
+   public CompletableFuture<List<StatisticsSummary>> series(String phase, int stepId, String metric) {
       Data data = getData(phase, stepId, metric);
       if (data == null) {
-         return null;
+         return CompletableFuture.completedFuture(null);
       }
-      return data.series;
+      // Copy the series as it is modified in the executor
+      return compute(data, d -> new ArrayList<>(d.series));
    }
 
    private Data getData(String phase, int stepId, String metric) {
@@ -287,6 +435,67 @@ public class StatisticsStore {
       return summary;
    }
 
+   /**
+    * @param queueDelay Delays of the probe tasks in nanoseconds, can be <code>null</code> when nothing was recorded.
+    * @param iteration Durations of the loop iterations in nanoseconds, can be <code>null</code>, too.
+    */
+   public void recordEventLoopStats(String address, long timestamp, int executor,
+         org.HdrHistogram.Histogram queueDelay, org.HdrHistogram.Histogram iteration) {
+      long queueDelayMax = queueDelay == null ? 0 : queueDelay.getMaxValue();
+      EventLoopRecord record = new EventLoopRecord(timestamp, executor,
+            queueDelay == null ? 0 : queueDelay.getValueAtPercentile(50),
+            queueDelay == null ? 0 : queueDelay.getValueAtPercentile(99),
+            queueDelayMax,
+            iteration == null ? 0 : iteration.getValueAtPercentile(99),
+            iteration == null ? 0 : iteration.getMaxValue(),
+            queueDelayMax >= EVENT_LOOP_OVERLOAD_THRESHOLD);
+      if (addEventLoopRecord(address, record)) {
+         log.warn("Event loop {} on agent {} is overloaded: tasks were delayed up to {} ms. "
+               + "Results for the affected periods are not reliable.", executor, address,
+               TimeUnit.NANOSECONDS.toMillis(record.queueDelayMax));
+      }
+   }
+
+   /**
+    * @return True if this is the first overloaded record from this agent.
+    */
+   boolean addEventLoopRecord(String address, EventLoopRecord record) {
+      eventLoopStats.computeIfAbsent(address, a -> new ArrayList<>()).add(record);
+      if (!record.overloaded) {
+         return false;
+      }
+      allOverloadedTimestamps.add(record.timestamp);
+      NavigableSet<Long> timestamps = overloadedTimestamps.get(address);
+      if (timestamps == null) {
+         timestamps = new TreeSet<>();
+         overloadedTimestamps.put(address, timestamps);
+         timestamps.add(record.timestamp);
+         return true;
+      }
+      timestamps.add(record.timestamp);
+      return false;
+   }
+
+   /**
+    * @param address Agent name, or <code>null</code> to check all agents.
+    * @param start Start of the checked interval (epoch millis).
+    * @param end End of the checked interval (epoch millis).
+    * @return True if any event loop was overloaded during a statistics period overlapping the interval.
+    */
+   public boolean isOverloaded(String address, long start, long end) {
+      NavigableSet<Long> timestamps = address == null ? allOverloadedTimestamps : overloadedTimestamps.get(address);
+      if (timestamps == null) {
+         return false;
+      }
+      // the record with timestamp t covers the period (t - period, t]
+      Long first = timestamps.higher(start);
+      return first != null && first - benchmark.statisticsCollectionPeriod() < end;
+   }
+
+   public Map<String, List<EventLoopRecord>> eventLoopStats() {
+      return eventLoopStats;
+   }
+
    public void recordCpuUsage(String phase, String agentName, String usage) {
       cpuUsage.computeIfAbsent(phase, p -> new HashMap<>()).putIfAbsent(agentName, usage);
    }
@@ -295,17 +504,21 @@ public class StatisticsStore {
       return cpuUsage;
    }
 
-   static final class Window {
+   public void recordMaxThroughput(String phase, String agentName, double usersPerSec) {
+      maxThroughput.computeIfAbsent(phase, p -> new HashMap<>()).put(agentName, usersPerSec);
+   }
+
+   public static final class Window {
       private final StatisticsSnapshot[] ring;
       private final StatisticsSnapshot sum = new StatisticsSnapshot();
       private int ptr = 0;
 
-      Window(int size) {
+      public Window(int size) {
          assert size > 0;
          ring = new StatisticsSnapshot[size];
       }
 
-      void add(StatisticsSnapshot stats) {
+      public void add(StatisticsSnapshot stats) {
          if (ring[ptr] != null) {
             sum.subtract(ring[ptr]);
          }
@@ -323,7 +536,7 @@ public class StatisticsStore {
       }
    }
 
-   void addFailure(SLA.Failure failure) {
+   synchronized void addFailure(SLA.Failure failure) {
       if (failures.size() < maxFailures) {
          failures.add(failure);
       }
@@ -376,6 +589,29 @@ public class StatisticsStore {
       }
    }
 
+   public static class EventLoopRecord {
+      public final long timestamp;
+      public final int executor;
+      public final long queueDelayP50;
+      public final long queueDelayP99;
+      public final long queueDelayMax;
+      public final long iterationP99;
+      public final long iterationMax;
+      public final boolean overloaded;
+
+      EventLoopRecord(long timestamp, int executor, long queueDelayP50, long queueDelayP99, long queueDelayMax,
+            long iterationP99, long iterationMax, boolean overloaded) {
+         this.timestamp = timestamp;
+         this.executor = executor;
+         this.queueDelayP50 = queueDelayP50;
+         this.queueDelayP99 = queueDelayP99;
+         this.queueDelayMax = queueDelayMax;
+         this.iterationP99 = iterationP99;
+         this.iterationMax = iterationMax;
+         this.overloaded = overloaded;
+      }
+   }
+
    static class ConnectionPoolStats extends LowHigh {
       final long timestamp;
 
@@ -9,6 +9,7 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -29,6 +30,7 @@ import org.apache.sshd.sftp.client.SftpClient;
 import org.apache.sshd.sftp.client.SftpClientFactory;
 
 import io.hyperfoil.api.BenchmarkExecutionException;
+import io.hyperfoil.api.config.ExternalFile;
 import io.hyperfoil.api.deployment.DeployedAgent;
 import io.hyperfoil.api.deployment.DeploymentException;
 import io.hyperfoil.internal.Properties;
@@ -42,6 +44,7 @@ public class SshDeployedAgent implements DeployedAgent {
    private static final String DEBUG_ADDRESS = Properties.get(Properties.AGENT_DEBUG_PORT, null);
    private static final String DEBUG_SUSPEND = Properties.get(Properties.AGENT_DEBUG_SUSPEND, "n");
    private static final String AGENTLIB = "/agentlib";
+   private static final String DATA = "/data";
 
    final String name;
    final String runId;
@@ -92,7 +95,7 @@ public class SshDeployedAgent implements DeployedAgent {
       }
    }
 
-   public void deploy(ClientSession session, Consumer<Throwable> exceptionHandler) {
+   public void deploy(ClientSession session, List<ExternalFile> dataFiles, Consumer<Throwable> exceptionHandler) {
       this.session = session;
       this.exceptionHandler = exceptionHandler;
 
@@ -153,7 +156,7 @@ public class SshDeployedAgent implements DeployedAgent {
 
       runCommand("mkdir -p " + dir + AGENTLIB, true);
 
-      Map<String, String> remoteMd5 = getRemoteMd5();
+      Map<String, String> remoteMd5 = getRemoteMd5(dir + AGENTLIB);
       Map<String, String> localMd5 = getLocalMd5();
       if (localMd5 == null) {
          return;
@@ -190,6 +193,12 @@ public class SshDeployedAgent implements DeployedAgent {
          }
          runCommand(rmCommand.toString(), true);
       }
+      if (!dataFiles.isEmpty()) {
+         if (!uploadDataFiles(dataFiles)) {
+            return;
+         }
+         startAgentCommmand.append(" -D").append(Properties.AGENT_DATA_DIR).append('=').append(dir).append(DATA);
+      }
       String log4jConfigurationFile = Properties.get(Properties.LOG4J2_CONFIGURATION_FILE, null);
       if (log4jConfigurationFile != null) {
          if (log4jConfigurationFile.startsWith("file://")) {
@@ -300,6 +309,33 @@ public class SshDeployedAgent implements DeployedAgent {
       }
    }
 
+   // Data files are big and we don't want to keep them in the benchmark; these are copied to agents only when changed.
+   private boolean uploadDataFiles(List<ExternalFile> dataFiles) {
+      runCommand("mkdir -p " + dir + DATA, true);
+      Map<String, String> remoteMd5 = getRemoteMd5(dir + DATA);
+      for (ExternalFile file : dataFiles) {
+         String checksum;
+         try {
+            checksum = md5sum(file.sourcePath());
+         } catch (InterruptedException e) {
+            log.info("Interrupted waiting for md5sum {}", file.sourcePath());
+            Thread.currentThread().interrupt();
+            return false;
+         }
+         String remoteChecksum = remoteMd5.get(file.name());
+         if (checksum == null || !checksum.equals(remoteChecksum)) {
+            log.debug("MD5 mismatch {}/{}, copying {}", checksum, remoteChecksum, file.sourcePath());
+            try {
+               scpClient.upload(file.sourcePath(), dir + DATA + "/" + file.name(), ScpClient.Option.PreserveAttributes);
+            } catch (IOException e) {
+               exceptionHandler.accept(e);
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
    private Map<String, String> getLocalMd5() {
       String classpath = System.getProperty("java.class.path");
       Map<String, String> md5map = new HashMap<>();
@@ -309,24 +345,10 @@ public class SshDeployedAgent implements DeployedAgent {
             continue;
          }
          try {
-            Process process = new ProcessBuilder("md5sum", file).start();
-            process.waitFor();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-               String line = reader.readLine();
-               if (line == null) {
-                  log.warn("No output for md5sum {}", file);
-                  continue;
-               }
-               int space = line.indexOf(' ');
-               if (space < 0) {
-                  log.warn("Wrong output for md5sum {}: {}", file, line);
-                  continue;
-               }
-               String checksum = line.substring(0, space);
+            String checksum = md5sum(file);
+            if (checksum != null) {
                md5map.put(file, checksum);
             }
-         } catch (IOException e) {
-            log.info("Cannot get md5sum for {}", file, e);
          } catch (InterruptedException e) {
             log.info("Interrupted waiting for md5sum{}", file);
             Thread.currentThread().interrupt();
@@ -336,8 +358,31 @@ public class SshDeployedAgent implements DeployedAgent {
       return md5map;
    }
 
-   private Map<String, String> getRemoteMd5() {
-      String[] lines = runCommand("md5sum " + dir + AGENTLIB + "/*", true).split("\r*\n");
+   private static String md5sum(String file) throws InterruptedException {
+      try {
+         Process process = new ProcessBuilder("md5sum", file).start();
+         process.waitFor();
+         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line = reader.readLine();
+            if (line == null) {
+               log.warn("No output for md5sum {}", file);
+               return null;
+            }
+            int space = line.indexOf(' ');
+            if (space < 0) {
+               log.warn("Wrong output for md5sum {}: {}", file, line);
+               return null;
+            }
+            return line.substring(0, space);
+         }
+      } catch (IOException e) {
+         log.info("Cannot get md5sum for {}", file, e);
+         return null;
+      }
+   }
+
+   private Map<String, String> getRemoteMd5(String directory) {
+      String[] lines = runCommand("md5sum " + directory + "/*", true).split("\r*\n");
       Map<String, String> md5map = new HashMap<>();
       for (String line : lines) {
          if (line.isEmpty()) {
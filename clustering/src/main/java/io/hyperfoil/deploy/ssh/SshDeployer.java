@@ -7,6 +7,7 @@ import java.net.URL;
 import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -24,6 +25,7 @@ import org.kohsuke.MetaInfServices;
 import io.hyperfoil.api.config.Agent;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.ExternalFile;
 import io.hyperfoil.api.deployment.DeployedAgent;
 import io.hyperfoil.api.deployment.Deployer;
 import io.hyperfoil.api.deployment.DeploymentException;
@@ -99,7 +101,7 @@ public class SshDeployer implements Deployer {
          SshDeployedAgent deployedAgent = new SshDeployedAgent(agent.name, runId, username, hostname, sshKey, port, dir, extras,
                cpu);
          ClientSession session = connectAndLogin(sshKey, username, hostname, port);
-         deployedAgent.deploy(session, exceptionHandler);
+         deployedAgent.deploy(session, ExternalFile.of(benchmark).collect(Collectors.toList()), exceptionHandler);
          return deployedAgent;
       } catch (IOException | GeneralSecurityException e) {
          exceptionHandler.accept(new DeploymentException(
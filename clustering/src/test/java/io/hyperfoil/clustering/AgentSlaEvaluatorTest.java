@@ -0,0 +1,137 @@
+package io.hyperfoil.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.PhaseBuilder;
+import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.steps.NoopStep;
+
+public class AgentSlaEvaluatorTest {
+   @Test
+   public void testFailureReportedOnce() {
+      Benchmark benchmark = benchmark();
+      Phase phase = benchmark.phases().iterator().next();
+      List<SLA.Failure> failures = new ArrayList<>();
+      AgentSlaEvaluator evaluator = new AgentSlaEvaluator(benchmark, failures::add);
+
+      evaluator.accept(phase, 0, "foo", snapshot(0, 500));
+      evaluator.accept(phase, 0, "foo", snapshot(1, 500));
+      // 2-second window is full
+      assertEquals(1, failures.size());
+      assertEquals("test", failures.get(0).phase());
+      assertEquals("foo", failures.get(0).metric());
+      assertEquals(2000, failures.get(0).sla().window());
+
+      evaluator.accept(phase, 0, "foo", snapshot(2, 500));
+      // 3-second window is full
+      assertEquals(2, failures.size());
+      assertEquals(3000, failures.get(1).sla().window());
+
+      for (int i = 3; i < 10; ++i) {
+         evaluator.accept(phase, 0, "foo", snapshot(i, 500));
+      }
+      assertEquals(2, failures.size());
+
+      // Other metric has its own windows
+      evaluator.accept(phase, 0, "bar", snapshot(0, 500));
+      evaluator.accept(phase, 0, "bar", snapshot(1, 500));
+      assertEquals(3, failures.size());
+      assertEquals("bar", failures.get(2).metric());
+      // Metric without SLA is ignored
+      evaluator.accept(phase, 0, "goo", snapshot(0, 500));
+      evaluator.accept(phase, 0, "goo", snapshot(1, 500));
+      evaluator.accept(phase, 0, "goo", snapshot(2, 500));
+      assertEquals(3, failures.size());
+   }
+
+   @Test
+   public void testWindowSlides() {
+      Benchmark benchmark = benchmark();
+      Phase phase = benchmark.phases().iterator().next();
+      List<SLA.Failure> failures = new ArrayList<>();
+      AgentSlaEvaluator evaluator = new AgentSlaEvaluator(benchmark, failures::add);
+
+      for (int i = 0; i < 4; ++i) {
+         evaluator.accept(phase, 0, "foo", snapshot(i, 0));
+      }
+      assertTrue(failures.isEmpty());
+      evaluator.accept(phase, 0, "foo", snapshot(4, 500));
+      assertEquals(2, failures.size());
+      failures.sort(Comparator.comparingLong(f -> f.sla().window()));
+      // Each window contains only the last periods
+      assertEquals(2000, failures.get(0).statistics().requestCount);
+      assertEquals(500, failures.get(0).statistics().errors());
+      assertEquals(3000, failures.get(1).statistics().requestCount);
+      assertEquals(500, failures.get(1).statistics().errors());
+   }
+
+   @Test
+   public void testSnapshotIsNotModified() {
+      Benchmark benchmark = benchmark();
+      Phase phase = benchmark.phases().iterator().next();
+      List<SLA.Failure> failures = new ArrayList<>();
+      AgentSlaEvaluator evaluator = new AgentSlaEvaluator(benchmark, failures::add);
+
+      StatisticsSnapshot snapshot = snapshot(0, 500);
+      evaluator.accept(phase, 0, "foo", snapshot);
+      assertSnapshot(snapshot, 0, 500);
+      StatisticsSnapshot next = snapshot(1, 500);
+      evaluator.accept(phase, 0, "foo", next);
+      assertSnapshot(snapshot, 0, 500);
+      assertSnapshot(next, 1, 500);
+      assertEquals(1, failures.size());
+
+      // The sender resets the snapshot after sending it; this must not affect the windows
+      snapshot.reset();
+      next.reset();
+      StatisticsSnapshot last = snapshot(2, 500);
+      evaluator.accept(phase, 0, "foo", last);
+      assertSnapshot(last, 2, 500);
+      assertEquals(2, failures.size());
+      assertEquals(1000 * 3, failures.get(1).statistics().requestCount);
+   }
+
+   private static void assertSnapshot(StatisticsSnapshot snapshot, int period, int errors) {
+      assertEquals(1000, snapshot.requestCount);
+      assertEquals(1000, snapshot.responseCount);
+      assertEquals(errors, snapshot.connectionErrors);
+      assertEquals(1, snapshot.histogram.getTotalCount());
+      assertEquals(1000L * period, snapshot.histogram.getStartTimeStamp());
+      assertEquals(1000L * period + 1000, snapshot.histogram.getEndTimeStamp());
+   }
+
+   private static Benchmark benchmark() {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test").statisticsCollectionPeriod(1000);
+      PhaseBuilder<?> phase = builder.addPhase("test").atOnce(1);
+      phase.customSla("foo").errorRatio(0.1).window(2, TimeUnit.SECONDS);
+      phase.customSla("foo").errorRatio(0.05).window(3, TimeUnit.SECONDS);
+      phase.customSla("bar").errorRatio(0.1).window(2, TimeUnit.SECONDS);
+      // without window the SLA is validated only by the controller
+      phase.customSla("goo").errorRatio(0.1);
+      phase.duration(1).scenario().initialSequence("test").step(new NoopStep());
+      return builder.build();
+   }
+
+   private static StatisticsSnapshot snapshot(int period, int errors) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.histogram.setStartTimeStamp(1000L * period);
+      snapshot.histogram.setEndTimeStamp(1000L * period + 1000);
+      snapshot.histogram.recordValue(1_000_000);
+      snapshot.requestCount = 1000;
+      snapshot.responseCount = 1000;
+      snapshot.connectionErrors = errors;
+      return snapshot;
+   }
+}
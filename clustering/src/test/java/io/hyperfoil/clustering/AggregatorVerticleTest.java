@@ -0,0 +1,90 @@
+package io.hyperfoil.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
+import io.hyperfoil.clustering.messages.RequestStatsBatchMessage;
+import io.hyperfoil.clustering.messages.RequestStatsMessage;
+import io.hyperfoil.clustering.messages.StatsMessage;
+import io.vertx.core.Vertx;
+
+public class AggregatorVerticleTest {
+   private static final String RUN_ID = "0000";
+   private final BlockingQueue<StatsMessage> forwarded = new LinkedBlockingQueue<>();
+   private Vertx vertx;
+   private String aggregatorId;
+
+   @Before
+   public void before() throws Exception {
+      vertx = Vertx.vertx();
+      Codecs.register(vertx);
+      vertx.eventBus().<StatsMessage> consumer(Feeds.STATS, msg -> {
+         forwarded.add(msg.body());
+         msg.reply("OK");
+      });
+      aggregatorId = vertx.deployVerticle(new AggregatorVerticle()).toCompletionStage().toCompletableFuture()
+            .get(10, TimeUnit.SECONDS);
+   }
+
+   @After
+   public void after() {
+      vertx.close();
+   }
+
+   @Test
+   public void testPhaseCompletionFollowsFlush() throws InterruptedException {
+      send(new RequestStatsMessage("agent0", RUN_ID, 0, 0, "test", snapshot(10)));
+      send(new RequestStatsMessage("agent1", RUN_ID, 0, 0, "test", snapshot(5)));
+      send(new PhaseStatsCompleteMessage("agent0", RUN_ID, "test"));
+
+      // Without flushing before the completion the statistics would arrive only with the periodic flush
+      assertMerged(15);
+      PhaseStatsCompleteMessage complete = poll(PhaseStatsCompleteMessage.class);
+      assertEquals("agent0", complete.address);
+      assertEquals("test", complete.phase);
+
+      send(new RequestStatsMessage("agent1", RUN_ID, 0, 0, "test", snapshot(3)));
+      send(new PhaseStatsCompleteMessage("agent1", RUN_ID, "test"));
+      assertMerged(3);
+      assertEquals("agent1", poll(PhaseStatsCompleteMessage.class).address);
+   }
+
+   private void assertMerged(int requests) throws InterruptedException {
+      RequestStatsBatchMessage batch = poll(RequestStatsBatchMessage.class);
+      // statistics from both agents are reported under the name of the aggregator
+      assertEquals(aggregatorId, batch.address);
+      assertEquals(1, batch.entries.size());
+      assertEquals(requests, batch.entries.get(0).statistics.requestCount);
+   }
+
+   private void send(StatsMessage message) {
+      vertx.eventBus().request(Feeds.aggregatorStats(aggregatorId), message);
+   }
+
+   private <T extends StatsMessage> T poll(Class<T> type) throws InterruptedException {
+      StatsMessage message = forwarded.poll(10, TimeUnit.SECONDS);
+      assertNotNull(message);
+      assertTrue("Unexpected message " + message, type.isInstance(message));
+      return type.cast(message);
+   }
+
+   private static StatisticsSnapshot snapshot(int requests) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.histogram.setStartTimeStamp(1000);
+      snapshot.histogram.setEndTimeStamp(2000);
+      snapshot.requestCount = requests;
+      snapshot.responseCount = requests;
+      return snapshot;
+   }
+}
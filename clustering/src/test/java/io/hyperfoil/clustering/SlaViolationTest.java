@@ -0,0 +1,129 @@
+package io.hyperfoil.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.PhaseBuilder;
+import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.clustering.messages.PhaseControlMessage;
+import io.hyperfoil.clustering.messages.SlaViolationMessage;
+import io.hyperfoil.controller.StatisticsStore;
+import io.hyperfoil.core.steps.NoopStep;
+import io.vertx.core.Vertx;
+
+public class SlaViolationTest {
+   private final BlockingQueue<PhaseControlMessage> controlMessages = new LinkedBlockingQueue<>();
+   private Vertx vertx;
+   private ControllerVerticle controller;
+
+   @Before
+   public void before() {
+      vertx = Vertx.vertx();
+      Codecs.register(vertx);
+      vertx.eventBus().<PhaseControlMessage> consumer(Feeds.CONTROL, msg -> controlMessages.add(msg.body()));
+      controller = new ControllerVerticle();
+      controller.init(vertx, vertx.getOrCreateContext());
+   }
+
+   @After
+   public void after() {
+      vertx.close();
+   }
+
+   @Test
+   public void testAbort() throws InterruptedException {
+      Run run = run(Benchmark.FailurePolicy.ABORT);
+      controller.handleSlaViolation(run, run.agents.get(0), violation(run));
+
+      PhaseControlMessage terminate = controlMessages.poll(10, TimeUnit.SECONDS);
+      assertNotNull(terminate);
+      assertEquals(PhaseControlMessage.Command.TERMINATE, terminate.command());
+      assertEquals("first", terminate.phase());
+
+      ControllerPhase first = run.phases.get("first");
+      assertEquals(ControllerPhase.Status.TERMINATING, first.status());
+      assertTrue(first.isFailed());
+      assertEquals(ControllerPhase.Status.CANCELLED, run.phases.get("second").status());
+      assertEquals(1, run.statisticsStore().getFailures().size());
+      SLA.Failure failure = run.statisticsStore().getFailures().get(0);
+      assertEquals("first", failure.phase());
+      assertEquals("foo", failure.metric());
+      assertTrue(failure.message().contains("agent0"));
+
+      // Another report for the same phase is ignored
+      controller.handleSlaViolation(run, run.agents.get(0), violation(run));
+      assertNoControlMessage();
+      assertEquals(1, run.statisticsStore().getFailures().size());
+   }
+
+   @Test
+   public void testContinue() throws InterruptedException {
+      testWarningOnly(Benchmark.FailurePolicy.CONTINUE);
+   }
+
+   @Test
+   public void testCancel() throws InterruptedException {
+      testWarningOnly(Benchmark.FailurePolicy.CANCEL);
+   }
+
+   private void testWarningOnly(Benchmark.FailurePolicy policy) throws InterruptedException {
+      Run run = run(policy);
+      controller.handleSlaViolation(run, run.agents.get(0), violation(run));
+
+      assertNoControlMessage();
+      ControllerPhase first = run.phases.get("first");
+      assertEquals(ControllerPhase.Status.RUNNING, first.status());
+      assertFalse(first.isFailed());
+      assertEquals(ControllerPhase.Status.NOT_STARTED, run.phases.get("second").status());
+      assertTrue(run.statisticsStore().getFailures().isEmpty());
+   }
+
+   private void assertNoControlMessage() throws InterruptedException {
+      // Messages from the same sender are delivered in order so anything published before would arrive first
+      vertx.eventBus().publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.RUN, "sentinel", null));
+      PhaseControlMessage msg = controlMessages.poll(10, TimeUnit.SECONDS);
+      assertNotNull(msg);
+      assertEquals("sentinel", msg.phase());
+   }
+
+   private static SlaViolationMessage violation(Run run) {
+      return new SlaViolationMessage("agent0-deployment", run.id, "first", "foo", "Error ratio exceeded");
+   }
+
+   private static Run run(Benchmark.FailurePolicy policy) {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test").failurePolicy(policy);
+      builder.addAgent("agent0", "localhost", null);
+      PhaseBuilder<?> first = builder.addPhase("first").atOnce(1);
+      first.customSla("foo").errorRatio(0.1).window(2, TimeUnit.SECONDS);
+      first.duration(1000).scenario().initialSequence("test").step(new NoopStep());
+      builder.addPhase("second").atOnce(1).startAfter("first")
+            .duration(1000).scenario().initialSequence("test").step(new NoopStep());
+      Benchmark benchmark = builder.build();
+
+      Run run = new Run("0000", null, benchmark);
+      run.initStore(new StatisticsStore(benchmark, f -> {
+      }));
+      AgentInfo agent = new AgentInfo("agent0", 0);
+      agent.deploymentId = "agent0-deployment";
+      run.agents.add(agent);
+      for (var phase : benchmark.phases()) {
+         run.phases.put(phase.name(), new ControllerPhase(phase));
+      }
+      ControllerPhase firstPhase = run.phases.get("first");
+      firstPhase.status(run.id, ControllerPhase.Status.RUNNING);
+      firstPhase.absoluteStartTime(System.currentTimeMillis());
+      return run;
+   }
+}
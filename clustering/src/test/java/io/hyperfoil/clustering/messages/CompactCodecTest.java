@@ -0,0 +1,286 @@
+package io.hyperfoil.clustering.messages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import io.hyperfoil.api.statistics.Counters;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.core.util.LowHigh;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+public class CompactCodecTest {
+   @Test
+   public void testRequestStats() {
+      StatisticsSnapshot snapshot = snapshot(1);
+      RequestStatsMessage decoded = roundTrip(new RequestStatsMessage.Codec(),
+            new RequestStatsMessage("agent", "0001", 2, 3, "foo", snapshot));
+      assertEquals("agent", decoded.address);
+      assertEquals("0001", decoded.runId);
+      assertEquals(2, decoded.phaseId);
+      assertEquals(3, decoded.stepId);
+      assertEquals("foo", decoded.metric);
+      assertSnapshot(snapshot, decoded.statistics);
+   }
+
+   @Test
+   public void testRequestStatsWithoutMetricAndSnapshot() {
+      RequestStatsMessage decoded = roundTrip(new RequestStatsMessage.Codec(),
+            new RequestStatsMessage("agent", "0001", 0, -1, null, null));
+      assertEquals(-1, decoded.stepId);
+      assertNull(decoded.metric);
+      assertNull(decoded.statistics);
+   }
+
+   @Test
+   public void testEmptySnapshot() {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      RequestStatsMessage decoded = roundTrip(new RequestStatsMessage.Codec(),
+            new RequestStatsMessage("agent", "0001", 0, 0, "foo", snapshot));
+      assertSnapshot(snapshot, decoded.statistics);
+      assertTrue(decoded.statistics.isEmpty());
+   }
+
+   @Test
+   public void testRequestStatsBatch() {
+      List<RequestStatsBatchMessage.Entry> entries = Arrays.asList(
+            new RequestStatsBatchMessage.Entry(0, 1, "foo", snapshot(1)),
+            new RequestStatsBatchMessage.Entry(0, 2, "bar", snapshot(2)),
+            new RequestStatsBatchMessage.Entry(1, 1, "foo", snapshot(3)));
+      RequestStatsBatchMessage decoded = roundTrip(new RequestStatsBatchMessage.Codec(),
+            new RequestStatsBatchMessage("agent", "0001", entries));
+      assertEquals("agent", decoded.address);
+      assertEquals("0001", decoded.runId);
+      assertEquals(entries.size(), decoded.entries.size());
+      for (int i = 0; i < entries.size(); ++i) {
+         RequestStatsBatchMessage.Entry expected = entries.get(i);
+         RequestStatsBatchMessage.Entry actual = decoded.entries.get(i);
+         assertEquals(expected.phaseId, actual.phaseId);
+         assertEquals(expected.stepId, actual.stepId);
+         assertEquals(expected.metric, actual.metric);
+         assertSnapshot(expected.statistics, actual.statistics);
+      }
+   }
+
+   @Test
+   public void testSessionStats() {
+      Map<String, LowHigh> stats = new HashMap<>();
+      stats.put("rampUp", new LowHigh(0, 10));
+      stats.put("steady", new LowHigh(100, 12345));
+      SessionStatsMessage decoded = roundTrip(new SessionStatsMessage.Codec(),
+            new SessionStatsMessage("agent", "0001", 1234567890L, stats));
+      assertEquals("agent", decoded.address);
+      assertEquals("0001", decoded.runId);
+      assertEquals(1234567890L, decoded.timestamp);
+      assertLowHigh(stats, decoded.sessionStats);
+   }
+
+   @Test
+   public void testConnectionStats() {
+      Map<String, LowHigh> first = new HashMap<>();
+      first.put("http1x", new LowHigh(1, 2));
+      first.put("in-flight", new LowHigh(0, 100));
+      Map<String, Map<String, LowHigh>> stats = new HashMap<>();
+      stats.put("http://localhost:8080", first);
+      stats.put("http://example.com", new HashMap<>());
+      ConnectionStatsMessage decoded = roundTrip(new ConnectionStatsMessage.Codec(),
+            new ConnectionStatsMessage("agent", "0001", 42, stats));
+      assertEquals("agent", decoded.address);
+      assertEquals("0001", decoded.runId);
+      assertEquals(42, decoded.timestamp);
+      assertEquals(stats.keySet(), decoded.stats.keySet());
+      for (String authority : stats.keySet()) {
+         assertLowHigh(stats.get(authority), decoded.stats.get(authority));
+      }
+   }
+
+   @Test
+   public void testEventLoopStats() {
+      Histogram queueDelay = histogram(1_000, 50_000_000);
+      Histogram iteration = histogram(10_000, 2_000_000);
+      List<EventLoopStatsMessage.Entry> entries = Arrays.asList(
+            new EventLoopStatsMessage.Entry(0, queueDelay, iteration),
+            new EventLoopStatsMessage.Entry(1, histogram(), null),
+            new EventLoopStatsMessage.Entry(2, null, iteration));
+      EventLoopStatsMessage decoded = roundTrip(new EventLoopStatsMessage.Codec(),
+            new EventLoopStatsMessage("agent", "0001", 1234567890L, entries));
+      assertEquals("agent", decoded.address);
+      assertEquals("0001", decoded.runId);
+      assertEquals(1234567890L, decoded.timestamp);
+      assertEquals(3, decoded.entries.size());
+      assertEquals(0, decoded.entries.get(0).executor);
+      assertEquals(queueDelay, decoded.entries.get(0).queueDelay);
+      assertEquals(iteration, decoded.entries.get(0).iteration);
+      // empty histograms are not sent at all
+      assertEquals(1, decoded.entries.get(1).executor);
+      assertNull(decoded.entries.get(1).queueDelay);
+      assertNull(decoded.entries.get(1).iteration);
+      assertEquals(2, decoded.entries.get(2).executor);
+      assertNull(decoded.entries.get(2).queueDelay);
+      assertEquals(iteration, decoded.entries.get(2).iteration);
+   }
+
+   @Test
+   public void testEventLoopStatsWithoutEntries() {
+      EventLoopStatsMessage decoded = roundTrip(new EventLoopStatsMessage.Codec(),
+            new EventLoopStatsMessage("agent", "0001", 42, Collections.emptyList()));
+      assertEquals(42, decoded.timestamp);
+      assertTrue(decoded.entries.isEmpty());
+   }
+
+   @Test
+   public void testMessageAtOffset() {
+      RequestStatsMessage.Codec codec = new RequestStatsMessage.Codec();
+      Buffer buffer = Buffer.buffer().appendString("prefix");
+      int position = buffer.length();
+      codec.encodeToWire(buffer, new RequestStatsMessage("agent", "0001", 1, 2, "foo", snapshot(5)));
+      RequestStatsMessage decoded = codec.decodeFromWire(position, buffer);
+      assertEquals("foo", decoded.metric);
+      assertEquals(5, decoded.statistics.requestCount);
+   }
+
+   @Test
+   public void testExtensionWithoutCompactForm() throws IOException {
+      PlainExtension extension = new PlainExtension();
+      extension.value = 42;
+      ByteBuf buf = Unpooled.buffer();
+      try (DataOutputStream output = new DataOutputStream(new ByteBufOutputStream(buf))) {
+         CompactCodec.writeExtension(output, extension);
+      }
+      StatsExtension decoded = CompactCodec.readExtension(new DataInputStream(new ByteBufInputStream(buf, true)));
+      assertTrue(decoded instanceof PlainExtension);
+      assertEquals(42, ((PlainExtension) decoded).value);
+   }
+
+   static <T> T roundTrip(ObjectCodec<T> codec, T message) {
+      Buffer buffer = Buffer.buffer();
+      codec.encodeToWire(buffer, message);
+      T decoded = codec.decodeFromWire(0, buffer);
+      assertNotNull(decoded);
+      return decoded;
+   }
+
+   private static StatisticsSnapshot snapshot(int seed) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = seed;
+      snapshot.histogram.setStartTimeStamp(1000L * seed);
+      snapshot.histogram.setEndTimeStamp(1000L * seed + 500);
+      for (int i = 1; i <= 100; ++i) {
+         snapshot.histogram.recordValue(i * 1000L * seed);
+      }
+      snapshot.correctedHistogram().recordValue(123456);
+      snapshot.requestCount = seed;
+      snapshot.responseCount = 100;
+      snapshot.invalid = 3;
+      snapshot.connectionErrors = 4;
+      snapshot.requestTimeouts = 5;
+      snapshot.internalErrors = 6;
+      snapshot.blockedTime = 7_000_000_000L;
+      // More than the initial capacity of Counters
+      Counters counters = new Counters();
+      for (int i = 0; i < 12; ++i) {
+         for (int j = 0; j <= i; ++j) {
+            counters.increment("status" + i);
+         }
+      }
+      snapshot.extensions.put("counters", counters);
+      return snapshot;
+   }
+
+   private static Histogram histogram(long... values) {
+      Histogram histogram = new Histogram(StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE, 2);
+      for (long value : values) {
+         histogram.recordValue(value);
+      }
+      return histogram;
+   }
+
+   private static void assertSnapshot(StatisticsSnapshot expected, StatisticsSnapshot actual) {
+      assertNotNull(actual);
+      assertEquals(expected.sequenceId, actual.sequenceId);
+      assertEquals(expected.histogram.getStartTimeStamp(), actual.histogram.getStartTimeStamp());
+      assertEquals(expected.histogram.getEndTimeStamp(), actual.histogram.getEndTimeStamp());
+      assertEquals(expected.histogram, actual.histogram);
+      assertEquals(expected.correctedHistogram(), actual.correctedHistogram());
+      assertEquals(expected.requestCount, actual.requestCount);
+      assertEquals(expected.responseCount, actual.responseCount);
+      assertEquals(expected.invalid, actual.invalid);
+      assertEquals(expected.connectionErrors, actual.connectionErrors);
+      assertEquals(expected.requestTimeouts, actual.requestTimeouts);
+      assertEquals(expected.internalErrors, actual.internalErrors);
+      assertEquals(expected.blockedTime, actual.blockedTime);
+      assertEquals(expected.extensions.keySet(), actual.extensions.keySet());
+      for (String key : expected.extensions.keySet()) {
+         Counters expectedCounters = (Counters) expected.extensions.get(key);
+         Counters actualCounters = (Counters) actual.extensions.get(key);
+         assertEquals(expectedCounters.serialize(), actualCounters.serialize());
+      }
+   }
+
+   private static void assertLowHigh(Map<String, LowHigh> expected, Map<String, LowHigh> actual) {
+      assertEquals(expected.keySet(), actual.keySet());
+      for (String key : expected.keySet()) {
+         assertEquals(expected.get(key).low, actual.get(key).low);
+         assertEquals(expected.get(key).high, actual.get(key).high);
+      }
+   }
+
+   public static class PlainExtension implements StatsExtension {
+      private long value;
+
+      @Override
+      public boolean isNull() {
+         return value == 0;
+      }
+
+      @Override
+      public void add(StatsExtension other) {
+         value += ((PlainExtension) other).value;
+      }
+
+      @Override
+      public void subtract(StatsExtension other) {
+         value -= ((PlainExtension) other).value;
+      }
+
+      @Override
+      public void reset() {
+         value = 0;
+      }
+
+      @Override
+      public PlainExtension clone() {
+         PlainExtension copy = new PlainExtension();
+         copy.value = value;
+         return copy;
+      }
+
+      @Override
+      public String[] headers() {
+         return new String[] { "value" };
+      }
+
+      @Override
+      public String byHeader(String header) {
+         return String.valueOf(value);
+      }
+   }
+}
@@ -0,0 +1,197 @@
+package io.hyperfoil.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.hyperfoil.api.statistics.Counters;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.api.statistics.StatsExtension;
+
+public class SeriesFileTest {
+   // Series keep the last 64 summaries in memory; these sizes span several blocks written to the file and a partial one
+   private static final int SUMMARIES = 64 * 3 + 10;
+
+   private Path dir;
+   private Path path;
+
+   @Before
+   public void createDir() throws IOException {
+      dir = Files.createTempDirectory("hyperfoil-series");
+      path = dir.resolve("series.bin");
+   }
+
+   @After
+   public void deleteDir() throws IOException {
+      Files.deleteIfExists(path);
+      Files.delete(dir);
+   }
+
+   @Test
+   public void testRoundTrip() throws IOException {
+      try (SeriesFile file = new SeriesFile(path)) {
+         List<StatisticsSummary> first = file.newSeries();
+         List<StatisticsSummary> second = file.newSeries();
+         // interleaved appends place blocks of both series alternately in the file
+         for (int i = 0; i < SUMMARIES; ++i) {
+            first.add(summary(i));
+            second.add(summary(SUMMARIES - i));
+         }
+         assertTrue(Files.size(path) > 0);
+         assertSeries(first, i -> i, SUMMARIES);
+         assertSeries(second, i -> SUMMARIES - i, SUMMARIES);
+         // random access reads blocks out of order
+         for (int i = SUMMARIES - 1; i >= 0; i -= 37) {
+            assertSummary(summary(i), first.get(i));
+         }
+      }
+      assertFalse(Files.exists(path));
+   }
+
+   @Test
+   public void testReopenExistingFile() throws IOException {
+      // leftover of a previous run; the new series must not see any of it
+      byte[] garbage = new byte[64 * 1024];
+      for (int i = 0; i < garbage.length; ++i) {
+         garbage[i] = (byte) i;
+      }
+      Files.write(path, garbage);
+      try (SeriesFile file = new SeriesFile(path)) {
+         List<StatisticsSummary> series = file.newSeries();
+         for (int i = 0; i < SUMMARIES; ++i) {
+            series.add(summary(i));
+         }
+         assertTrue(Files.size(path) < garbage.length);
+         assertSeries(series, i -> i, SUMMARIES);
+      }
+      assertFalse(Files.exists(path));
+
+      // the same path can be used again after the file was closed
+      try (SeriesFile file = new SeriesFile(path)) {
+         List<StatisticsSummary> series = file.newSeries();
+         for (int i = 0; i < SUMMARIES; ++i) {
+            series.add(summary(2 * i));
+         }
+         assertSeries(series, i -> 2 * i, SUMMARIES);
+      }
+   }
+
+   @Test
+   public void testConcurrentAppendAndRead() throws Exception {
+      int appended = 64 * 50;
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try (SeriesFile file = new SeriesFile(path)) {
+         List<StatisticsSummary> existing = file.newSeries();
+         for (int i = 0; i < SUMMARIES; ++i) {
+            existing.add(summary(i));
+         }
+         List<StatisticsSummary> growing = file.newSeries();
+         Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < appended; ++i) {
+               growing.add(summary(i));
+            }
+         });
+         Future<?> reader = executor.submit(() -> {
+            int rounds = 0;
+            // keep reading at least a few times after the writer has finished
+            while (!writer.isDone() || rounds++ < 3) {
+               assertSeries(existing, i -> i, SUMMARIES);
+               // everything below the size observed is either in a written block or in the tail
+               int size = growing.size();
+               for (int i = 0; i < size; i += 13) {
+                  assertSummary(summary(i), growing.get(i));
+               }
+            }
+         });
+         writer.get(30, TimeUnit.SECONDS);
+         reader.get(30, TimeUnit.SECONDS);
+         assertSeries(growing, i -> i, appended);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private static void assertSeries(List<StatisticsSummary> series, IntUnaryOperator mapping, int size) {
+      assertEquals(size, series.size());
+      int i = 0;
+      for (StatisticsSummary summary : series) {
+         assertSummary(summary(mapping.applyAsInt(i++)), summary);
+      }
+      assertEquals(size, i);
+   }
+
+   private static StatisticsSummary summary(int i) {
+      SortedMap<Double, Long> percentiles = new TreeMap<>();
+      percentiles.put(50.0, 2L * i);
+      percentiles.put(99.9, 4L * i);
+      SortedMap<String, StatsExtension> extensions = Collections.emptySortedMap();
+      if (i % 10 == 0) {
+         Counters counters = new Counters();
+         counters.set("status_2xx", i);
+         extensions = new TreeMap<>();
+         extensions.put("counters", counters);
+      }
+      // only some periods have corrected response times
+      SortedMap<Double, Long> corrected = null;
+      if (i % 2 == 1) {
+         corrected = new TreeMap<>();
+         corrected.put(50.0, 5L * i);
+         corrected.put(99.9, 6L * i);
+      }
+      long startTime = 1_600_000_000_000L + 1000L * i;
+      return new StatisticsSummary(startTime, startTime + 1000 + i, i, 2L * i, 3L * i, 4L * i, percentiles,
+            i, i - i / 3, i % 2, i % 3, i % 5, i % 7, 10L * i, extensions,
+            corrected == null ? 0 : 5L * i, corrected == null ? 0 : 6L * i, corrected);
+   }
+
+   private static void assertSummary(StatisticsSummary expected, StatisticsSummary actual) {
+      assertEquals(expected.startTime, actual.startTime);
+      assertEquals(expected.endTime, actual.endTime);
+      assertEquals(expected.minResponseTime, actual.minResponseTime);
+      assertEquals(expected.meanResponseTime, actual.meanResponseTime);
+      assertEquals(expected.stdDevResponseTime, actual.stdDevResponseTime);
+      assertEquals(expected.maxResponseTime, actual.maxResponseTime);
+      assertEquals(expected.percentileResponseTime, actual.percentileResponseTime);
+      assertEquals(expected.requestCount, actual.requestCount);
+      assertEquals(expected.responseCount, actual.responseCount);
+      assertEquals(expected.invalid, actual.invalid);
+      assertEquals(expected.connectionErrors, actual.connectionErrors);
+      assertEquals(expected.requestTimeouts, actual.requestTimeouts);
+      assertEquals(expected.internalErrors, actual.internalErrors);
+      assertEquals(expected.blockedTime, actual.blockedTime);
+      assertEquals(expected.extensions.keySet(), actual.extensions.keySet());
+      for (var entry : expected.extensions.entrySet()) {
+         StatsExtension extension = actual.extensions.get(entry.getKey());
+         assertArrayEquals(entry.getValue().headers(), extension.headers());
+         for (String header : extension.headers()) {
+            assertEquals(entry.getValue().byHeader(header), extension.byHeader(header));
+         }
+      }
+      assertEquals(expected.meanCorrectedResponseTime, actual.meanCorrectedResponseTime);
+      assertEquals(expected.maxCorrectedResponseTime, actual.maxCorrectedResponseTime);
+      if (expected.percentileCorrectedResponseTime == null) {
+         assertNull(actual.percentileCorrectedResponseTime);
+      } else {
+         assertEquals(expected.percentileCorrectedResponseTime, actual.percentileCorrectedResponseTime);
+      }
+   }
+}
@@ -0,0 +1,244 @@
+package io.hyperfoil.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.PhaseBuilder;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.controller.model.RequestStats;
+import io.hyperfoil.core.steps.NoopStep;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+public class StatisticsStoreTest {
+   private static final int METRICS = 20;
+   private static final int SEQUENCES = 100;
+   private static final String[] AGENTS = { "agent0", "agent1" };
+
+   private final EventExecutorGroup executors = new DefaultEventExecutorGroup(4);
+
+   @After
+   public void shutdown() {
+      executors.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   @Test
+   public void testComputeAfterRecords() throws Exception {
+      StatisticsStore store = new StatisticsStore(benchmark(false), f -> {
+      }, null, executors);
+      for (int seq = 0; seq < SEQUENCES; ++seq) {
+         for (int m = 0; m < METRICS; ++m) {
+            for (String agent : AGENTS) {
+               assertTrue(store.record(agent, 0, 0, "metric" + m, snapshot(seq, 0)));
+            }
+         }
+         if (seq == SEQUENCES / 2) {
+            // Summary requested in the middle of recording sees exactly the records before it
+            List<RequestStats> stats = get(store.totalSummary());
+            assertEquals(METRICS, stats.size());
+            for (RequestStats rs : stats) {
+               assertEquals((seq + 1) * AGENTS.length, rs.summary.requestCount);
+            }
+         }
+      }
+      // No waiting between the records and the computation
+      List<RequestStats> stats = get(store.totalSummary());
+      assertEquals(METRICS, stats.size());
+      for (RequestStats rs : stats) {
+         assertEquals(SEQUENCES * AGENTS.length, rs.summary.requestCount);
+      }
+      get(store.completePhase("test"));
+      for (int m = 0; m < METRICS; ++m) {
+         List<StatisticsSummary> series = get(store.series("test", 0, "metric" + m));
+         assertEquals(SEQUENCES, series.size());
+         assertEquals(SEQUENCES * AGENTS.length, series.stream().mapToInt(s -> s.requestCount).sum());
+         assertEquals("metric" + m, get(store.histogram("test", 0, "metric" + m)).metric);
+      }
+      assertTrue(get(store.completeAll()).isEmpty());
+      assertTrue(store.validateSlas());
+   }
+
+   @Test
+   public void testLateRecords() throws Exception {
+      StatisticsStore store = new StatisticsStore(benchmark(false), f -> {
+      }, null, executors);
+      for (int m = 0; m < METRICS; ++m) {
+         assertTrue(store.record("agent0", 0, 0, "metric" + m, snapshot(0, 0)));
+      }
+      CompletableFuture<Void> completion = store.completePhase("test");
+      // Rejected right away, even before the completion runs
+      for (int m = 0; m < METRICS; ++m) {
+         assertFalse(store.record("agent0", 0, 0, "metric" + m, snapshot(1, 0)));
+      }
+      get(completion);
+      for (RequestStats rs : get(store.totalSummary())) {
+         assertEquals(1, rs.summary.requestCount);
+      }
+      // Phase completed explicitly so there's nothing to report
+      assertTrue(get(store.completeAll()).isEmpty());
+   }
+
+   @Test
+   public void testCompleteAllReportsNotCompletedData() throws Exception {
+      StatisticsStore store = new StatisticsStore(benchmark(false), f -> {
+      }, null, executors);
+      for (int m = 0; m < METRICS; ++m) {
+         store.record("agent0", 0, 0, "metric" + m, snapshot(0, 0));
+      }
+      List<String> errors = get(store.completeAll());
+      assertEquals(METRICS, errors.size());
+      assertFalse(store.record("agent0", 0, 0, "metric0", snapshot(1, 0)));
+      assertTrue(get(store.completeAll()).isEmpty());
+   }
+
+   @Test
+   public void testConcurrentFailures() throws Exception {
+      AtomicInteger handled = new AtomicInteger();
+      StatisticsStore store = new StatisticsStore(benchmark(true), f -> handled.incrementAndGet(), null, executors);
+      for (int seq = 0; seq < SEQUENCES; ++seq) {
+         for (int m = 0; m < METRICS; ++m) {
+            for (String agent : AGENTS) {
+               store.record(agent, 0, 0, "metric" + m, snapshot(seq, 1));
+            }
+         }
+      }
+      get(store.completePhase("test"));
+      assertFalse(store.validateSlas());
+      assertEquals(METRICS, handled.get());
+      assertEquals(METRICS, store.getFailures().size());
+      Set<String> metrics = new HashSet<>();
+      store.getFailures().forEach(f -> metrics.add(f.metric()));
+      assertEquals(METRICS, metrics.size());
+      for (RequestStats rs : get(store.totalSummary())) {
+         assertEquals(1, rs.failedSLAs.size());
+      }
+   }
+
+   @Test
+   public void testWithoutExecutors() {
+      StatisticsStore store = new StatisticsStore(benchmark(false), f -> {
+      });
+      store.record("agent0", 0, 0, "metric0", snapshot(0, 0));
+      CompletableFuture<List<RequestStats>> stats = store.totalSummary();
+      assertTrue(stats.isDone());
+      assertEquals(1, stats.join().size());
+      assertTrue(store.completePhase("test").isDone());
+      assertFalse(store.record("agent0", 0, 0, "metric0", snapshot(1, 0)));
+   }
+
+   @Test
+   public void testOverloadedIntervals() {
+      StatisticsStore store = new StatisticsStore(benchmark(false), f -> {
+      });
+      // the record at 10 seconds covers the statistics period (9000, 10000]
+      store.addEventLoopRecord("agent0", eventLoopRecord(10_000, 0, false));
+      store.addEventLoopRecord("agent1", eventLoopRecord(10_000, 0, false));
+      assertFalse(store.isOverloaded(null, 9000, 10_000));
+
+      assertTrue(store.addEventLoopRecord("agent0", eventLoopRecord(10_000, 1, true)));
+      // only the first overloaded record of an agent is reported
+      assertFalse(store.addEventLoopRecord("agent0", eventLoopRecord(20_000, 1, true)));
+      assertTrue(store.isOverloaded("agent0", 9000, 10_000));
+      assertTrue(store.isOverloaded("agent0", 9500, 9600));
+      assertTrue(store.isOverloaded("agent0", 9999, 10_001));
+      assertTrue(store.isOverloaded("agent0", 5000, 15_000));
+      assertTrue(store.isOverloaded(null, 9000, 10_000));
+      // adjacent intervals do not overlap
+      assertFalse(store.isOverloaded("agent0", 8000, 9000));
+      assertFalse(store.isOverloaded("agent0", 10_000, 11_000));
+      assertFalse(store.isOverloaded("agent0", 12_000, 13_000));
+      // other agents are not affected
+      assertFalse(store.isOverloaded("agent1", 9000, 10_000));
+      assertFalse(store.isOverloaded("agent2", 9000, 10_000));
+
+      // records from different agents arrive in any order
+      assertTrue(store.addEventLoopRecord("agent1", eventLoopRecord(5000, 0, true)));
+      assertTrue(store.isOverloaded("agent1", 4500, 4600));
+      assertTrue(store.isOverloaded(null, 4500, 4600));
+      assertFalse(store.isOverloaded("agent0", 4500, 4600));
+      assertFalse(store.isOverloaded(null, 5000, 9000));
+      assertTrue(store.isOverloaded(null, 5000, 9001));
+   }
+
+   @Test
+   public void testEventLoopStatsJsonRoundTrip() throws Exception {
+      StatisticsStore store = new StatisticsStore(benchmark(false), f -> {
+      });
+      // the flags do not match the current threshold, as if the run used a different one
+      store.addEventLoopRecord("agent0", eventLoopRecord(10_000, 0, true));
+      store.addEventLoopRecord("agent0", new StatisticsStore.EventLoopRecord(11_000, 1, 1, 2, Long.MAX_VALUE / 2, 4, 5,
+            false));
+      StringWriter writer = new StringWriter();
+      JsonGenerator generator = new JsonFactory(new ObjectMapper()).createGenerator(writer);
+      JsonWriter.writeArrayJsons(store, generator, null);
+      generator.close();
+
+      StatisticsStore loaded = JsonLoader.read(writer.toString(), new StatisticsStore(benchmark(false), f -> {
+      }));
+      List<StatisticsStore.EventLoopRecord> records = loaded.eventLoopStats().get("agent0");
+      assertEquals(2, records.size());
+      assertEquals(10_000, records.get(0).timestamp);
+      assertTrue(records.get(0).overloaded);
+      assertEquals(11_000, records.get(1).timestamp);
+      assertEquals(1, records.get(1).executor);
+      assertEquals(1, records.get(1).queueDelayP50);
+      assertEquals(2, records.get(1).queueDelayP99);
+      assertEquals(Long.MAX_VALUE / 2, records.get(1).queueDelayMax);
+      assertEquals(4, records.get(1).iterationP99);
+      assertEquals(5, records.get(1).iterationMax);
+      assertFalse(records.get(1).overloaded);
+      assertTrue(loaded.isOverloaded("agent0", 9000, 10_000));
+      assertFalse(loaded.isOverloaded("agent0", 10_000, 11_000));
+   }
+
+   private static <T> T get(CompletableFuture<T> future) throws Exception {
+      return future.get(10, TimeUnit.SECONDS);
+   }
+
+   private static Benchmark benchmark(boolean withSlas) {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test");
+      PhaseBuilder.AtOnce phase = builder.addPhase("test").atOnce(1);
+      if (withSlas) {
+         for (int m = 0; m < METRICS; ++m) {
+            phase.customSla("metric" + m).errorRatio(0.1);
+         }
+      }
+      phase.duration(1).scenario().initialSequence("test").step(new NoopStep());
+      return builder.build();
+   }
+
+   private static StatisticsStore.EventLoopRecord eventLoopRecord(long timestamp, int executor, boolean overloaded) {
+      return new StatisticsStore.EventLoopRecord(timestamp, executor, 1000, 2000, 3000, 4000, 5000, overloaded);
+   }
+
+   private static StatisticsSnapshot snapshot(int sequenceId, int errors) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = sequenceId;
+      snapshot.histogram.setStartTimeStamp(1000L * sequenceId);
+      snapshot.histogram.setEndTimeStamp(1000L * sequenceId + 1000);
+      snapshot.histogram.recordValue(1_000_000);
+      snapshot.requestCount = 1;
+      snapshot.responseCount = 1;
+      snapshot.connectionErrors = errors;
+      return snapshot;
+   }
+}
@@ -0,0 +1,308 @@
+package io.hyperfoil.core.generators;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV (or plain text) file mapped into memory. When the file is opened we scan it once and record the offset of each
+ * row in an off-heap index; the values are located only when a row is {@link #read(long, int[], Field[]) read} and
+ * exposed as {@link Field} views into the mapped file, without allocating a {@link String} for each value.
+ * <p>
+ * The file is mapped in chunks of 1 GB; consecutive mappings overlap by {@link #MAX_ROW_LENGTH} so that each row
+ * fits into the chunk where it starts.
+ */
+final class MappedCsvFile {
+   static final int MAX_ROW_LENGTH = 1 << 20;
+   private static final int CHUNK_BITS = 30;
+   private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+   private static final int PAGE_BITS = 20;
+   private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+   // used only to size the first index page, which grows when the estimate is too low
+   private static final int ESTIMATED_ROW_LENGTH = 32;
+
+   private final MappedByteBuffer[] chunks;
+   private final LongBuffer[] index;
+   private final long rows;
+   private final byte separator;
+   private final boolean quoting;
+
+   private MappedCsvFile(MappedByteBuffer[] chunks, LongBuffer[] index, long rows, byte separator, boolean quoting) {
+      this.chunks = chunks;
+      this.index = index;
+      this.rows = rows;
+      this.separator = separator;
+      this.quoting = quoting;
+   }
+
+   /**
+    * @param path File to map.
+    * @param separator Column separator; must be an ASCII character.
+    * @param quoting Values can be enclosed in double quotes and contain separators, quotes (doubled) or line breaks.
+    * @param skipComments Skip lines starting with <code>#</code> (after whitespaces).
+    * @param skipEmpty Skip empty lines.
+    * @return Indexed file.
+    * @throws IOException When the file cannot be read or a row is longer than {@link #MAX_ROW_LENGTH}.
+    */
+   static MappedCsvFile open(Path path, byte separator, boolean quoting, boolean skipComments, boolean skipEmpty)
+         throws IOException {
+      MappedByteBuffer[] chunks;
+      long size;
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+         size = channel.size();
+         chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_BITS)];
+         for (int i = 0; i < chunks.length; ++i) {
+            long start = (long) i << CHUNK_BITS;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                  Math.min(size - start, CHUNK_MASK + 1 + MAX_ROW_LENGTH));
+         }
+      }
+      List<LongBuffer> pages = new ArrayList<>();
+      pages.add(allocatePage((int) Math.min(1 << PAGE_BITS, size / ESTIMATED_ROW_LENGTH + 1)));
+      long rows = 0;
+      long rowStart = 0;
+      // first non-whitespace character on the line
+      byte first = 0;
+      byte previous = 0;
+      boolean quoted = false;
+      for (int i = 0; i < chunks.length; ++i) {
+         MappedByteBuffer chunk = chunks[i];
+         long chunkStart = (long) i << CHUNK_BITS;
+         int end = (int) Math.min(size - chunkStart, CHUNK_MASK + 1);
+         for (int pos = 0; pos < end; ++pos) {
+            byte b = chunk.get(pos);
+            if (b == '\n' && !quoted) {
+               long offset = chunkStart + pos;
+               if (include(first, previous, offset - rowStart, skipComments, skipEmpty)) {
+                  rows = addRow(pages, rows, rowStart);
+               }
+               rowStart = offset + 1;
+               first = 0;
+               previous = b;
+               continue;
+            }
+            if (first == 0 && (b < 0 || b > ' ')) {
+               first = b;
+            }
+            // quotes in comments are ignored
+            if (b == '"' && quoting && !(skipComments && first == '#')) {
+               quoted = !quoted;
+            }
+            previous = b;
+            if (chunkStart + pos - rowStart >= MAX_ROW_LENGTH) {
+               throw new IOException("Row starting at offset " + rowStart + " in " + path + " is longer than "
+                     + MAX_ROW_LENGTH + " bytes" + (quoted ? " (unterminated quotes?)" : ""));
+            }
+         }
+      }
+      if (rowStart < size && include(first, previous, size - rowStart, skipComments, skipEmpty)) {
+         rows = addRow(pages, rows, rowStart);
+      }
+      return new MappedCsvFile(chunks, pages.toArray(new LongBuffer[0]), rows, separator, quoting);
+   }
+
+   private static boolean include(byte first, byte last, long length, boolean skipComments, boolean skipEmpty) {
+      if (skipComments && first == '#') {
+         return false;
+      }
+      // Line with just '\r' is empty, too
+      return !skipEmpty || length > 1 || length == 1 && last != '\r';
+   }
+
+   private static long addRow(List<LongBuffer> pages, long rows, long offset) {
+      int page = (int) (rows >>> PAGE_BITS);
+      int position = (int) (rows & PAGE_MASK);
+      if (page == pages.size()) {
+         pages.add(allocatePage(1 << PAGE_BITS));
+      } else if (position == pages.get(page).capacity()) {
+         // only the first page can be smaller than full size
+         LongBuffer grown = allocatePage(Math.min(1 << PAGE_BITS, 2 * position));
+         grown.put(pages.get(page).rewind());
+         pages.set(page, grown);
+      }
+      pages.get(page).put(position, offset);
+      return rows + 1;
+   }
+
+   private static LongBuffer allocatePage(int capacity) {
+      return ByteBuffer.allocateDirect(8 * capacity).order(ByteOrder.nativeOrder()).asLongBuffer();
+   }
+
+   long rows() {
+      return rows;
+   }
+
+   /**
+    * Locates values in given row. Columns must be sorted in ascending order; if the row has fewer columns
+    * the corresponding fields are {@link Field#clear() cleared}.
+    */
+   void read(long row, int[] columns, Field[] fields) {
+      long offset = index[(int) (row >>> PAGE_BITS)].get((int) (row & PAGE_MASK));
+      MappedByteBuffer chunk = chunks[(int) (offset >>> CHUNK_BITS)];
+      int limit = chunk.limit();
+      int pos = (int) (offset & CHUNK_MASK);
+      int next = 0;
+      for (int column = 0; next < columns.length; ++column) {
+         boolean wanted = columns[next] == column;
+         boolean last;
+         if (quoting && pos < limit && chunk.get(pos) == '"') {
+            int p = pos + 1;
+            boolean decode = false;
+            while (p < limit) {
+               byte b = chunk.get(p);
+               if (b == '"') {
+                  if (p + 1 < limit && chunk.get(p + 1) == '"') {
+                     decode = true;
+                     p += 2;
+                     continue;
+                  }
+                  break;
+               } else if (b < 0 || b == '\r') {
+                  decode = true;
+               }
+               ++p;
+            }
+            if (wanted) {
+               fields[next].set(chunk, pos + 1, p, decode, true);
+            }
+            // skip closing quote
+            ++p;
+            last = p >= limit || chunk.get(p) != separator;
+            pos = p + 1;
+         } else {
+            int p = pos;
+            boolean decode = false;
+            while (p < limit) {
+               byte b = chunk.get(p);
+               if (b == separator || b == '\n') {
+                  break;
+               } else if (b < 0) {
+                  decode = true;
+               }
+               ++p;
+            }
+            last = p >= limit || chunk.get(p) == '\n';
+            int end = last && p > pos && chunk.get(p - 1) == '\r' ? p - 1 : p;
+            if (wanted) {
+               fields[next].set(chunk, pos, end, decode, false);
+            }
+            pos = p + 1;
+         }
+         if (wanted) {
+            ++next;
+         }
+         if (last) {
+            break;
+         }
+      }
+      for (; next < columns.length; ++next) {
+         fields[next].clear();
+      }
+   }
+
+   /**
+    * Value of a column in the mapped file. The instance is reused for the next row read; consumers that retain
+    * the value must copy it using {@link #toString()}.
+    */
+   static final class Field implements CharSequence {
+      private static final char[] NO_CHARS = new char[0];
+
+      private ByteBuffer source;
+      private int offset;
+      private int length;
+      private char[] chars = NO_CHARS;
+      private boolean decoded;
+      private boolean present;
+
+      void set(ByteBuffer source, int start, int end, boolean decode, boolean quoted) {
+         this.present = true;
+         if (decode) {
+            this.source = null;
+            this.decoded = true;
+            decode(source, start, end, quoted);
+         } else {
+            this.source = source;
+            this.decoded = false;
+            this.offset = start;
+            this.length = end - start;
+         }
+      }
+
+      void clear() {
+         present = false;
+         source = null;
+      }
+
+      boolean isPresent() {
+         return present;
+      }
+
+      private void decode(ByteBuffer source, int start, int end, boolean quoted) {
+         if (chars.length < end - start) {
+            chars = new char[Math.max(end - start, 2 * chars.length)];
+         }
+         int n = 0;
+         int p = start;
+         while (p < end) {
+            int b = source.get(p++);
+            if (b >= 0) {
+               if (quoted && b == '"') {
+                  // quoted quote
+                  ++p;
+               } else if (quoted && b == '\r' && p < end && source.get(p) == '\n') {
+                  continue;
+               }
+               chars[n++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0 && p < end) {
+               chars[n++] = (char) ((b & 0x1F) << 6 | source.get(p++) & 0x3F);
+            } else if ((b & 0xF0) == 0xE0 && p + 1 < end) {
+               chars[n++] = (char) ((b & 0x0F) << 12 | (source.get(p++) & 0x3F) << 6 | source.get(p++) & 0x3F);
+            } else if ((b & 0xF8) == 0xF0 && p + 2 < end) {
+               int codePoint = (b & 0x07) << 18 | (source.get(p++) & 0x3F) << 12 | (source.get(p++) & 0x3F) << 6
+                     | source.get(p++) & 0x3F;
+               chars[n++] = Character.highSurrogate(codePoint);
+               chars[n++] = Character.lowSurrogate(codePoint);
+            } else {
+               chars[n++] = '\uFFFD';
+            }
+         }
+         length = n;
+      }
+
+      @Override
+      public int length() {
+         return length;
+      }
+
+      @Override
+      public char charAt(int index) {
+         if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+         }
+         return decoded ? chars[index] : (char) source.get(offset + index);
+      }
+
+      @Override
+      public CharSequence subSequence(int start, int end) {
+         return toString().subSequence(start, end);
+      }
+
+      @Override
+      public String toString() {
+         if (decoded) {
+            return new String(chars, 0, length);
+         }
+         byte[] bytes = new byte[length];
+         source.get(offset, bytes);
+         return new String(bytes, StandardCharsets.US_ASCII);
+      }
+   }
+}
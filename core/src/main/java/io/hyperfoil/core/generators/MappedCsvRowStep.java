@@ -0,0 +1,132 @@
+package io.hyperfoil.core.generators;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.ExternalFile;
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.api.session.ObjectAccess;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+
+/**
+ * Alternative to {@link RandomCsvRowStep} (and {@link RandomItemStep} with a file) that does not load the file
+ * into memory: the file is not part of the serialized benchmark but it's {@link ExternalFile accessed on the agent},
+ * {@link MappedCsvFile mapped and indexed} once when the sessions are created. Only the selected row is decoded
+ * and the variables are set to {@link String strings}.
+ */
+public class MappedCsvRowStep implements Step, ResourceUtilizer, Session.ResourceKey<MappedCsvRowStep.Context>,
+      ExternalFile.Holder {
+   private final ExternalFile file;
+   private final byte separator;
+   private final boolean quoting;
+   private final boolean skipComments;
+   private final boolean skipEmpty;
+   private final int[] srcIndex;
+   private final ObjectAccess[] columnVars;
+
+   // Use just for testing
+   private final transient IntUnaryOperator rowSelector;
+   @Visitor.Ignore
+   private transient volatile MappedCsvFile csv;
+
+   public MappedCsvRowStep(ExternalFile file, char separator, boolean quoting, boolean skipComments, boolean skipEmpty,
+         int[] srcIndex, ObjectAccess[] columnVars, IntUnaryOperator rowSelector) {
+      if (separator >= 0x80) {
+         throw new BenchmarkDefinitionException("Memory-mapped file supports only ASCII separators, not '" + separator + "'");
+      }
+      this.file = file;
+      this.separator = (byte) separator;
+      this.quoting = quoting;
+      this.skipComments = skipComments;
+      this.skipEmpty = skipEmpty;
+      this.srcIndex = srcIndex;
+      this.columnVars = columnVars;
+      this.rowSelector = rowSelector;
+   }
+
+   /**
+    * Finds the file on local filesystem.
+    *
+    * @param file Name of the file as used in the benchmark.
+    * @return Reference to the file or <code>null</code> if the benchmark data are not backed by files; in that case
+    * the data are already in memory and the caller should load them as usual.
+    */
+   static ExternalFile externalFile(String file) {
+      Path path = Locator.current().benchmark().data().file(file);
+      if (path == null) {
+         return null;
+      }
+      try {
+         return new ExternalFile(file, path, Files.size(path));
+      } catch (IOException e) {
+         throw new BenchmarkDefinitionException("Cannot access file " + file, e);
+      }
+   }
+
+   @Override
+   public boolean invoke(Session session) {
+      MappedCsvFile csv = this.csv;
+      if (csv.rows() == 0) {
+         throw new RuntimeException("No rows available - was the file " + file.name() + " empty?");
+      }
+      Context ctx = session.getResource(this);
+      final var rowSelector = this.rowSelector;
+      final long row;
+      if (rowSelector == null) {
+         row = ThreadLocalRandom.current().nextLong(csv.rows());
+      } else {
+         row = rowSelector.applyAsInt((int) Math.min(csv.rows(), Integer.MAX_VALUE));
+      }
+      csv.read(row, srcIndex, ctx.fields);
+      for (int i = 0; i < columnVars.length; i++) {
+         MappedCsvFile.Field field = ctx.fields[i];
+         // the field is reused for the next row, the variable must not change with it
+         columnVars[i].setObject(session, field.isPresent() ? field.toString() : null);
+      }
+      return true;
+   }
+
+   @Override
+   public void reserve(Session session) {
+      if (csv == null) {
+         open();
+      }
+      session.declareResource(this, () -> new Context(columnVars.length));
+   }
+
+   private synchronized void open() {
+      if (csv == null) {
+         Path path = file.resolve();
+         try {
+            csv = MappedCsvFile.open(path, separator, quoting, skipComments, skipEmpty);
+         } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map file " + path, e);
+         }
+      }
+   }
+
+   @Override
+   public Stream<ExternalFile> externalFiles() {
+      return Stream.of(file);
+   }
+
+   public static class Context implements Session.Resource {
+      private final MappedCsvFile.Field[] fields;
+
+      Context(int columns) {
+         fields = new MappedCsvFile.Field[columns];
+         for (int i = 0; i < columns; ++i) {
+            fields[i] = new MappedCsvFile.Field();
+         }
+      }
+   }
+}
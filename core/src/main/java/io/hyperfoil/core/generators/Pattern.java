@@ -137,6 +137,13 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
       }
    }
 
+   /**
+    * @return True if the pattern does not contain any variables and {@link #apply(Session)} always returns the same string.
+    */
+   public boolean isConstant() {
+      return components.length == 0 || components.length == 1 && components[0] instanceof StringComponent;
+   }
+
    @Override
    public String apply(Session session) {
       if (components.length == 1 && components[0] instanceof StringComponent) {
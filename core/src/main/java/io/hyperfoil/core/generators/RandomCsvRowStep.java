@@ -15,6 +15,7 @@ import java.util.function.IntUnaryOperator;
 import org.kohsuke.MetaInfServices;
 
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.ExternalFile;
 import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.config.Name;
 import io.hyperfoil.api.config.PairBuilder;
@@ -82,6 +83,7 @@ public class RandomCsvRowStep implements Step {
       private String file;
       private boolean skipComments;
       private char separator = ',';
+      private boolean memoryMapped;
       private final List<String> builderColumns = new ArrayList<>();
       private transient IntUnaryOperator customRowSelector = null;
 
@@ -96,6 +98,13 @@ public class RandomCsvRowStep implements Step {
          }
          assert next == srcIndex.length;
 
+         ExternalFile externalFile = memoryMapped ? MappedCsvRowStep.externalFile(file) : null;
+         if (externalFile != null) {
+            ObjectAccess[] columnVars = builderColumns.stream().filter(Objects::nonNull).map(SessionFactory::objectAccess)
+                  .toArray(ObjectAccess[]::new);
+            return Collections.singletonList(new MappedCsvRowStep(externalFile, separator, true,
+                  skipComments, false, srcIndex, columnVars, customRowSelector));
+         }
          try (InputStream inputStream = Locator.current().benchmark().data().readFile(file)) {
             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
             ArrayList<String[]> records = new ArrayList<>();
@@ -226,6 +235,20 @@ public class RandomCsvRowStep implements Step {
          return this;
       }
 
+      /**
+       * Do not load the file into memory; the file is copied to agents separately and memory-mapped there.
+       * This is useful for large files. Only ASCII separators are supported. When the benchmark data are not stored
+       * in files (e.g. the benchmark was uploaded without them) the file is loaded as usual.
+       * Default is <code>false</code>.
+       *
+       * @param memoryMapped Map the file?
+       * @return Self.
+       */
+      public Builder memoryMapped(boolean memoryMapped) {
+         this.memoryMapped = memoryMapped;
+         return this;
+      }
+
       /**
        * Set character used for column separation. By default it is comma (<code>,</code>).
        *
@@ -18,6 +18,7 @@ import java.util.stream.Stream;
 import org.kohsuke.MetaInfServices;
 
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.ExternalFile;
 import io.hyperfoil.api.config.InitFromParam;
 import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.config.Name;
@@ -95,6 +96,7 @@ public class RandomItemStep implements Step {
       private String fromVar;
       private WeightedGenerator.Builder<Builder> weighted;
       private String file;
+      private boolean memoryMapped;
       private String toVar;
 
       /**
@@ -126,6 +128,16 @@ public class RandomItemStep implements Step {
          } else if (usedProperties == 0) {
             throw new BenchmarkDefinitionException("randomItem must define one of: `fromVar`, `list` or `file`");
          }
+         if (memoryMapped) {
+            if (file == null) {
+               throw new BenchmarkDefinitionException("randomItem can use `memoryMapped` only with `file`");
+            }
+            ExternalFile externalFile = MappedCsvRowStep.externalFile(file);
+            if (externalFile != null) {
+               return Collections.singletonList(new MappedCsvRowStep(externalFile, '\n', false, false, true,
+                     new int[] { 0 }, new ObjectAccess[] { SessionFactory.objectAccess(toVar) }, null));
+            }
+         }
          WeightedGenerator generator;
          if (weighted != null) {
             generator = weighted.build();
@@ -199,5 +211,18 @@ public class RandomItemStep implements Step {
          this.file = file;
          return this;
       }
+
+      /**
+       * Do not load the <code>file</code> into memory; the file is copied to agents separately and memory-mapped there.
+       * When the benchmark data are not stored in files (e.g. the benchmark was uploaded without them) the file
+       * is loaded as usual. Default is <code>false</code>.
+       *
+       * @param memoryMapped Map the file?
+       * @return Self.
+       */
+      public Builder memoryMapped(boolean memoryMapped) {
+         this.memoryMapped = memoryMapped;
+         return this;
+      }
    }
 }
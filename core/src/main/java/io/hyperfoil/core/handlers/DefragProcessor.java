@@ -10,8 +10,9 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 
 public class DefragProcessor extends Processor.BaseDelegating
-      implements ResourceUtilizer, Session.ResourceKey<DefragProcessor.Context> {
+      implements ResourceUtilizer, Session.SlottedResourceKey<DefragProcessor.Context> {
    private static final Logger log = LogManager.getLogger(DefragProcessor.class);
+   private int resourceSlot = -1;
 
    public static Processor of(Processor delegate, boolean fragmented) {
       return fragmented ? new DefragProcessor(delegate) : delegate;
@@ -36,6 +37,16 @@ public class DefragProcessor extends Processor.BaseDelegating
       }
    }
 
+   @Override
+   public int resourceSlot() {
+      return resourceSlot;
+   }
+
+   @Override
+   public void setResourceSlot(int slot) {
+      this.resourceSlot = slot;
+   }
+
    @Override
    public void reserve(Session session) {
       // Note: contrary to the recommended pattern the Context won't reserve all objects ahead, the CompositeByteBuf
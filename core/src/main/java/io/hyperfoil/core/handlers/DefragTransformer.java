@@ -10,8 +10,9 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 
 public class DefragTransformer extends Transformer.BaseDelegating
-      implements ResourceUtilizer, Session.ResourceKey<DefragTransformer.Context> {
+      implements ResourceUtilizer, Session.SlottedResourceKey<DefragTransformer.Context> {
    private static final Logger log = LogManager.getLogger(DefragTransformer.class);
+   private int resourceSlot = -1;
 
    public DefragTransformer(Transformer delegate) {
       super(delegate);
@@ -32,6 +33,16 @@ public class DefragTransformer extends Transformer.BaseDelegating
       }
    }
 
+   @Override
+   public int resourceSlot() {
+      return resourceSlot;
+   }
+
+   @Override
+   public void setResourceSlot(int slot) {
+      this.resourceSlot = slot;
+   }
+
    @Override
    public void reserve(Session session) {
       // Note: contrary to the recommended pattern the Context won't reserve all objects ahead, the CompositeByteBuf
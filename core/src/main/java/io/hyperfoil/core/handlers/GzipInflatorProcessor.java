@@ -22,7 +22,7 @@ import io.netty.buffer.Unpooled;
 
 // Based on java.util.zip.GZIPInputStream
 public class GzipInflatorProcessor extends MultiProcessor
-      implements ResourceUtilizer, Session.ResourceKey<GzipInflatorProcessor.InflaterResource> {
+      implements ResourceUtilizer, Session.SlottedResourceKey<GzipInflatorProcessor.InflaterResource> {
    private static final Logger log = LogManager.getLogger(GzipInflatorProcessor.class);
    private static final int FHCRC = 2; // Header CRC
    private static final int FEXTRA = 4; // Extra field
@@ -30,6 +30,7 @@ public class GzipInflatorProcessor extends MultiProcessor
    private static final int FCOMMENT = 16; // File comment
 
    private final ReadAccess encodingVar;
+   private int resourceSlot = -1;
 
    public GzipInflatorProcessor(Processor[] processors, ReadAccess encodingVar) {
       super(processors);
@@ -59,6 +60,16 @@ public class GzipInflatorProcessor extends MultiProcessor
       resource.process(session, data, offset, length);
    }
 
+   @Override
+   public int resourceSlot() {
+      return resourceSlot;
+   }
+
+   @Override
+   public void setResourceSlot(int slot) {
+      this.resourceSlot = slot;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, InflaterResource::new);
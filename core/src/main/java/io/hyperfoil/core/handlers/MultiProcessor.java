@@ -7,6 +7,7 @@ import java.util.List;
 import io.hyperfoil.api.processor.Processor;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.builders.ServiceLoadedBuilderProvider;
+import io.hyperfoil.core.handlers.json.MultiJsonHandler;
 import io.netty.buffer.ByteBuf;
 
 public class MultiProcessor implements Processor {
@@ -40,6 +41,7 @@ public class MultiProcessor implements Processor {
    public static class Builder<P, S extends Builder<P, S>> implements Processor.Builder {
       public final P parent;
       public final List<Processor.Builder> delegates = new ArrayList<>();
+      private boolean combineJsonQueries;
 
       public Builder(P parent) {
          this.parent = parent;
@@ -54,7 +56,7 @@ public class MultiProcessor implements Processor {
 
       protected Processor[] buildProcessors(boolean fragmented) {
          Processor[] delegates = this.delegates.stream().map(d -> d.build(fragmented)).toArray(Processor[]::new);
-         return delegates;
+         return combineJsonQueries ? MultiJsonHandler.combine(delegates) : delegates;
       }
 
       public Processor buildSingle(boolean fragmented) {
@@ -84,6 +86,19 @@ public class MultiProcessor implements Processor {
          return new ServiceLoadedBuilderProvider<>(Processor.Builder.class, this::processor);
       }
 
+      /**
+       * Evaluate adjacent <code>json</code> processors that only extract values in a single pass over the data.
+       * Note that their selected values are then passed to the nested processors in the order these appear
+       * in the document rather than query by query. By default false.
+       *
+       * @param combineJsonQueries Combine the queries?
+       * @return Self.
+       */
+      public S combineJsonQueries(boolean combineJsonQueries) {
+         this.combineJsonQueries = combineJsonQueries;
+         return self();
+      }
+
       @SuppressWarnings("unchecked")
       protected S self() {
          return (S) this;
@@ -11,11 +11,12 @@ import io.netty.buffer.ByteBuf;
  * Simple pattern (no regexp) search based on Rabin-Karp algorithm.
  * Does not handle the intricacies of UTF-8 mapping same strings to different bytes.
  */
-public class SearchHandler implements Processor, ResourceUtilizer, Session.ResourceKey<SearchHandler.Context> {
+public class SearchHandler implements Processor, ResourceUtilizer, Session.SlottedResourceKey<SearchHandler.Context> {
    private final byte[] begin, end;
    private final int beginHash, endHash;
    private final int beginCoef, endCoef;
    private Processor processor;
+   private int resourceSlot = -1;
 
    public SearchHandler(String begin, String end, Processor processor) {
       this.begin = begin.getBytes(StandardCharsets.UTF_8);
@@ -96,6 +97,16 @@ public class SearchHandler implements Processor, ResourceUtilizer, Session.Resou
       processor.after(session);
    }
 
+   @Override
+   public int resourceSlot() {
+      return resourceSlot;
+   }
+
+   @Override
+   public void setResourceSlot(int slot) {
+      this.resourceSlot = slot;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, Context::new);
@@ -12,11 +12,13 @@ import io.netty.buffer.ByteBuf;
  * Simple pattern (no regexp) search based on Rabin-Karp algorithm.
  * Does not handle the intricacies of UTF-8 mapping same strings to different bytes.
  */
-public class SearchValidator implements Processor, ResourceUtilizer, Session.ResourceKey<SearchValidator.Context> {
+public class SearchValidator
+      implements Processor, ResourceUtilizer, Session.SlottedResourceKey<SearchValidator.Context> {
    private final byte[] text;
    private final int hash;
    private final int coef;
    private final IntPredicate match;
+   private int resourceSlot = -1;
 
    /**
     * @param text Search pattern.
@@ -73,6 +75,16 @@ public class SearchValidator implements Processor, ResourceUtilizer, Session.Res
       }
    }
 
+   @Override
+   public int resourceSlot() {
+      return resourceSlot;
+   }
+
+   @Override
+   public void setResourceSlot(int slot) {
+      this.resourceSlot = slot;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, Context::new);
@@ -1,5 +1,9 @@
 package io.hyperfoil.core.handlers;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import org.kohsuke.MetaInfServices;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
@@ -9,6 +13,7 @@ import io.hyperfoil.api.connection.Request;
 import io.hyperfoil.api.processor.RawBytesHandler;
 import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
 
 public class TransferSizeRecorder implements RawBytesHandler {
@@ -119,5 +124,18 @@ public class TransferSizeRecorder implements RawBytesHandler {
                return "<unknown header: " + header + ">";
          }
       }
+
+      @Override
+      public boolean writeCompact(DataOutput output) throws IOException {
+         Util.writeVarLong(output, sent);
+         Util.writeVarLong(output, received);
+         return true;
+      }
+
+      @Override
+      public void readCompact(DataInput input) throws IOException {
+         sent = Util.readVarLong(input);
+         received = Util.readVarLong(input);
+      }
    }
 }
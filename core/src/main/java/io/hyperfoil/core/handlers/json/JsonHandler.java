@@ -13,7 +13,9 @@ import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.builders.ServiceLoadedBuilderProvider;
 import io.netty.buffer.ByteBuf;
 
-public class JsonHandler extends JsonParser implements Processor, ResourceUtilizer, Session.ResourceKey<JsonHandler.Context> {
+public class JsonHandler extends JsonParser
+      implements Processor, ResourceUtilizer, Session.SlottedResourceKey<JsonHandler.Context> {
+   private int resourceSlot = -1;
 
    public JsonHandler(String query, boolean delete, Transformer replace, Processor processor) {
       super(query.trim(), delete, replace, processor);
@@ -52,6 +54,16 @@ public class JsonHandler extends JsonParser implements Processor, ResourceUtiliz
             '}';
    }
 
+   @Override
+   public int resourceSlot() {
+      return resourceSlot;
+   }
+
+   @Override
+   public void setResourceSlot(int slot) {
+      this.resourceSlot = slot;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, Context::new);
@@ -121,8 +133,8 @@ public class JsonHandler extends JsonParser implements Processor, ResourceUtiliz
    static class ByteBufByteStream implements ByteStream {
       private final Function<ByteStream, ByteStream> retain;
       private final Consumer<ByteStream> release;
-      private ByteBuf buffer;
-      private int readerIndex, writerIndex;
+      ByteBuf buffer;
+      int readerIndex, writerIndex;
 
       ByteBufByteStream(Function<ByteStream, ByteStream> retain, Consumer<ByteStream> release) {
          this.retain = retain;
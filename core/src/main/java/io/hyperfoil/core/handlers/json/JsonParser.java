@@ -32,7 +32,7 @@ public abstract class JsonParser implements Serializable {
    protected final Transformer replace;
    protected final Processor processor;
    @Visitor.Ignore
-   private final JsonParser.Selector[] selectors;
+   private final JsonParser.Selector[][] selectors;
    @Visitor.Ignore
    private final StreamQueue.Consumer<Context, Session> record = JsonParser.this::record;
 
@@ -41,7 +41,28 @@ public abstract class JsonParser implements Serializable {
       this.delete = delete;
       this.replace = replace;
       this.processor = processor;
+      this.selectors = new Selector[][] { compile(query) };
+   }
+
+   /**
+    * Evaluates several queries in a single pass over the input. Values selected by any query are passed to
+    * {@link #record(Context, Session, ByteStream, int, int, boolean)} with <code>Context.recordedQuery</code> set
+    * to the index of that query. The JSON cannot be rewritten in this case.
+    *
+    * @param queries Queries.
+    */
+   protected JsonParser(String[] queries) {
+      this.query = null;
+      this.delete = false;
+      this.replace = null;
+      this.processor = null;
+      this.selectors = Arrays.stream(queries).map(JsonParser::compile).toArray(Selector[][]::new);
+   }
 
+   /**
+    * Parses the query into a chain of selectors, each matching one level of the JSON document.
+    */
+   private static Selector[] compile(String query) {
       byte[] queryBytes = query.getBytes(StandardCharsets.UTF_8);
       if (queryBytes.length == 0 || queryBytes[0] != '.') {
          throw new BenchmarkDefinitionException("Path should start with '.'");
@@ -86,7 +107,7 @@ public abstract class JsonParser implements Serializable {
             ++next;
          selectors.add(new AttribSelector(Arrays.copyOfRange(queryBytes, next, queryBytes.length)));
       }
-      this.selectors = selectors.toArray(new JsonParser.Selector[0]);
+      return selectors.toArray(new Selector[0]);
    }
 
    protected abstract void record(Context context, Session session, ByteStream data, int offset, int length,
@@ -163,20 +184,62 @@ public abstract class JsonParser implements Serializable {
       }
    }
 
+   /**
+    * Position of a single query in its chain of selectors. The tokenizer state in {@link Context} is shared by all
+    * queries.
+    */
+   private static class QueryState {
+      final int index;
+      final Selector[] selectors;
+      final Selector.Context[] selectorContext;
+      int selector;
+      int selectorLevel;
+      int valueStartIndex;
+
+      QueryState(int index, Selector[] selectors) {
+         this.index = index;
+         this.selectors = selectors;
+         this.selectorContext = new Selector.Context[selectors.length];
+         for (int i = 0; i < selectors.length; ++i) {
+            selectorContext[i] = selectors[i].newContext();
+         }
+      }
+
+      void reset() {
+         for (Selector.Context ctx : selectorContext) {
+            if (ctx != null)
+               ctx.reset();
+         }
+         selector = 0;
+         selectorLevel = 0;
+         valueStartIndex = -1;
+      }
+
+      /**
+       * @return Selector that should be matched at given level or <code>null</code>.
+       */
+      Selector selectorAt(int level) {
+         return selectorLevel == level && selector >= 0 && selector < selectors.length ? selectors[selector] : null;
+      }
+
+      ArraySelectorContext arrayContext() {
+         return (ArraySelectorContext) selectorContext[selector];
+      }
+   }
+
    protected abstract class Context implements Session.Resource {
-      Selector.Context[] selectorContext = new Selector.Context[selectors.length];
+      final QueryState[] states = new QueryState[selectors.length];
+      final boolean rewrite = delete || replace != null;
       int level;
-      int selectorLevel;
-      int selector;
       boolean inQuote;
       boolean inKey;
       boolean escaped;
       StreamQueue stream = new StreamQueue(MAX_PARTS);
       int keyStartIndex;
       int lastCharIndex; // end of key name
-      int valueStartIndex;
       int lastOutputIndex; // last byte we have written out
       int safeOutputIndex; // last byte we could definitely write out
+      int recordedQuery; // index of the query whose value is being recorded
       ByteStream[] pool = new ByteStream[MAX_PARTS];
       protected final ByteBuf replaceBuffer = PooledByteBufAllocator.DEFAULT.buffer();
       final StreamQueue.Consumer<Void, Session> replaceConsumer = this::replaceConsumer;
@@ -186,25 +249,21 @@ public abstract class JsonParser implements Serializable {
             pool[i] = byteStreamSupplier.apply(this);
          }
          for (int i = 0; i < selectors.length; ++i) {
-            selectorContext[i] = selectors[i].newContext();
+            states[i] = new QueryState(i, selectors[i]);
          }
          reset();
       }
 
       public void reset() {
-         for (Selector.Context ctx : selectorContext) {
-            if (ctx != null)
-               ctx.reset();
+         for (QueryState state : states) {
+            state.reset();
          }
          level = -1;
-         selectorLevel = 0;
-         selector = 0;
          inQuote = false;
          inKey = false;
          escaped = false;
          keyStartIndex = -1;
          lastCharIndex = -1;
-         valueStartIndex = -1;
          lastOutputIndex = 0;
          safeOutputIndex = 0;
          stream.reset();
@@ -217,10 +276,6 @@ public abstract class JsonParser implements Serializable {
          stream.reset();
       }
 
-      private Selector.Context current() {
-         return selectorContext[selector];
-      }
-
       public void parse(ByteStream data, Session session, boolean isLast) {
          int readerIndex = stream.append(data);
          PARSING: while (true) {
@@ -242,22 +297,20 @@ public abstract class JsonParser implements Serializable {
                   if (!inQuote) {
                      ++level;
                      inKey = true;
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
-                     }
+                     markSafeOutput(readerIndex);
                      // TODO assert we have active attrib selector
                   }
                   break;
                case '}':
                   if (!inQuote) {
-                     tryRecord(session, readerIndex);
-                     if (level == selectorLevel) {
-                        --selectorLevel;
-                        --selector;
-                     }
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
+                     for (QueryState state : states) {
+                        tryRecord(state, session, readerIndex);
+                        if (level == state.selectorLevel) {
+                           --state.selectorLevel;
+                           --state.selector;
+                        }
                      }
+                     markSafeOutput(readerIndex);
                      --level;
                   }
                   break;
@@ -268,36 +321,36 @@ public abstract class JsonParser implements Serializable {
                   break;
                case ':':
                   if (!inQuote) {
-                     if (selectorLevel == level && keyStartIndex >= 0 && selector < selectors.length
-                           && selectors[selector] instanceof AttribSelector) {
-                        AttribSelector selector = (AttribSelector) selectors[this.selector];
-                        if (selector.match(stream, keyStartIndex, lastCharIndex)) {
-                           if (onMatch(readerIndex) && (delete || replace != null)) {
-                              // omit key's starting quote
-                              int outputEnd = keyStartIndex - 1;
-                              // remove possible comma before the key
-                              LOOP: while (true) {
-                                 switch (stream.getByte(outputEnd - 1)) {
-                                    case ' ':
-                                    case '\n':
-                                    case '\t':
-                                    case '\r':
-                                    case ',':
-                                       --outputEnd;
-                                       break;
-                                    default:
-                                       break LOOP;
+                     if (keyStartIndex >= 0) {
+                        for (QueryState state : states) {
+                           Selector selector = state.selectorAt(level);
+                           if (selector instanceof AttribSelector
+                                 && ((AttribSelector) selector).match(stream, keyStartIndex, lastCharIndex)) {
+                              if (onMatch(state, readerIndex) && rewrite) {
+                                 // omit key's starting quote
+                                 int outputEnd = keyStartIndex - 1;
+                                 // remove possible comma before the key
+                                 LOOP: while (true) {
+                                    switch (stream.getByte(outputEnd - 1)) {
+                                       case ' ':
+                                       case '\n':
+                                       case '\t':
+                                       case '\r':
+                                       case ',':
+                                          --outputEnd;
+                                          break;
+                                       default:
+                                          break LOOP;
+                                    }
                                  }
+                                 stream.consume(lastOutputIndex, outputEnd, record, this, session, false);
+                                 lastOutputIndex = outputEnd;
                               }
-                              stream.consume(lastOutputIndex, outputEnd, record, this, session, false);
-                              lastOutputIndex = outputEnd;
                            }
                         }
                      }
                      keyStartIndex = -1;
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
-                     }
+                     markSafeOutput(readerIndex);
                      inKey = false;
                   }
                   break;
@@ -305,17 +358,20 @@ public abstract class JsonParser implements Serializable {
                   if (!inQuote) {
                      inKey = true;
                      keyStartIndex = -1;
-                     tryRecord(session, readerIndex);
-                     if (selectorLevel == level && selector < selectors.length && current() instanceof ArraySelectorContext) {
-                        ArraySelectorContext asc = (ArraySelectorContext) current();
-                        if (asc.active) {
-                           asc.currentItem++;
-                        }
-                        if (((ArraySelector) selectors[selector]).matches(asc)) {
-                           if (onMatch(readerIndex) && (delete || replace != null)) {
-                              // omit the ','
-                              stream.consume(lastOutputIndex, readerIndex - 1, record, this, session, false);
-                              lastOutputIndex = readerIndex - 1;
+                     for (QueryState state : states) {
+                        tryRecord(state, session, readerIndex);
+                        Selector selector = state.selectorAt(level);
+                        if (selector instanceof ArraySelector) {
+                           ArraySelectorContext asc = state.arrayContext();
+                           if (asc.active) {
+                              asc.currentItem++;
+                           }
+                           if (((ArraySelector) selector).matches(asc)) {
+                              if (onMatch(state, readerIndex) && rewrite) {
+                                 // omit the ','
+                                 stream.consume(lastOutputIndex, readerIndex - 1, record, this, session, false);
+                                 lastOutputIndex = readerIndex - 1;
+                              }
                            }
                         }
                      }
@@ -323,18 +379,18 @@ public abstract class JsonParser implements Serializable {
                   break;
                case '[':
                   if (!inQuote) {
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
-                     }
+                     markSafeOutput(readerIndex);
                      ++level;
-                     if (selectorLevel == level && selector < selectors.length
-                           && selectors[selector] instanceof ArraySelector) {
-                        ArraySelectorContext asc = (ArraySelectorContext) current();
-                        asc.active = true;
-                        if (((ArraySelector) selectors[selector]).matches(asc)) {
-                           if (onMatch(readerIndex) && (delete || replace != null)) {
-                              stream.consume(lastOutputIndex, readerIndex, record, this, session, false);
-                              lastOutputIndex = readerIndex;
+                     for (QueryState state : states) {
+                        Selector selector = state.selectorAt(level);
+                        if (selector instanceof ArraySelector) {
+                           ArraySelectorContext asc = state.arrayContext();
+                           asc.active = true;
+                           if (((ArraySelector) selector).matches(asc)) {
+                              if (onMatch(state, readerIndex) && rewrite) {
+                                 stream.consume(lastOutputIndex, readerIndex, record, this, session, false);
+                                 lastOutputIndex = readerIndex;
+                              }
                            }
                         }
                      }
@@ -342,15 +398,14 @@ public abstract class JsonParser implements Serializable {
                   break;
                case ']':
                   if (!inQuote) {
-                     tryRecord(session, readerIndex);
-                     if (selectorLevel == level && selector < selectors.length && current() instanceof ArraySelectorContext) {
-                        ArraySelectorContext asc = (ArraySelectorContext) current();
-                        asc.active = false;
-                        --selectorLevel;
-                     }
-                     if (valueStartIndex < 0) {
-                        safeOutputIndex = readerIndex;
+                     for (QueryState state : states) {
+                        tryRecord(state, session, readerIndex);
+                        if (state.selectorAt(level) instanceof ArraySelector) {
+                           state.arrayContext().active = false;
+                           --state.selectorLevel;
+                        }
                      }
+                     markSafeOutput(readerIndex);
                      keyStartIndex = -1;
                      inKey = false;
                      --level;
@@ -366,13 +421,25 @@ public abstract class JsonParser implements Serializable {
                escaped = false;
             }
          }
-         if (keyStartIndex >= 0 || valueStartIndex >= 0) {
-            stream.release(Math.min(Math.min(keyStartIndex, valueStartIndex), safeOutputIndex));
+         // Keep the buffers with the key or any value that has not been recorded yet
+         int retainedIndex = keyStartIndex;
+         for (QueryState state : states) {
+            if (state.valueStartIndex >= 0 && (retainedIndex < 0 || state.valueStartIndex < retainedIndex)) {
+               retainedIndex = state.valueStartIndex;
+            }
+         }
+         if (retainedIndex >= 0) {
+            if (rewrite) {
+               // There is only one query when rewriting the JSON
+               stream.release(Math.min(Math.min(keyStartIndex, states[0].valueStartIndex), safeOutputIndex));
+            } else {
+               stream.release(retainedIndex);
+            }
             if (isLast) {
                throw new IllegalStateException("End of input while the JSON is not complete.");
             }
          } else {
-            if ((delete || replace != null) && lastOutputIndex < safeOutputIndex) {
+            if (rewrite && lastOutputIndex < safeOutputIndex) {
                stream.consume(lastOutputIndex, safeOutputIndex, record, this, session, isLast);
                lastOutputIndex = safeOutputIndex;
             }
@@ -380,27 +447,34 @@ public abstract class JsonParser implements Serializable {
          }
       }
 
-      private boolean onMatch(int readerIndex) {
-         ++selector;
-         if (selector < selectors.length) {
-            ++selectorLevel;
+      private void markSafeOutput(int readerIndex) {
+         // Output is written only when rewriting the JSON, and then there is only one query
+         if (rewrite && states[0].valueStartIndex < 0) {
+            safeOutputIndex = readerIndex;
+         }
+      }
+
+      private boolean onMatch(QueryState state, int readerIndex) {
+         ++state.selector;
+         if (state.selector < state.selectors.length) {
+            ++state.selectorLevel;
             return false;
          } else {
-            valueStartIndex = readerIndex;
+            state.valueStartIndex = readerIndex;
             return true;
          }
       }
 
-      private void tryRecord(Session session, int readerIndex) {
-         if (selectorLevel == level && valueStartIndex >= 0) {
+      private void tryRecord(QueryState state, Session session, int readerIndex) {
+         if (state.selectorLevel == level && state.valueStartIndex >= 0) {
             // valueStartIndex is always before quotes here
             LOOP: while (true) {
-               switch (stream.getByte(valueStartIndex)) {
+               switch (stream.getByte(state.valueStartIndex)) {
                   case ' ':
                   case '\n':
                   case '\r':
                   case '\t':
-                     ++valueStartIndex;
+                     ++state.valueStartIndex;
                      break;
                   case -1:
                   default:
@@ -408,7 +482,7 @@ public abstract class JsonParser implements Serializable {
                }
             }
             int end = readerIndex - 1;
-            LOOP: while (end > valueStartIndex) {
+            LOOP: while (end > state.valueStartIndex) {
                switch (stream.getByte(end - 1)) {
                   case ' ':
                   case '\n':
@@ -420,29 +494,30 @@ public abstract class JsonParser implements Serializable {
                      break LOOP;
                }
             }
-            if (valueStartIndex == end) {
+            if (state.valueStartIndex == end) {
                // This happens when we try to select from a 0-length array
                // - as long as there are not quotes there's nothing to record.
-               valueStartIndex = -1;
-               --selector;
+               state.valueStartIndex = -1;
+               --state.selector;
                return;
             }
+            recordedQuery = state.index;
             if (replace != null) {
                // The buffer cannot be overwritten as if the processor is caching input
                // (this happens when we're defragmenting) we would overwrite the underlying data
                replaceBuffer.readerIndex(replaceBuffer.writerIndex());
-               stream.consume(valueStartIndex, end, replaceConsumer, null, session, true);
+               stream.consume(state.valueStartIndex, end, replaceConsumer, null, session, true);
                // If the result is empty, don't write the key
                if (replaceBuffer.isReadable()) {
-                  stream.consume(lastOutputIndex, valueStartIndex, record, this, session, false);
+                  stream.consume(lastOutputIndex, state.valueStartIndex, record, this, session, false);
                   processor.process(session, replaceBuffer, replaceBuffer.readerIndex(), replaceBuffer.readableBytes(), false);
                }
             } else if (!delete) {
-               stream.consume(valueStartIndex, end, record, this, session, true);
+               stream.consume(state.valueStartIndex, end, record, this, session, true);
             }
             lastOutputIndex = end;
-            valueStartIndex = -1;
-            --selector;
+            state.valueStartIndex = -1;
+            --state.selector;
          }
       }
 
@@ -10,7 +10,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
 public class JsonUnquotingTransformer
-      implements Transformer, Processor, ResourceUtilizer, Session.ResourceKey<JsonUnquotingTransformer.Context> {
+      implements Transformer, Processor, ResourceUtilizer, Session.SlottedResourceKey<JsonUnquotingTransformer.Context> {
    private static final ByteBuf NEWLINE = Unpooled.wrappedBuffer("\n".getBytes(StandardCharsets.UTF_8));
    private static final ByteBuf BACKSPACE = Unpooled.wrappedBuffer("\b".getBytes(StandardCharsets.UTF_8));
    private static final ByteBuf FORMFEED = Unpooled.wrappedBuffer("\f".getBytes(StandardCharsets.UTF_8));
@@ -18,6 +18,7 @@ public class JsonUnquotingTransformer
    private static final ByteBuf TAB = Unpooled.wrappedBuffer("\t".getBytes(StandardCharsets.UTF_8));
 
    protected final Transformer delegate;
+   private int resourceSlot = -1;
 
    public JsonUnquotingTransformer(Transformer delegate) {
       this.delegate = delegate;
@@ -154,6 +155,16 @@ public class JsonUnquotingTransformer
       delegate.after(session);
    }
 
+   @Override
+   public int resourceSlot() {
+      return resourceSlot;
+   }
+
+   @Override
+   public void setResourceSlot(int slot) {
+      this.resourceSlot = slot;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, Context::new);
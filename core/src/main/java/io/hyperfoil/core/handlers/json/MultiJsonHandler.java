@@ -0,0 +1,148 @@
+package io.hyperfoil.core.handlers.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Evaluates queries of several {@link JsonHandler JSON handlers} in a single pass over the body: the tokenizer state
+ * in {@link JsonParser.Context} is shared and each query only tracks its position in its chain of selectors.
+ * Only handlers that extract values can be combined; with <code>delete</code> or <code>replace</code> the handler
+ * passes a rewritten JSON to its processor and needs to parse it on its own.
+ */
+public class MultiJsonHandler extends JsonParser
+      implements Processor, ResourceUtilizer, Session.SlottedResourceKey<MultiJsonHandler.Context> {
+   private final String[] queries;
+   private final Processor[] processors;
+   private int resourceSlot = -1;
+
+   public MultiJsonHandler(JsonHandler... handlers) {
+      super(queries(handlers));
+      this.queries = queries(handlers);
+      this.processors = Arrays.stream(handlers).map(handler -> handler.processor).toArray(Processor[]::new);
+   }
+
+   private static String[] queries(JsonHandler[] handlers) {
+      for (JsonHandler handler : handlers) {
+         if (!isCombinable(handler)) {
+            throw new IllegalArgumentException("Cannot combine " + handler + " as it modifies the JSON.");
+         }
+      }
+      return Arrays.stream(handlers).map(handler -> handler.query).toArray(String[]::new);
+   }
+
+   /**
+    * Replaces each run of two or more adjacent JSON handlers that only extract values with a single handler
+    * evaluating all their queries. Other processors keep their position.
+    *
+    * @param processors Processors invoked on the same data, possibly <code>null</code>.
+    * @return Either the original array or a new, shorter one.
+    */
+   public static Processor[] combine(Processor[] processors) {
+      if (processors == null || processors.length < 2) {
+         return processors;
+      }
+      List<Processor> combined = new ArrayList<>(processors.length);
+      int i = 0;
+      while (i < processors.length) {
+         int end = i;
+         while (end < processors.length && isCombinable(processors[end])) {
+            ++end;
+         }
+         if (end - i >= 2) {
+            combined.add(new MultiJsonHandler(Arrays.copyOfRange(processors, i, end, JsonHandler[].class)));
+            i = end;
+         } else {
+            combined.add(processors[i++]);
+         }
+      }
+      return combined.size() == processors.length ? processors : combined.toArray(new Processor[0]);
+   }
+
+   private static boolean isCombinable(Processor processor) {
+      if (processor instanceof JsonHandler) {
+         JsonHandler handler = (JsonHandler) processor;
+         return !handler.delete && handler.replace == null;
+      }
+      return false;
+   }
+
+   @Override
+   public void before(Session session) {
+      for (Processor processor : processors) {
+         processor.before(session);
+      }
+   }
+
+   @Override
+   public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+      Context ctx = session.getResource(this);
+      ctx.parse(ctx.wrap(data, offset, length), session, isLastPart);
+   }
+
+   @Override
+   public void after(Session session) {
+      for (Processor processor : processors) {
+         processor.after(session);
+      }
+      Context ctx = session.getResource(this);
+      ctx.reset();
+   }
+
+   @Override
+   public int resourceSlot() {
+      return resourceSlot;
+   }
+
+   @Override
+   public void setResourceSlot(int slot) {
+      this.resourceSlot = slot;
+   }
+
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(this, Context::new);
+   }
+
+   @Override
+   public String toString() {
+      return "MultiJsonHandler{" +
+            "queries=" + Arrays.toString(queries) +
+            ", processors=" + Arrays.toString(processors) +
+            '}';
+   }
+
+   @Override
+   protected void record(JsonParser.Context context, Session session, ByteStream data, int offset, int length,
+         boolean isLastPart) {
+      processors[context.recordedQuery].process(session, ((JsonHandler.ByteBufByteStream) data).buffer, offset, length,
+            isLastPart);
+   }
+
+   public class Context extends JsonParser.Context {
+      private final JsonHandler.ByteBufByteStream actualStream;
+
+      Context() {
+         super(self -> new JsonHandler.ByteBufByteStream(null, self::release));
+         actualStream = new JsonHandler.ByteBufByteStream(this::retain, null);
+      }
+
+      ByteStream wrap(ByteBuf data, int offset, int length) {
+         actualStream.buffer = data;
+         actualStream.readerIndex = offset;
+         actualStream.writerIndex = offset + length;
+         return actualStream;
+      }
+
+      @Override
+      protected void replaceConsumer(Void ignored, Session session, ByteStream data, int offset, int length,
+            boolean lastFragment) {
+         throw new IllegalStateException("Combined queries do not replace values.");
+      }
+   }
+}
@@ -1,5 +1,8 @@
 package io.hyperfoil.core.impl;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import io.hyperfoil.internal.Properties;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.Epoll;
@@ -11,43 +14,81 @@ import io.netty.channel.kqueue.KQueueSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
 
 public abstract class EventLoopFactory {
+   private static final Logger log = LogManager.getLogger(EventLoopFactory.class);
    public static final EventLoopFactory INSTANCE;
 
    static {
       String transport = Properties.get(Properties.NETTY_TRANSPORT, null);
       if (transport != null) {
-         switch (transport.toLowerCase()) {
-            case "nio":
-               INSTANCE = new NioEventLoopFactory();
-               break;
-            case "epoll":
-               INSTANCE = new EpollEventLoopFactory();
-               break;
-            case "kqueue":
-               INSTANCE = new KqueueEventLoopFactory();
-               break;
-            // TODO: io_uring requires kernel >= 5.9
-            default:
-               throw new IllegalStateException("Unknown transport '" + transport + "', use either 'nio' or 'epoll'.");
-         }
+         INSTANCE = forTransport(transport);
+      } else if (isIoUringAvailable()) {
+         INSTANCE = new IoUringEventLoopFactory();
+      } else if (Epoll.isAvailable()) {
+         INSTANCE = new EpollEventLoopFactory();
+      } else if (KQueue.isAvailable()) {
+         INSTANCE = new KqueueEventLoopFactory();
       } else {
-         if (Epoll.isAvailable()) {
-            INSTANCE = new EpollEventLoopFactory();
-         } else if (KQueue.isAvailable()) {
-            INSTANCE = new KqueueEventLoopFactory();
-         } else {
-            INSTANCE = new NioEventLoopFactory();
-         }
+         INSTANCE = new NioEventLoopFactory();
+      }
+      log.debug("Using {} transport", INSTANCE.name());
+   }
+
+   /**
+    * @param transport One of <code>nio</code>, <code>epoll</code>, <code>kqueue</code> or <code>io_uring</code>.
+    * @return Factory for given transport. When io_uring is requested but it is not supported
+    * (it requires Linux kernel &gt;= 5.9) this falls back to epoll or nio.
+    */
+   public static EventLoopFactory forTransport(String transport) {
+      switch (transport.toLowerCase()) {
+         case "nio":
+            return new NioEventLoopFactory();
+         case "epoll":
+            return new EpollEventLoopFactory();
+         case "kqueue":
+            return new KqueueEventLoopFactory();
+         case "io_uring":
+         case "iouring":
+            if (isIoUringAvailable()) {
+               return new IoUringEventLoopFactory();
+            } else if (Epoll.isAvailable()) {
+               log.warn("io_uring transport is not available, falling back to epoll.");
+               return new EpollEventLoopFactory();
+            } else {
+               log.warn("io_uring transport is not available, falling back to nio.");
+               return new NioEventLoopFactory();
+            }
+         default:
+            throw new IllegalStateException(
+                  "Unknown transport '" + transport + "', use one of 'nio', 'epoll', 'kqueue' or 'io_uring'.");
       }
    }
 
+   private static boolean isIoUringAvailable() {
+      try {
+         return IOUring.isAvailable();
+      } catch (LinkageError e) {
+         // The native library is not on classpath for this platform
+         return false;
+      }
+   }
+
+   public abstract String name();
+
    public abstract EventLoopGroup create(int threads);
 
    public abstract Class<? extends SocketChannel> socketChannel();
 
    private static class NioEventLoopFactory extends EventLoopFactory {
+      @Override
+      public String name() {
+         return "nio";
+      }
+
       @Override
       public EventLoopGroup create(int threads) {
          return new NioEventLoopGroup(threads);
@@ -60,6 +101,11 @@ public abstract class EventLoopFactory {
    }
 
    private static class EpollEventLoopFactory extends EventLoopFactory {
+      @Override
+      public String name() {
+         return "epoll";
+      }
+
       @Override
       public EventLoopGroup create(int threads) {
          return new EpollEventLoopGroup(threads);
@@ -72,6 +118,11 @@ public abstract class EventLoopFactory {
    }
 
    private static class KqueueEventLoopFactory extends EventLoopFactory {
+      @Override
+      public String name() {
+         return "kqueue";
+      }
+
       @Override
       public EventLoopGroup create(int threads) {
          return new KQueueEventLoopGroup(threads);
@@ -82,4 +133,21 @@ public abstract class EventLoopFactory {
          return KQueueSocketChannel.class;
       }
    }
+
+   private static class IoUringEventLoopFactory extends EventLoopFactory {
+      @Override
+      public String name() {
+         return "io_uring";
+      }
+
+      @Override
+      public EventLoopGroup create(int threads) {
+         return new IOUringEventLoopGroup(threads);
+      }
+
+      @Override
+      public Class<? extends SocketChannel> socketChannel() {
+         return IOUringSocketChannel.class;
+      }
+   }
 }
@@ -0,0 +1,79 @@
+package io.hyperfoil.core.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.netty.channel.EventLoop;
+import io.netty.channel.SingleThreadEventLoop;
+
+/**
+ * Periodically schedules a task on the event loop to find out if the loop is saturated.
+ * <ul>
+ * <li>Queue delay is the difference between the moment the task was due and when it actually ran: any task
+ * submitted to the loop waits similarly for I/O processing and tasks queued before it.</li>
+ * <li>Iteration time is measured from the probe task until the end of the current loop iteration
+ * (when the tasks executed after each iteration run).</li>
+ * </ul>
+ * Both values are recorded in nanoseconds; the histograms are read from another thread.
+ */
+final class EventLoopProbe implements Runnable {
+   private final EventLoop executor;
+   private final long periodNanos;
+   private final Recorder queueDelay = new Recorder(StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE, 2);
+   private final Recorder iteration = new Recorder(StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE, 2);
+   private final Runnable iterationEnd = this::recordIteration;
+   private volatile boolean running = true;
+   private long deadline;
+   private long probeStart;
+
+   EventLoopProbe(EventLoop executor, long periodMillis) {
+      this.executor = executor;
+      this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+   }
+
+   void start() {
+      executor.execute(this::schedule);
+   }
+
+   void stop() {
+      running = false;
+   }
+
+   private void schedule() {
+      if (running) {
+         deadline = System.nanoTime() + periodNanos;
+         executor.schedule(this, periodNanos, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   @Override
+   public void run() {
+      probeStart = System.nanoTime();
+      queueDelay.recordValue(Math.min(Math.max(0, probeStart - deadline), StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE));
+      if (executor instanceof SingleThreadEventLoop) {
+         ((SingleThreadEventLoop) executor).executeAfterEventLoopIteration(iterationEnd);
+      }
+      schedule();
+   }
+
+   private void recordIteration() {
+      iteration.recordValue(Math.min(System.nanoTime() - probeStart, StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE));
+   }
+
+   /**
+    * @return Queue delays recorded since the last invocation.
+    */
+   Histogram queueDelay() {
+      return queueDelay.getIntervalHistogram();
+   }
+
+   /**
+    * @return Iteration times recorded since the last invocation.
+    */
+   Histogram iteration() {
+      return iteration.getIntervalHistogram();
+   }
+}
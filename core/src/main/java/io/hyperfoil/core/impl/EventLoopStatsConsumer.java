@@ -0,0 +1,12 @@
+package io.hyperfoil.core.impl;
+
+import org.HdrHistogram.Histogram;
+
+public interface EventLoopStatsConsumer {
+   /**
+    * @param executor Index of the event loop within the agent.
+    * @param queueDelay Delays of tasks that were due in given period, in nanoseconds.
+    * @param iteration Durations of the rest of loop iteration after the probe, in nanoseconds.
+    */
+   void accept(int executor, Histogram queueDelay, Histogram iteration);
+}
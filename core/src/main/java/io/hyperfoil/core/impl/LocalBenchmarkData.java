@@ -14,6 +14,7 @@ import io.hyperfoil.api.config.BenchmarkData;
 public class LocalBenchmarkData implements BenchmarkData {
    protected final Path benchmarkPath;
    protected final Map<String, byte[]> files = new HashMap<>();
+   protected final Map<String, Path> externalFiles = new HashMap<>();
 
    public LocalBenchmarkData(Path benchmarkPath) {
       this.benchmarkPath = benchmarkPath;
@@ -23,25 +24,55 @@ public class LocalBenchmarkData implements BenchmarkData {
    public InputStream readFile(String file) {
       byte[] bytes = files.get(file);
       if (bytes == null) {
-         Path path = Paths.get(file);
-         if (!path.isAbsolute()) {
-            if (benchmarkPath == null) {
-               throw new MissingFileException(file, "Cannot load relative path " + file, null);
-            }
-            path = benchmarkPath.getParent().resolve(file);
-         }
+         Path path = resolve(file);
          try {
             bytes = Files.readAllBytes(path);
             files.put(file, bytes);
          } catch (IOException e) {
-            throw new MissingFileException(file, "Local file " + file + " (" + path.toAbsolutePath() + ") cannot be read.", e);
+            throw cannotRead(file, path, e);
          }
       }
       return new ByteArrayInputStream(bytes);
    }
 
+   @Override
+   public Path file(String file) {
+      Path path = resolve(file);
+      if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+         throw cannotRead(file, path, null);
+      }
+      // The file is not loaded but it might need to be uploaded, too
+      externalFiles.put(file, path);
+      return path;
+   }
+
+   private static MissingFileException cannotRead(String file, Path path, Throwable cause) {
+      return new MissingFileException(file, "Local file " + file + " (" + path.toAbsolutePath() + ") cannot be read.", cause);
+   }
+
+   private Path resolve(String file) {
+      Path path = Paths.get(file);
+      if (!path.isAbsolute()) {
+         if (benchmarkPath == null) {
+            throw new MissingFileException(file, "Cannot load relative path " + file, null);
+         }
+         path = benchmarkPath.getParent().resolve(file);
+      }
+      return path;
+   }
+
    @Override
    public Map<String, byte[]> files() {
       return files;
    }
+
+   /**
+    * Files accessed through {@link #file(String)}. These are not loaded into memory and therefore are not included
+    * in {@link #files()}; whoever ships the benchmark elsewhere should stream them from the path.
+    *
+    * @return Map of file names as used in the benchmark to resolved paths.
+    */
+   public Map<String, Path> externalFiles() {
+      return externalFiles;
+   }
 }
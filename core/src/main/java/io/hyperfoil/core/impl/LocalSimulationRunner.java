@@ -35,7 +35,7 @@ public class LocalSimulationRunner extends SimulationRunner {
          SessionStatsConsumer sessionPoolStatsConsumer, ConnectionStatsConsumer connectionsStatsConsumer) {
       super(benchmark, "local-run", 0, error -> {
       });
-      statisticsCollector = new StatisticsCollector(benchmark);
+      statisticsCollector = new StatisticsCollector(benchmark, statisticsFeedback());
       this.statsConsumer = statsConsumer;
       this.sessionPoolStatsConsumer = sessionPoolStatsConsumer;
       this.connectionsStatsConsumer = connectionsStatsConsumer;
@@ -0,0 +1,148 @@
+package io.hyperfoil.core.impl;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.config.Model;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.impl.rate.AdaptiveRateGenerator;
+
+/**
+ * Drives the rate of a {@link Model.MaxThroughput} phase on this agent. Statistics published by executors are
+ * accumulated for the current step (only those that started after the rate has been changed); when the step
+ * is over the criteria are evaluated and the rate for the next step is selected. The step is evaluated when
+ * statistics arrive after its end, or from a periodic {@link #tick(long)} as steps without any completed requests
+ * don't produce statistics at all. The rate grows linearly
+ * until the first failure and then the search bisects between the highest passing and lowest failing rate.
+ */
+final class MaxThroughputSearch {
+   private static final Logger log = LogManager.getLogger(MaxThroughputSearch.class);
+
+   private final Phase def;
+   private final Model.MaxThroughput model;
+   private final AdaptiveRateGenerator rateGenerator;
+   private final ThrottledUsers throttledUsers;
+   private final double maxUsersPerSec;
+   private final double increment;
+   private final double precision;
+   private final StatisticsSnapshot current = new StatisticsSnapshot();
+   private OpenModelPhase phase;
+   private double rate;
+   private double highestPassing;
+   private double lowestFailing = Double.POSITIVE_INFINITY;
+   private long stepStart;
+   private long throttledAtStepStart;
+   private boolean converged;
+
+   MaxThroughputSearch(Phase def, int agentId, AdaptiveRateGenerator rateGenerator, ThrottledUsers throttledUsers) {
+      this.def = def;
+      this.model = (Model.MaxThroughput) def.model;
+      this.rateGenerator = rateGenerator;
+      this.throttledUsers = throttledUsers;
+      this.rate = def.benchmark().slice(model.initialUsersPerSec, agentId);
+      this.maxUsersPerSec = def.benchmark().slice(model.maxUsersPerSec, agentId);
+      this.increment = def.benchmark().slice(model.increment, agentId);
+      this.precision = def.benchmark().slice(model.precision, agentId);
+   }
+
+   synchronized void start(OpenModelPhase phase, long now) {
+      this.phase = phase;
+      this.stepStart = now;
+   }
+
+   /**
+    * @return The highest rate (users per second) that met the criteria; zero if none did.
+    */
+   synchronized double result() {
+      return highestPassing;
+   }
+
+   synchronized boolean isConverged() {
+      return converged;
+   }
+
+   /**
+    * @return Interval (in milliseconds) in which {@link #tick(long)} should be called.
+    */
+   long tickPeriod() {
+      return Math.max(1, model.stepDuration / 10);
+   }
+
+   void accept(StatisticsSnapshot snapshot) {
+      accept(snapshot, System.currentTimeMillis());
+   }
+
+   synchronized void accept(StatisticsSnapshot snapshot, long now) {
+      if (phase == null || converged || snapshot.histogram.getStartTimeStamp() < stepStart) {
+         return;
+      }
+      current.add(snapshot);
+      if (now >= stepStart + model.stepDuration) {
+         evaluate(now);
+      }
+   }
+
+   /**
+    * Evaluates the current step if it is over, even if no statistics were received.
+    */
+   synchronized void tick(long now) {
+      if (phase != null && !converged && now >= stepStart + model.stepDuration) {
+         evaluate(now);
+      }
+   }
+
+   private void evaluate(long now) {
+      String failure = checkStep();
+      if (failure == null) {
+         log.info("{}: {} users per second passed.", def.name, String.format("%.2f", rate));
+         highestPassing = rate;
+      } else {
+         log.info("{}: {} users per second failed: {}", def.name, String.format("%.2f", rate), failure);
+         lowestFailing = rate;
+      }
+      double next;
+      if (lowestFailing == Double.POSITIVE_INFINITY) {
+         next = highestPassing >= maxUsersPerSec ? -1 : Math.min(rate + increment, maxUsersPerSec);
+      } else {
+         next = lowestFailing - highestPassing <= precision ? -1 : (highestPassing + lowestFailing) / 2;
+      }
+      if (next <= 0) {
+         converged = true;
+         log.info("{}: max throughput is {} users per second.", def.name, String.format("%.2f", highestPassing));
+         if (phase.status() == PhaseInstance.Status.RUNNING) {
+            phase.finish();
+         }
+         return;
+      }
+      rate = next;
+      rateGenerator.setFireTimesPerSec(rate);
+      current.reset();
+      stepStart = now;
+      throttledAtStepStart = throttledUsers.size();
+   }
+
+   private String checkStep() {
+      if (current.requestCount == 0) {
+         return "no requests were sent";
+      } else if (current.responseCount == 0) {
+         return "no responses were received";
+      }
+      double errorRatio = (double) (current.errors() + current.invalid) / current.requestCount;
+      if (errorRatio > model.maxErrorRatio) {
+         return String.format("error ratio %.3f", errorRatio);
+      }
+      if (model.maxResponseTime < Long.MAX_VALUE) {
+         long responseTime = current.histogram.getValueAtPercentile(model.percentile * 100);
+         if (responseTime >= model.maxResponseTime) {
+            return String.format("response time at percentile %.2f is %d ns", model.percentile, responseTime);
+         }
+      }
+      long throttled = throttledUsers.size();
+      if (throttled > throttledAtStepStart) {
+         return throttled + " users could not start due to lack of sessions";
+      }
+      return null;
+   }
+}
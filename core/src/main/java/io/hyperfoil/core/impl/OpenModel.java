@@ -1,5 +1,7 @@
 package io.hyperfoil.core.impl;
 
+import java.util.Random;
+
 import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.PhaseInstance;
@@ -10,6 +12,16 @@ final class OpenModel {
    public static PhaseInstance constantRate(Phase def, String runId, int agentId) {
       var model = (Model.ConstantRate) def.model;
       double usersPerSec = def.benchmark().slice(model.usersPerSec, agentId);
+      if (model.perExecutorRate) {
+         double executorUsersPerSec = usersPerSec / def.benchmark().threads(agentId);
+         if (model.variance) {
+            return new PerExecutorOpenModelPhase(executor -> RateGenerator.poissonConstantRate(executorUsersPerSec), 0,
+                  def, runId, agentId);
+         } else {
+            return new PerExecutorOpenModelPhase(executor -> RateGenerator.constantRate(executorUsersPerSec), usersPerSec,
+                  def, runId, agentId);
+         }
+      }
       if (model.variance) {
          return new OpenModelPhase(RateGenerator.poissonConstantRate(usersPerSec), def, runId, agentId);
       } else {
@@ -22,6 +34,20 @@ final class OpenModel {
       double initialUsersPerSec = def.benchmark().slice(model.initialUsersPerSec, agentId);
       double targetUsersPerSec = def.benchmark().slice(model.targetUsersPerSec, agentId);
       long durationMs = def.duration;
+      if (model.perExecutorRate) {
+         int executors = def.benchmark().threads(agentId);
+         double executorInitial = initialUsersPerSec / executors;
+         double executorTarget = targetUsersPerSec / executors;
+         if (model.variance) {
+            return new PerExecutorOpenModelPhase(
+                  executor -> RateGenerator.poissonRampRate(executorInitial, executorTarget, durationMs), 0,
+                  def, runId, agentId);
+         } else {
+            return new PerExecutorOpenModelPhase(
+                  executor -> RateGenerator.rampRate(executorInitial, executorTarget, durationMs),
+                  Math.max(initialUsersPerSec, targetUsersPerSec), def, runId, agentId);
+         }
+      }
       if (model.variance) {
          return new OpenModelPhase(RateGenerator.poissonRampRate(initialUsersPerSec, targetUsersPerSec, durationMs), def, runId,
                agentId);
@@ -30,4 +56,11 @@ final class OpenModel {
                agentId);
       }
    }
+
+   public static PhaseInstance maxThroughput(Phase def, String runId, int agentId) {
+      var model = (Model.MaxThroughput) def.model;
+      double initialUsersPerSec = def.benchmark().slice(model.initialUsersPerSec, agentId);
+      return new OpenModelPhase(RateGenerator.adaptiveRate(model.variance ? new Random() : null, initialUsersPerSec),
+            def, runId, agentId);
+   }
 }
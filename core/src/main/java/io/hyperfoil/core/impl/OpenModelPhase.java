@@ -1,11 +1,12 @@
 package io.hyperfoil.core.impl;
 
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 
 import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.SessionPoolType;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.impl.rate.AdaptiveRateGenerator;
 import io.hyperfoil.core.impl.rate.FireTimeListener;
 import io.hyperfoil.core.impl.rate.RateGenerator;
 import io.netty.util.concurrent.EventExecutorGroup;
@@ -30,15 +31,31 @@ import io.netty.util.concurrent.EventExecutorGroup;
 final class OpenModelPhase extends PhaseInstanceImpl implements FireTimeListener {
 
    private final int maxSessions;
-   private final AtomicLong throttledUsers = new AtomicLong(0);
+   private final ThrottledUsers throttledUsers;
    private final RateGenerator rateGenerator;
    private final long relativeFirstFireTime;
+   private final MaxThroughputSearch search;
+   private long absoluteStartNanos;
 
    OpenModelPhase(RateGenerator rateGenerator, Phase def, String runId, int agentId) {
       super(def, runId, agentId);
       this.rateGenerator = rateGenerator;
-      this.maxSessions = Math.max(1, def.benchmark().slice(((Model.OpenModel) def.model).maxSessions, agentId));
+      Model.OpenModel model = (Model.OpenModel) def.model;
+      this.maxSessions = Math.max(1, def.benchmark().slice(model.maxSessions, agentId));
+      // with the striped pool we avoid contended counters in the pool, therefore we stripe this one, too
+      this.throttledUsers = new ThrottledUsers(model.sessionPool == SessionPoolType.STRIPED ? agentThreads() : 1,
+            model.correctCoordinatedOmission);
       this.relativeFirstFireTime = rateGenerator.lastComputedFireTimeMs();
+      this.search = rateGenerator instanceof AdaptiveRateGenerator
+            ? new MaxThroughputSearch(def, agentId, (AdaptiveRateGenerator) rateGenerator, throttledUsers)
+            : null;
+   }
+
+   /**
+    * @return Search driving the rate of {@link Model.MaxThroughput} phase, or <code>null</code> for other models.
+    */
+   MaxThroughputSearch search() {
+      return search;
    }
 
    @Override
@@ -49,8 +66,20 @@ final class OpenModelPhase extends PhaseInstanceImpl implements FireTimeListener
       sessionPool.reserve(maxSessions);
    }
 
+   @Override
+   protected void recordAbsoluteStartTime() {
+      super.recordAbsoluteStartTime();
+      absoluteStartNanos = System.nanoTime();
+      if (search != null) {
+         search.start(this, absoluteStartTime);
+      }
+   }
+
    @Override
    protected void proceedOnStarted(final EventExecutorGroup executorGroup) {
+      if (search != null) {
+         executorGroup.schedule(() -> tickSearch(executorGroup), search.tickPeriod(), TimeUnit.MILLISECONDS);
+      }
       long elapsedMs = System.currentTimeMillis() - absoluteStartTime;
       long remainingMsToFirstFireTime = relativeFirstFireTime - elapsedMs;
       if (remainingMsToFirstFireTime > 0) {
@@ -88,28 +117,41 @@ final class OpenModelPhase extends PhaseInstanceImpl implements FireTimeListener
       }
    }
 
+   private void tickSearch(EventExecutorGroup executorGroup) {
+      if (status.isFinished() || search.isConverged()) {
+         return;
+      }
+      search.tick(System.currentTimeMillis());
+      executorGroup.schedule(() -> tickSearch(executorGroup), search.tickPeriod(), TimeUnit.MILLISECONDS);
+   }
+
    @Override
    public void onFireTime() {
       if (!startNewSession()) {
-         throttledUsers.incrementAndGet();
+         throttledUsers.add();
+      }
+   }
+
+   @Override
+   public void onFireTime(double fireTimeMs) {
+      if (!throttledUsers.tracksIntendedStarts()) {
+         onFireTime();
+         return;
+      }
+      // fire times are relative to absoluteStartTime, recorded at the same moment as absoluteStartNanos
+      long intendedStartNanos = absoluteStartNanos + (long) (fireTimeMs * 1_000_000);
+      if (!startNewSession(intendedStartNanos)) {
+         throttledUsers.add(intendedStartNanos);
       }
    }
 
    @Override
    public void notifyFinished(Session session) {
       if (session != null && !status.isFinished()) {
-         long throttled = throttledUsers.get();
-         while (throttled != 0) {
-            if (throttledUsers.compareAndSet(throttled, throttled - 1)) {
-               // TODO: it would be nice to compensate response times
-               // in these invocations for the fact that we're applying
-               // SUT feedback, but that would be imprecise anyway.
-               session.start(this);
-               // this prevents the session to be pooled
-               return;
-            } else {
-               throttled = throttledUsers.get();
-            }
+         // with coordinated omission correction the session is started with the intended start of the throttled user
+         if (throttledUsers.tryRestart(this, session)) {
+            // this prevents the session to be pooled
+            return;
          }
       }
       super.notifyFinished(session);
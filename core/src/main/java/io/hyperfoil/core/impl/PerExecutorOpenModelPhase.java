@@ -0,0 +1,146 @@
+package io.hyperfoil.core.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import io.hyperfoil.api.config.Model;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.SessionPoolType;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.impl.rate.FireTimeListener;
+import io.hyperfoil.core.impl.rate.RateGenerator;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+/**
+ * Open model phase that splits the rate evenly between the executors of this agent: each executor runs its own
+ * {@link RateGenerator} with nanosecond resolution and starts sessions on its own, instead of a single timer
+ * starting all sessions in one batch each millisecond. With {@link Model.OpenModel#variance} the executors
+ * run independent Poisson processes (which together form a Poisson process with the full rate). Without variance
+ * the executors are shifted by one interval of the full rate to start the users evenly.
+ * <p>
+ * Throttled users are handled the same way as in {@link OpenModelPhase}.
+ */
+final class PerExecutorOpenModelPhase extends PhaseInstanceImpl {
+   private final int maxSessions;
+   private final ThrottledUsers throttledUsers;
+   private final IntFunction<RateGenerator> rateGeneratorFactory;
+   private final double staggerUsersPerSec;
+   private long absoluteStartNanos;
+
+   /**
+    * @param rateGeneratorFactory Creates generator for given executor, the rate should be already divided
+    *        by the number of executors.
+    * @param staggerUsersPerSec Executor <code>i</code> is delayed by <code>i / staggerUsersPerSec</code> seconds;
+    *        zero means no delay.
+    */
+   PerExecutorOpenModelPhase(IntFunction<RateGenerator> rateGeneratorFactory, double staggerUsersPerSec,
+         Phase def, String runId, int agentId) {
+      super(def, runId, agentId);
+      Model.OpenModel model = (Model.OpenModel) def.model;
+      this.maxSessions = Math.max(1, def.benchmark().slice(model.maxSessions, agentId));
+      this.throttledUsers = new ThrottledUsers(model.sessionPool == SessionPoolType.STRIPED ? agentThreads() : 1,
+            model.correctCoordinatedOmission);
+      this.rateGeneratorFactory = rateGeneratorFactory;
+      this.staggerUsersPerSec = staggerUsersPerSec;
+   }
+
+   @Override
+   public void reserveSessions() {
+      if (log.isDebugEnabled()) {
+         log.debug("Phase {} reserving {} sessions", def.name, maxSessions);
+      }
+      sessionPool.reserve(maxSessions);
+   }
+
+   @Override
+   protected void recordAbsoluteStartTime() {
+      super.recordAbsoluteStartTime();
+      absoluteStartNanos = System.nanoTime();
+   }
+
+   @Override
+   public void proceed(EventExecutorGroup executorGroup) {
+      int index = 0;
+      for (EventExecutor executor : executorGroup) {
+         ExecutorRate executorRate = new ExecutorRate(executor, newRateGenerator(index), offsetNanos(index));
+         executor.execute(executorRate);
+         index++;
+      }
+   }
+
+   // Visible for testing
+   RateGenerator newRateGenerator(int executorIndex) {
+      return rateGeneratorFactory.apply(executorIndex);
+   }
+
+   // Visible for testing
+   long offsetNanos(int executorIndex) {
+      return staggerUsersPerSec > 0 ? (long) (executorIndex * 1_000_000_000L / staggerUsersPerSec) : 0;
+   }
+
+   @Override
+   public void notifyFinished(Session session) {
+      if (session != null && !status.isFinished()) {
+         if (throttledUsers.tryRestart(this, session)) {
+            // this prevents the session to be pooled
+            return;
+         }
+      }
+      super.notifyFinished(session);
+   }
+
+   /**
+    * Timer chain of a single executor; all methods are invoked in this executor.
+    */
+   private class ExecutorRate implements Runnable, FireTimeListener {
+      private final EventExecutor executor;
+      private final RateGenerator rateGenerator;
+      private final long offsetNanos;
+
+      ExecutorRate(EventExecutor executor, RateGenerator rateGenerator, long offsetNanos) {
+         this.executor = executor;
+         this.rateGenerator = rateGenerator;
+         this.offsetNanos = offsetNanos;
+      }
+
+      @Override
+      public void run() {
+         if (status.isFinished()) {
+            return;
+         }
+         long elapsedNanos = System.nanoTime() - absoluteStartNanos - offsetNanos;
+         long nextFireTimeNanos = rateGenerator.computeNextFireTimeNanos(elapsedNanos, this);
+         // onFireTime could take a while so we need to read the clock again
+         long delayNanos = nextFireTimeNanos - (System.nanoTime() - absoluteStartNanos - offsetNanos);
+         if (trace) {
+            log.trace("{}: {} ns after start, {} started ({} throttled), next user in {} ns", def.name, elapsedNanos,
+                  rateGenerator.fireTimes(), throttledUsers, delayNanos);
+         }
+         if (delayNanos <= 0) {
+            executor.execute(this);
+         } else {
+            executor.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+         }
+      }
+
+      @Override
+      public void onFireTime() {
+         if (!startNewSession()) {
+            throttledUsers.add();
+         }
+      }
+
+      @Override
+      public void onFireTime(double fireTimeMs) {
+         if (!throttledUsers.tracksIntendedStarts()) {
+            onFireTime();
+            return;
+         }
+         long intendedStartNanos = absoluteStartNanos + offsetNanos + (long) (fireTimeMs * 1_000_000);
+         if (!startNewSession(intendedStartNanos)) {
+            throttledUsers.add(intendedStartNanos);
+         }
+      }
+   }
+}
@@ -58,6 +58,7 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
       constructors.put(Model.Always.class, Always::new);
       constructors.put(Model.RampRate.class, OpenModel::rampRate);
       constructors.put(Model.ConstantRate.class, OpenModel::constantRate);
+      constructors.put(Model.MaxThroughput.class, OpenModel::maxThroughput);
       constructors.put(Model.Sequentially.class, Sequentially::new);
       //noinspection StaticInitializerReferencesSubClass
       constructors.put(Model.Noop.class, Noop::new);
@@ -251,10 +252,34 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
     * @return {@code true} if the new {@link Session} was started, {@code false} otherwise.
     */
    protected boolean startNewSession() {
+      Session session = acquireSession();
+      if (session == null) {
+         return false;
+      }
+      session.start(this);
+      return true;
+   }
+
+   /**
+    * Same as {@link #startNewSession()} but the session tracks its delay against the intended start.
+    *
+    * @param intendedStartNanos {@link System#nanoTime()} when the session should have started.
+    * @return {@code true} if the new {@link Session} was started, {@code false} otherwise.
+    */
+   protected boolean startNewSession(long intendedStartNanos) {
+      Session session = acquireSession();
+      if (session == null) {
+         return false;
+      }
+      session.start(this, intendedStartNanos);
+      return true;
+   }
+
+   private Session acquireSession() {
       int numActive = activeSessions.incrementAndGet();
       if (numActive < 0) {
          // finished
-         return false;
+         return null;
       }
       if (trace) {
          log.trace("{} has {} active sessions", def.name, numActive);
@@ -265,14 +290,12 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
       } catch (Throwable t) {
          log.error("Error during session acquisition", t);
          notifyFinished(null);
-         return false;
+         return null;
       }
       if (session == null) {
          noSessionsAvailable();
-         return false;
       }
-      session.start(this);
-      return true;
+      return session;
    }
 
    private void noSessionsAvailable() {
@@ -28,7 +28,9 @@ import io.hyperfoil.api.BenchmarkExecutionException;
 import io.hyperfoil.api.collection.ElasticPool;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.SessionPoolType;
 import io.hyperfoil.api.session.AgentData;
 import io.hyperfoil.api.session.ControllerListener;
 import io.hyperfoil.api.session.GlobalData;
@@ -37,12 +39,15 @@ import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ThreadData;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.core.api.Plugin;
 import io.hyperfoil.core.api.PluginRunData;
+import io.hyperfoil.core.impl.statistics.StatisticsCollector;
 import io.hyperfoil.core.session.AgentDataImpl;
 import io.hyperfoil.core.session.GlobalDataImpl;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.session.ThreadDataImpl;
+import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.util.CpuWatchdog;
 import io.hyperfoil.impl.Util;
 import io.hyperfoil.internal.Properties;
@@ -77,11 +82,13 @@ public class SimulationRunner {
    private boolean isDepletedMessageQuietened;
    private Thread jitterWatchdog;
    private CpuWatchdog cpuWatchdog;
+   private EventLoopProbe[] eventLoopProbes;
    private final GlobalDataImpl[] globalData;
    private final GlobalDataImpl.Collector globalCollector = new GlobalDataImpl.Collector();
 
    public SimulationRunner(Benchmark benchmark, String runId, int agentId, Consumer<Throwable> errorHandler) {
       this.eventLoopGroup = EventLoopFactory.INSTANCE.create(benchmark.threads(agentId));
+      log.info("Running {} threads using {} transport", benchmark.threads(agentId), EventLoopFactory.INSTANCE.name());
       this.executors = StreamSupport.stream(eventLoopGroup.spliterator(), false).map(EventLoop.class::cast)
             .toArray(EventLoop[]::new);
       this.benchmark = benchmark;
@@ -136,7 +143,12 @@ public class SimulationRunner {
                session.reserve(def.scenario);
                return session;
             };
-            sharedResources.sessionPool = new AffinityAwareSessionPool(executors, sessionSupplier);
+            if (def.model instanceof Model.OpenModel
+                  && ((Model.OpenModel) def.model).sessionPool == SessionPoolType.STRIPED) {
+               sharedResources.sessionPool = new StripedSessionPool(executors, sessionSupplier);
+            } else {
+               sharedResources.sessionPool = new AffinityAwareSessionPool(executors, sessionSupplier);
+            }
             this.sharedResources.put(def.sharedResources, sharedResources);
          }
          PhaseInstance phase = PhaseInstanceImpl.newInstance(def, runId, agentId);
@@ -162,6 +174,12 @@ public class SimulationRunner {
       cpuWatchdog = new CpuWatchdog(errorHandler, () -> instances.values().stream().anyMatch(p -> !p.definition().isWarmup));
       cpuWatchdog.start();
 
+      long probePeriod = Properties.getLong(Properties.EVENT_LOOP_PROBE_PERIOD, 10);
+      if (probePeriod > 0) {
+         eventLoopProbes = Arrays.stream(executors).map(executor -> new EventLoopProbe(executor, probePeriod))
+               .toArray(EventLoopProbe[]::new);
+      }
+
       log.info("Simulation initialization took {} ms", System.currentTimeMillis() - initSimulationStartTime);
    }
 
@@ -179,6 +197,11 @@ public class SimulationRunner {
          }
          handler.handle(result.mapEmpty());
          jitterWatchdog.start();
+         if (eventLoopProbes != null) {
+            for (EventLoopProbe probe : eventLoopProbes) {
+               probe.start();
+            }
+         }
       });
    }
 
@@ -275,6 +298,11 @@ public class SimulationRunner {
       if (cpuWatchdog != null) {
          cpuWatchdog.stop();
       }
+      if (eventLoopProbes != null) {
+         for (EventLoopProbe probe : eventLoopProbes) {
+            probe.stop();
+         }
+      }
       for (PluginRunData plugin : runData) {
          plugin.shutdown();
       }
@@ -356,6 +384,16 @@ public class SimulationRunner {
       }
    }
 
+   public void visitEventLoopStats(EventLoopStatsConsumer consumer) {
+      if (eventLoopProbes == null) {
+         return;
+      }
+      for (int i = 0; i < eventLoopProbes.length; ++i) {
+         EventLoopProbe probe = eventLoopProbes[i];
+         consumer.accept(i, probe.queueDelay(), probe.iteration());
+      }
+   }
+
    public void visitConnectionStats(ConnectionStatsConsumer consumer) {
       for (PluginRunData plugin : runData) {
          plugin.visitConnectionStats(consumer);
@@ -413,6 +451,43 @@ public class SimulationRunner {
       return cpuWatchdog.getCpuUsage(name);
    }
 
+   /**
+    * @return Consumer that should receive statistics as these are collected, or <code>null</code> if no phase
+    *         in this benchmark adapts to the results.
+    */
+   public StatisticsCollector.StatisticsConsumer statisticsFeedback() {
+      if (benchmark.phases().stream().anyMatch(p -> p.model instanceof Model.MaxThroughput)) {
+         return this::onStatistics;
+      }
+      return null;
+   }
+
+   private void onStatistics(Phase phase, int stepId, String metric, StatisticsSnapshot snapshot, CountDown countDown) {
+      PhaseInstance instance = instances.get(phase.name());
+      if (instance instanceof OpenModelPhase) {
+         MaxThroughputSearch search = ((OpenModelPhase) instance).search();
+         if (search != null) {
+            search.accept(snapshot);
+         }
+      }
+   }
+
+   /**
+    * @param name Phase name.
+    * @return Highest rate found by {@link Model.MaxThroughput} phase on this agent, or <code>null</code>
+    *         for other phases.
+    */
+   public Double getMaxThroughput(String name) {
+      PhaseInstance instance = instances.get(name);
+      if (instance instanceof OpenModelPhase) {
+         MaxThroughputSearch search = ((OpenModelPhase) instance).search();
+         if (search != null) {
+            return search.result();
+         }
+      }
+      return null;
+   }
+
    public void addGlobalData(Map<String, GlobalData.Element> globalData) {
       for (int i = 0; i < executors.length; ++i) {
          GlobalDataImpl data = this.globalData[i];
@@ -0,0 +1,80 @@
+package io.hyperfoil.core.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Non-negative counter split into cache-line padded stripes; each thread sticks to one stripe. Unlike
+ * {@link java.util.concurrent.atomic.LongAdder} this supports decrementing only when the counter is positive.
+ */
+final class StripedCounter {
+   private static final int PADDING_LONGS = 128 / Long.BYTES; // 16
+
+   private final int stripes;
+   private final AtomicLongArray counters;
+   private final AtomicInteger nextStripe = new AtomicInteger();
+   private final FastThreadLocal<Integer> localStripe = new FastThreadLocal<>() {
+      @Override
+      protected Integer initialValue() {
+         return Math.floorMod(nextStripe.getAndIncrement(), stripes);
+      }
+   };
+
+   StripedCounter(int stripes) {
+      this.stripes = Math.max(1, stripes);
+      this.counters = new AtomicLongArray((this.stripes + 1) * PADDING_LONGS);
+   }
+
+   private int localIndex() {
+      return stripes == 1 ? PADDING_LONGS : (localStripe.get() + 1) * PADDING_LONGS;
+   }
+
+   void increment() {
+      counters.incrementAndGet(localIndex());
+   }
+
+   /**
+    * Decrements the stripe of current thread if it's positive, or any other positive stripe.
+    *
+    * @return False if all stripes were zero.
+    */
+   boolean tryDecrement() {
+      int local = localIndex();
+      if (tryDecrement(local)) {
+         return true;
+      }
+      for (int i = 1; i <= stripes; ++i) {
+         int index = i * PADDING_LONGS;
+         if (index != local && tryDecrement(index)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private boolean tryDecrement(int index) {
+      long value = counters.get(index);
+      while (value != 0) {
+         if (counters.compareAndSet(index, value, value - 1)) {
+            return true;
+         }
+         value = counters.get(index);
+      }
+      return false;
+   }
+
+   long sum() {
+      long sum = 0;
+      for (int i = 1; i <= stripes; ++i) {
+         sum += counters.get(i * PADDING_LONGS);
+      }
+      return sum;
+   }
+
+   @Override
+   public String toString() {
+      return String.valueOf(sum());
+   }
+}
@@ -0,0 +1,287 @@
+package io.hyperfoil.core.impl;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
+
+import org.jctools.queues.MessagePassingQueue;
+import org.jctools.queues.MpmcArrayQueue;
+import org.jctools.queues.atomic.MpmcAtomicArrayQueue;
+
+import io.hyperfoil.api.collection.ElasticPool;
+import io.hyperfoil.api.session.Session;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.ThreadExecutorMap;
+
+/**
+ * Session pool with a stripe for each event executor, intended for phases with many sessions.
+ * <p>
+ * Compared to {@link AffinityAwareSessionPool} this pool does not update any counter shared by all executors:
+ * each stripe tracks usage of its own sessions in a separate cache line. When the stripe of current executor
+ * is empty the executor steals a batch of sessions from another stripe and keeps them in a buffer that only
+ * this executor accesses; therefore near exhaustion the executors don't contend on other stripes for each
+ * session they start. Sessions not used by the time the executor runs its pending tasks are returned
+ * to their stripes.
+ * <p>
+ * {@link #minUsed()} and {@link #maxUsed()} are sums of the stripes' minima and maxima; as these don't need
+ * to happen at the same moment the values are bounds rather than exact numbers.
+ */
+public class StripedSessionPool implements ElasticPool<Session> {
+   static final int STEAL_BATCH = 16;
+   private static final int PADDING_INTS = 128 / Integer.BYTES; // 32
+   private static final int USED_OFFSET = 0;
+   private static final int MIN_USED_OFFSET = 1;
+   private static final int MAX_USED_OFFSET = 2;
+
+   private final FastThreadLocal<Integer> localAgentThreadId;
+   private final IdentityHashMap<EventExecutor, Integer> agentThreadIdPerExecutor;
+   private final Stripe[] stripes;
+   private final Supplier<Session> sessionSupplier;
+   /**
+    * Each stripe uses counters starting at <code>(agentThreadId + 1) * PADDING_INTS</code>.
+    */
+   private final AtomicIntegerArray counters;
+
+   public StripedSessionPool(EventExecutor[] eventExecutors, Supplier<Session> sessionSupplier) {
+      this.sessionSupplier = sessionSupplier;
+      this.agentThreadIdPerExecutor = new IdentityHashMap<>(eventExecutors.length);
+      this.stripes = new Stripe[eventExecutors.length];
+      for (int agentThreadId = 0; agentThreadId < eventExecutors.length; agentThreadId++) {
+         agentThreadIdPerExecutor.put(eventExecutors[agentThreadId], agentThreadId);
+         stripes[agentThreadId] = new Stripe(eventExecutors[agentThreadId]);
+      }
+      this.localAgentThreadId = new FastThreadLocal<>() {
+         @Override
+         protected Integer initialValue() {
+            var eventExecutor = ThreadExecutorMap.currentExecutor();
+            return eventExecutor == null ? null : agentThreadIdPerExecutor.get(eventExecutor);
+         }
+      };
+      this.counters = new AtomicIntegerArray((eventExecutors.length + 2) * PADDING_INTS);
+   }
+
+   @Override
+   public Session acquire() {
+      var boxedAgentThreadId = localAgentThreadId.get();
+      if (boxedAgentThreadId == null) {
+         return acquireFromAnyStripe();
+      }
+      var agentThreadId = boxedAgentThreadId.intValue();
+      var stripe = stripes[agentThreadId];
+      Session session;
+      if (stripe.stolenCount > 0) {
+         // use stolen sessions first to not withhold these from other executors for too long
+         session = stripe.stolen[--stripe.stolenCount];
+         stripe.stolen[stripe.stolenCount] = null;
+      } else {
+         session = stripe.queue.poll();
+         if (session == null && stripes.length > 1) {
+            session = steal(stripe, agentThreadId);
+         }
+      }
+      if (session != null) {
+         incrementUsed(session.agentThreadId());
+      }
+      return session;
+   }
+
+   private Session acquireFromAnyStripe() {
+      var stripes = this.stripes;
+      int index = ThreadLocalRandom.current().nextInt(stripes.length);
+      for (int i = 0; i < stripes.length; ++i) {
+         Session session = stripes[index].queue.poll();
+         if (session != null) {
+            incrementUsed(session.agentThreadId());
+            return session;
+         }
+         if (++index == stripes.length) {
+            index = 0;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Takes up to half of the sessions (but at most {@link #STEAL_BATCH}) from the first non-empty stripe;
+    * one session is returned and the others are stored in the thief's buffer.
+    */
+   private Session steal(Stripe thief, int agentThreadId) {
+      var stripes = this.stripes;
+      int index = ThreadLocalRandom.current().nextInt(stripes.length - 1);
+      if (index >= agentThreadId) {
+         index++;
+      }
+      for (int i = 0; i < stripes.length; ++i) {
+         if (index != agentThreadId) {
+            var queue = stripes[index].queue;
+            Session session = queue.poll();
+            if (session != null) {
+               int batch = Math.min(STEAL_BATCH, queue.size() / 2);
+               for (int j = 0; j < batch; ++j) {
+                  Session next = queue.poll();
+                  if (next == null) {
+                     break;
+                  }
+                  thief.stolen[thief.stolenCount++] = next;
+               }
+               if (thief.stolenCount > 0 && !thief.returnScheduled) {
+                  thief.returnScheduled = true;
+                  thief.executor.execute(() -> returnStolen(thief));
+               }
+               return session;
+            }
+         }
+         if (++index == stripes.length) {
+            index = 0;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Sessions kept in the buffer would be unavailable to other executors until this executor starts another
+    * session, so these are returned when the executor gets to the task scheduled after stealing them.
+    */
+   private void returnStolen(Stripe thief) {
+      thief.returnScheduled = false;
+      while (thief.stolenCount > 0) {
+         Session session = thief.stolen[--thief.stolenCount];
+         thief.stolen[thief.stolenCount] = null;
+         int agentThreadId = session.agentThreadId();
+         if (!stripes[agentThreadId].queue.relaxedOffer(session)) {
+            throw new IllegalStateException("Stripe " + agentThreadId + " is full; cannot return stolen session.");
+         }
+      }
+   }
+
+   private void incrementUsed(int agentThreadId) {
+      var counters = this.counters;
+      int base = (agentThreadId + 1) * PADDING_INTS;
+      int used = counters.incrementAndGet(base + USED_OFFSET);
+      if (used > counters.get(base + MAX_USED_OFFSET)) {
+         counters.lazySet(base + MAX_USED_OFFSET, used);
+      }
+   }
+
+   private void decrementUsed(int agentThreadId) {
+      var counters = this.counters;
+      int base = (agentThreadId + 1) * PADDING_INTS;
+      int used = counters.decrementAndGet(base + USED_OFFSET);
+      if (used < counters.get(base + MIN_USED_OFFSET)) {
+         counters.lazySet(base + MIN_USED_OFFSET, used);
+      }
+   }
+
+   @Override
+   public void release(Session session) {
+      Objects.requireNonNull(session);
+      int agentThreadId = session.agentThreadId();
+      var queue = stripes[agentThreadId].queue;
+      decrementUsed(agentThreadId);
+      if (!queue.relaxedOffer(session)) {
+         throw new IllegalStateException("Stripe " + agentThreadId + " is full; was the session released twice?");
+      }
+   }
+
+   @Override
+   public void reserve(int capacity) {
+      int currentCapacity = 0;
+      for (Stripe stripe : stripes) {
+         if (stripe.queue != null) {
+            currentCapacity += stripe.queue.size();
+         }
+         currentCapacity += stripe.stolenCount;
+      }
+      if (currentCapacity >= capacity) {
+         return;
+      }
+      List<List<Session>> newSessions = new ArrayList<>(stripes.length);
+      for (int i = 0; i < stripes.length; ++i) {
+         newSessions.add(new ArrayList<>());
+      }
+      for (int i = currentCapacity; i < capacity; ++i) {
+         var session = sessionSupplier.get();
+         var agentThreadId = agentThreadIdPerExecutor.get(session.executor());
+         if (agentThreadId == null) {
+            throw new IllegalStateException("No agentThreadId for executor " + session.executor());
+         }
+         newSessions.get(agentThreadId).add(session);
+      }
+      for (int i = 0; i < stripes.length; ++i) {
+         Stripe stripe = stripes[i];
+         List<Session> sessions = newSessions.get(i);
+         if (stripe.queue == null) {
+            stripe.queue = createQueue(sessions.size());
+         } else if (!sessions.isEmpty()) {
+            // The queue must fit all sessions of this executor, including those that are currently acquired
+            // and those held in other stripes' buffers.
+            var queue = createQueue(stripe.sessions + sessions.size());
+            stripe.queue.drain(queue::relaxedOffer);
+            stripe.queue = queue;
+         }
+         stripe.sessions += sessions.size();
+         for (Session session : sessions) {
+            if (!stripe.queue.relaxedOffer(session)) {
+               throw new IllegalStateException("Failed to add new session to the stripe " + i);
+            }
+         }
+      }
+   }
+
+   private static MessagePassingQueue<Session> createQueue(int capacity) {
+      if (PlatformDependent.hasUnsafe()) {
+         return new MpmcArrayQueue<>(Math.max(2, capacity));
+      }
+      return new MpmcAtomicArrayQueue<>(Math.max(2, capacity));
+   }
+
+   @Override
+   public int minUsed() {
+      int sum = 0;
+      for (int i = 0; i < stripes.length; ++i) {
+         sum += counters.get((i + 1) * PADDING_INTS + MIN_USED_OFFSET);
+      }
+      return sum;
+   }
+
+   @Override
+   public int maxUsed() {
+      int sum = 0;
+      for (int i = 0; i < stripes.length; ++i) {
+         sum += counters.get((i + 1) * PADDING_INTS + MAX_USED_OFFSET);
+      }
+      return sum;
+   }
+
+   @Override
+   public void resetStats() {
+      var counters = this.counters;
+      for (int i = 0; i < stripes.length; ++i) {
+         int base = (i + 1) * PADDING_INTS;
+         int used = counters.get(base + USED_OFFSET);
+         counters.lazySet(base + MAX_USED_OFFSET, used);
+         counters.lazySet(base + MIN_USED_OFFSET, used);
+      }
+   }
+
+   private static final class Stripe {
+      private final EventExecutor executor;
+      private MessagePassingQueue<Session> queue;
+      // Number of sessions belonging to this stripe, wherever they are now; updated only when reserving.
+      private int sessions;
+      // Sessions stolen from other stripes; accessed only from the executor owning this stripe.
+      private final Session[] stolen = new Session[STEAL_BATCH];
+      private int stolenCount;
+      private boolean returnScheduled;
+
+      private Stripe(EventExecutor executor) {
+         this.executor = executor;
+      }
+   }
+}
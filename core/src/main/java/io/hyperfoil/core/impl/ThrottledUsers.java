@@ -0,0 +1,67 @@
+package io.hyperfoil.core.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.session.Session;
+
+/**
+ * Users of an open-model phase that should have been started but there was no session available.
+ * When coordinated omission is corrected we need to keep the intended start of each throttled user;
+ * otherwise a plain counter is sufficient.
+ */
+final class ThrottledUsers {
+   private final StripedCounter counter;
+   private final Queue<Long> intendedStarts;
+
+   ThrottledUsers(int stripes, boolean trackIntendedStarts) {
+      this.counter = trackIntendedStarts ? null : new StripedCounter(stripes);
+      this.intendedStarts = trackIntendedStarts ? new ConcurrentLinkedQueue<>() : null;
+   }
+
+   boolean tracksIntendedStarts() {
+      return intendedStarts != null;
+   }
+
+   void add() {
+      counter.increment();
+   }
+
+   void add(long intendedStartNanos) {
+      intendedStarts.add(intendedStartNanos);
+   }
+
+   /**
+    * Starts the session on behalf of one throttled user, if there is any.
+    *
+    * @return True if the session was started.
+    */
+   boolean tryRestart(PhaseInstance phase, Session session) {
+      if (intendedStarts != null) {
+         Long intendedStartNanos = intendedStarts.poll();
+         if (intendedStartNanos == null) {
+            return false;
+         }
+         session.start(phase, intendedStartNanos);
+         return true;
+      } else if (counter.tryDecrement()) {
+         session.start(phase);
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * @return Number of users waiting for a session; the value is not exact if these are being added or restarted
+    *         concurrently.
+    */
+   long size() {
+      return intendedStarts != null ? intendedStarts.size() : counter.sum();
+   }
+
+   @Override
+   public String toString() {
+      return intendedStarts != null ? String.valueOf(intendedStarts.size()) : counter.toString();
+   }
+}
@@ -0,0 +1,52 @@
+package io.hyperfoil.core.impl.rate;
+
+import java.util.Random;
+
+/**
+ * Generator with a rate that can be changed while the phase is running; the change applies from the next fire time
+ * computed after the call to {@link #setFireTimesPerSec(double)}. The rate can be changed from a different thread
+ * than the one computing fire times.
+ * <p>
+ * With uniform distribution the fire times within a segment of constant rate are computed from the start
+ * of the segment (like in {@link ConstantRateGenerator}) so that the rounding errors don't accumulate.
+ */
+public final class AdaptiveRateGenerator extends SequentialRateGenerator {
+
+   private final Random random;
+   private volatile double pendingFireTimesPerSec;
+   private double fireTimesPerSec;
+   private double segmentStartMs;
+   private long segmentFireTimes;
+
+   AdaptiveRateGenerator(Random random, double fireTimesPerSec) {
+      this.random = random;
+      this.fireTimesPerSec = fireTimesPerSec;
+      this.pendingFireTimesPerSec = fireTimesPerSec;
+      if (random != null) {
+         this.fireTimeMs = nextFireTimeMs(0);
+      }
+   }
+
+   public void setFireTimesPerSec(double fireTimesPerSec) {
+      pendingFireTimesPerSec = fireTimesPerSec;
+   }
+
+   public double fireTimesPerSec() {
+      return pendingFireTimesPerSec;
+   }
+
+   @Override
+   protected double nextFireTimeMs(double elapsedTimeMs) {
+      double pending = pendingFireTimesPerSec;
+      if (pending != fireTimesPerSec) {
+         fireTimesPerSec = pending;
+         segmentStartMs = elapsedTimeMs;
+         segmentFireTimes = 0;
+      }
+      if (random != null) {
+         // see PoissonConstantRateGenerator
+         return elapsedTimeMs + 1000 * -Math.log(Math.max(1e-20, random.nextDouble())) / fireTimesPerSec;
+      }
+      return segmentStartMs + 1000 * ++segmentFireTimes / fireTimesPerSec;
+   }
+}
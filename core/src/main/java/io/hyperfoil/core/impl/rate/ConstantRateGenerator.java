@@ -9,7 +9,7 @@ final class ConstantRateGenerator extends FunctionalRateGenerator {
    }
 
    @Override
-   protected long computeFireTimes(final long elapsedTimeMs) {
+   protected long computeFireTimes(final double elapsedTimeMs) {
       return (long) (elapsedTimeMs * fireTimesPerSec / 1000);
    }
 
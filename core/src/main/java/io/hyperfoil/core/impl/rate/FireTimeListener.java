@@ -5,6 +5,13 @@ public interface FireTimeListener {
 
    void onFireTime();
 
+   /**
+    * @param fireTimeMs Intended time of this fire time, in milliseconds since the start.
+    */
+   default void onFireTime(double fireTimeMs) {
+      onFireTime();
+   }
+
    default void onFireTimes(long count) {
       for (long i = 0; i < count; i++) {
          onFireTime();
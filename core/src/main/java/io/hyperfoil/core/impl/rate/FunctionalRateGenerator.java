@@ -1,21 +1,32 @@
 package io.hyperfoil.core.impl.rate;
 
 public abstract class FunctionalRateGenerator extends BaseRateGenerator {
-   protected abstract long computeFireTimes(long elapsedTimeMs);
+   protected abstract long computeFireTimes(double elapsedTimeMs);
 
    protected abstract double computeFireTimeMs(long targetFireTimes);
 
    @Override
    public long computeNextFireTime(final long elapsedTimeMs, FireTimeListener listener) {
+      return (long) Math.ceil(fireUntil(elapsedTimeMs, listener));
+   }
+
+   @Override
+   public long computeNextFireTimeNanos(final long elapsedNanos, FireTimeListener listener) {
+      return (long) Math.ceil(fireUntil(elapsedNanos / 1_000_000.0, listener) * 1_000_000);
+   }
+
+   private double fireUntil(final double elapsedTimeMs, FireTimeListener listener) {
       if (elapsedTimeMs < fireTimeMs) {
-         return (long) Math.ceil(fireTimeMs);
+         return fireTimeMs;
       }
       final long fireTimes = computeFireTimes(elapsedTimeMs) + 1;
       final double nextFireTimeMs = computeFireTimeMs(fireTimes);
       fireTimeMs = nextFireTimeMs;
-      long missingFireTimes = fireTimes - this.fireTimes;
+      // fire time with index i (starting from 0) is due at computeFireTimeMs(i)
+      for (long i = this.fireTimes; i < fireTimes; ++i) {
+         listener.onFireTime(computeFireTimeMs(i));
+      }
       this.fireTimes = fireTimes;
-      listener.onFireTimes(missingFireTimes);
-      return (long) Math.ceil(nextFireTimeMs);
+      return nextFireTimeMs;
    }
 }
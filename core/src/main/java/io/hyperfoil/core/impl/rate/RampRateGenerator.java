@@ -47,13 +47,13 @@ final class RampRateGenerator extends FunctionalRateGenerator {
    }
 
    @Override
-   protected long computeFireTimes(final long elapsedTimeMs) {
+   protected long computeFireTimes(final double elapsedTimeMs) {
       return (long) ((progress * elapsedTimeMs / 2 + bCoef) * elapsedTimeMs);
    }
 
    @Override
    protected double computeFireTimeMs(final long targetFireTimes) {
       // root of quadratic equation
-      return Math.ceil((-bCoef + Math.sqrt(bCoef * bCoef + 2 * progress * targetFireTimes)) / progress);
+      return (-bCoef + Math.sqrt(bCoef * bCoef + 2 * progress * targetFireTimes)) / progress;
    }
 }
@@ -6,6 +6,16 @@ public interface RateGenerator {
 
    long computeNextFireTime(long elapsedMillis, FireTimeListener listener);
 
+   /**
+    * Same as {@link #computeNextFireTime(long, FireTimeListener)} but with nanosecond resolution;
+    * do not mix invocations of these two methods on the same generator.
+    *
+    * @param elapsedNanos Nanoseconds since the start of the phase.
+    * @param listener Invoked for each user that should be started.
+    * @return Nanoseconds since the start of the phase when the next user should be started.
+    */
+   long computeNextFireTimeNanos(long elapsedNanos, FireTimeListener listener);
+
    long lastComputedFireTimeMs();
 
    long fireTimes();
@@ -21,6 +31,15 @@ public interface RateGenerator {
       return new RampRateGenerator(initialFireTimesPerSec, targetFireTimesPerSec, durationMs);
    }
 
+   /**
+    * @param random Source of randomness for the Poisson process, or <code>null</code> for uniform distribution.
+    * @param initialFireTimesPerSec Rate until this is changed through {@link AdaptiveRateGenerator#setFireTimesPerSec(double)}.
+    * @return New generator.
+    */
+   static AdaptiveRateGenerator adaptiveRate(Random random, double initialFireTimesPerSec) {
+      return new AdaptiveRateGenerator(random, initialFireTimesPerSec);
+   }
+
    static RateGenerator poissonConstantRate(Random random, double usersPerSec) {
       return new PoissonConstantRateGenerator(random, usersPerSec);
    }
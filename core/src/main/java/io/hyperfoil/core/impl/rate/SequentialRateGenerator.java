@@ -6,15 +6,24 @@ abstract class SequentialRateGenerator extends BaseRateGenerator {
 
    @Override
    public final long computeNextFireTime(final long elapsedTimeMs, FireTimeListener listener) {
+      return (long) Math.ceil(fireUntil(elapsedTimeMs, listener));
+   }
+
+   @Override
+   public final long computeNextFireTimeNanos(final long elapsedNanos, FireTimeListener listener) {
+      return (long) Math.ceil(fireUntil(elapsedNanos / 1_000_000.0, listener) * 1_000_000);
+   }
+
+   private double fireUntil(final double elapsedTimeMs, FireTimeListener listener) {
       long fireTimesToMillis = 0;
       double nextFireTimeMs = fireTimeMs;
       while (elapsedTimeMs >= nextFireTimeMs) {
-         listener.onFireTime();
+         listener.onFireTime(nextFireTimeMs);
          fireTimesToMillis++;
          nextFireTimeMs = nextFireTimeMs(nextFireTimeMs);
       }
       fireTimeMs = nextFireTimeMs;
       this.fireTimes += fireTimesToMillis;
-      return (long) Math.ceil(nextFireTimeMs);
+      return nextFireTimeMs;
    }
 }
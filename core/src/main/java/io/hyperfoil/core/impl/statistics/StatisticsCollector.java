@@ -23,9 +23,20 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
 
    protected final Phase[] phases;
    protected IntObjectMap<Map<String, IntObjectMap<StatisticsSnapshot>>> aggregated = new IntObjectHashMap<>();
+   private final StatisticsConsumer feedback;
 
    public StatisticsCollector(Benchmark benchmark) {
+      this(benchmark, null);
+   }
+
+   /**
+    * @param benchmark Benchmark definition.
+    * @param feedback Receives each snapshot as it is collected from the executors (before these are aggregated).
+    *        The snapshot is reused after the call returns; the count down is always <code>null</code>.
+    */
+   public StatisticsCollector(Benchmark benchmark, StatisticsConsumer feedback) {
       this.phases = benchmark.phasesById();
+      this.feedback = feedback;
    }
 
    @Override
@@ -40,9 +51,16 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
          }
 
          for (Map.Entry<String, Statistics> entry : statistics.stats(i).entrySet()) {
+            Statistics s = entry.getValue();
+            if (!s.isDirty()) {
+               // Nothing recorded since last time, skip the (relatively expensive) reader synchronization
+               continue;
+            }
             String metric = entry.getKey();
             IntObjectMap<StatisticsSnapshot> snapshots = metricMap.computeIfAbsent(metric, k -> new IntObjectHashMap<>());
-            entry.getValue().visitSnapshots(snapshot -> {
+            Phase phase = statistics.phase(i);
+            int stepId = statistics.step(i);
+            s.visitSnapshots(snapshot -> {
                assert snapshot.sequenceId >= 0;
                StatisticsSnapshot existing = snapshots.get(snapshot.sequenceId);
                if (existing == null) {
@@ -51,6 +69,9 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
                   snapshots.put(snapshot.sequenceId, existing);
                }
                existing.add(snapshot);
+               if (feedback != null) {
+                  feedback.accept(phase, stepId, metric, snapshot, null);
+               }
             });
          }
       }
@@ -68,19 +89,21 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
             Map.Entry<String, IntObjectMap<StatisticsSnapshot>> se = it2.next();
             String metric = se.getKey();
             IntObjectMap<StatisticsSnapshot> snapshots = se.getValue();
+            // Remove the metric only on the next visit; subclasses might use the keys in aggregated meanwhile
+            boolean idle = snapshots.isEmpty();
 
             for (Iterator<IntObjectMap.PrimitiveEntry<StatisticsSnapshot>> it3 = snapshots.entries().iterator(); it3
                   .hasNext();) {
                IntObjectMap.PrimitiveEntry<StatisticsSnapshot> pe = it3.next();
-               if (pe.value().isEmpty()) {
-                  it3.remove();
-               } else {
-                  consumer.accept(phases[phaseAndStepId >> 16], phaseAndStepId & 0xFFFF, metric, pe.value(), countDown);
-                  pe.value().reset();
+               StatisticsSnapshot snapshot = pe.value();
+               // The snapshot is handed over to the consumer (which can keep it) and won't be touched here again
+               it3.remove();
+               if (!snapshot.isEmpty()) {
+                  consumer.accept(phases[phaseAndStepId >> 16], phaseAndStepId & 0xFFFF, metric, snapshot, countDown);
                }
             }
 
-            if (snapshots.isEmpty()) {
+            if (idle) {
                it2.remove();
             }
          }
@@ -12,6 +12,7 @@ import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.PhaseBuilder;
 import io.hyperfoil.api.config.SLABuilder;
 import io.hyperfoil.api.config.SessionLimitPolicy;
+import io.hyperfoil.api.config.SessionPoolType;
 
 abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBuilder<?>> {
 
@@ -88,6 +89,12 @@ abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBui
                new PropertyParser.Boolean<>((builder, variance) -> ((PhaseBuilder.OpenModel<?>) builder).variance(variance)));
          register("sessionLimitPolicy", new PropertyParser.Enum<>(SessionLimitPolicy.values(),
                (builder, policy) -> ((PhaseBuilder.OpenModel<?>) builder).sessionLimitPolicy(policy)));
+         register("sessionPool", new PropertyParser.Enum<>(SessionPoolType.values(),
+               (builder, pool) -> ((PhaseBuilder.OpenModel<?>) builder).sessionPool(pool)));
+         register("perExecutorRate", new PropertyParser.Boolean<>(
+               (builder, perExecutor) -> ((PhaseBuilder.OpenModel<?>) builder).perExecutorRate(perExecutor)));
+         register("correctCoordinatedOmission", new PropertyParser.Boolean<>(
+               (builder, correct) -> ((PhaseBuilder.OpenModel<?>) builder).correctCoordinatedOmission(correct)));
       }
    }
 
@@ -126,6 +133,32 @@ abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBui
       }
    }
 
+   static class MaxThroughput extends OpenModel {
+      MaxThroughput() {
+         register("initialUsersPerSec", new PropertyParser.Double<>(
+               (builder, rate) -> ((PhaseBuilder.MaxThroughput) builder).initialUsersPerSec(rate)));
+         register("maxUsersPerSec", new PropertyParser.Double<>(
+               (builder, rate) -> ((PhaseBuilder.MaxThroughput) builder).maxUsersPerSec(rate)));
+         register("increment", new PropertyParser.Double<>(
+               (builder, increment) -> ((PhaseBuilder.MaxThroughput) builder).increment(increment)));
+         register("precision", new PropertyParser.Double<>(
+               (builder, precision) -> ((PhaseBuilder.MaxThroughput) builder).precision(precision)));
+         register("stepDuration", new PropertyParser.TimeMillis<>(
+               (builder, duration) -> ((PhaseBuilder.MaxThroughput) builder).stepDuration(duration)));
+         register("percentile", new PropertyParser.Double<>(
+               (builder, percentile) -> ((PhaseBuilder.MaxThroughput) builder).percentile(percentile)));
+         register("maxResponseTime", new PropertyParser.String<>(
+               (builder, time) -> ((PhaseBuilder.MaxThroughput) builder).maxResponseTime(time)));
+         register("maxErrorRatio", new PropertyParser.Double<>(
+               (builder, ratio) -> ((PhaseBuilder.MaxThroughput) builder).maxErrorRatio(ratio)));
+      }
+
+      @Override
+      protected PhaseBuilder.MaxThroughput type(PhaseBuilder.Catalog catalog) {
+         return catalog.maxThroughput(-1, -1);
+      }
+   }
+
    static class CustomSLAParser implements Parser<PhaseBuilder<?>> {
       @Override
       public void parse(Context ctx, PhaseBuilder<?> target) throws ParserException {
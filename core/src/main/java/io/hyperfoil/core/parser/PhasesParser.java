@@ -53,6 +53,7 @@ class PhasesParser extends AbstractParser<BenchmarkBuilder, PhaseBuilder.Catalog
          }
       });
       register("constantRate", new PhaseParser.ConstantRate());
+      register("maxThroughput", new PhaseParser.MaxThroughput());
    }
 
    @Override
@@ -0,0 +1,50 @@
+package io.hyperfoil.core.session;
+
+import java.util.Arrays;
+
+import io.hyperfoil.api.session.SequenceInstance;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Sequence instances shared by all sessions running on the same executor thread. Sessions start and release
+ * sequences only from their executor so the pool does not need any synchronization; it grows to the peak number
+ * of sequences running at once on this thread rather than holding the maximum for each session.
+ */
+final class SequenceInstancePool {
+   private static final FastThreadLocal<SequenceInstancePool> POOL = new FastThreadLocal<>() {
+      @Override
+      protected SequenceInstancePool initialValue() {
+         return new SequenceInstancePool();
+      }
+   };
+
+   private SequenceInstance[] instances = new SequenceInstance[16];
+   private int size;
+
+   static SequenceInstancePool current() {
+      return POOL.get();
+   }
+
+   SequenceInstance acquire() {
+      if (size == 0) {
+         return new SequenceInstance();
+      }
+      SequenceInstance instance = instances[--size];
+      instances[size] = null;
+      return instance;
+   }
+
+   void release(SequenceInstance instance) {
+      if (size == instances.length) {
+         instances = Arrays.copyOf(instances, size * 2);
+      }
+      instances[size++] = instance;
+   }
+
+   /**
+    * @return Number of instances that are not used by any session on this thread.
+    */
+   int size() {
+      return size;
+   }
+}
@@ -1,9 +1,8 @@
 package io.hyperfoil.core.session;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -12,7 +11,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.FormattedMessage;
 
-import io.hyperfoil.api.collection.LimitedPool;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.Scenario;
@@ -25,6 +23,7 @@ import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.api.session.ThreadData;
+import io.hyperfoil.api.statistics.MetricHandles;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.api.statistics.Statistics;
 import io.netty.util.concurrent.EventExecutor;
@@ -32,14 +31,25 @@ import io.netty.util.concurrent.EventExecutor;
 class SessionImpl implements Session {
    private static final Logger log = LogManager.getLogger(SessionImpl.class);
    private static final boolean trace = log.isTraceEnabled();
+   private static final Var[] NO_VARS = new Var[0];
+   private static final Resource[] NO_RESOURCES = new Resource[0];
+   private static final boolean[] NO_SLOTS = new boolean[0];
 
    private final Var[] vars;
-   private final Map<ResourceKey<?>, Object> resources = new HashMap<>();
-   private final List<Var> allVars = new ArrayList<>();
-   private final List<Resource> allResources = new ArrayList<>();
-   private final LimitedPool<SequenceInstance> sequencePool;
+   // Resources for keys without a slot, allocated on first use; arrays hold one instance per concurrent sequence
+   private Map<ResourceKey<?>, Object> resources;
+   private final Scenario scenario;
+   private final Resource[] slotResources;
+   // Set on the first slot of keys that hold one resource per concurrent sequence
+   private final boolean[] indexedSlots;
+   // These are filled when the session is created and reserved, and trimmed afterwards
+   private Var[] allVars = NO_VARS;
+   private Resource[] allResources = NO_RESOURCES;
+   private int varCount;
+   private int resourceCount;
    private final SequenceInstance[] runningSequences;
    private final BitSet usedSequences;
+   private final MetricHandles metricHandles;
    private final Consumer<SequenceInstance> releaseSequence = this::releaseSequence;
    private PhaseInstance phase;
    private int lastRunningSequence = -1;
@@ -47,12 +57,16 @@ class SessionImpl implements Session {
    private Request currentRequest;
    private boolean scheduled;
    private boolean resetting = true;
+   private boolean hasIntendedStart;
+   private long intendedStartNanos;
+   private long startDelayNanos = -1;
 
    private EventExecutor executor;
    private ThreadData threadData;
    private AgentData agentData;
    private GlobalData globalData;
    private SessionStatistics statistics;
+   private SessionStatistics.Table statisticsTable;
 
    private final int threadId;
    private final int uniqueId;
@@ -62,25 +76,36 @@ class SessionImpl implements Session {
    private final Runnable runTask = this::run;
 
    SessionImpl(Scenario scenario, int threadId, int uniqueId) {
-      this.sequencePool = new LimitedPool<>(scenario.maxSequences(), SequenceInstance::new);
+      this.scenario = scenario;
+      int slots = scenario.resourceSlots();
+      this.slotResources = slots == 0 ? NO_RESOURCES : new Resource[slots];
+      this.indexedSlots = slots == 0 ? NO_SLOTS : new boolean[slots];
       this.threadId = threadId;
       this.runningSequences = new SequenceInstance[scenario.maxSequences()];
       this.usedSequences = new BitSet(scenario.sumConcurrency());
       this.uniqueId = uniqueId;
       this.vars = scenario.createVars(this);
+      this.metricHandles = scenario.metricHandles();
    }
 
    @Override
    public void reserve(Scenario scenario) {
       Sequence[] sequences = scenario.sequences();
+      // Reservation can run outside the executor thread so we cannot use the pool
+      SequenceInstance instance = new SequenceInstance();
       for (int i = 0; i < sequences.length; i++) {
          // We set current sequence so that we know the concurrency of current context in declareResource()
          Sequence sequence = sequences[i];
-         currentSequence(sequencePool.acquire().reset(sequence, 0, null, null));
+         currentSequence(instance.reset(sequence, 0, null, null));
          sequence.reserve(this);
-         sequencePool.release(currentSequence);
          currentSequence = null;
       }
+      if (varCount < allVars.length) {
+         allVars = Arrays.copyOf(allVars, varCount);
+      }
+      if (resourceCount < allResources.length) {
+         allResources = Arrays.copyOf(allResources, resourceCount);
+      }
    }
 
    @Override
@@ -160,7 +185,17 @@ class SessionImpl implements Session {
    }
 
    void registerVar(Var var) {
-      allVars.add(var);
+      if (varCount == allVars.length) {
+         allVars = Arrays.copyOf(allVars, Math.max(8, 2 * varCount));
+      }
+      allVars[varCount++] = var;
+   }
+
+   private void registerResource(Resource resource) {
+      if (resourceCount == allResources.length) {
+         allResources = Arrays.copyOf(allResources, Math.max(8, 2 * resourceCount));
+      }
+      allResources[resourceCount++] = resource;
    }
 
    @Override
@@ -170,39 +205,88 @@ class SessionImpl implements Session {
 
    @Override
    public <R extends Resource> void declareResource(ResourceKey<R> key, Supplier<R> resourceSupplier, boolean singleton) {
-      if (resources.containsKey(key)) {
-         return;
-      }
       // Current sequence should be null only during unit testing
       int concurrency = currentSequence == null ? 0 : currentSequence.definition().concurrency();
+      int slot = resourceSlot(key, concurrency);
+      if (isDeclared(key, slot)) {
+         return;
+      }
       if (!singleton && concurrency > 0) {
          Resource[] array = new Resource[concurrency];
          for (int i = 0; i < concurrency; ++i) {
             R resource = resourceSupplier.get();
             array[i] = resource;
-            allResources.add(resource);
+            registerResource(resource);
+         }
+         if (slot >= 0) {
+            System.arraycopy(array, 0, slotResources, slot, concurrency);
+            indexedSlots[slot] = true;
+         } else {
+            putResource(key, array);
          }
-         resources.put(key, array);
       } else {
          R resource = resourceSupplier.get();
-         resources.put(key, resource);
-         allResources.add(resource);
+         if (slot >= 0) {
+            slotResources[slot] = resource;
+         } else {
+            putResource(key, resource);
+         }
+         registerResource(resource);
       }
    }
 
    @Override
    public <R extends Resource> void declareSingletonResource(ResourceKey<R> key, R resource) {
-      if (resources.containsKey(key)) {
+      int concurrency = currentSequence == null ? 0 : currentSequence.definition().concurrency();
+      int slot = resourceSlot(key, concurrency);
+      if (isDeclared(key, slot)) {
          return;
       }
+      if (slot >= 0) {
+         slotResources[slot] = resource;
+      } else {
+         putResource(key, resource);
+      }
+      registerResource(resource);
+   }
+
+   private boolean isDeclared(ResourceKey<?> key, int slot) {
+      return slot >= 0 && slotResources[slot] != null || resources != null && resources.containsKey(key);
+   }
+
+   private void putResource(ResourceKey<?> key, Object resource) {
+      if (resources == null) {
+         resources = new HashMap<>();
+      }
       resources.put(key, resource);
-      allResources.add(resource);
+   }
+
+   /**
+    * @return Slot for the key if it was assigned one for the concurrency of the declaring sequence, -1 otherwise.
+    */
+   private int resourceSlot(ResourceKey<?> key, int concurrency) {
+      if (key instanceof SlottedResourceKey) {
+         int slot = ((SlottedResourceKey<?>) key).resourceSlot();
+         if (slot >= 0 && slot < slotResources.length && scenario.resourceSlotSpan(slot) == Math.max(1, concurrency)) {
+            return slot;
+         }
+      }
+      return -1;
    }
 
    @SuppressWarnings("unchecked")
    @Override
    public <R extends Resource> R getResource(ResourceKey<R> key) {
-      Object res = resources.get(key);
+      if (key instanceof SlottedResourceKey) {
+         int slot = ((SlottedResourceKey<R>) key).resourceSlot();
+         if (slot >= 0 && slot < slotResources.length) {
+            Resource res = slotResources[slot];
+            if (res != null) {
+               return (R) (indexedSlots[slot] ? slotResources[slot + currentSequence.index()] : res);
+            }
+         }
+      }
+      Object res = resources == null ? null : resources.get(key);
       if (res == null) {
          return null;
       } else if (res.getClass().isArray() && res instanceof Resource[]) {
@@ -275,6 +359,9 @@ class SessionImpl implements Session {
             if (sequence == null) {
                // This may happen when the session.stop() is called
                continue;
+            } else if (sequence.isWaiting()) {
+               // Blocked until an event wakes it up, there's no point in polling the step
+               continue;
             }
             if (sequence.progress(this)) {
                progressed = true;
@@ -317,7 +404,7 @@ class SessionImpl implements Session {
 
    private void releaseSequence(SequenceInstance sequence) {
       usedSequences.clear(sequence.definition().offset() + sequence.index());
-      sequencePool.release(sequence);
+      SequenceInstancePool.current().release(sequence);
    }
 
    @Override
@@ -349,11 +436,29 @@ class SessionImpl implements Session {
          log.trace("#{} Session starting in {}", uniqueId, phase.definition().name);
       }
       resetPhase(phase);
+      hasIntendedStart = false;
       executor.execute(deferredStart);
    }
 
+   @Override
+   public void start(PhaseInstance phase, long intendedStartNanos) {
+      if (trace) {
+         log.trace("#{} Session starting in {}", uniqueId, phase.definition().name);
+      }
+      resetPhase(phase);
+      hasIntendedStart = true;
+      this.intendedStartNanos = intendedStartNanos;
+      executor.execute(deferredStart);
+   }
+
+   @Override
+   public long startDelayNanos() {
+      return startDelayNanos;
+   }
+
    private Void deferredStart() {
       resetting = false;
+      startDelayNanos = hasIntendedStart ? Math.max(0, System.nanoTime() - intendedStartNanos) : -1;
       for (Sequence sequence : phase.definition().scenario().initialSequences()) {
          startSequence(sequence, false, ConcurrencyPolicy.FAIL);
       }
@@ -381,7 +486,6 @@ class SessionImpl implements Session {
          index = currentSequence.index();
       }
 
-      SequenceInstance instance = sequencePool.acquire();
       // Lookup first unused index
       for (;;) {
          if (sequence.concurrency() == 0) {
@@ -391,13 +495,9 @@ class SessionImpl implements Session {
                if (sequence == currentSequence.definition()) {
                   log.info("Hint: maybe you intended only to restart the current sequence?");
                }
-               sequencePool.release(instance);
                fail(new IllegalStateException("Cannot start sequence '" + sequence.name() + "' as it is not concurrent"));
             }
          } else if (index >= sequence.concurrency()) {
-            if (instance != null) {
-               sequencePool.release(instance);
-            }
             if (policy == ConcurrencyPolicy.WARN) {
                log.warn("Cannot start sequence {}, exceeded maximum concurrency ({})", sequence.name(), sequence.concurrency());
             } else {
@@ -419,21 +519,16 @@ class SessionImpl implements Session {
          }
          ++index;
       }
-      if (instance == null) {
-         log.error("Cannot instantiate sequence {}, no free instances.", sequence.name());
-         fail(new IllegalStateException("No free sequence instances"));
-      } else {
-         log.trace("#{} starting sequence {}({})", uniqueId(), sequence.name(), index);
-         usedSequences.set(sequence.offset() + index);
-         instance.reset(sequence, index, sequence.steps(), releaseSequence);
-
-         if (lastRunningSequence >= runningSequences.length - 1) {
-            throw new IllegalStateException("Maximum number of scheduled sequences exceeded!");
-         }
-         lastRunningSequence++;
-         assert runningSequences[lastRunningSequence] == null;
-         runningSequences[lastRunningSequence] = instance;
+      log.trace("#{} starting sequence {}({})", uniqueId(), sequence.name(), index);
+      if (lastRunningSequence >= runningSequences.length - 1) {
+         throw new IllegalStateException("Maximum number of scheduled sequences exceeded!");
       }
+      usedSequences.set(sequence.offset() + index);
+      SequenceInstance instance = SequenceInstancePool.current().acquire();
+      instance.reset(sequence, index, sequence.steps(), releaseSequence);
+      lastRunningSequence++;
+      assert runningSequences[lastRunningSequence] == null;
+      runningSequences[lastRunningSequence] = instance;
       return instance;
    }
 
@@ -445,11 +540,35 @@ class SessionImpl implements Session {
       }
    }
 
+   @Override
+   public void awaitWakeUp() {
+      currentSequence.setWaiting(true);
+   }
+
+   @Override
+   public void wakeUp(SequenceInstance sequence) {
+      sequence.setWaiting(false);
+   }
+
    @Override
    public Statistics statistics(int stepId, String name) {
       return statistics.getOrCreate(phase.definition(), stepId, name, phase.absoluteStartTime());
    }
 
+   @Override
+   public int metricHandle(int stepId, String name) {
+      return metricHandles.handle(stepId, name);
+   }
+
+   @Override
+   public Statistics statistics(int metricHandle) {
+      SessionStatistics.Table table = statisticsTable;
+      if (table == null) {
+         statisticsTable = table = statistics.table(phase.definition(), metricHandles);
+      }
+      return table.get(metricHandle, phase.absoluteStartTime());
+   }
+
    @Override
    public void pruneStats(Phase phase) {
       statistics.prune(phase);
@@ -458,15 +577,14 @@ class SessionImpl implements Session {
    @Override
    public void reset() {
       resetting = true;
-      for (int i = 0; i < allVars.size(); ++i) {
-         allVars.get(i).unset();
+      for (int i = 0; i < varCount; ++i) {
+         allVars[i].unset();
       }
-      for (int i = 0; i < allResources.size(); i++) {
-         Resource r = allResources.get(i);
+      for (int i = 0; i < resourceCount; i++) {
+         Resource r = allResources[i];
          r.onSessionReset(this);
       }
       assert usedSequences.isEmpty();
-      assert sequencePool.isFull();
    }
 
    public void resetPhase(PhaseInstance newPhase) {
@@ -478,6 +596,7 @@ class SessionImpl implements Session {
       assert phase == null || newPhase.definition().sharedResources.equals(phase.definition().sharedResources);
       assert phase == null || phase.status().isTerminated();
       phase = newPhase;
+      statisticsTable = null;
    }
 
    @Override
@@ -536,8 +655,8 @@ class SessionImpl implements Session {
    }
 
    public void destroy() {
-      for (var resource : allResources) {
-         resource.destroy();
+      for (int i = 0; i < resourceCount; i++) {
+         allResources[i].destroy();
       }
    }
 }
@@ -10,6 +10,7 @@ import io.hyperfoil.api.config.Name;
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.StepBuilder;
 import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.builders.BaseStepBuilder;
 import io.hyperfoil.core.session.SessionFactory;
@@ -24,7 +25,17 @@ public class AwaitDelayStep implements Step {
    @Override
    public boolean invoke(Session session) {
       ScheduleDelayStep.Timestamp blockedUntil = (ScheduleDelayStep.Timestamp) key.getObject(session);
-      return System.currentTimeMillis() >= blockedUntil.timestamp;
+      if (System.currentTimeMillis() >= blockedUntil.timestamp) {
+         return true;
+      }
+      // Only a pending timeout will wake us up; if several sequences wait for the same delay point
+      // the others are polled.
+      SequenceInstance current = session.currentSequence();
+      if (blockedUntil.isScheduled() && (blockedUntil.waiter == null || blockedUntil.waiter == current)) {
+         blockedUntil.waiter = current;
+         session.awaitWakeUp();
+      }
+      return false;
    }
 
    /**
@@ -10,6 +10,7 @@ import org.apache.logging.log4j.Logger;
 
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.session.ObjectAccess;
+import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.builders.BaseStepBuilder;
 import io.hyperfoil.core.session.SessionFactory;
@@ -18,8 +19,9 @@ import io.hyperfoil.function.SerializableBiPredicate;
 import io.hyperfoil.function.SerializableConsumer;
 import io.hyperfoil.function.SerializableFunction;
 import io.hyperfoil.function.SerializablePredicate;
+import io.hyperfoil.impl.TimerWheel;
 
-public class PollStep<T> implements Step {
+public class PollStep<T> implements Step, ResourceUtilizer, Session.ResourceKey<PollStep.Wakeup> {
    private static final Logger log = LogManager.getLogger(PollStep.class);
 
    private final SerializableFunction<Session, T> provider;
@@ -46,7 +48,7 @@ public class PollStep<T> implements Step {
          if (object == null) {
             // Note: it's possible that we'll try to poll earlier
             log.trace("Did not fetch object, scheduling #{} in {}", session.uniqueId(), periodMs);
-            session.executor().schedule(session.runTask(), periodMs, TimeUnit.MILLISECONDS);
+            TimerWheel.current().schedule(session.getResource(this), periodMs, TimeUnit.MILLISECONDS);
             return false;
          } else if (filter.test(session, object)) {
             toVar.setObject(session, object);
@@ -57,10 +59,33 @@ public class PollStep<T> implements Step {
       }
       // We did not have an accepting match
       log.trace("Not accepted, scheduling #{} in {}", session.uniqueId(), periodMs);
-      session.executor().schedule(session.runTask(), periodMs, TimeUnit.MILLISECONDS);
+      TimerWheel.current().schedule(session.getResource(this), periodMs, TimeUnit.MILLISECONDS);
       return false;
    }
 
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(this, () -> new Wakeup(session));
+   }
+
+   static class Wakeup extends TimerWheel.Timeout implements Session.Resource {
+      private final Session session;
+
+      Wakeup(Session session) {
+         this.session = session;
+      }
+
+      @Override
+      protected void onTimeout() {
+         session.runTask().run();
+      }
+
+      @Override
+      public void onSessionReset(Session session) {
+         cancel();
+      }
+   }
+
    /**
     * Periodically tries to insert object into session variable.
     */
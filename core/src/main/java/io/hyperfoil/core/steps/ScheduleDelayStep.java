@@ -19,11 +19,13 @@ import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.StepBuilder;
 import io.hyperfoil.api.session.ObjectAccess;
 import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.builders.BaseStepBuilder;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.util.Unique;
 import io.hyperfoil.function.SerializableToLongFunction;
+import io.hyperfoil.impl.TimerWheel;
 import io.hyperfoil.impl.Util;
 
 public class ScheduleDelayStep implements Step, ResourceUtilizer {
@@ -62,7 +64,7 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
       long delay = blockedUntil.timestamp - now;
       if (delay > 0) {
          log.trace("Scheduling #{} to run in {}", session.uniqueId(), delay);
-         session.executor().schedule(session.runTask(), delay, TimeUnit.MILLISECONDS);
+         TimerWheel.current().schedule(blockedUntil, delay, TimeUnit.MILLISECONDS);
       } else {
          log.trace("Continuing, duration {} resulted in delay {}", duration, delay);
       }
@@ -71,7 +73,7 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
 
    @Override
    public void reserve(Session session) {
-      key.setObject(session, new Timestamp());
+      key.setObject(session, new Timestamp(session));
    }
 
    public enum Type {
@@ -95,8 +97,24 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
       NEGATIVE_EXPONENTIAL
    }
 
-   static class Timestamp {
+   static class Timestamp extends TimerWheel.Timeout {
+      private final Session session;
       long timestamp = Long.MAX_VALUE;
+      // sequence blocked in AwaitDelayStep, woken up when the timeout fires
+      SequenceInstance waiter;
+
+      Timestamp(Session session) {
+         this.session = session;
+      }
+
+      @Override
+      protected void onTimeout() {
+         if (waiter != null) {
+            session.wakeUp(waiter);
+            waiter = null;
+         }
+         session.runTask().run();
+      }
    }
 
    /**
@@ -4,12 +4,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.MetricResolver;
+import io.hyperfoil.api.statistics.Statistics;
 
 public abstract class StatisticsStep implements Step {
    private static final AtomicInteger ID_COUNTER = new AtomicInteger();
 
    @Visitor.Ignore
    private final int id;
+   @Visitor.Ignore
+   private final MetricResolver metrics;
 
    public static int nextId() {
       return ID_COUNTER.getAndIncrement();
@@ -20,9 +25,18 @@ public abstract class StatisticsStep implements Step {
          throw new IllegalArgumentException("id cannot be less than 0");
       }
       this.id = id;
+      this.metrics = new MetricResolver(id);
    }
 
    public int id() {
       return id;
    }
+
+   /**
+    * Prefer this to {@link Session#statistics(int, String)}; the metric handle is resolved once and subsequent
+    * lookups are array accesses.
+    */
+   protected Statistics statistics(Session session, String metric) {
+      return metrics.statistics(session, metric);
+   }
 }
@@ -18,7 +18,7 @@ public class StopwatchEndStep extends StatisticsStep {
    public boolean invoke(Session session) {
       long now = System.nanoTime();
       StopwatchBeginStep.StartTime startTime = (StopwatchBeginStep.StartTime) key.getObject(session);
-      Statistics statistics = session.statistics(id(), metrics);
+      Statistics statistics = statistics(session, metrics);
       statistics.incrementRequests(startTime.timestampMillis);
       statistics.recordResponse(startTime.timestampMillis, now - startTime.timestampNanos);
       // TODO: record any request/response counts?
@@ -0,0 +1,185 @@
+package io.hyperfoil.core.generators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.WriteAccess;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.test.TestUtil;
+
+public class MappedCsvRowStepTest {
+   private static final String[][] DATA = new String[][] {
+         { "one", "two two", "three, three", "four\"four" },
+         { "     five", "six ", "", "eight" },
+         { "nine", "", "eleven", "twelve\n ends here" }
+   };
+
+   @Test
+   public void testReadAllRows() throws Exception {
+      Path path = Paths.get(getClass().getClassLoader().getResource("data/testdata.csv").toURI());
+      MappedCsvFile csv = MappedCsvFile.open(path, (byte) ',', true, true, false);
+      assertThat(csv.rows()).isEqualTo(DATA.length);
+      int[] columns = { 0, 1, 2, 3, 4 };
+      MappedCsvFile.Field[] fields = new MappedCsvFile.Field[columns.length];
+      Arrays.setAll(fields, i -> new MappedCsvFile.Field());
+      for (int row = 0; row < DATA.length; ++row) {
+         csv.read(row, columns, fields);
+         for (int i = 0; i < DATA[row].length; ++i) {
+            assertThat(fields[i].toString()).isEqualTo(DATA[row][i]);
+         }
+         assertThat(fields[4].isPresent()).isFalse();
+      }
+   }
+
+   @Test
+   public void testLines() throws IOException {
+      Path path = Files.createTempFile("mapped", ".txt");
+      try {
+         Files.write(path, "foo\r\n\nb\u00e4r\n\"quoted\"".getBytes(StandardCharsets.UTF_8));
+         MappedCsvFile csv = MappedCsvFile.open(path, (byte) '\n', false, false, true);
+         assertThat(csv.rows()).isEqualTo(3);
+         int[] columns = { 0 };
+         MappedCsvFile.Field[] fields = { new MappedCsvFile.Field() };
+         String[] expected = { "foo", "b\u00e4r", "\"quoted\"" };
+         for (int row = 0; row < expected.length; ++row) {
+            csv.read(row, columns, fields);
+            assertThat(fields[0].toString()).isEqualTo(expected[row]);
+            assertThat(fields[0].length()).isEqualTo(expected[row].length());
+         }
+      } finally {
+         Files.delete(path);
+      }
+   }
+
+   @Test
+   public void testIndexGrows() throws IOException {
+      // short rows overflow the first index page sized from the file length
+      int rows = 1000;
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < rows; ++i) {
+         sb.append(i).append('\n');
+      }
+      Path path = Files.createTempFile("mapped", ".txt");
+      try {
+         Files.write(path, sb.toString().getBytes(StandardCharsets.US_ASCII));
+         MappedCsvFile csv = MappedCsvFile.open(path, (byte) '\n', false, false, true);
+         assertThat(csv.rows()).isEqualTo(rows);
+         int[] columns = { 0 };
+         MappedCsvFile.Field[] fields = { new MappedCsvFile.Field() };
+         for (int row = 0; row < rows; ++row) {
+            csv.read(row, columns, fields);
+            assertThat(fields[0].toString()).isEqualTo(String.valueOf(row));
+         }
+      } finally {
+         Files.delete(path);
+      }
+   }
+
+   @Test
+   public void testStep() {
+      WriteAccess[] access = new WriteAccess[] {
+            SessionFactory.objectAccess("first"), SessionFactory.objectAccess("fourth") };
+      Session session = SessionFactory.forTesting(access);
+      MappedCsvRowStep step = (MappedCsvRowStep) build(TestUtil.locator(), builder());
+      TestUtil.resolveAccess(session, step);
+      ResourceUtilizer.reserveForTesting(session, step);
+
+      for (int i = 0; i < 10; ++i) {
+         assertThat(step.invoke(session)).isTrue();
+         String first = (String) access[0].getObject(session);
+         String fourth = (String) access[1].getObject(session);
+         assertThat(Arrays.stream(DATA).filter(row -> row[0].equals(first) && row[3].equals(fourth))).hasSize(1);
+      }
+   }
+
+   @Test
+   public void testStepCustomSelector() {
+      WriteAccess[] access = new WriteAccess[] {
+            SessionFactory.objectAccess("first"), SessionFactory.objectAccess("fourth") };
+      Session session = SessionFactory.forTesting(access);
+      int[] next = { 0 };
+      MappedCsvRowStep step = (MappedCsvRowStep) build(TestUtil.locator(), builder().customSelector(rows -> next[0]++));
+      TestUtil.resolveAccess(session, step);
+      ResourceUtilizer.reserveForTesting(session, step);
+
+      for (String[] row : DATA) {
+         assertThat(step.invoke(session)).isTrue();
+         Object first = access[0].getObject(session);
+         assertThat(first).isEqualTo(row[0]);
+         assertThat(access[1].getObject(session)).isEqualTo(row[3]);
+         // the value of the previous row does not change
+         step.invoke(session);
+         assertThat(first).isEqualTo(row[0]);
+         --next[0];
+      }
+   }
+
+   @Test
+   public void testDataNotInFiles() {
+      BenchmarkData inMemory = new BenchmarkData() {
+         @Override
+         public InputStream readFile(String file) {
+            return TestUtil.benchmarkData().readFile(file);
+         }
+
+         @Override
+         public Map<String, byte[]> files() {
+            return Collections.emptyMap();
+         }
+      };
+      Locator locator = new Locator.Abstract() {
+         @Override
+         public BenchmarkBuilder benchmark() {
+            return new BenchmarkBuilder(null, Collections.emptyMap()).data(inMemory);
+         }
+
+         @Override
+         public String locationMessage() {
+            throw new UnsupportedOperationException();
+         }
+      };
+      // the data are already in memory, there's nothing to map
+      Step step = build(locator, builder());
+      assertThat(step).isInstanceOf(RandomCsvRowStep.class);
+      assertThat(((RandomCsvRowStep) step).rows()).hasSize(DATA.length);
+   }
+
+   private static RandomCsvRowStep.Builder builder() {
+      RandomCsvRowStep.Builder builder = new RandomCsvRowStep.Builder()
+            .skipComments(true)
+            .memoryMapped(true)
+            .file("data/testdata.csv");
+      builder.columns().accept("0", "first");
+      builder.columns().accept("3", "fourth");
+      return builder;
+   }
+
+   private static Step build(Locator locator, RandomCsvRowStep.Builder builder) {
+      Locator.push(locator);
+      try {
+         List<Step> steps = builder.build();
+         assertThat(steps).hasSize(1);
+         return steps.get(0);
+      } finally {
+         Locator.pop();
+      }
+   }
+}
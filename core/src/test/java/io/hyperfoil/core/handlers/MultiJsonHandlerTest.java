@@ -0,0 +1,145 @@
+package io.hyperfoil.core.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.json.JsonHandler;
+import io.hyperfoil.core.handlers.json.MultiJsonHandler;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class MultiJsonHandlerTest {
+   private static final byte[] JSON = ("{ \"total\": 3, \"items\": [\n" +
+         "      { \"id\" : 418, \"product\" : \"Teapots\", \"tags\": [\"a\", \"b\"], \"stock\": { \"units\" : 123 } },\n" +
+         "      { \"id\" : 420, \"product\" : \"Various herbs\", \"tags\": [], \"stock\": { \"units\" : 321 } },\n" +
+         "      { \"id\" : 450, \"product\" : \"Magazines\", \"tags\": [\"c\"], \"stock\": { \"units\": 456 } }\n" +
+         "    ], \"next\": \"page=2\" }").getBytes(StandardCharsets.UTF_8);
+   private static final String[] QUERIES = { ".total", ".items[].id", ".items[].product", ".items[1].stock.units",
+         ".items[].tags[0]", ".items[1].stock", ".next", ".missing" };
+
+   @Test
+   public void testSameAsSeparateHandlers() {
+      Collector[] separate = new Collector[QUERIES.length];
+      Collector[] combined = new Collector[QUERIES.length];
+      JsonHandler[] handlers = new JsonHandler[QUERIES.length];
+      JsonHandler[] combinedHandlers = new JsonHandler[QUERIES.length];
+      for (int i = 0; i < QUERIES.length; ++i) {
+         separate[i] = new Collector();
+         combined[i] = new Collector();
+         handlers[i] = new JsonHandler(QUERIES[i], false, null, separate[i]);
+         combinedHandlers[i] = new JsonHandler(QUERIES[i], false, null, combined[i]);
+      }
+      MultiJsonHandler multiHandler = new MultiJsonHandler(combinedHandlers);
+      Session session = SessionFactory.forTesting();
+      for (JsonHandler handler : handlers) {
+         ResourceUtilizer.reserveForTesting(session, handler);
+      }
+      ResourceUtilizer.reserveForTesting(session, multiHandler);
+
+      for (int position = 0; position < JSON.length; ++position) {
+         for (JsonHandler handler : handlers) {
+            handleSplit(handler, session, position);
+         }
+         handleSplit(multiHandler, session, position);
+         for (int i = 0; i < QUERIES.length; ++i) {
+            assertThat(combined[i].values).as(QUERIES[i]).isEqualTo(separate[i].values);
+         }
+      }
+      assertThat(combined[1].values).containsExactly("418", "420", "450");
+      assertThat(combined[3].values).containsExactly("321");
+      assertThat(combined[6].values).containsExactly("\"page=2\"");
+      assertThat(combined[7].values).isEmpty();
+   }
+
+   @Test
+   public void testCombine() {
+      Processor other = new Collector();
+      JsonHandler first = new JsonHandler(".foo", false, null, new Collector());
+      JsonHandler second = new JsonHandler(".bar", false, null, new Collector());
+      JsonHandler deleting = new JsonHandler(".bar", true, null, new Collector());
+      JsonHandler third = new JsonHandler(".goo", false, null, new Collector());
+
+      Processor[] processors = MultiJsonHandler.combine(new Processor[] { other, first, second, deleting, third });
+      assertThat(processors).hasSize(4);
+      assertThat(processors[0]).isSameAs(other);
+      assertThat(processors[1]).isInstanceOf(MultiJsonHandler.class);
+      assertThat(processors[2]).isSameAs(deleting);
+      assertThat(processors[3]).isSameAs(third);
+
+      Processor[] unchanged = new Processor[] { first, other, second };
+      assertThat(MultiJsonHandler.combine(unchanged)).isSameAs(unchanged);
+   }
+
+   @Test
+   public void testCombineIsOptIn() {
+      MultiProcessor.Builder<Void, ?> builder = new MultiProcessor.Builder<>(null);
+      builder.processor(new JsonHandler.Builder().query(".foo").processors().processor(fragmented -> new Collector()).end());
+      builder.processor(new JsonHandler.Builder().query(".bar").processors().processor(fragmented -> new Collector()).end());
+      MultiProcessor separate = (MultiProcessor) builder.build(false);
+      assertThat(separate.delegates).hasSize(2).allMatch(JsonHandler.class::isInstance);
+
+      MultiProcessor combined = (MultiProcessor) builder.combineJsonQueries(true).build(false);
+      assertThat(combined.delegates).hasSize(1).allMatch(MultiJsonHandler.class::isInstance);
+   }
+
+   @Test
+   public void testValuesInDocumentOrder() {
+      // Both queries feed the same processor, exposing the order in which the values are passed
+      Collector separate = new Collector();
+      Processor[] handlers = { new JsonHandler(".items[].product", false, null, separate),
+            new JsonHandler(".items[].id", false, null, separate) };
+      Collector combined = new Collector();
+      MultiJsonHandler multiHandler = new MultiJsonHandler(new JsonHandler(".items[].product", false, null, combined),
+            new JsonHandler(".items[].id", false, null, combined));
+      Session session = SessionFactory.forTesting();
+      for (Processor handler : handlers) {
+         ResourceUtilizer.reserveForTesting(session, handler);
+      }
+      ResourceUtilizer.reserveForTesting(session, multiHandler);
+
+      // the whole document arrives in a single fragment
+      handleSplit(new MultiProcessor(handlers), session, 0);
+      handleSplit(multiHandler, session, 0);
+      // separate handlers pass values query by query, the combined handler as these appear in the document
+      assertThat(separate.values).containsExactly("\"Teapots\"", "\"Various herbs\"", "\"Magazines\"", "418", "420", "450");
+      assertThat(combined.values).containsExactly("418", "\"Teapots\"", "420", "\"Various herbs\"", "450", "\"Magazines\"");
+   }
+
+   private void handleSplit(Processor handler, Session session, int position) {
+      ByteBuf data1 = Unpooled.wrappedBuffer(JSON, 0, position);
+      ByteBuf data2 = Unpooled.wrappedBuffer(JSON, position, JSON.length - position);
+
+      handler.before(session);
+      handler.process(session, data1, data1.readerIndex(), data1.readableBytes(), false);
+      handler.process(session, data2, data2.readerIndex(), data2.readableBytes(), true);
+      handler.after(session);
+   }
+
+   private static class Collector implements Processor {
+      private final List<String> values = new ArrayList<>();
+      private final StringBuilder current = new StringBuilder();
+
+      @Override
+      public void before(Session session) {
+         values.clear();
+      }
+
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         current.append(data.toString(offset, length, StandardCharsets.UTF_8));
+         if (isLastPart) {
+            values.add(current.toString());
+            current.setLength(0);
+         }
+      }
+   }
+}
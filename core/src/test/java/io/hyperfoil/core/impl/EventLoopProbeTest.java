@@ -0,0 +1,66 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Test;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.netty.channel.EventLoop;
+import io.netty.channel.nio.NioEventLoopGroup;
+
+public class EventLoopProbeTest {
+   private static final long BLOCKED_MS = 200;
+
+   private final NioEventLoopGroup group = new NioEventLoopGroup(1);
+
+   @After
+   public void shutdown() {
+      group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   @Test
+   public void testBlockedLoopRecordsQueueDelay() throws Exception {
+      EventLoop loop = group.next();
+      EventLoopProbe probe = new EventLoopProbe(loop, 10);
+      probe.start();
+      Histogram queueDelay = new Histogram(StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE, 2);
+      Histogram iteration = new Histogram(StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE, 2);
+      // the probe runs on an idle loop, too
+      awaitRecorded(probe, queueDelay, iteration, 0);
+      queueDelay.reset();
+
+      loop.execute(() -> {
+         try {
+            Thread.sleep(BLOCKED_MS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      });
+      // the probe due while the loop was blocked runs late by most of the blocked time
+      awaitRecorded(probe, queueDelay, iteration, TimeUnit.MILLISECONDS.toNanos(BLOCKED_MS / 2));
+      assertThat(iteration.getTotalCount()).isPositive();
+
+      probe.stop();
+      // a probe scheduled before stopping still runs but is not scheduled again
+      Thread.sleep(100);
+      probe.queueDelay();
+      Thread.sleep(100);
+      assertThat(probe.queueDelay().getTotalCount()).isZero();
+   }
+
+   private static void awaitRecorded(EventLoopProbe probe, Histogram queueDelay, Histogram iteration, long minDelay)
+         throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      do {
+         Thread.sleep(10);
+         queueDelay.add(probe.queueDelay());
+         iteration.add(probe.iteration());
+      } while ((queueDelay.getTotalCount() == 0 || queueDelay.getMaxValue() < minDelay) && System.nanoTime() < deadline);
+      assertThat(queueDelay.getTotalCount()).isPositive();
+      assertThat(queueDelay.getMaxValue()).isGreaterThanOrEqualTo(minDelay);
+   }
+}
@@ -0,0 +1,141 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.impl.rate.FireTimeListener;
+import io.hyperfoil.core.impl.rate.RateGenerator;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+public class IntendedStartTest {
+   private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+   @Test
+   public void testGeneratorReportsIntendedFireTimes() {
+      RateGenerator generator = RateGenerator.constantRate(500);
+      List<Double> fireTimes = new ArrayList<>();
+      FireTimeListener listener = new FireTimeListener() {
+         @Override
+         public void onFireTime() {
+            throw new AssertionError("Fire time should be reported with its intended time");
+         }
+
+         @Override
+         public void onFireTime(double fireTimeMs) {
+            fireTimes.add(fireTimeMs);
+         }
+      };
+      assertThat(generator.computeNextFireTime(0, listener)).isEqualTo(2);
+      assertThat(fireTimes).containsExactly(0.0);
+      // when the generator is late it catches up with fire times that were due in the past, not the current time
+      assertThat(generator.computeNextFireTime(7, listener)).isEqualTo(8);
+      assertThat(fireTimes).containsExactly(0.0, 2.0, 4.0, 6.0);
+   }
+
+   @Test
+   public void testThrottledUsersRestartInOrder() {
+      ThrottledUsers throttledUsers = new ThrottledUsers(1, true);
+      assertThat(throttledUsers.tracksIntendedStarts()).isTrue();
+      long now = System.nanoTime();
+      throttledUsers.add(now - 50 * MS);
+      throttledUsers.add(now - 10 * MS);
+      assertThat(throttledUsers.size()).isEqualTo(2);
+
+      Session first = SessionFactory.forTesting();
+      Session second = SessionFactory.forTesting();
+      Session third = SessionFactory.forTesting();
+      assertThat(throttledUsers.tryRestart(first.phase(), first)).isTrue();
+      assertThat(throttledUsers.tryRestart(second.phase(), second)).isTrue();
+      assertThat(throttledUsers.tryRestart(third.phase(), third)).isFalse();
+      assertThat(throttledUsers.size()).isZero();
+
+      assertThat(first.startDelayNanos()).isGreaterThanOrEqualTo(50 * MS);
+      assertThat(second.startDelayNanos()).isGreaterThanOrEqualTo(10 * MS).isLessThan(first.startDelayNanos());
+      assertThat(third.startDelayNanos()).isEqualTo(-1);
+   }
+
+   @Test
+   public void testThrottledUsersWithoutIntendedStarts() {
+      ThrottledUsers throttledUsers = new ThrottledUsers(1, false);
+      assertThat(throttledUsers.tracksIntendedStarts()).isFalse();
+      throttledUsers.add();
+      Session session = SessionFactory.forTesting();
+      assertThat(throttledUsers.tryRestart(session.phase(), session)).isTrue();
+      assertThat(throttledUsers.tryRestart(session.phase(), session)).isFalse();
+      assertThat(session.startDelayNanos()).isEqualTo(-1);
+   }
+
+   @Test
+   public void testSessionStartDelay() {
+      Session session = SessionFactory.forTesting();
+      session.start(session.phase(), System.nanoTime() - 20 * MS);
+      assertThat(session.startDelayNanos()).isGreaterThanOrEqualTo(20 * MS);
+      // a session started ahead of its intended time is not negatively delayed
+      session.start(session.phase(), System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+      assertThat(session.startDelayNanos()).isZero();
+      session.start(session.phase());
+      assertThat(session.startDelayNanos()).isEqualTo(-1);
+   }
+
+   @Test
+   public void testPhaseRestartsSessionWithIntendedStart() throws InterruptedException {
+      GateStep gate = new GateStep();
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test");
+      builder.addPhase("test").constantRate(100).correctCoordinatedOmission(true).maxSessions(1).duration(1000)
+            .scenario().initialSequence("test").step(gate);
+      Phase def = builder.build().phases().iterator().next();
+      OpenModelPhase phase = (OpenModelPhase) PhaseInstanceImpl.newInstance(def, "0000", 0);
+
+      Session session = SessionFactory.create(def.scenario(), 0, 0);
+      session.attach(ImmediateEventExecutor.INSTANCE, null, null, null, null);
+      session.reserve(def.scenario());
+      LockBasedElasticPool<Session> pool = new LockBasedElasticPool<>(() -> session, () -> null);
+      pool.reserve(1);
+      phase.setComponents(pool, Collections.singletonList(session), null);
+      phase.recordAbsoluteStartTime();
+
+      // the first user gets the only session, which stays blocked in the gate, the others are throttled
+      phase.onFireTime(0);
+      phase.onFireTime(10);
+      phase.onFireTime(20);
+      assertThat(gate.delays).isEmpty();
+
+      Thread.sleep(100);
+      gate.open = true;
+      session.proceed();
+
+      // the session is restarted for each throttled user, in the order of their intended starts
+      assertThat(gate.delays).hasSize(3);
+      long firstThrottledDelay = gate.delays.get(1);
+      long secondThrottledDelay = gate.delays.get(2);
+      assertThat(firstThrottledDelay).isGreaterThanOrEqualTo(90 * MS);
+      assertThat(secondThrottledDelay).isGreaterThanOrEqualTo(80 * MS);
+      assertThat(firstThrottledDelay - secondThrottledDelay).isPositive().isLessThanOrEqualTo(10 * MS);
+      assertThat(pool.acquire()).isSameAs(session);
+   }
+
+   private static class GateStep implements Step {
+      private final List<Long> delays = new ArrayList<>();
+      private boolean open;
+
+      @Override
+      public boolean invoke(Session session) {
+         if (!open) {
+            return false;
+         }
+         delays.add(session.startDelayNanos());
+         return true;
+      }
+   }
+}
@@ -0,0 +1,48 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkData;
+
+public class LocalBenchmarkDataTest {
+   @Test
+   public void testFileIsNotLoaded() throws IOException {
+      Path dir = Files.createTempDirectory("hyperfoil-data");
+      try {
+         Path benchmark = Files.writeString(dir.resolve("benchmark.yaml"), "name: test");
+         Path mapped = Files.writeString(dir.resolve("mapped.csv"), "foo,bar");
+         Path loaded = Files.writeString(dir.resolve("loaded.csv"), "goo,gar");
+         LocalBenchmarkData data = new LocalBenchmarkData(benchmark);
+
+         assertThat(data.file("mapped.csv")).isEqualTo(mapped);
+         assertThat(data.files()).isEmpty();
+         assertThat(data.externalFiles()).containsOnlyKeys("mapped.csv").containsValue(mapped);
+
+         try (InputStream stream = data.readFile("loaded.csv")) {
+            assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("goo,gar");
+         }
+         assertThat(data.files()).containsOnlyKeys("loaded.csv");
+         assertThat(data.externalFiles()).doesNotContainKey("loaded.csv");
+         assertThat(data.file(loaded.toString())).isEqualTo(loaded);
+
+         assertThatThrownBy(() -> data.file("missing.csv")).isInstanceOf(BenchmarkData.MissingFileException.class);
+         assertThat(data.externalFiles()).doesNotContainKey("missing.csv");
+      } finally {
+         try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+               Files.delete(file);
+            }
+         }
+         Files.delete(dir);
+      }
+   }
+}
@@ -0,0 +1,128 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoublePredicate;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.impl.rate.AdaptiveRateGenerator;
+import io.hyperfoil.core.impl.rate.RateGenerator;
+import io.hyperfoil.core.steps.NoopStep;
+
+public class MaxThroughputSearchTest {
+   private static final long STEP_DURATION = 1000;
+
+   @Test
+   public void testPassToMax() {
+      Search search = new Search(10, 50, 10, 1);
+      List<Double> rates = search.run(rate -> true);
+      assertThat(rates).containsExactly(10.0, 20.0, 30.0, 40.0, 50.0);
+      assertThat(search.search.isConverged()).isTrue();
+      assertThat(search.search.result()).isEqualTo(50.0);
+   }
+
+   @Test
+   public void testFirstStepFails() {
+      Search search = new Search(10, 50, 10, 3);
+      List<Double> rates = search.run(rate -> false);
+      assertThat(rates).containsExactly(10.0, 5.0, 2.5);
+      assertThat(search.search.isConverged()).isTrue();
+      assertThat(search.search.result()).isZero();
+   }
+
+   @Test
+   public void testBisectionToPrecision() {
+      Search search = new Search(10, 100, 10, 1);
+      List<Double> rates = search.run(rate -> rate <= 46.5);
+      assertThat(rates).containsExactly(10.0, 20.0, 30.0, 40.0, 50.0, 45.0, 47.5, 46.25, 46.875);
+      assertThat(search.search.isConverged()).isTrue();
+      assertThat(search.search.result()).isEqualTo(46.25);
+   }
+
+   @Test
+   public void testThrottledUsersFailStep() {
+      Search search = new Search(10, 100, 10, 1);
+      search.step(true);
+      assertThat(search.generator.fireTimesPerSec()).isEqualTo(20.0);
+      search.throttledUsers.add();
+      search.step(true);
+      assertThat(search.generator.fireTimesPerSec()).isEqualTo(15.0);
+      // Users throttled during the previous step do not count
+      search.step(true);
+      assertThat(search.generator.fireTimesPerSec()).isEqualTo(17.5);
+      assertThat(search.search.isConverged()).isFalse();
+      assertThat(search.search.result()).isEqualTo(15.0);
+   }
+
+   @Test
+   public void testStepWithoutTrafficEndsOnTick() {
+      Search search = new Search(10, 100, 10, 5);
+      search.search.tick(STEP_DURATION - 1);
+      assertThat(search.generator.fireTimesPerSec()).isEqualTo(10.0);
+      search.search.tick(STEP_DURATION);
+      assertThat(search.generator.fireTimesPerSec()).isEqualTo(5.0);
+      assertThat(search.search.result()).isZero();
+   }
+
+   @Test
+   public void testIgnoresStatisticsFromPreviousStep() {
+      Search search = new Search(10, 100, 10, 5);
+      search.step(true);
+      // Statistics that started before the rate was changed would fail the step if these were accounted
+      search.search.accept(snapshot(0, 10, 10), 2 * STEP_DURATION);
+      assertThat(search.generator.fireTimesPerSec()).isEqualTo(20.0);
+      search.step(true);
+      assertThat(search.generator.fireTimesPerSec()).isEqualTo(30.0);
+   }
+
+   private static StatisticsSnapshot snapshot(long startTimestamp, int requests, int errors) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.histogram.setStartTimeStamp(startTimestamp);
+      snapshot.histogram.setEndTimeStamp(startTimestamp + STEP_DURATION);
+      snapshot.requestCount = requests;
+      snapshot.responseCount = requests;
+      snapshot.internalErrors = errors;
+      return snapshot;
+   }
+
+   private static class Search {
+      final AdaptiveRateGenerator generator;
+      final ThrottledUsers throttledUsers = new ThrottledUsers(1, false);
+      final MaxThroughputSearch search;
+      long now;
+
+      Search(double initial, double max, double increment, double precision) {
+         BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test");
+         builder.addPhase("test").maxThroughput(initial, max).increment(increment).precision(precision)
+               .stepDuration(STEP_DURATION).maxErrorRatio(0.1).duration(60_000)
+               .scenario().initialSequence("test").step(new NoopStep());
+         Phase def = builder.build().phases().iterator().next();
+         generator = RateGenerator.adaptiveRate(null, initial);
+         search = new MaxThroughputSearch(def, 0, generator, throttledUsers);
+         search.start((OpenModelPhase) PhaseInstanceImpl.newInstance(def, "0000", 0), now);
+      }
+
+      void step(boolean pass) {
+         // The first snapshot arrives before the step is over and must not trigger the evaluation
+         search.accept(snapshot(now, 50, 0), now + STEP_DURATION / 2);
+         now += STEP_DURATION;
+         search.accept(snapshot(now - STEP_DURATION / 2, 50, pass ? 0 : 50), now);
+      }
+
+      List<Double> run(DoublePredicate passes) {
+         List<Double> rates = new ArrayList<>();
+         for (int i = 0; i < 100 && !search.isConverged(); ++i) {
+            double rate = generator.fireTimesPerSec();
+            rates.add(rate);
+            step(passes.test(rate));
+         }
+         return rates;
+      }
+   }
+}
@@ -0,0 +1,120 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.PhaseBuilder;
+import io.hyperfoil.core.impl.rate.FireTimeListener;
+import io.hyperfoil.core.impl.rate.RateGenerator;
+
+public class PerExecutorOpenModelPhaseTest {
+   private static final int THREADS = 4;
+   private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+   private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+   @Test
+   public void testConstantRateIsSplitAndStaggered() {
+      PerExecutorOpenModelPhase phase = phase(catalog -> catalog.constantRate(1000).variance(false), 1000);
+      List<Long> startTimes = new ArrayList<>();
+      for (int i = 0; i < THREADS; ++i) {
+         // executors are shifted by one interval of the full rate
+         long offset = phase.offsetNanos(i);
+         assertThat(offset).isEqualTo(i * MS);
+         List<Double> fireTimes = fireTimes(phase.newRateGenerator(i), SECOND - offset - 1);
+         // each executor starts a quarter of the users
+         assertThat(fireTimes).hasSize(250);
+         assertThat(fireTimes.get(1) - fireTimes.get(0)).isEqualTo(4.0);
+         fireTimes.forEach(fireTimeMs -> startTimes.add(offset + Math.round(fireTimeMs * MS)));
+      }
+      // together the executors start a user each millisecond
+      startTimes.sort(Long::compare);
+      assertThat(startTimes).hasSize(1000);
+      for (int i = 0; i < startTimes.size(); ++i) {
+         assertThat(startTimes.get(i)).isEqualTo(i * MS);
+      }
+   }
+
+   @Test
+   public void testRampRateIsSplitAndStaggered() {
+      PerExecutorOpenModelPhase phase = phase(catalog -> catalog.rampRate(1000, 3000).variance(false), 1000);
+      for (int i = 0; i < THREADS; ++i) {
+         // executors are shifted by one interval of the highest rate
+         assertThat(phase.offsetNanos(i)).isEqualTo(i * SECOND / 3000);
+         // each executor ramps from 250 to 750 users per second: 500 users plus the one at the start
+         List<Double> fireTimes = fireTimes(phase.newRateGenerator(i), SECOND);
+         assertThat(fireTimes).hasSize(501);
+         assertThat(fireTimes.get(1) - fireTimes.get(0)).isBetween(3.9, 4.0);
+         double lastInterval = fireTimes.get(500) - fireTimes.get(499);
+         assertThat(lastInterval).isBetween(1.3, 1.4);
+      }
+   }
+
+   @Test
+   public void testPoissonConstantRateIsSplit() {
+      PerExecutorOpenModelPhase phase = phase(catalog -> catalog.constantRate(1000).variance(true), 100_000);
+      for (int i = 0; i < THREADS; ++i) {
+         // independent Poisson processes don't need to be shifted
+         assertThat(phase.offsetNanos(i)).isZero();
+         // 250 users per second, the tolerance is about 8 standard deviations
+         List<Double> fireTimes = fireTimes(phase.newRateGenerator(i), 100 * SECOND);
+         assertThat(fireTimes.size()).isBetween(23_750, 26_250);
+         assertThat(fireTimes).anyMatch(fireTimeMs -> fireTimeMs != Math.rint(fireTimeMs));
+      }
+   }
+
+   @Test
+   public void testPoissonRampRateIsSplit() {
+      PerExecutorOpenModelPhase phase = phase(catalog -> catalog.rampRate(1000, 3000).variance(true), 10_000);
+      for (int i = 0; i < THREADS; ++i) {
+         assertThat(phase.offsetNanos(i)).isZero();
+         // from 250 to 750 users per second during 10 seconds, the tolerance is about 7 standard deviations
+         List<Double> fireTimes = fireTimes(phase.newRateGenerator(i), 10 * SECOND);
+         assertThat(fireTimes.size()).isBetween(4500, 5500);
+         // the rate increases
+         long firstHalf = fireTimes.stream().filter(fireTimeMs -> fireTimeMs < 5000).count();
+         assertThat(firstHalf).isLessThan(fireTimes.size() - firstHalf);
+      }
+   }
+
+   private static PerExecutorOpenModelPhase phase(Function<PhaseBuilder.Catalog, PhaseBuilder.OpenModel<?>> model,
+         long durationMs) {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test").threads(THREADS);
+      PhaseBuilder.OpenModel<?> openModel = model.apply(builder.addPhase("test"));
+      openModel.perExecutorRate(true);
+      openModel.maxSessions(10);
+      openModel.duration(durationMs).scenario().initialSequence("test").step(s -> true);
+      Phase def = builder.build().phases().iterator().next();
+      return (PerExecutorOpenModelPhase) PhaseInstanceImpl.newInstance(def, "0000", 0);
+   }
+
+   /**
+    * Drives the generator through the nanosecond API to the times it returns, as the phase does.
+    */
+   private static List<Double> fireTimes(RateGenerator generator, long durationNanos) {
+      List<Double> fireTimes = new ArrayList<>();
+      FireTimeListener listener = new FireTimeListener() {
+         @Override
+         public void onFireTime() {
+            throw new AssertionError("Fire time should be reported with its intended time");
+         }
+
+         @Override
+         public void onFireTime(double fireTimeMs) {
+            fireTimes.add(fireTimeMs);
+         }
+      };
+      long nextNanos = 0;
+      do {
+         nextNanos = generator.computeNextFireTimeNanos(nextNanos, listener);
+      } while (nextNanos <= durationNanos);
+      return fireTimes;
+   }
+}
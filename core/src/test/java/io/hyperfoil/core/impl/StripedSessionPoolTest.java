@@ -0,0 +1,161 @@
+package io.hyperfoil.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.collection.ElasticPool;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.test.CustomExecutorRunner;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutor;
+
+@RunWith(CustomExecutorRunner.class)
+public class StripedSessionPoolTest extends PoolTest<Session> {
+
+   private static EventExecutor[] executors;
+   private int nextEventExecutor = 0;
+
+   @BeforeClass
+   public static void configureRunnerExecutor() {
+      final var eventExecutors = new DefaultEventExecutorGroup(11);
+      executors = StreamSupport.stream(eventExecutors.spliterator(), false)
+            .map(EventExecutor.class::cast).toArray(EventExecutor[]::new);
+      CustomExecutorRunner.TEST_EVENT_EXECUTOR = eventExecutors;
+   }
+
+   @Override
+   protected ElasticPool<Session> createPoolWith(final Supplier<Session> initSupplier) {
+      return new StripedSessionPool(executors, initSupplier);
+   }
+
+   @Override
+   protected Session createNewItem() {
+      final Session session = createSession(nextEventExecutor);
+      nextEventExecutor++;
+      if (nextEventExecutor >= executors.length) {
+         nextEventExecutor = 0;
+      }
+      return session;
+   }
+
+   private static Session createSession(int agentThreadId) {
+      final Session session = mock(Session.class);
+      when(session.executor()).thenReturn(executors[agentThreadId]);
+      when(session.agentThreadId()).thenReturn(agentThreadId);
+      return session;
+   }
+
+   @Test
+   public void stealFromOtherStripeInBatches() {
+      final int local = localAgentThreadId();
+      final int victim = (local + 1) % executors.length;
+      final int capacity = 5 * StripedSessionPool.STEAL_BATCH;
+      final var pool = createPoolWith(() -> createSession(victim));
+      pool.reserve(capacity);
+      final var acquired = new HashSet<Session>();
+      for (int i = 0; i < capacity; ++i) {
+         final var session = pool.acquire();
+         assertNotNull(session);
+         assertTrue(acquired.add(session));
+         assertEquals(i + 1, pool.maxUsed());
+      }
+      assertNull(pool.acquire());
+      for (final Session session : acquired) {
+         pool.release(session);
+      }
+      assertEquals(0, pool.minUsed());
+      // released sessions go back to the victim's stripe, reserving does not create any new ones
+      pool.reserve(capacity);
+      for (int i = 0; i < capacity; ++i) {
+         assertNotNull(pool.acquire());
+      }
+   }
+
+   @Test
+   public void growWhileSessionsAreStolen() {
+      final int local = localAgentThreadId();
+      final int victim = (local + 1) % executors.length;
+      final int capacity = 4 * StripedSessionPool.STEAL_BATCH;
+      final var pool = createPoolWith(() -> createSession(victim));
+      pool.reserve(capacity);
+      // one session is acquired and a batch of others is held in the local buffer
+      final var first = pool.acquire();
+      assertNotNull(first);
+      // reserving counts only sessions that are not acquired, so this adds STEAL_BATCH / 2 + 1 sessions;
+      // the queue would be sized (and rounded up) to 64 if it did not count the stolen sessions
+      final int reserved = capacity + StripedSessionPool.STEAL_BATCH / 2;
+      pool.reserve(reserved);
+      pool.release(first);
+      final var acquired = new HashSet<Session>();
+      Session session;
+      while ((session = pool.acquire()) != null) {
+         assertTrue(acquired.add(session));
+      }
+      assertEquals(reserved + 1, acquired.size());
+      // the victim's stripe must fit all its sessions, including those that were stolen when it grew
+      for (final Session s : acquired) {
+         pool.release(s);
+      }
+      assertEquals(0, pool.minUsed());
+   }
+
+   @Test
+   public void stolenSessionsAreReturned() throws Exception {
+      final int local = localAgentThreadId();
+      final int victim = (local + 1) % executors.length;
+      final int thief = (local + 2) % executors.length;
+      final int capacity = 4 * StripedSessionPool.STEAL_BATCH;
+      final var pool = createPoolWith(() -> createSession(victim));
+      pool.reserve(capacity);
+      final Session first = executors[thief].submit(pool::acquire).get();
+      assertNotNull(first);
+      // the thief has finished the task that stole the sessions and the one returning them
+      executors[thief].submit(() -> {
+      }).get();
+      int acquired = 0;
+      while (pool.acquire() != null) {
+         ++acquired;
+      }
+      assertEquals(capacity - 1, acquired);
+   }
+
+   private static int localAgentThreadId() {
+      int local = -1;
+      for (int i = 0; i < executors.length; ++i) {
+         if (executors[i].inEventLoop()) {
+            local = i;
+         }
+      }
+      assertTrue(local >= 0);
+      return local;
+   }
+
+   @Test
+   public void acquireReleaseWithinReservedCapacityFromAlienThread() {
+      var error = new CompletableFuture<>();
+      Thread alienThread = new Thread(() -> {
+         try {
+            super.acquireReleaseWithinReservedCapacity();
+            error.complete(null);
+         } catch (Throwable t) {
+            error.completeExceptionally(t);
+         }
+      });
+      alienThread.start();
+      Assert.assertNull(error.join());
+   }
+}
@@ -0,0 +1,54 @@
+package io.hyperfoil.core.impl.rate;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AdaptiveRateGeneratorTest extends RateGeneratorTest {
+   @Override
+   int samples() {
+      return 1000;
+   }
+
+   @Override
+   RateGenerator newUserGenerator() {
+      return RateGenerator.adaptiveRate(null, 1000);
+   }
+
+   @Override
+   void assertSamplesWithoutSkew(final double[] samples, final long totalUsers) {
+      for (int i = 1; i < samples.length; ++i) {
+         assertEquals(samples[i - 1] + 1.0, samples[i], 0.0);
+      }
+   }
+
+   @Test
+   public void testRateChange() {
+      final var generator = RateGenerator.adaptiveRate(null, 100);
+      final var fireTimesCounter = new FireTimesCounter();
+      // fire times at 0, 10, ..., 990
+      assertEquals(1000, generator.computeNextFireTime(999, fireTimesCounter));
+      assertEquals(100, fireTimesCounter.fireTimes);
+      generator.setFireTimesPerSec(1000);
+      // the next fire time was computed before the change, the new rate applies after that
+      assertEquals(1001, generator.computeNextFireTime(1000, fireTimesCounter));
+      assertEquals(101, fireTimesCounter.fireTimes);
+      assertEquals(2000, generator.computeNextFireTime(1999, fireTimesCounter));
+      assertEquals(1100, fireTimesCounter.fireTimes);
+      assertEquals(1100, generator.fireTimes());
+   }
+
+   @Test
+   public void testPoissonRateChange() {
+      final var generator = RateGenerator.adaptiveRate(new Random(42), 1000);
+      final var fireTimesCounter = new FireTimesCounter();
+      generator.computeNextFireTime(10_000, fireTimesCounter);
+      assertEquals(10_000, fireTimesCounter.fireTimes, 500);
+      generator.setFireTimesPerSec(2000);
+      fireTimesCounter.fireTimes = 0;
+      generator.computeNextFireTime(20_000, fireTimesCounter);
+      assertEquals(20_000, fireTimesCounter.fireTimes, 1000);
+   }
+}
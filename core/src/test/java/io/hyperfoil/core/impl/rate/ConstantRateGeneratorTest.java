@@ -2,6 +2,8 @@ package io.hyperfoil.core.impl.rate;
 
 import static org.junit.Assert.assertEquals;
 
+import org.junit.Test;
+
 public class ConstantRateGeneratorTest extends RateGeneratorTest {
    @Override
    int samples() {
@@ -20,4 +22,17 @@ public class ConstantRateGeneratorTest extends RateGeneratorTest {
       }
       assertEquals(999, samples[samples.length - 1] - samples[0], 0.0);
    }
+
+   @Test
+   public void testSubMillisecondFireTimes() {
+      final var generator = RateGenerator.constantRate(10_000);
+      final var fireTimesCounter = new FireTimesCounter();
+      assertEquals(100_000, generator.computeNextFireTimeNanos(0, fireTimesCounter));
+      assertEquals(1, fireTimesCounter.fireTimes);
+      assertEquals(100_000, generator.computeNextFireTimeNanos(99_999, fireTimesCounter));
+      assertEquals(1, fireTimesCounter.fireTimes);
+      assertEquals(300_000, generator.computeNextFireTimeNanos(250_000, fireTimesCounter));
+      assertEquals(3, fireTimesCounter.fireTimes);
+      assertEquals(3, generator.fireTimes());
+   }
 }
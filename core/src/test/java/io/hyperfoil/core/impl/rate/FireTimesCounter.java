@@ -1,8 +1,13 @@
 package io.hyperfoil.core.impl.rate;
 
+import java.util.ArrayList;
+import java.util.List;
+
 final class FireTimesCounter implements FireTimeListener {
 
    public long fireTimes;
+   // intended fire times, if the generator reports them
+   public final List<Double> fireTimesMs = new ArrayList<>();
 
    FireTimesCounter() {
       fireTimes = 0;
@@ -12,4 +17,10 @@ final class FireTimesCounter implements FireTimeListener {
    public void onFireTime() {
       fireTimes++;
    }
-}
\ No newline at end of file
+
+   @Override
+   public void onFireTime(double fireTimeMs) {
+      fireTimesMs.add(fireTimeMs);
+      onFireTime();
+   }
+}
@@ -2,6 +2,8 @@ package io.hyperfoil.core.impl.rate;
 
 import java.util.Random;
 
+import org.junit.Test;
+
 public class PoissonConstantRateGeneratorTest extends RateGeneratorTest {
 
    private static final int SEED = 0;
@@ -25,4 +27,8 @@ public class PoissonConstantRateGeneratorTest extends RateGeneratorTest {
       kolmogorovSmirnovTestVsExpDistr(interArrivalTimes, SEED, 1.0);
    }
 
+   @Test
+   public void testSubMillisecondFireTimes() {
+      assertNanosecondFireTimes(() -> RateGenerator.poissonConstantRate(new Random(SEED), 10_000), samples());
+   }
 }
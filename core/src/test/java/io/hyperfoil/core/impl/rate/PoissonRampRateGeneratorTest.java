@@ -2,6 +2,8 @@ package io.hyperfoil.core.impl.rate;
 
 import java.util.Random;
 
+import org.junit.Test;
+
 public class PoissonRampRateGeneratorTest extends RateGeneratorTest {
 
    private static final int SEED = 0;
@@ -34,4 +36,9 @@ public class PoissonRampRateGeneratorTest extends RateGeneratorTest {
       // fireTimesOnIntervals should follow an exponential distribution with lambda = 1
       kolmogorovSmirnovTestVsExpDistr(fireTimesOnIntervals, SEED, 1.0);
    }
+
+   @Test
+   public void testSubMillisecondFireTimes() {
+      assertNanosecondFireTimes(() -> RateGenerator.poissonRampRate(new Random(SEED), 1000, 10_000, 1000), samples());
+   }
 }
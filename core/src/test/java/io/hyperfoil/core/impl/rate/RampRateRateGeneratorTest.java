@@ -40,6 +40,29 @@ public class RampRateRateGeneratorTest extends RateGeneratorTest {
       Assert.assertEquals(samples(), missingFireTimeCounter.fireTimes);
    }
 
+   @Test
+   public void testSubMillisecondFireTimes() {
+      // 1 user per ms at the start, 3 users per ms at the end of the second
+      final var generator = RateGenerator.rampRate(1000, 3000, 1000);
+      final var fireTimesCounter = new FireTimesCounter();
+      long next = generator.computeNextFireTimeNanos(0, fireTimesCounter);
+      assertEquals(1, fireTimesCounter.fireTimes);
+      // the second user is due slightly before 1 ms; the millisecond API would round this up
+      assertEquals(999_002, next);
+      long previous = 0;
+      for (int i = 1; i <= 2000; ++i) {
+         // nothing is started before the returned time
+         assertEquals(next, generator.computeNextFireTimeNanos(next - 1, fireTimesCounter));
+         assertEquals(i, fireTimesCounter.fireTimes);
+         previous = next;
+         next = generator.computeNextFireTimeNanos(next, fireTimesCounter);
+         assertEquals(i + 1, fireTimesCounter.fireTimes);
+      }
+      assertEquals(1_000_000_000, previous, 10);
+      assertEquals(333_296, next - previous, 10);
+      assertEquals(2001, generator.fireTimes());
+   }
+
    @Override
    void assertSamplesWithoutSkew(final double[] samples, final long totalUsers) {
       // compute inter-arrival times
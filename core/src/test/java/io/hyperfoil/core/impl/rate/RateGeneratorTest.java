@@ -1,6 +1,10 @@
 package io.hyperfoil.core.impl.rate;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.function.Supplier;
 
 import org.apache.commons.math3.distribution.ExponentialDistribution;
 import org.apache.commons.math3.random.JDKRandomGenerator;
@@ -32,6 +36,39 @@ public abstract class RateGeneratorTest {
       }
    }
 
+   /**
+    * Drives one generator through the nanosecond API, always to the fire time it returned, and checks that it starts
+    * the users at the same intended times as an identical generator driven through the millisecond API.
+    */
+   public static void assertNanosecondFireTimes(final Supplier<RateGenerator> generatorSupplier, final int users) {
+      final var millisGenerator = generatorSupplier.get();
+      final var millisCounter = new FireTimesCounter();
+      long elapsedMs = 0;
+      // a few more users in case the last step fires several at once
+      while (millisCounter.fireTimes < users + 10) {
+         elapsedMs = millisGenerator.computeNextFireTime(elapsedMs, millisCounter);
+      }
+      final List<Double> expected = millisCounter.fireTimesMs;
+
+      final var generator = generatorSupplier.get();
+      final var fireTimesCounter = new FireTimesCounter();
+      long elapsedNanos = 0;
+      boolean subMillisecond = false;
+      while (fireTimesCounter.fireTimes < users) {
+         final long nextNanos = generator.computeNextFireTimeNanos(elapsedNanos, fireTimesCounter);
+         final int fired = (int) fireTimesCounter.fireTimes;
+         assertEquals(expected.subList(0, fired), fireTimesCounter.fireTimesMs);
+         assertTrue(expected.get(fired) > elapsedNanos / 1_000_000.0);
+         assertEquals((long) Math.ceil(expected.get(fired) * 1_000_000), nextNanos);
+         // nothing is started before the returned time
+         assertEquals(nextNanos, generator.computeNextFireTimeNanos(nextNanos - 1, fireTimesCounter));
+         assertEquals(fired, fireTimesCounter.fireTimes);
+         subMillisecond |= nextNanos % 1_000_000 != 0;
+         elapsedNanos = nextNanos;
+      }
+      assertTrue(subMillisecond);
+   }
+
    abstract int samples();
 
    abstract RateGenerator newUserGenerator();
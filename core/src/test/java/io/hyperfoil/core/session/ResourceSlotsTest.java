@@ -0,0 +1,85 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+
+public class ResourceSlotsTest {
+   @Test
+   public void testSlotLayout() {
+      TestKey single = new TestKey();
+      TestKey concurrent = new TestKey();
+      TestKey shared = new TestKey();
+      Sequence first = new Sequence("first", 0, 0, 0, new Step[] { new ReserveStep(single, shared) });
+      Sequence second = new Sequence("second", 1, 3, 1, new Step[] { new ReserveStep(concurrent, shared) });
+      Scenario scenario = new Scenario(new Sequence[] { first }, new Sequence[] { first, second }, 16, 16);
+
+      assertThat(scenario.resourceSlots()).isEqualTo(4);
+      assertThat(single.resourceSlot).isEqualTo(0);
+      assertThat(scenario.resourceSlotSpan(0)).isEqualTo(1);
+      assertThat(concurrent.resourceSlot).isEqualTo(1);
+      assertThat(scenario.resourceSlotSpan(1)).isEqualTo(3);
+      assertThat(shared.resourceSlot).isEqualTo(-1);
+
+      SessionImpl session = new SessionImpl(scenario, 0, 0);
+      session.reserve(scenario);
+      session.currentSequence(new SequenceInstance().reset(first, 0, null, null));
+      TestResource singleResource = session.getResource(single);
+      TestResource sharedResource = session.getResource(shared);
+      assertThat(singleResource).isNotNull();
+      assertThat(sharedResource).isNotNull();
+      TestResource[] concurrentResources = new TestResource[3];
+      for (int i = 0; i < 3; ++i) {
+         session.currentSequence(new SequenceInstance().reset(second, i, null, null));
+         concurrentResources[i] = session.getResource(concurrent);
+         assertThat(session.getResource(single)).isSameAs(singleResource);
+         // the shared key is declared in the non-concurrent sequence first
+         assertThat(session.getResource(shared)).isSameAs(sharedResource);
+      }
+      assertThat(concurrentResources).doesNotContainNull().doesNotHaveDuplicates();
+   }
+
+   private static class TestKey implements Session.SlottedResourceKey<TestResource> {
+      private int resourceSlot = -1;
+
+      @Override
+      public int resourceSlot() {
+         return resourceSlot;
+      }
+
+      @Override
+      public void setResourceSlot(int slot) {
+         this.resourceSlot = slot;
+      }
+   }
+
+   private static class TestResource implements Session.Resource {
+   }
+
+   private static class ReserveStep implements Step, ResourceUtilizer {
+      private final TestKey[] keys;
+
+      ReserveStep(TestKey... keys) {
+         this.keys = keys;
+      }
+
+      @Override
+      public boolean invoke(Session session) {
+         return true;
+      }
+
+      @Override
+      public void reserve(Session session) {
+         for (TestKey key : keys) {
+            session.declareResource(key, TestResource::new);
+         }
+      }
+   }
+}
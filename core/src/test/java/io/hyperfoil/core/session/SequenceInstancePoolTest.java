@@ -0,0 +1,220 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.SessionStopException;
+import io.hyperfoil.core.impl.PhaseInstanceImpl;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+public class SequenceInstancePoolTest {
+   private final GateStep gate = new GateStep();
+   private SequenceInstancePool pool;
+   private TestPhase phase;
+   private Session first;
+   private Session second;
+
+   @Before
+   public void setup() {
+      pool = SequenceInstancePool.current();
+      // Other tests running on this thread could have left instances in the pool; start empty so that each instance
+      // created by this test is accounted for.
+      while (pool.size() > 0) {
+         pool.acquire();
+      }
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().name("test");
+      builder.addPhase("test").atOnce(2).scenario().maxSequences(3)
+            .initialSequence("initial").step(gate).endSequence()
+            .sequence("concurrent").concurrency(2).step(gate).endSequence()
+            .sequence("single").step(gate);
+      Phase def = builder.build().phases().iterator().next();
+      phase = new TestPhase(def);
+      first = startSession(def, 0);
+      second = startSession(def, 1);
+      // each session holds the instance of its initial sequence
+      assertThat(pool.size()).isZero();
+   }
+
+   private Session startSession(Phase def, int uniqueId) {
+      Session session = SessionFactory.create(def.scenario(), 0, uniqueId);
+      session.attach(ImmediateEventExecutor.INSTANCE, null, null, null, null);
+      session.reserve(def.scenario());
+      session.start(phase);
+      return session;
+   }
+
+   @Test
+   public void testSessionsShareInstances() {
+      assertThat(first.startSequence("concurrent", false, Session.ConcurrencyPolicy.FAIL)).isNotNull();
+      assertThat(second.startSequence("concurrent", false, Session.ConcurrencyPolicy.FAIL)).isNotNull();
+      assertThat(pool.size()).isZero();
+
+      finishAll();
+      assertBalanced(4);
+
+      // a restarted session reuses instances released by both sessions
+      gate.open = false;
+      first.start(phase);
+      SequenceInstance instance = first.startSequence("concurrent", false, Session.ConcurrencyPolicy.FAIL);
+      assertThat(instance).isNotNull();
+      assertThat(pool.size()).isEqualTo(2);
+      second.start(phase);
+      assertThat(pool.size()).isEqualTo(1);
+      finishAll();
+      assertBalanced(4);
+   }
+
+   @Test
+   public void testConcurrencyExceededWithWarning() {
+      assertThat(first.startSequence("concurrent", false, Session.ConcurrencyPolicy.WARN)).isNotNull();
+      assertThat(first.startSequence("concurrent", false, Session.ConcurrencyPolicy.WARN)).isNotNull();
+      assertThat(pool.size()).isZero();
+      assertThat(second.startSequence("concurrent", false, Session.ConcurrencyPolicy.WARN)).isNotNull();
+      assertThat(second.startSequence("concurrent", false, Session.ConcurrencyPolicy.WARN)).isNotNull();
+      // the third instance exceeds the concurrency of the sequence
+      assertThat(second.startSequence("concurrent", false, Session.ConcurrencyPolicy.WARN)).isNull();
+      assertThat(phase.failure).isNull();
+      assertThat(pool.size()).isZero();
+
+      finishAll();
+      assertBalanced(6);
+   }
+
+   @Test
+   public void testConcurrencyExceededFailsSession() {
+      first.startSequence("concurrent", false, Session.ConcurrencyPolicy.FAIL);
+      first.startSequence("concurrent", false, Session.ConcurrencyPolicy.FAIL);
+      assertThatThrownBy(() -> first.startSequence("concurrent", false, Session.ConcurrencyPolicy.FAIL))
+            .isInstanceOf(SessionStopException.class);
+      assertThat(phase.failure).isInstanceOf(IllegalStateException.class).hasMessage("Concurrency limit exceeded");
+      // the failed session released its instances but the other one still runs its initial sequence
+      assertThat(phase.finished).containsExactly(first);
+      assertThat(first.isActive()).isFalse();
+      assertThat(second.isActive()).isTrue();
+      assertThat(pool.size()).isEqualTo(3);
+
+      // as if the sequence tried to start itself again
+      second.currentSequence(second.startSequence("single", false, Session.ConcurrencyPolicy.FAIL));
+      assertThatThrownBy(() -> second.startSequence("single", false, Session.ConcurrencyPolicy.FAIL))
+            .isInstanceOf(SessionStopException.class);
+      assertThat(phase.failure).hasMessageContaining("it is not concurrent");
+      assertThat(phase.finished).containsExactly(first, second);
+      assertBalanced(4);
+   }
+
+   @Test
+   public void testMaximumScheduledSequences() {
+      first.startSequence("concurrent", false, Session.ConcurrencyPolicy.FAIL);
+      first.startSequence("concurrent", false, Session.ConcurrencyPolicy.FAIL);
+      assertThatThrownBy(() -> first.startSequence("single", false, Session.ConcurrencyPolicy.FAIL))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Maximum number of scheduled sequences exceeded!");
+      // nothing was acquired for the sequence that could not be scheduled
+      assertThat(pool.size()).isZero();
+      assertThat(first.isActive()).isTrue();
+
+      finishAll();
+      assertBalanced(4);
+      // the slot of the sequence is not left marked as used
+      gate.open = false;
+      first.start(phase);
+      assertThat(first.startSequence("single", false, Session.ConcurrencyPolicy.FAIL)).isNotNull();
+      finishAll();
+      assertBalanced(4);
+   }
+
+   @Test
+   public void testStopReleasesInstances() {
+      first.startSequence("concurrent", false, Session.ConcurrencyPolicy.FAIL);
+      first.startSequence("single", false, Session.ConcurrencyPolicy.FAIL);
+      assertThatThrownBy(first::stop).isInstanceOf(SessionStopException.class);
+      assertThat(phase.finished).containsExactly(first);
+      assertThat(pool.size()).isEqualTo(3);
+      // stopping a session that is not running does not release anything twice
+      assertThatThrownBy(first::stop).isInstanceOf(SessionStopException.class);
+      assertThat(pool.size()).isEqualTo(3);
+
+      first.start(phase);
+      assertThat(first.isActive()).isTrue();
+      assertThat(pool.size()).isEqualTo(2);
+      assertThatThrownBy(second::stop).isInstanceOf(SessionStopException.class);
+      assertThat(pool.size()).isEqualTo(3);
+      finishAll();
+      assertBalanced(4);
+   }
+
+   private void finishAll() {
+      gate.open = true;
+      first.proceed();
+      second.proceed();
+      assertThat(first.isActive()).isFalse();
+      assertThat(second.isActive()).isFalse();
+   }
+
+   /**
+    * Checks that all instances created by the test are back in the pool, each of them exactly once.
+    */
+   private void assertBalanced(int created) {
+      assertThat(pool.size()).isEqualTo(created);
+      Set<SequenceInstance> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+      List<SequenceInstance> acquired = new ArrayList<>();
+      while (pool.size() > 0) {
+         SequenceInstance instance = pool.acquire();
+         acquired.add(instance);
+         distinct.add(instance);
+      }
+      assertThat(distinct).hasSize(created);
+      acquired.forEach(pool::release);
+   }
+
+   private static class GateStep implements Step {
+      private boolean open;
+
+      @Override
+      public boolean invoke(Session session) {
+         return open;
+      }
+   }
+
+   private static class TestPhase extends PhaseInstanceImpl {
+      private final List<Session> finished = new ArrayList<>();
+      private Throwable failure;
+
+      TestPhase(Phase def) {
+         super(def, "0000", 0);
+      }
+
+      @Override
+      public void proceed(EventExecutorGroup executorGroup) {
+      }
+
+      @Override
+      public void reserveSessions() {
+      }
+
+      @Override
+      public void notifyFinished(Session session) {
+         finished.add(session);
+      }
+
+      @Override
+      public void fail(Throwable error) {
+         failure = error;
+      }
+   }
+}
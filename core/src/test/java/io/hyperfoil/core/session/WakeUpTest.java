@@ -0,0 +1,142 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.ScenarioBuilder;
+import io.hyperfoil.api.config.SequenceBuilder;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.NewSequenceAction;
+import io.hyperfoil.core.steps.AwaitDelayStep;
+import io.hyperfoil.core.test.StepInvocations;
+import io.hyperfoil.impl.TimerWheel;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class WakeUpTest extends BaseScenarioTest {
+   @Before
+   public void resetInvocations() {
+      AwaitTimerStep.invocations.set(0);
+   }
+
+   @Test
+   public void testWaitingSequenceIsNotPolled() {
+      AwaitTimerStep awaitTimer = new AwaitTimerStep();
+      scenario().initialSequence("waiting").step(awaitTimer).endSequence()
+            .initialSequence("ticking")
+            .step(SC).thinkTime(10, TimeUnit.MILLISECONDS).endStep()
+            .step(SC).thinkTime(10, TimeUnit.MILLISECONDS).endStep()
+            .step(SC).thinkTime(10, TimeUnit.MILLISECONDS).endStep()
+            .step(SC).thinkTime(10, TimeUnit.MILLISECONDS).endStep();
+
+      runScenario();
+      // The session runs whenever the ticking sequence's timer fires but the waiting sequence
+      // is invoked only when it blocks and after its own timer wakes it up.
+      assertThat(AwaitTimerStep.invocations.get()).isEqualTo(2);
+   }
+
+   @Test
+   public void testAwaitDelayWakesUpSequence() {
+      ScenarioBuilder scenario = scenario();
+      scenario.initialSequence("waiting")
+            .step(SC).scheduleDelay("delay", 100, TimeUnit.MILLISECONDS).endStep()
+            .step(SC).awaitDelay("delay");
+      ticking(scenario);
+      Benchmark benchmark = benchmarkBuilder.build();
+      StepInvocations awaitDelay = StepInvocations.count(benchmark, AwaitDelayStep.class);
+
+      runScenario(benchmark);
+      // blocked once, then woken up by the timeout
+      assertThat(awaitDelay.invocations("waiting", 0)).isEqualTo(2);
+      assertThat(awaitDelay.completions("waiting", 0)).isEqualTo(1);
+   }
+
+   @Test
+   public void testConcurrentSequencesAwaitSameDelay() {
+      ScenarioBuilder scenario = scenario().maxSequences(5);
+      scenario.initialSequence("start")
+            .step(SC).scheduleDelay("delay", 100, TimeUnit.MILLISECONDS).endStep()
+            .step(SC).action(new NewSequenceAction.Builder().sequence("waiting"))
+            .step(SC).action(new NewSequenceAction.Builder().sequence("waiting"))
+            .step(SC).action(new NewSequenceAction.Builder().sequence("waiting"));
+      scenario.sequence("waiting").concurrency(3)
+            .step(SC).awaitDelay("delay");
+      ticking(scenario);
+      Benchmark benchmark = benchmarkBuilder.build();
+      StepInvocations awaitDelay = StepInvocations.count(benchmark, AwaitDelayStep.class);
+
+      runScenario(benchmark);
+      // Only one sequence can be woken up by the timeout; the others must not be left waiting forever,
+      // they are polled whenever the session runs.
+      int[] invocations = IntStream.range(0, 3).map(i -> awaitDelay.invocations("waiting", i)).sorted().toArray();
+      assertThat(invocations[0]).isEqualTo(2);
+      assertThat(invocations[1]).isGreaterThan(2);
+      assertThat(invocations[2]).isGreaterThan(2);
+      for (int i = 0; i < 3; ++i) {
+         assertThat(awaitDelay.completions("waiting", i)).isEqualTo(1);
+      }
+   }
+
+   /**
+    * Runs the session every 10 ms for a while.
+    */
+   private static void ticking(ScenarioBuilder scenario) {
+      SequenceBuilder ticking = scenario.initialSequence("ticking");
+      for (int i = 0; i < 5; ++i) {
+         ticking.step(SC).thinkTime(10, TimeUnit.MILLISECONDS).endStep();
+      }
+   }
+
+   private static class AwaitTimerStep implements Step, ResourceUtilizer, Session.ResourceKey<WakeUpTimeout> {
+      static final AtomicInteger invocations = new AtomicInteger();
+
+      @Override
+      public boolean invoke(Session session) {
+         invocations.incrementAndGet();
+         WakeUpTimeout timeout = session.getResource(this);
+         if (timeout.fired) {
+            return true;
+         }
+         if (!timeout.isScheduled()) {
+            timeout.sequence = session.currentSequence();
+            TimerWheel.current().schedule(timeout, 100, TimeUnit.MILLISECONDS);
+         }
+         session.awaitWakeUp();
+         return false;
+      }
+
+      @Override
+      public void reserve(Session session) {
+         session.declareResource(this, () -> new WakeUpTimeout(session));
+      }
+   }
+
+   private static class WakeUpTimeout extends TimerWheel.Timeout implements Session.Resource {
+      private final Session session;
+      private SequenceInstance sequence;
+      private boolean fired;
+
+      WakeUpTimeout(Session session) {
+         this.session = session;
+      }
+
+      @Override
+      protected void onTimeout() {
+         fired = true;
+         session.wakeUp(sequence);
+         session.proceed();
+      }
+   }
+}
@@ -0,0 +1,83 @@
+package io.hyperfoil.core.test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+
+/**
+ * Counts invocations of steps of given type in a built benchmark, separately for each sequence instance.
+ * Resources are reserved through the original steps so the steps are replaced in place without rebuilding.
+ */
+public class StepInvocations {
+   private final Map<String, AtomicInteger> invocations = new ConcurrentHashMap<>();
+   private final Map<String, AtomicInteger> completions = new ConcurrentHashMap<>();
+
+   public static StepInvocations count(Benchmark benchmark, Class<? extends Step> stepClass) {
+      StepInvocations counter = new StepInvocations();
+      for (Phase phase : benchmark.phases()) {
+         for (Sequence sequence : phase.scenario().sequences()) {
+            Step[] steps = sequence.steps();
+            for (int i = 0; i < steps.length; ++i) {
+               if (stepClass.isInstance(steps[i])) {
+                  steps[i] = counter.new CountingStep(steps[i]);
+               }
+            }
+         }
+      }
+      return counter;
+   }
+
+   /**
+    * @param sequence Sequence name.
+    * @param index Index of the concurrent sequence instance, 0 for sequences without concurrency.
+    * @return Number of times the step was invoked, whether or not it could progress.
+    */
+   public int invocations(String sequence, int index) {
+      return get(invocations, sequence, index);
+   }
+
+   /**
+    * @param sequence Sequence name.
+    * @param index Index of the concurrent sequence instance, 0 for sequences without concurrency.
+    * @return Number of times the step returned <code>true</code>.
+    */
+   public int completions(String sequence, int index) {
+      return get(completions, sequence, index);
+   }
+
+   private static int get(Map<String, AtomicInteger> map, String sequence, int index) {
+      AtomicInteger counter = map.get(key(sequence, index));
+      return counter == null ? 0 : counter.get();
+   }
+
+   private static String key(String sequence, int index) {
+      return sequence + "[" + index + "]";
+   }
+
+   private class CountingStep implements Step {
+      private final Step delegate;
+
+      CountingStep(Step delegate) {
+         this.delegate = delegate;
+      }
+
+      @Override
+      public boolean invoke(Session session) {
+         SequenceInstance sequence = session.currentSequence();
+         String key = key(sequence.definition().name(), sequence.index());
+         invocations.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+         if (delegate.invoke(session)) {
+            completions.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            return true;
+         }
+         return false;
+      }
+   }
+}
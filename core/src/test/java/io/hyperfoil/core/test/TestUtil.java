@@ -1,6 +1,10 @@
 package io.hyperfoil.core.test;
 
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
@@ -29,6 +33,19 @@ public class TestUtil {
       public Map<String, byte[]> files() {
          return Collections.emptyMap();
       }
+
+      @Override
+      public Path file(String file) {
+         URL url = getClass().getClassLoader().getResource(file);
+         if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+         }
+         try {
+            return Paths.get(url.toURI());
+         } catch (URISyntaxException e) {
+            return null;
+         }
+      }
    };
 
    private static final Locator TESTING_MOCK = new Locator.Abstract() {
@@ -59,7 +59,7 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       HotRodRemoteCachePool pool = HotRodRemoteCachePool.get(session);
       HotRodRemoteCachePoolImpl.RemoteCacheWithoutToString remoteCache = pool.getRemoteCache(cacheName);
       String metric = metricSelector.apply(null, cacheName);
-      Statistics statistics = session.statistics(id(), metric);
+      Statistics statistics = statistics(session, metric);
 
       long startTimestampMs = System.currentTimeMillis();
       long startTimestampNanos = System.nanoTime();
@@ -92,7 +92,7 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
    }
 
    private void trackResponseError(Session session, String metric, Object ex) {
-      Statistics statistics = session.statistics(id(), metric);
+      Statistics statistics = statistics(session, metric);
       if (ex instanceof TimeoutException || ex instanceof HotRodTimeoutException) {
          statistics.incrementTimeouts(System.currentTimeMillis());
       } else {
@@ -107,7 +107,7 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       long startTimestampNanos = resource.getStartTimestampNanos();
       long endTimestampNanos = System.nanoTime();
 
-      Statistics statistics = session.statistics(id(), metric);
+      Statistics statistics = statistics(session, metric);
       statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos);
    }
 }
@@ -8,8 +8,10 @@ import java.util.TimeZone;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.util.AsciiString;
 
 public final class HttpUtil {
@@ -20,6 +22,7 @@ public final class HttpUtil {
    private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
    private static final byte[] BYTES_80 = "80".getBytes(StandardCharsets.UTF_8);
    private static final byte[] BYTES_443 = "443".getBytes(StandardCharsets.UTF_8);
+   private static final byte[] HTTP1_1 = { ' ', 'H', 'T', 'T', 'P', '/', '1', '.', '1', '\r', '\n' };
 
    public static final String HTTP_PREFIX = "http://";
    public static final String HTTPS_PREFIX = "https://";
@@ -344,4 +347,56 @@ public final class HttpUtil {
    public static int prefixLength(boolean isHttp) {
       return isHttp ? HTTP_PREFIX.length() : HTTPS_PREFIX.length();
    }
+
+   /**
+    * Writes HTTP 1.x request line; spaces in the path are encoded as <code>%20</code> before the query
+    * and as <code>+</code> in the query.
+    */
+   public static void writeRequestLine(ByteBuf buf, HttpMethod method, CharSequence path) {
+      buf.writeBytes(method.netty.asciiName().array());
+      buf.writeByte(' ');
+      boolean beforeQuestion = true;
+      for (int i = 0; i < path.length(); ++i) {
+         char c = path.charAt(i);
+         if (c == ' ') {
+            if (beforeQuestion) {
+               buf.writeByte(0xFF & '%');
+               buf.writeByte(0xFF & '2');
+               buf.writeByte(0xFF & '0');
+            } else {
+               buf.writeByte(0xFF & '+');
+            }
+         } else {
+            if (c == '?') {
+               beforeQuestion = false;
+            }
+            buf.writeByte(0xFF & c);
+         }
+      }
+      buf.writeBytes(HTTP1_1);
+   }
+
+   /**
+    * Encodes the request line once for requests with constant method and path.
+    *
+    * @see #writeRequestLine(ByteBuf, HttpMethod, CharSequence)
+    */
+   public static byte[] encodeRequestLine(HttpMethod method, CharSequence path) {
+      ByteBuf buf = Unpooled.buffer(path.length() + 32);
+      writeRequestLine(buf, method, path);
+      byte[] bytes = new byte[buf.readableBytes()];
+      buf.readBytes(bytes);
+      return bytes;
+   }
+
+   /**
+    * @return Path part of an absolute URL (<code>/</code> if there's no path), or the argument when this is not a URL.
+    */
+   public static String requestPath(String path, boolean isHttp, boolean isUrl) {
+      if (!isUrl) {
+         return path;
+      }
+      int pathIndex = path.indexOf('/', prefixLength(isHttp));
+      return pathIndex < 0 ? "/" : path.substring(pathIndex);
+   }
 }
@@ -39,6 +39,25 @@ public interface HttpConnection extends Connection {
     */
    long lastUsed();
 
+   /**
+    * @return Maximum number of concurrent requests on this connection: pipelining limit for HTTP 1.x,
+    *         maximum number of concurrent streams (as limited by the server) for HTTP 2.
+    */
+   int maxInFlight();
+
+   /**
+    * @return False when the connection cannot write data immediately, e.g. due to exhausted flow-control window.
+    */
+   boolean canSend();
+
+   /**
+    * Invoked when a response for a request sent through this connection is completed.
+    *
+    * @param responseTimeNanos Time from sending the request until the response was received.
+    */
+   default void onResponse(long responseTimeNanos) {
+   }
+
    enum Status {
       OPEN,
       CLOSING,
@@ -52,6 +52,10 @@ public enum HttpMethod {
          this.method = method;
       }
 
+      public HttpMethod method() {
+         return method;
+      }
+
       @Override
       public HttpMethod apply(Session o) {
          return method;
@@ -24,8 +24,14 @@ public class HttpRequest extends Request {
    public HttpMethod method;
    public String authority;
    public String path;
+   /**
+    * HTTP 1.x request line encoded in advance when both method and path are constant, or <code>null</code>.
+    */
+   public byte[] requestLine;
    public final CacheControl cacheControl;
    private HttpConnectionPool pool;
+   private long sendTimestampNanos;
+   private long statusTimestampNanos;
 
    public HttpRequest(Session session, boolean httpCacheEnabled) {
       super(session);
@@ -61,6 +67,8 @@ public class HttpRequest extends Request {
                session.uniqueId(), session.currentRequest(), this));
       }
 
+      sendTimestampNanos = System.nanoTime();
+      statusTimestampNanos = 0;
       attach(connection);
       connection.attach(pool);
       connection.request(this, headerAppenders, injectHostHeader, bodyGenerator);
@@ -78,7 +86,9 @@ public class HttpRequest extends Request {
       this.method = null;
       this.authority = null;
       this.path = null;
+      this.requestLine = null;
       this.pool = null;
+      this.statusTimestampNanos = 0;
       if (this.cacheControl != null) {
          this.cacheControl.reset();
       }
@@ -88,6 +98,24 @@ public class HttpRequest extends Request {
       return handlers;
    }
 
+   /**
+    * @return Timestamp from System.nanoTime() when the request was sent to the connection.
+    */
+   public long sendTimestampNanos() {
+      return sendTimestampNanos;
+   }
+
+   /**
+    * @return Timestamp from System.nanoTime() when the response status was received, or 0 if not received yet.
+    */
+   public long statusTimestampNanos() {
+      return statusTimestampNanos;
+   }
+
+   public void setStatusTimestampNanos(long statusTimestampNanos) {
+      this.statusTimestampNanos = statusTimestampNanos;
+   }
+
    @Override
    public String toString() {
       return super.toString() + " " + method + " " + authority + path;
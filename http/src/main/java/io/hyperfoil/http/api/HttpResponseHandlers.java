@@ -8,6 +8,15 @@ public interface HttpResponseHandlers extends ResponseHandlers<HttpRequest> {
 
    void handleHeader(HttpRequest request, CharSequence header, CharSequence value);
 
+   /**
+    * @param request Request for which we have received response headers.
+    * @return False if {@link #handleHeader(HttpRequest, CharSequence, CharSequence)} would ignore all headers;
+    *         the connection does not need to decode them then.
+    */
+   default boolean requiresHeaders(HttpRequest request) {
+      return true;
+   }
+
    void handleBodyPart(HttpRequest request, ByteBuf data, int offset, int length, boolean isLastPart);
 
    void handleRawRequest(HttpRequest request, ByteBuf data, int offset, int length);
@@ -0,0 +1,29 @@
+package io.hyperfoil.http.api;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.function.SerializableBiConsumer;
+
+/**
+ * Header appender that adds only headers with constant names and values. HTTP 1.x connections copy the
+ * {@link #encoded() pre-encoded headers} to the request instead of invoking the appender.
+ */
+public interface StaticHeaders extends SerializableBiConsumer<Session, HttpRequestWriter> {
+   /**
+    * @return All headers in the form <code>Name: value\r\n</code>, values encoded as ISO-8859-1 if possible,
+    *         UTF-8 otherwise (same as {@link HttpRequestWriter#putHeader(CharSequence, CharSequence)} does).
+    */
+   byte[] encoded();
+
+   int size();
+
+   CharSequence name(int index);
+
+   CharSequence value(int index);
+
+   @Override
+   default void accept(Session session, HttpRequestWriter writer) {
+      for (int i = 0; i < size(); ++i) {
+         writer.putHeader(name(i), value(i));
+      }
+   }
+}
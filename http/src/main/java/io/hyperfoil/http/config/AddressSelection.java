@@ -0,0 +1,31 @@
+package io.hyperfoil.http.config;
+
+/**
+ * Policy for spreading the load over multiple <code>addresses</code>. Addresses that repeatedly failed to connect
+ * are not used for new connections for a short period of time (unless all addresses fail).
+ */
+public enum AddressSelection {
+   /**
+    * New connections are opened to a random address; requests use any available connection.
+    */
+   RANDOM,
+   /**
+    * New connections are opened to addresses in a round-robin fashion; requests use any available connection.
+    */
+   ROUND_ROBIN,
+   /**
+    * New connections are opened to the address with the lowest number of connections, requests are sent to
+    * the address with the lowest number of in-flight requests.
+    */
+   LEAST_IN_FLIGHT,
+   /**
+    * Both connections and requests go to the address with the lowest peak-EWMA of response time weighted
+    * by the number of connections or in-flight requests, respectively.
+    */
+   EWMA_LATENCY,
+   /**
+    * Pick two random addresses and use the one with fewer connections (when opening a connection)
+    * or fewer in-flight requests (when sending a request).
+    */
+   POWER_OF_TWO_CHOICES,
+}
@@ -0,0 +1,15 @@
+package io.hyperfoil.http.config;
+
+public enum ConnectionSelection {
+   /**
+    * Available connections are used in a round-robin fashion, preferring idle connections.
+    */
+   ROUND_ROBIN,
+   /**
+    * Use the connection with the lowest number of in-flight requests (streams in HTTP 2) relative to its limit;
+    * the limit of HTTP 2 connection is the lower of <code>maxHttp2Streams</code> and the server's
+    * <code>SETTINGS_MAX_CONCURRENT_STREAMS</code>. Connections that cannot send immediately (e.g. due to exhausted
+    * flow-control window) are used only if there is no other connection available.
+    */
+   LEAST_STREAMS
+}
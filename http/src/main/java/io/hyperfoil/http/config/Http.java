@@ -46,13 +46,17 @@ public class Http implements Serializable {
    private final KeyManager keyManager;
    private final TrustManager trustManager;
    private final ConnectionStrategy connectionStrategy;
+   private final ConnectionSelection connectionSelection;
+   private final AddressSelection addressSelection;
+   private final boolean latencyBreakdown;
    private final boolean useHttpCache;
 
    public Http(String name, boolean isDefault, String originalDestination, Protocol protocol, String host, int port,
          String[] addresses, HttpVersion[] versions, int maxHttp2Streams, int pipeliningLimit,
          ConnectionPoolConfig sharedConnections, boolean directHttp2, long requestTimeout,
          boolean rawBytesHandlers, KeyManager keyManager, TrustManager trustManager,
-         ConnectionStrategy connectionStrategy, boolean useHttpCache) {
+         ConnectionStrategy connectionStrategy, ConnectionSelection connectionSelection,
+         AddressSelection addressSelection, boolean latencyBreakdown, boolean useHttpCache) {
       this.name = name;
       this.isDefault = isDefault;
       this.originalDestination = originalDestination;
@@ -70,6 +74,9 @@ public class Http implements Serializable {
       this.keyManager = keyManager;
       this.trustManager = trustManager;
       this.connectionStrategy = connectionStrategy;
+      this.connectionSelection = connectionSelection;
+      this.addressSelection = addressSelection;
+      this.latencyBreakdown = latencyBreakdown;
       this.useHttpCache = useHttpCache;
    }
 
@@ -146,6 +153,18 @@ public class Http implements Serializable {
       return connectionStrategy;
    }
 
+   public ConnectionSelection connectionSelection() {
+      return connectionSelection;
+   }
+
+   public AddressSelection addressSelection() {
+      return addressSelection;
+   }
+
+   public boolean latencyBreakdown() {
+      return latencyBreakdown;
+   }
+
    public boolean enableHttpCache() {
       return useHttpCache;
    }
@@ -58,6 +58,9 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
    private KeyManagerBuilder keyManager = new KeyManagerBuilder(this);
    private TrustManagerBuilder trustManager = new TrustManagerBuilder(this);
    private ConnectionStrategy connectionStrategy = ConnectionStrategy.SHARED_POOL;
+   private ConnectionSelection connectionSelection = ConnectionSelection.ROUND_ROBIN;
+   private AddressSelection addressSelection = AddressSelection.RANDOM;
+   private boolean latencyBreakdown;
    private boolean useHttpCache = true;
 
    public static HttpBuilder forTesting() {
@@ -233,6 +236,33 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
       return connectionStrategy;
    }
 
+   public HttpBuilder connectionSelection(ConnectionSelection connectionSelection) {
+      this.connectionSelection = connectionSelection;
+      return this;
+   }
+
+   public ConnectionSelection connectionSelection() {
+      return connectionSelection;
+   }
+
+   public HttpBuilder addressSelection(AddressSelection addressSelection) {
+      this.addressSelection = addressSelection;
+      return this;
+   }
+
+   public AddressSelection addressSelection() {
+      return addressSelection;
+   }
+
+   public HttpBuilder latencyBreakdown(boolean latencyBreakdown) {
+      this.latencyBreakdown = latencyBreakdown;
+      return this;
+   }
+
+   public boolean latencyBreakdown() {
+      return latencyBreakdown;
+   }
+
    public HttpBuilder useHttpCache(boolean useHttpCache) {
       this.useHttpCache = useHttpCache;
       return this;
@@ -274,7 +304,8 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
       return http = new Http(name, isDefault, originalDestination, protocol, host, protocol.portOrDefault(port),
             addresses.toArray(new String[0]), httpVersions.toArray(new HttpVersion[0]), maxHttp2Streams,
             pipeliningLimit, sharedConnections.build(), directHttp2, requestTimeout, rawBytesHandlers,
-            keyManager.build(), trustManager.build(), connectionStrategy, useHttpCache);
+            keyManager.build(), trustManager.build(), connectionStrategy, connectionSelection, addressSelection,
+            latencyBreakdown, useHttpCache);
    }
 
    public static class KeyManagerBuilder implements BuilderBase<KeyManagerBuilder> {
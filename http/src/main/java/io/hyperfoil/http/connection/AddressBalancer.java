@@ -0,0 +1,219 @@
+package io.hyperfoil.http.connection;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.hyperfoil.core.impl.ConnectionStatsConsumer;
+import io.hyperfoil.http.api.HttpConnection;
+import io.hyperfoil.http.config.AddressSelection;
+
+/**
+ * Selects one of the <code>addresses</code> when opening a connection and, for load-aware policies, when picking
+ * a connection for a request. There is one instance per executor; it is not thread-safe.
+ */
+final class AddressBalancer {
+   private final AddressSelection selection;
+   private final AddressStats[] addresses;
+   // Best available connection for each address, filled in by offer() and cleared in pollSelected()
+   private final HttpConnection[] candidates;
+   private final double[] candidateLoads;
+   private int nextRoundRobin;
+
+   AddressBalancer(AddressSelection selection, String[] hosts, int[] ports, int executorIndex) {
+      this.selection = selection;
+      this.addresses = new AddressStats[hosts.length];
+      for (int i = 0; i < hosts.length; ++i) {
+         addresses[i] = new AddressStats(i, hosts[i], ports[i]);
+      }
+      this.candidates = new HttpConnection[hosts.length];
+      this.candidateLoads = new double[hosts.length];
+      // don't let all executors open the first connection to the same address
+      this.nextRoundRobin = executorIndex;
+   }
+
+   /**
+    * @return True if the connection for a request should be picked through {@link #offer(HttpConnection, double)}
+    *         and {@link #pollSelected()}.
+    */
+   boolean balancesRequests() {
+      return addresses.length > 1 && selection != AddressSelection.RANDOM && selection != AddressSelection.ROUND_ROBIN;
+   }
+
+   AddressStats selectForConnect() {
+      long now = System.nanoTime();
+      int healthy = 0;
+      for (AddressStats address : addresses) {
+         if (address.isHealthy(now)) {
+            healthy++;
+         }
+      }
+      // When all addresses are failing we'll keep trying all of them
+      boolean all = healthy == 0;
+      if (all) {
+         healthy = addresses.length;
+      }
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      switch (selection) {
+         case RANDOM:
+            return nthHealthy(random.nextInt(healthy), now, all);
+         case ROUND_ROBIN:
+            for (int i = 0; i < addresses.length; ++i) {
+               AddressStats address = addresses[nextRoundRobin];
+               nextRoundRobin = (nextRoundRobin + 1) % addresses.length;
+               if (all || address.isHealthy(now)) {
+                  return address;
+               }
+            }
+            throw new IllegalStateException();
+         case LEAST_IN_FLIGHT: {
+            AddressStats best = null;
+            for (AddressStats address : addresses) {
+               if ((all || address.isHealthy(now)) && (best == null || address.connectionLoad() < best.connectionLoad()
+                     || address.connectionLoad() == best.connectionLoad()
+                           && address.inFlight.current() < best.inFlight.current())) {
+                  best = address;
+               }
+            }
+            return best;
+         }
+         case EWMA_LATENCY: {
+            AddressStats best = null;
+            double bestCost = Double.MAX_VALUE;
+            for (AddressStats address : addresses) {
+               if (all || address.isHealthy(now)) {
+                  double cost = address.cost(now) * (address.connectionLoad() + 1);
+                  if (cost < bestCost) {
+                     best = address;
+                     bestCost = cost;
+                  }
+               }
+            }
+            return best;
+         }
+         case POWER_OF_TWO_CHOICES: {
+            AddressStats first = nthHealthy(random.nextInt(healthy), now, all);
+            if (healthy == 1) {
+               return first;
+            }
+            AddressStats second = nthHealthy(random.nextInt(healthy - 1), now, all);
+            if (second == first) {
+               // we've picked from n - 1 addresses; the one equal to first stands for the last one
+               second = nthHealthy(healthy - 1, now, all);
+            }
+            return second.connectionLoad() < first.connectionLoad() ? second : first;
+         }
+         default:
+            throw new IllegalStateException("Unknown address selection: " + selection);
+      }
+   }
+
+   private AddressStats nthHealthy(int n, long now, boolean all) {
+      for (AddressStats address : addresses) {
+         if ((all || address.isHealthy(now)) && n-- == 0) {
+            return address;
+         }
+      }
+      throw new IllegalStateException();
+   }
+
+   /**
+    * Registers available connection as a candidate for next request.
+    *
+    * @param connection Available connection.
+    * @param load Load of the connection, lower is better.
+    */
+   void offer(HttpConnection connection, double load) {
+      AddressStats address = AddressStats.of(connection);
+      if (address == null) {
+         return;
+      }
+      int index = address.index;
+      if (candidates[index] == null || load < candidateLoads[index]) {
+         candidates[index] = connection;
+         candidateLoads[index] = load;
+      }
+   }
+
+   /**
+    * @return Connection offered for the best address, or <code>null</code> if nothing was offered.
+    */
+   HttpConnection pollSelected() {
+      int selected = -1;
+      switch (selection) {
+         case LEAST_IN_FLIGHT: {
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < candidates.length; ++i) {
+               if (candidates[i] != null && addresses[i].inFlight.current() < min) {
+                  selected = i;
+                  min = addresses[i].inFlight.current();
+               }
+            }
+            break;
+         }
+         case EWMA_LATENCY: {
+            long now = System.nanoTime();
+            double min = Double.MAX_VALUE;
+            for (int i = 0; i < candidates.length; ++i) {
+               if (candidates[i] != null) {
+                  double cost = addresses[i].cost(now) * (addresses[i].inFlight.current() + 1);
+                  if (cost < min) {
+                     selected = i;
+                     min = cost;
+                  }
+               }
+            }
+            break;
+         }
+         case POWER_OF_TWO_CHOICES: {
+            int count = 0;
+            for (HttpConnection candidate : candidates) {
+               if (candidate != null) {
+                  count++;
+               }
+            }
+            if (count == 0) {
+               break;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = nthCandidate(random.nextInt(count));
+            selected = first;
+            if (count > 1) {
+               int second = nthCandidate(random.nextInt(count - 1));
+               if (second == first) {
+                  second = nthCandidate(count - 1);
+               }
+               if (addresses[second].inFlight.current() < addresses[first].inFlight.current()) {
+                  selected = second;
+               }
+            }
+            break;
+         }
+         default:
+            // Other policies don't balance requests, pick any connection
+            for (int i = 0; i < candidates.length; ++i) {
+               if (candidates[i] != null) {
+                  selected = i;
+                  break;
+               }
+            }
+      }
+      HttpConnection connection = selected < 0 ? null : candidates[selected];
+      Arrays.fill(candidates, null);
+      return connection;
+   }
+
+   private int nthCandidate(int n) {
+      for (int i = 0; i < candidates.length; ++i) {
+         if (candidates[i] != null && n-- == 0) {
+            return i;
+         }
+      }
+      throw new IllegalStateException();
+   }
+
+   void visitConnectionStats(String authority, ConnectionStatsConsumer consumer) {
+      for (AddressStats address : addresses) {
+         address.visitConnectionStats(authority, consumer);
+      }
+   }
+}
@@ -0,0 +1,108 @@
+package io.hyperfoil.http.connection;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hyperfoil.core.impl.ConnectionStatsConsumer;
+import io.hyperfoil.core.util.Watermarks;
+import io.hyperfoil.http.api.HttpConnection;
+import io.netty.util.AttributeKey;
+
+/**
+ * State of one of the <code>addresses</code> as seen by a single executor. Except for the stats all fields are
+ * accessed only from the executor's event loop.
+ */
+final class AddressStats {
+   static final AttributeKey<AddressStats> KEY = AttributeKey.valueOf(AddressStats.class, "address");
+   private static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+   private static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+   private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+   final int index;
+   final String host;
+   final int port;
+   final Watermarks connections = new Watermarks();
+   final Watermarks inFlight = new Watermarks();
+   private final String connectionsTag;
+   private final String inFlightTag;
+   private final String latencyTag;
+   int connecting;
+   private double cost;
+   private long costTimestamp;
+   private int failures;
+   private long retryAfter;
+   private volatile int minLatencyMicros = Integer.MAX_VALUE;
+   private volatile int maxLatencyMicros;
+
+   AddressStats(int index, String host, int port) {
+      this.index = index;
+      this.host = host;
+      this.port = port;
+      String name = host + ":" + port;
+      this.connectionsTag = name + " connections";
+      this.inFlightTag = name + " in-flight requests";
+      this.latencyTag = name + " response time (us)";
+   }
+
+   static AddressStats of(HttpConnection connection) {
+      return connection.context().channel().attr(KEY).get();
+   }
+
+   /**
+    * Peak-EWMA: the cost jumps to any response time higher than current cost immediately and decays
+    * exponentially otherwise. The decay works with elapsed time rather than number of samples so that
+    * the cost of an address that is avoided due to being slow eventually drops and the address is probed again.
+    */
+   void recordResponse(long responseTimeNanos) {
+      long now = System.nanoTime();
+      if (responseTimeNanos > cost) {
+         cost = responseTimeNanos;
+      } else {
+         double weight = Math.exp(-(now - costTimestamp) / (double) DECAY_NANOS);
+         cost = cost * weight + responseTimeNanos * (1 - weight);
+      }
+      costTimestamp = now;
+      int micros = (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(responseTimeNanos));
+      if (micros < minLatencyMicros) {
+         minLatencyMicros = micros;
+      }
+      if (micros > maxLatencyMicros) {
+         maxLatencyMicros = micros;
+      }
+   }
+
+   double cost(long now) {
+      return cost * Math.exp(-(now - costTimestamp) / (double) DECAY_NANOS);
+   }
+
+   int connectionLoad() {
+      return connections.current() + connecting;
+   }
+
+   boolean isHealthy(long now) {
+      return failures == 0 || now - retryAfter >= 0;
+   }
+
+   void onConnectFailure() {
+      failures++;
+      long backoff = failures > 6 ? MAX_BACKOFF_NANOS : Math.min(MAX_BACKOFF_NANOS, MIN_BACKOFF_NANOS << (failures - 1));
+      retryAfter = System.nanoTime() + backoff;
+   }
+
+   void onConnected() {
+      failures = 0;
+   }
+
+   void visitConnectionStats(String authority, ConnectionStatsConsumer consumer) {
+      consumer.accept(authority, connectionsTag, connections.minUsed(), connections.maxUsed());
+      connections.resetStats();
+      consumer.accept(authority, inFlightTag, inFlight.minUsed(), inFlight.maxUsed());
+      inFlight.resetStats();
+      int minLatency = minLatencyMicros;
+      int maxLatency = maxLatencyMicros;
+      if (minLatency <= maxLatency) {
+         consumer.accept(authority, latencyTag, minLatency, maxLatency);
+      }
+      minLatencyMicros = Integer.MAX_VALUE;
+      maxLatencyMicros = 0;
+   }
+}
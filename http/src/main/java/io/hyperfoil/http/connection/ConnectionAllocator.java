@@ -20,8 +20,8 @@ class ConnectionAllocator extends ConnectionPoolStats implements HttpConnectionP
    private final HttpClientPoolImpl clientPool;
    private final EventLoop eventLoop;
 
-   ConnectionAllocator(HttpClientPoolImpl clientPool, EventLoop eventLoop) {
-      super(clientPool.authority);
+   ConnectionAllocator(HttpClientPoolImpl clientPool, EventLoop eventLoop, AddressBalancer addressBalancer) {
+      super(clientPool.authority, addressBalancer);
       this.clientPool = clientPool;
       this.eventLoop = eventLoop;
    }
@@ -35,7 +35,7 @@ class ConnectionAllocator extends ConnectionPoolStats implements HttpConnectionP
    public void acquire(boolean exclusiveConnection, ConnectionConsumer consumer) {
       log.trace("Creating connection to {}", authority);
       blockedSessions.incrementUsed();
-      clientPool.connect(this, (conn, err) -> {
+      clientPool.connect(this, addressBalancer, (conn, err) -> {
          if (err != null) {
             log.error("Cannot create connection to " + authority, err);
             // TODO retry couple of times?
@@ -45,6 +45,7 @@ class ConnectionAllocator extends ConnectionPoolStats implements HttpConnectionP
             log.debug("Created {} to {}", conn, authority);
             blockedSessions.decrementUsed();
             inFlight.incrementUsed();
+            incrementAddressInFlight(conn);
             usedConnections.incrementUsed();
             incrementTypeStats(conn);
             conn.onAcquire();
@@ -87,6 +88,7 @@ class ConnectionAllocator extends ConnectionPoolStats implements HttpConnectionP
    public void release(HttpConnection connection, boolean becameAvailable, boolean afterRequest) {
       if (afterRequest) {
          decrementInFlight();
+         decrementAddressInFlight(connection);
       }
       connection.close();
    }
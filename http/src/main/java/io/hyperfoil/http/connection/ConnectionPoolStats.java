@@ -13,13 +13,18 @@ import io.hyperfoil.http.api.HttpConnection;
 class ConnectionPoolStats {
    private static final Logger log = LogManager.getLogger(ConnectionPoolStats.class);
    protected final String authority;
+   protected final AddressBalancer addressBalancer;
    protected final Watermarks usedConnections = new Watermarks();
    protected final Watermarks inFlight = new Watermarks();
    protected final Watermarks blockedSessions = new Watermarks();
    protected final Map<String, Watermarks> typeStats = new HashMap<>();
+   // Written only by the event-loop, read by any thread
+   private volatile int minConnectionInFlight = Integer.MAX_VALUE;
+   private volatile int maxConnectionInFlight;
 
-   ConnectionPoolStats(String authority) {
+   ConnectionPoolStats(String authority, AddressBalancer addressBalancer) {
       this.authority = authority;
+      this.addressBalancer = addressBalancer;
    }
 
    public void incrementInFlight() {
@@ -30,6 +35,19 @@ class ConnectionPoolStats {
       inFlight.decrementUsed();
    }
 
+   /**
+    * Records number of in-flight requests on a connection right after it was acquired for another request.
+    * The range of these values shows how evenly the requests are spread among connections.
+    */
+   protected void recordConnectionInFlight(int connectionInFlight) {
+      if (connectionInFlight < minConnectionInFlight) {
+         minConnectionInFlight = connectionInFlight;
+      }
+      if (connectionInFlight > maxConnectionInFlight) {
+         maxConnectionInFlight = connectionInFlight;
+      }
+   }
+
    public void visitConnectionStats(ConnectionStatsConsumer consumer) {
       consumer.accept(authority, "in-flight requests", inFlight.minUsed(), inFlight.maxUsed());
       inFlight.resetStats();
@@ -37,6 +55,16 @@ class ConnectionPoolStats {
       usedConnections.resetStats();
       consumer.accept(authority, "blocked sessions", blockedSessions.minUsed(), blockedSessions.maxUsed());
       blockedSessions.resetStats();
+      int minConnectionInFlight = this.minConnectionInFlight;
+      int maxConnectionInFlight = this.maxConnectionInFlight;
+      if (minConnectionInFlight <= maxConnectionInFlight) {
+         consumer.accept(authority, "in-flight per connection", minConnectionInFlight, maxConnectionInFlight);
+      }
+      this.minConnectionInFlight = Integer.MAX_VALUE;
+      this.maxConnectionInFlight = 0;
+      if (addressBalancer != null) {
+         addressBalancer.visitConnectionStats(authority, consumer);
+      }
       for (var entry : typeStats.entrySet()) {
          int min = entry.getValue().minUsed();
          int max = entry.getValue().maxUsed();
@@ -45,6 +73,24 @@ class ConnectionPoolStats {
       }
    }
 
+   protected void incrementAddressInFlight(HttpConnection connection) {
+      if (addressBalancer != null) {
+         AddressStats address = AddressStats.of(connection);
+         if (address != null) {
+            address.inFlight.incrementUsed();
+         }
+      }
+   }
+
+   protected void decrementAddressInFlight(HttpConnection connection) {
+      if (addressBalancer != null) {
+         AddressStats address = AddressStats.of(connection);
+         if (address != null) {
+            address.inFlight.decrementUsed();
+         }
+      }
+   }
+
    protected String tagConnection(HttpConnection connection) {
       switch (connection.version()) {
          case HTTP_1_0:
@@ -0,0 +1,43 @@
+package io.hyperfoil.http.connection;
+
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.statistics.HttpLatencyStats;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.util.AttributeKey;
+
+/**
+ * Durations of opening a connection. These are not related to any request so we record them
+ * with the first request sent over the connection.
+ */
+final class ConnectionTiming implements ChannelFutureListener {
+   static final AttributeKey<ConnectionTiming> KEY = AttributeKey.valueOf(ConnectionTiming.class, "timing");
+
+   private final long connectStart;
+   private long connectedAt;
+   private long connectNanos = -1;
+   private long tlsNanos = -1;
+
+   ConnectionTiming(long connectStart) {
+      this.connectStart = connectStart;
+   }
+
+   @Override
+   public void operationComplete(ChannelFuture future) {
+      if (future.isSuccess()) {
+         connectedAt = System.nanoTime();
+         connectNanos = connectedAt - connectStart;
+      }
+   }
+
+   void onHandshakeCompleted() {
+      tlsNanos = System.nanoTime() - connectedAt;
+   }
+
+   void record(HttpRequest request) {
+      HttpLatencyStats.record(request.statistics(), request.startTimestampMillis(), HttpLatencyStats.Stage.CONNECT,
+            connectNanos);
+      HttpLatencyStats.record(request.statistics(), request.startTimestampMillis(), HttpLatencyStats.Stage.TLS_HANDSHAKE,
+            tlsNanos);
+   }
+}
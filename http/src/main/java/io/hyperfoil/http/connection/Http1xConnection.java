@@ -11,12 +11,14 @@ import org.apache.logging.log4j.Logger;
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
+import io.hyperfoil.http.HttpUtil;
 import io.hyperfoil.http.api.HttpCache;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpRequest;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.api.HttpVersion;
+import io.hyperfoil.http.api.StaticHeaders;
 import io.hyperfoil.http.config.Http;
 import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
@@ -34,15 +36,18 @@ import io.netty.util.CharsetUtil;
 class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    private static final Logger log = LogManager.getLogger(Http1xConnection.class);
    private static final boolean trace = log.isTraceEnabled();
-   private static final byte[] HTTP1_1 = { ' ', 'H', 'T', 'T', 'P', '/', '1', '.', '1', '\r', '\n' };
 
    private final Deque<HttpRequest> inflights;
    private final BiConsumer<HttpConnection, Throwable> activationHandler;
    private final boolean secure;
    private final int pipeliningLimit;
+   private final HttpRequestWriterImpl writer = new HttpRequestWriterImpl();
 
    private HttpConnectionPool pool;
    private ChannelHandlerContext ctx;
+   private AddressStats address;
+   // Reported and cleared with the first request
+   private ConnectionTiming timing;
    private int aboutToSend;
    private boolean activated;
    private Status status = Status.OPEN;
@@ -58,6 +63,8 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    @Override
    public void handlerAdded(ChannelHandlerContext ctx) {
       this.ctx = ctx;
+      this.address = ctx.channel().attr(AddressStats.KEY).get();
+      this.timing = ctx.channel().attr(ConnectionTiming.KEY).get();
       if (ctx.channel().isActive()) {
          checkActivated(ctx);
       }
@@ -120,27 +127,16 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
          BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
       assert aboutToSend > 0;
       aboutToSend--;
+      if (timing != null) {
+         timing.record(request);
+         timing = null;
+      }
       ByteBuf buf = ctx.alloc().buffer();
-      buf.writeBytes(request.method.netty.asciiName().array());
-      buf.writeByte(' ');
-      boolean beforeQuestion = true;
-      for (int i = 0; i < request.path.length(); ++i) {
-         if (request.path.charAt(i) == ' ') {
-            if (beforeQuestion) {
-               buf.writeByte(0xFF & '%');
-               buf.writeByte(0xFF & '2');
-               buf.writeByte(0xFF & '0');
-            } else {
-               buf.writeByte(0xFF & '+');
-            }
-         } else {
-            if (request.path.charAt(i) == '?') {
-               beforeQuestion = false;
-            }
-            buf.writeByte(0xFF & request.path.charAt(i));
-         }
+      if (request.requestLine != null) {
+         buf.writeBytes(request.requestLine);
+      } else {
+         HttpUtil.writeRequestLine(buf, request.method, request.path);
       }
-      buf.writeBytes(HTTP1_1);
 
       if (injectHostHeader) {
          writeHeader(buf, HttpHeaderNames.HOST.array(), pool.clientPool().originalDestinationBytes());
@@ -165,18 +161,29 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
          httpCache.beforeRequestHeaders(request);
       }
 
-      // TODO: if headers are strings, UTF-8 conversion creates a lot of trash
-      HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, buf);
+      HttpRequestWriterImpl writer = this.writer;
+      writer.init(request, buf);
       if (headerAppenders != null) {
-         // TODO: allocation, if it's not eliminated we could store a reusable object
          for (BiConsumer<Session, HttpRequestWriter> headerAppender : headerAppenders) {
-            headerAppender.accept(request.session, writer);
+            if (headerAppender instanceof StaticHeaders) {
+               StaticHeaders staticHeaders = (StaticHeaders) headerAppender;
+               buf.writeBytes(staticHeaders.encoded());
+               if (httpCache != null) {
+                  for (int i = 0; i < staticHeaders.size(); ++i) {
+                     httpCache.requestHeader(request, staticHeaders.name(i), staticHeaders.value(i));
+                  }
+               }
+            } else {
+               headerAppender.accept(request.session, writer);
+            }
          }
       }
       buf.writeByte('\r').writeByte('\n');
       assert ctx.executor().inEventLoop();
       // here the httpCache is guaranteed to be not null if request.hasCacheControl is true
-      if (httpCache != null && httpCache.isCached(request, writer)) {
+      boolean cached = httpCache != null && httpCache.isCached(request, writer);
+      writer.init(null, null);
+      if (cached) {
          if (trace) {
             log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
@@ -211,7 +218,7 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       if (pool != null) {
          // Note: the pool might be already released if the completion handler
          // invoked another request which was served from cache.
-         pool.release(this, inFlight() == pipeliningLimit - 1 && !isClosed(), true);
+         pool.release(this, inFlight() == pipeliningLimit - 1 && isOpen(), true);
          pool.pulse();
       }
    }
@@ -301,6 +308,23 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       return inflights.size() + aboutToSend;
    }
 
+   @Override
+   public int maxInFlight() {
+      return pipeliningLimit;
+   }
+
+   @Override
+   public boolean canSend() {
+      return ctx.channel().isWritable();
+   }
+
+   @Override
+   public void onResponse(long responseTimeNanos) {
+      if (address != null) {
+         address.recordResponse(responseTimeNanos);
+      }
+   }
+
    @Override
    public void close() {
       if (status == Status.OPEN) {
@@ -326,10 +350,10 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    }
 
    private class HttpRequestWriterImpl implements HttpRequestWriter {
-      private final HttpRequest request;
-      private final ByteBuf buf;
+      private HttpRequest request;
+      private ByteBuf buf;
 
-      HttpRequestWriterImpl(HttpRequest request, ByteBuf buf) {
+      void init(HttpRequest request, ByteBuf buf) {
          this.request = request;
          this.buf = buf;
       }
@@ -8,6 +8,7 @@ import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpRequest;
 import io.hyperfoil.http.api.HttpResponseHandlers;
 import io.hyperfoil.impl.Util;
+import io.hyperfoil.internal.Properties;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
@@ -19,12 +20,24 @@ import io.netty.util.AsciiString;
 import io.netty.util.ByteProcessor;
 import io.netty.util.CharsetUtil;
 
+/**
+ * Parses HTTP/1.x responses from raw bytes. The <code>read*</code> methods walk the lines byte by byte; the
+ * <code>scan*</code> methods search 8 bytes at a time using {@link SwarUtil}. The byte-by-byte parser is used
+ * unless the {@link Properties#HTTP_FAST_PARSER} property is set.
+ */
 public class Http1xResponseHandler extends BaseResponseHandler {
    private static final Logger log = LogManager.getLogger(Http1xResponseHandler.class);
    private static final boolean trace = log.isTraceEnabled();
+   private static final boolean FAST_PARSER = Properties.getBoolean(Properties.HTTP_FAST_PARSER);
    private static final byte CR = 13;
    private static final byte LF = 10;
    private static final int MAX_LINE_LENGTH = 4096;
+   private static final long CR_PATTERN = SwarUtil.pattern(CR);
+   private static final long SPACE_PATTERN = SwarUtil.pattern((byte) ' ');
+   private static final long COLON_PATTERN = SwarUtil.pattern((byte) ':');
+   private static final long[] CONTENT_LENGTH = SwarUtil.lowerCaseWords(HttpHeaderNames.CONTENT_LENGTH);
+   private static final long[] TRANSFER_ENCODING = SwarUtil.lowerCaseWords(HttpHeaderNames.TRANSFER_ENCODING);
+   private static final long[] CONNECTION = SwarUtil.lowerCaseWords(HttpHeaderNames.CONNECTION);
 
    private State state = State.STATUS;
    private boolean crRead = false;
@@ -33,6 +46,9 @@ public class Http1xResponseHandler extends BaseResponseHandler {
    private int status = 0;
    private boolean chunked = false;
    private int skipChunkBytes;
+   // Server sent Connection: close; this is not reset with other state as we need it after the response completes
+   private boolean connectionClose;
+   private final boolean fastParser;
 
    private enum State {
       STATUS,
@@ -42,7 +58,12 @@ public class Http1xResponseHandler extends BaseResponseHandler {
    }
 
    Http1xResponseHandler(HttpConnection connection) {
+      this(connection, FAST_PARSER);
+   }
+
+   Http1xResponseHandler(HttpConnection connection, boolean fastParser) {
       super(connection);
+      this.fastParser = fastParser;
    }
 
    @Override
@@ -82,16 +103,16 @@ public class Http1xResponseHandler extends BaseResponseHandler {
          while (true) {
             switch (state) {
                case STATUS:
-                  readerIndex = readStatus(ctx, buf, readerIndex);
+                  readerIndex = fastParser ? scanStatus(ctx, buf, readerIndex) : readStatus(ctx, buf, readerIndex);
                   break;
                case HEADERS:
-                  readerIndex = readHeaders(ctx, buf, readerIndex);
+                  readerIndex = fastParser ? scanHeaders(ctx, buf, readerIndex) : readHeaders(ctx, buf, readerIndex);
                   break;
                case BODY:
                   readerIndex = readBody(ctx, buf, readerIndex);
                   break;
                case TRAILERS:
-                  readerIndex = readTrailers(ctx, buf, readerIndex);
+                  readerIndex = fastParser ? scanTrailers(ctx, buf, readerIndex) : readTrailers(ctx, buf, readerIndex);
                   break;
             }
             if (readerIndex < 0) {
@@ -184,7 +205,7 @@ public class Http1xResponseHandler extends BaseResponseHandler {
                } else if (lastLine.isReadable()) {
                   copyLastLine(buf, lineStartIndex, readerIndex);
                   lineBuf = lastLine;
-                  lineEndIndex = lastLine.readableBytes() + readerIndex - lineStartIndex - 1; // account the CR
+                  lineEndIndex = lastLine.readableBytes() - 1; // account the CR
                   lineStartIndex = 0;
                } else {
                   lineBuf = buf;
@@ -193,9 +214,13 @@ public class Http1xResponseHandler extends BaseResponseHandler {
                if (matches(lineBuf, lineStartIndex, HttpHeaderNames.CONTENT_LENGTH)) {
                   contentLength = readDecNumber(lineBuf, lineStartIndex + HttpHeaderNames.CONTENT_LENGTH.length() + 1);
                } else if (matches(lineBuf, lineStartIndex, HttpHeaderNames.TRANSFER_ENCODING)) {
-                  chunked = matches(lineBuf, lineStartIndex + HttpHeaderNames.TRANSFER_ENCODING.length() + 1,
-                        HttpHeaderValues.CHUNKED);
+                  // chunked must be the last transfer coding
+                  chunked = endsWith(lineBuf, lineStartIndex + HttpHeaderNames.TRANSFER_ENCODING.length() + 1,
+                        lineEndIndex, HttpHeaderValues.CHUNKED);
                   skipChunkBytes = 0;
+               } else if (matches(lineBuf, lineStartIndex, HttpHeaderNames.CONNECTION)) {
+                  connectionClose = matches(lineBuf, lineStartIndex + HttpHeaderNames.CONNECTION.length() + 1,
+                        HttpHeaderValues.CLOSE);
                }
                int endOfNameIndex = lineEndIndex, startOfValueIndex = lineStartIndex;
                final int indexOfColon = lineBuf.indexOf(lineStartIndex, lineEndIndex, (byte) ':');
@@ -236,7 +261,7 @@ public class Http1xResponseHandler extends BaseResponseHandler {
             onBodyPart(buf, readerIndex, skipChunkBytes - 2, false);
             readerIndex += skipChunkBytes;
             skipChunkBytes = 0;
-            return readChunks(ctx, buf, readerIndex);
+            return fastParser ? scanChunks(ctx, buf, readerIndex) : readChunks(ctx, buf, readerIndex);
          }
       } else if (responseBytes > 0) {
          boolean isLastPart = buf.readableBytes() >= responseBytes;
@@ -308,12 +333,15 @@ public class Http1xResponseHandler extends BaseResponseHandler {
          if (val == CR) {
             crRead = true;
          } else if (val == LF && crRead) {
-            if (readerIndex - lineStartIndex == 1 || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
+            // same as in readHeaders, a line split across buffers is not empty
+            if (readerIndex - lineStartIndex == 1 && lastLine.writerIndex() == 0
+                  || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
                // empty line ends the trailers and whole message
                responseBytes = readerIndex + 1 - buf.readerIndex();
                reset();
                return handleBuffer(ctx, buf, 0) ? buf.readerIndex() : -1;
             }
+            lastLine.writerIndex(0);
             lineStartIndex = readerIndex + 1;
          } else {
             crRead = false;
@@ -324,6 +352,197 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       return -1;
    }
 
+   private int scanStatus(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
+      int lineStartIndex = buf.readerIndex();
+      readerIndex = findLineEnd(buf, readerIndex);
+      if (readerIndex < 0) {
+         copyLastLine(buf, lineStartIndex, buf.writerIndex());
+         passFullBuffer(ctx, buf);
+         return -1;
+      }
+      ByteBuf lineBuf = buf;
+      if (lastLine.isReadable()) {
+         assert lineStartIndex == buf.readerIndex();
+         copyLastLine(buf, lineStartIndex, readerIndex);
+         lineBuf = lastLine;
+         lineStartIndex = 0;
+      }
+      // skip HTTP version
+      int j = SwarUtil.indexOf(lineBuf, lineStartIndex, lineBuf.writerIndex(), (byte) ' ', SPACE_PATTERN);
+      status = readDecNumber(lineBuf, j < 0 ? lineBuf.writerIndex() : j);
+      if (status >= 100 && status < 200 || status == 204 || status == 304) {
+         contentLength = 0;
+      }
+      onStatus(status);
+      state = State.HEADERS;
+      lastLine.writerIndex(0);
+      return readerIndex + 1;
+   }
+
+   /**
+    * Finds end of line, tracking a CR at the end of previous buffer in {@link #crRead}.
+    *
+    * @return Index of the LF terminating the line or -1 if the line does not end within this buffer.
+    */
+   private int findLineEnd(ByteBuf buf, int index) {
+      int end = buf.writerIndex();
+      while (index < end) {
+         if (crRead) {
+            crRead = false;
+            if (buf.getByte(index) == LF) {
+               return index;
+            }
+            // the byte can be another CR
+            continue;
+         }
+         int indexOfCr = SwarUtil.indexOf(buf, index, end, CR, CR_PATTERN);
+         if (indexOfCr < 0) {
+            return -1;
+         }
+         crRead = true;
+         index = indexOfCr + 1;
+      }
+      return -1;
+   }
+
+   private int scanHeaders(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
+      int lineStartIndex = readerIndex;
+      int lineEndIndex;
+      while ((readerIndex = findLineEnd(buf, readerIndex)) >= 0) {
+         ByteBuf lineBuf;
+         // lineStartIndex is valid only if lastLine is empty - otherwise we would ignore an incomplete line
+         // in the buffer
+         if (readerIndex - lineStartIndex == 1 && lastLine.writerIndex() == 0
+               || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
+            // empty line ends the headers
+            HttpRequest httpRequest = connection.peekRequest(0);
+            // Unsolicited response 408 may not have a matching request
+            if (httpRequest != null) {
+               switch (httpRequest.method) {
+                  case HEAD:
+                  case CONNECT:
+                     contentLength = 0;
+                     chunked = false;
+               }
+            }
+            state = State.BODY;
+            lastLine.writerIndex(0);
+            if (contentLength >= 0) {
+               responseBytes = readerIndex - buf.readerIndex() + contentLength + 1;
+            }
+            return readerIndex + 1;
+         } else if (lastLine.isReadable()) {
+            copyLastLine(buf, lineStartIndex, readerIndex);
+            lineBuf = lastLine;
+            lineEndIndex = lastLine.readableBytes() - 1; // account the CR
+            lineStartIndex = 0;
+         } else {
+            lineBuf = buf;
+            lineEndIndex = readerIndex - 1; // account the CR
+         }
+         int endOfNameIndex = lineEndIndex, startOfValueIndex = lineStartIndex;
+         final int indexOfColon = SwarUtil.indexOf(lineBuf, lineStartIndex, lineEndIndex, (byte) ':', COLON_PATTERN);
+         if (indexOfColon != -1) {
+            final int i = indexOfColon;
+            for (endOfNameIndex = i - 1; endOfNameIndex >= lineStartIndex
+                  && lineBuf.getByte(endOfNameIndex) == ' '; --endOfNameIndex)
+               ;
+            for (startOfValueIndex = i + 1; startOfValueIndex < lineEndIndex
+                  && lineBuf.getByte(startOfValueIndex) == ' '; ++startOfValueIndex)
+               ;
+            readKnownHeader(lineBuf, lineStartIndex, endOfNameIndex + 1, startOfValueIndex, lineEndIndex);
+         }
+         onHeaderRead(lineBuf, lineStartIndex, endOfNameIndex + 1, startOfValueIndex, lineEndIndex);
+         lastLine.writerIndex(0);
+         lineStartIndex = readerIndex + 1;
+         ++readerIndex;
+      }
+      copyLastLine(buf, lineStartIndex, buf.writerIndex());
+      passFullBuffer(ctx, buf);
+      return -1;
+   }
+
+   /**
+    * Headers that affect parsing of the message are recognized by comparing the name in place, without copying.
+    */
+   private void readKnownHeader(ByteBuf buf, int startOfName, int endOfName, int startOfValue, int endOfValue) {
+      int nameLength = endOfName - startOfName;
+      if (nameLength == HttpHeaderNames.CONTENT_LENGTH.length()) {
+         if (SwarUtil.equalsIgnoreCase(buf, startOfName, nameLength, CONTENT_LENGTH)) {
+            contentLength = readDecNumber(buf, startOfValue);
+         }
+      } else if (nameLength == HttpHeaderNames.TRANSFER_ENCODING.length()) {
+         if (SwarUtil.equalsIgnoreCase(buf, startOfName, nameLength, TRANSFER_ENCODING)) {
+            // chunked must be the last transfer coding
+            chunked = endsWith(buf, startOfValue, endOfValue, HttpHeaderValues.CHUNKED);
+            skipChunkBytes = 0;
+         }
+      } else if (nameLength == HttpHeaderNames.CONNECTION.length()) {
+         if (SwarUtil.equalsIgnoreCase(buf, startOfName, nameLength, CONNECTION)) {
+            connectionClose = matches(buf, startOfValue, HttpHeaderValues.CLOSE);
+         }
+      }
+   }
+
+   private int scanChunks(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
+      int lineStartOffset = readerIndex;
+      while ((readerIndex = findLineEnd(buf, readerIndex)) >= 0) {
+         try {
+            ByteBuf lineBuf = buf;
+            if (lastLine.isReadable()) {
+               copyLastLine(buf, lineStartOffset, readerIndex);
+               lineBuf = lastLine;
+               lineStartOffset = 0;
+            }
+            int partSize = readHexNumber(lineBuf, lineStartOffset);
+            if (partSize == 0) {
+               onBodyPart(Unpooled.EMPTY_BUFFER, 0, 0, true);
+               chunked = false;
+               state = State.TRAILERS;
+               return readerIndex + 1;
+            } else if (readerIndex + 3 + partSize < buf.writerIndex()) {
+               onBodyPart(buf, readerIndex + 1, partSize, false);
+               readerIndex += partSize; // +1 below, +2 when checking CRLF
+               if (buf.getByte(++readerIndex) != CR || buf.getByte(++readerIndex) != LF) {
+                  throw new IllegalStateException("Chunk must end with CRLF!");
+               }
+               lineStartOffset = ++readerIndex;
+               assert skipChunkBytes == 0;
+            } else {
+               onBodyPart(buf, readerIndex + 1, Math.min(buf.writerIndex() - readerIndex - 1, partSize), false);
+               skipChunkBytes = readerIndex + 3 + partSize - buf.writerIndex();
+               passFullBuffer(ctx, buf);
+               return -1;
+            }
+         } finally {
+            crRead = false;
+            lastLine.writerIndex(0);
+         }
+      }
+      copyLastLine(buf, lineStartOffset, buf.writerIndex());
+      passFullBuffer(ctx, buf);
+      return -1;
+   }
+
+   private int scanTrailers(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
+      int lineStartIndex = readerIndex;
+      while ((readerIndex = findLineEnd(buf, readerIndex)) >= 0) {
+         // same as in scanHeaders, a line split across buffers is not empty
+         if (readerIndex - lineStartIndex == 1 && lastLine.writerIndex() == 0
+               || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
+            // empty line ends the trailers and whole message
+            responseBytes = readerIndex + 1 - buf.readerIndex();
+            reset();
+            return handleBuffer(ctx, buf, 0) ? buf.readerIndex() : -1;
+         }
+         lastLine.writerIndex(0);
+         lineStartIndex = ++readerIndex;
+      }
+      copyLastLine(buf, lineStartIndex, buf.writerIndex());
+      passFullBuffer(ctx, buf);
+      return -1;
+   }
+
    private void reset() {
       state = State.STATUS;
       status = 0;
@@ -372,7 +591,8 @@ public class Http1xResponseHandler extends BaseResponseHandler {
          byte b = buf.getByte(index);
          int v = toHex((char) b);
          if (v < 0) {
-            if (b != CR) {
+            // chunk extensions are ignored
+            if (b != CR && b != ';' && !isWhitespace(b)) {
                log.error("Error reading buffer, starting from {}, current index {} (char: {}), status {}:\n{}",
                      buf.readerIndex(), index, b, this,
                      ByteBufUtil.prettyHexDump(buf, buf.readerIndex(), buf.readableBytes()));
@@ -398,6 +618,27 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       }
    }
 
+   private static boolean endsWith(ByteBuf buf, int startOfValue, int endOfValue, AsciiString string) {
+      while (endOfValue > startOfValue && isWhitespace(buf.getByte(endOfValue - 1))) {
+         --endOfValue;
+      }
+      int offset = endOfValue - string.length();
+      if (offset < startOfValue || offset > startOfValue && !isWhitespace(buf.getByte(offset - 1))
+            && buf.getByte(offset - 1) != ',') {
+         return false;
+      }
+      for (int i = 0; i < string.length(); ++i) {
+         if (!Util.compareIgnoreCase(buf.getByte(offset + i), string.byteAt(i))) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean isWhitespace(byte b) {
+      return b == ' ' || b == '\t';
+   }
+
    private static int readDecNumber(ByteBuf buf, int index) {
       index = skipWhitespaces(buf, index);
       int value = 0;
@@ -429,6 +670,7 @@ public class Http1xResponseHandler extends BaseResponseHandler {
             ", status=" + status +
             ", chunked=" + chunked +
             ", skipChunkBytes=" + skipChunkBytes +
+            ", connectionClose=" + connectionClose +
             '}';
    }
 
@@ -475,7 +717,7 @@ public class Http1xResponseHandler extends BaseResponseHandler {
          }
       } else if (request.isCompleted()) {
          log.trace("Request on connection {} has been already completed (error in handlers?), ignoring", connection);
-      } else {
+      } else if (request.handlers().requiresHeaders(request)) {
          HttpResponseHandlers handlers = request.handlers();
          request.enter();
          try {
@@ -490,7 +732,7 @@ public class Http1xResponseHandler extends BaseResponseHandler {
                value = Util.toAsciiString(buf, startOfValue, valueLen);
             } else {
                // the built-in method has the advantage vs Util.toString that the backing byte[] is cached, if ever happen
-               value = buf.toString(startOfName, valueLen, CharsetUtil.UTF_8);
+               value = buf.toString(startOfValue, valueLen, CharsetUtil.UTF_8);
             }
             handlers.handleHeader(request, name, value);
          } finally {
@@ -546,6 +788,11 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       if (trace) {
          log.trace("Releasing request");
       }
+      if (connectionClose) {
+         connectionClose = false;
+         // The server is going to close the connection; we must not send any further requests
+         connection.close();
+      }
       if (removed) {
          ((Http1xConnection) connection).releasePoolAndPulse();
       }
@@ -51,6 +51,9 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    private final IntObjectMap<HttpRequest> streams = new IntObjectHashMap<>();
    private final long clientMaxStreams;
    private final boolean secure;
+   private final AddressStats address;
+   // Reported and cleared with the first request
+   private ConnectionTiming timing;
 
    private HttpConnectionPool pool;
    private int aboutToSend;
@@ -69,6 +72,8 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       this.encoder = encoder;
       this.clientMaxStreams = this.maxStreams = clientPool.config().maxHttp2Streams();
       this.secure = clientPool.isSecure();
+      this.address = context.channel().attr(AddressStats.KEY).get();
+      this.timing = context.channel().attr(ConnectionTiming.KEY).get();
 
       Http2EventAdapter listener = new EventAdapter();
 
@@ -97,6 +102,24 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       return streams.size() + aboutToSend;
    }
 
+   @Override
+   public int maxInFlight() {
+      return (int) Math.min(Integer.MAX_VALUE, maxStreams);
+   }
+
+   @Override
+   public boolean canSend() {
+      return context.channel().isWritable()
+            && connection.remote().flowController().windowSize(connection.connectionStream()) > 0;
+   }
+
+   @Override
+   public void onResponse(long responseTimeNanos) {
+      if (address != null) {
+         address.recordResponse(responseTimeNanos);
+      }
+   }
+
    public void incrementConnectionWindowSize(int increment) {
       try {
          io.netty.handler.codec.http2.Http2Stream stream = connection.connectionStream();
@@ -131,6 +154,10 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
       assert aboutToSend > 0;
       aboutToSend--;
+      if (timing != null) {
+         timing.record(request);
+         timing = null;
+      }
       HttpClientPool httpClientPool = pool.clientPool();
 
       ByteBuf buf = bodyGenerator != null ? bodyGenerator.apply(request.session, this) : null;
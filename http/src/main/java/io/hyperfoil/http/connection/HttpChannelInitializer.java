@@ -69,6 +69,14 @@ class HttpChannelInitializer extends ChannelInitializer<Channel> {
             // the handler works only with TLSv1.2: https://github.com/netty/netty/issues/10957
             sslHandler.engine().setEnabledProtocols(new String[] { "TLSv1.2" });
          }
+         ConnectionTiming timing = ch.attr(ConnectionTiming.KEY).get();
+         if (timing != null) {
+            sslHandler.handshakeFuture().addListener(f -> {
+               if (f.isSuccess()) {
+                  timing.onHandshakeCompleted();
+               }
+            });
+         }
          pipeline.addLast(sslHandler);
          pipeline.addLast(alpnHandler);
          if (logMasterKey) {
@@ -16,7 +16,6 @@ import java.security.cert.CertificateFactory;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.Base64;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
@@ -75,12 +74,18 @@ public class HttpClientPoolImpl implements HttpClientPool {
    private final HttpConnectionPool[] children;
    private final AtomicInteger idx = new AtomicInteger();
    private final Supplier<HttpConnectionPool> nextSupplier;
+   private final EventLoopFactory eventLoopFactory;
 
    public static HttpClientPoolImpl forTesting(Http http, int threads) throws SSLException {
-      EventLoopGroup eventLoopGroup = EventLoopFactory.INSTANCE.create(threads);
+      return forTesting(http, threads, EventLoopFactory.INSTANCE);
+   }
+
+   public static HttpClientPoolImpl forTesting(Http http, int threads, EventLoopFactory eventLoopFactory)
+         throws SSLException {
+      EventLoopGroup eventLoopGroup = eventLoopFactory.create(threads);
       EventLoop[] executors = StreamSupport.stream(eventLoopGroup.spliterator(), false)
             .map(EventLoop.class::cast).toArray(EventLoop[]::new);
-      return new HttpClientPoolImpl(http, executors, Benchmark.forTesting(), 0) {
+      return new HttpClientPoolImpl(http, executors, Benchmark.forTesting(), 0, eventLoopFactory) {
          @Override
          public void shutdown() {
             super.shutdown();
@@ -90,7 +95,16 @@ public class HttpClientPoolImpl implements HttpClientPool {
    }
 
    public HttpClientPoolImpl(Http http, EventLoop[] executors, Benchmark benchmark, int agentId) throws SSLException {
+      this(http, executors, benchmark, agentId, EventLoopFactory.INSTANCE);
+   }
+
+   /**
+    * @param eventLoopFactory Factory that created the executors; the channels must use matching transport.
+    */
+   public HttpClientPoolImpl(Http http, EventLoop[] executors, Benchmark benchmark, int agentId,
+         EventLoopFactory eventLoopFactory) throws SSLException {
       this.http = http;
+      this.eventLoopFactory = eventLoopFactory;
       this.sslContext = http.protocol().secure() ? createSslContext() : null;
       this.host = http.host();
       this.port = http.port();
@@ -99,6 +113,25 @@ public class HttpClientPoolImpl implements HttpClientPool {
       this.originalDestinationBytes = http.originalDestination().getBytes(StandardCharsets.UTF_8);
       this.forceH2c = http.versions().length == 1 && http.versions()[0] == HttpVersion.HTTP_2_0;
 
+      addressHosts = new String[http.addresses().length];
+      addressPorts = new int[http.addresses().length];
+      String[] addresses = http.addresses();
+      for (int i = 0; i < addresses.length; i++) {
+         final String address = addresses[i];
+         // This code must handle addresses in form ipv4address, ipv4address:port, [ipv6address]:port, ipv6address
+         int bracketIndex = address.lastIndexOf(']');
+         int firstColonIndex = address.indexOf(':');
+         int lastColonIndex = address.lastIndexOf(':');
+         if (lastColonIndex >= 0 && ((bracketIndex >= 0 && lastColonIndex > bracketIndex)
+               || (bracketIndex < 0 && lastColonIndex == firstColonIndex))) {
+            addressHosts[i] = address.substring(0, lastColonIndex);
+            addressPorts[i] = (int) Util.parseLong(address, lastColonIndex + 1, address.length(), port);
+         } else {
+            addressHosts[i] = address;
+            addressPorts[i] = port;
+         }
+      }
+
       this.children = new HttpConnectionPool[executors.length];
       int coreConnections, maxConnections, bufferConnections;
       switch (http.connectionStrategy()) {
@@ -142,14 +175,16 @@ public class HttpClientPoolImpl implements HttpClientPool {
       int maxRemainder = maxConnections - maxShare * executors.length;
       int bufferRemainder = bufferConnections - bufferShare * executors.length;
       for (int i = 0; i < executors.length; ++i) {
+         AddressBalancer addressBalancer = addressHosts.length == 0 ? null
+               : new AddressBalancer(http.addressSelection(), addressHosts, addressPorts, i);
          if (maxConnections > 0) {
             int core = coreShare + (i < coreRemainder ? 1 : 0);
             int max = maxShare + (i < maxRemainder ? 1 : 0);
             int buffer = bufferShare + (i < bufferRemainder ? 1 : 0);
             children[i] = new SharedConnectionPool(this, executors[i],
-                  new ConnectionPoolConfig(core, max, buffer, http.sharedConnections().keepAliveTime()));
+                  new ConnectionPoolConfig(core, max, buffer, http.sharedConnections().keepAliveTime()), addressBalancer);
          } else {
-            children[i] = new ConnectionAllocator(this, executors[i]);
+            children[i] = new ConnectionAllocator(this, executors[i], addressBalancer);
          }
       }
 
@@ -160,25 +195,6 @@ public class HttpClientPoolImpl implements HttpClientPool {
       } else {
          nextSupplier = () -> children[idx.getAndIncrement() % children.length];
       }
-
-      addressHosts = new String[http.addresses().length];
-      addressPorts = new int[http.addresses().length];
-      String[] addresses = http.addresses();
-      for (int i = 0; i < addresses.length; i++) {
-         final String address = addresses[i];
-         // This code must handle addresses in form ipv4address, ipv4address:port, [ipv6address]:port, ipv6address
-         int bracketIndex = address.lastIndexOf(']');
-         int firstColonIndex = address.indexOf(':');
-         int lastColonIndex = address.lastIndexOf(':');
-         if (lastColonIndex >= 0 && ((bracketIndex >= 0 && lastColonIndex > bracketIndex)
-               || (bracketIndex < 0 && lastColonIndex == firstColonIndex))) {
-            addressHosts[i] = address.substring(0, lastColonIndex);
-            addressPorts[i] = (int) Util.parseLong(address, lastColonIndex + 1, address.length(), port);
-         } else {
-            addressHosts[i] = address;
-            addressPorts[i] = port;
-         }
-      }
    }
 
    private SslContext createSslContext() throws SSLException {
@@ -332,24 +348,46 @@ public class HttpClientPoolImpl implements HttpClientPool {
       }
    }
 
-   void connect(final HttpConnectionPool pool, ConnectionReceiver handler) {
+   void connect(final HttpConnectionPool pool, AddressBalancer addressBalancer, ConnectionReceiver handler) {
       Bootstrap bootstrap = new Bootstrap();
-      bootstrap.channel(EventLoopFactory.INSTANCE.socketChannel());
+      bootstrap.channel(eventLoopFactory.socketChannel());
       bootstrap.group(pool.executor());
       bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
       bootstrap.option(ChannelOption.SO_REUSEADDR, true);
 
       bootstrap.handler(new HttpChannelInitializer(this, handler));
 
-      String address = this.host;
-      int port = this.port;
-      if (addressHosts.length > 0) {
-         int index = ThreadLocalRandom.current().nextInt(addressHosts.length);
-         address = addressHosts[index];
-         port = addressPorts[index];
+      ConnectionTiming timing = null;
+      if (http.latencyBreakdown()) {
+         timing = new ConnectionTiming(System.nanoTime());
+         bootstrap.attr(ConnectionTiming.KEY, timing);
       }
-
-      ChannelFuture fut = bootstrap.connect(new InetSocketAddress(address, port));
+      if (addressBalancer == null) {
+         ChannelFuture fut = bootstrap.connect(new InetSocketAddress(host, port));
+         if (timing != null) {
+            fut.addListener(timing);
+         }
+         fut.addListener(handler);
+         return;
+      }
+      AddressStats address = addressBalancer.selectForConnect();
+      bootstrap.attr(AddressStats.KEY, address);
+      address.connecting++;
+      ChannelFuture fut = bootstrap.connect(new InetSocketAddress(address.host, address.port));
+      if (timing != null) {
+         fut.addListener(timing);
+      }
+      // The listeners are invoked in the event loop of the pool
+      fut.addListener(f -> {
+         address.connecting--;
+         if (f.isSuccess()) {
+            address.onConnected();
+            address.connections.incrementUsed();
+            fut.channel().closeFuture().addListener(v -> address.connections.decrementUsed());
+         } else {
+            address.onConnectFailure();
+         }
+      });
       fut.addListener(handler);
    }
 
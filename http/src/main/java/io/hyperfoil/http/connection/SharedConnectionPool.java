@@ -4,6 +4,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -16,6 +17,8 @@ import io.hyperfoil.http.api.HttpClientPool;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.config.ConnectionPoolConfig;
+import io.hyperfoil.http.config.ConnectionSelection;
+import io.hyperfoil.impl.TimerWheel;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.EventLoop;
 import io.netty.util.concurrent.ScheduledFuture;
@@ -41,6 +44,7 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
    private final Runnable onConnectFailure = this::onConnectFailure;
    private final ConnectionPoolConfig sizeConfig;
    private final EventLoop eventLoop;
+   private final boolean leastStreams;
 
    private int connecting; // number of connections being opened
    private int created;
@@ -51,13 +55,20 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
    private boolean shutdown;
    private final Deque<ConnectionConsumer> waiting = new ArrayDeque<>();
    private ScheduledFuture<?> pulseFuture;
-   private ScheduledFuture<?> keepAliveFuture;
+   private final TimerWheel.Timeout keepAliveCheck = new TimerWheel.Timeout() {
+      @Override
+      protected void onTimeout() {
+         checkKeepAlive();
+      }
+   };
 
-   SharedConnectionPool(HttpClientPoolImpl clientPool, EventLoop eventLoop, ConnectionPoolConfig sizeConfig) {
-      super(clientPool.authority);
+   SharedConnectionPool(HttpClientPoolImpl clientPool, EventLoop eventLoop, ConnectionPoolConfig sizeConfig,
+         AddressBalancer addressBalancer) {
+      super(clientPool.authority, addressBalancer);
       this.clientPool = clientPool;
       this.sizeConfig = sizeConfig;
       this.eventLoop = eventLoop;
+      this.leastStreams = clientPool.config().connectionSelection() == ConnectionSelection.LEAST_STREAMS;
       this.available = new ArrayDeque<>(sizeConfig.max());
       this.temporaryInFlight = new ArrayList<>(sizeConfig.max());
    }
@@ -71,7 +82,16 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
       assert eventLoop.inEventLoop();
       try {
          for (;;) {
-            HttpConnection connection = available.pollFirst();
+            HttpConnection connection;
+            if (exclusiveConnection) {
+               connection = available.pollFirst();
+            } else if (addressBalancer != null && addressBalancer.balancesRequests()) {
+               connection = pollBalanced();
+            } else if (leastStreams) {
+               connection = pollLeastLoaded();
+            } else {
+               connection = available.pollFirst();
+            }
             if (connection == null) {
                log.debug("No connection to {} available, currently used {}", authority, usedConnections.current());
                return null;
@@ -81,10 +101,12 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
                   continue;
                }
                inFlight.incrementUsed();
+               incrementAddressInFlight(connection);
                if (connection.inFlight() == 0) {
                   usedConnections.incrementUsed();
                }
                connection.onAcquire();
+               recordConnectionInFlight(connection.inFlight());
 
                return connection;
             } else {
@@ -100,6 +122,64 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
       }
    }
 
+   /**
+    * Removes the connection with the lowest ratio of in-flight requests to its limit from available connections.
+    * Connections that cannot send immediately are selected only when there is no other option.
+    */
+   private HttpConnection pollLeastLoaded() {
+      HttpConnection best = null;
+      double bestLoad = Double.MAX_VALUE;
+      for (Iterator<HttpConnection> it = available.iterator(); it.hasNext();) {
+         HttpConnection connection = it.next();
+         if (connection.isClosed()) {
+            it.remove();
+            availableClosed--;
+            continue;
+         }
+         double load = connectionLoad(connection);
+         if (load < bestLoad) {
+            best = connection;
+            bestLoad = load;
+            if (load == 0) {
+               break;
+            }
+         }
+      }
+      if (best != null) {
+         available.removeFirstOccurrence(best);
+      }
+      return best;
+   }
+
+   /**
+    * Removes the connection picked by address balancer from available connections.
+    */
+   private HttpConnection pollBalanced() {
+      for (Iterator<HttpConnection> it = available.iterator(); it.hasNext();) {
+         HttpConnection connection = it.next();
+         if (connection.isClosed()) {
+            it.remove();
+            availableClosed--;
+         } else {
+            addressBalancer.offer(connection, connectionLoad(connection));
+         }
+      }
+      HttpConnection connection = addressBalancer.pollSelected();
+      if (connection != null) {
+         available.removeFirstOccurrence(connection);
+      }
+      return connection;
+   }
+
+   private static double connectionLoad(HttpConnection connection) {
+      // Available connection has inFlight < maxInFlight so the load is below 1
+      double load = (double) connection.inFlight() / Math.max(1, connection.maxInFlight());
+      if (!connection.canSend()) {
+         load += 1;
+      }
+      return load;
+   }
+
    @Override
    public void acquire(boolean exclusiveConnection, ConnectionConsumer consumer) {
       HttpConnection connection = acquireNow(exclusiveConnection);
@@ -148,28 +228,30 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
       }
       if (afterRequest) {
          inFlight.decrementUsed();
+         decrementAddressInFlight(connection);
       }
       if (connection.inFlight() == 0) {
          usedConnections.decrementUsed();
       }
-      if (keepAliveFuture == null && sizeConfig.keepAliveTime() > 0) {
+      if (!keepAliveCheck.isScheduled() && sizeConfig.keepAliveTime() > 0) {
          long lastUsed = available.stream().filter(c -> !c.isClosed()).mapToLong(HttpConnection::lastUsed).min()
                .orElse(connection.lastUsed());
          long nextCheck = sizeConfig.keepAliveTime() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastUsed);
          log.debug("Scheduling next keep-alive check in {} ms", nextCheck);
-         keepAliveFuture = eventLoop.schedule(() -> {
-            long now = System.nanoTime();
-            // We won't removing closed connections from available: acquire() will eventually remove these
-            for (HttpConnection c : available) {
-               if (c.isClosed())
-                  continue;
-               long idleTime = TimeUnit.NANOSECONDS.toMillis(now - c.lastUsed());
-               if (idleTime > sizeConfig.keepAliveTime()) {
-                  c.close();
-               }
-            }
-            keepAliveFuture = null;
-         }, nextCheck, TimeUnit.MILLISECONDS);
+         TimerWheel.current().schedule(keepAliveCheck, nextCheck, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private void checkKeepAlive() {
+      long now = System.nanoTime();
+      // We won't removing closed connections from available: acquire() will eventually remove these
+      for (HttpConnection c : available) {
+         if (c.isClosed())
+            continue;
+         long idleTime = TimeUnit.NANOSECONDS.toMillis(now - c.lastUsed());
+         if (idleTime > sizeConfig.keepAliveTime()) {
+            c.close();
+         }
       }
    }
 
@@ -249,7 +331,7 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
       }
       if (needsMoreConnections()) {
          connecting++;
-         clientPool.connect(this, handleNewConnection);
+         clientPool.connect(this, addressBalancer, handleNewConnection);
          eventLoop.schedule(checkCreateConnections, 2, TimeUnit.MILLISECONDS);
       }
    }
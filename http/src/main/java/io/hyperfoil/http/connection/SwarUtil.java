@@ -0,0 +1,91 @@
+package io.hyperfoil.http.connection;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AsciiString;
+
+/**
+ * SIMD-within-a-register helpers: these process 8 bytes of the buffer at once using plain <code>long</code> arithmetic.
+ * Note that {@link ByteBuf#getLong(int)} is big-endian, therefore the first byte ends up in the most significant bits.
+ */
+final class SwarUtil {
+   private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+   private static final long LOWER_CASE = 0x2020202020202020L;
+
+   private SwarUtil() {
+   }
+
+   static long pattern(byte value) {
+      return 0x0101010101010101L * (value & 0xFF);
+   }
+
+   /**
+    * @return Index of first occurrence of <code>value</code> within <code>[from, to)</code> or -1 if not found.
+    */
+   static int indexOf(ByteBuf buf, int from, int to, byte value, long pattern) {
+      int i = from;
+      for (; i + Long.BYTES <= to; i += Long.BYTES) {
+         long match = zeroBytes(buf.getLong(i) ^ pattern);
+         if (match != 0) {
+            return i + (Long.numberOfLeadingZeros(match) >>> 3);
+         }
+      }
+      for (; i < to; ++i) {
+         if (buf.getByte(i) == value) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * @return Word with the highest bit set in each byte that was zero in the input, all other bits clear.
+    */
+   private static long zeroBytes(long word) {
+      long tmp = (word & LOW_BITS) + LOW_BITS;
+      return ~(tmp | word | LOW_BITS);
+   }
+
+   /**
+    * Prepares words for {@link #equalsIgnoreCase(ByteBuf, int, int, long[])}: the name is split into 8-byte words,
+    * the last word overlapping with the previous one if the length is not divisible by 8.
+    *
+    * @param name Token (e.g. header name) at least 8 characters long.
+    * @return Lower-cased words.
+    */
+   static long[] lowerCaseWords(AsciiString name) {
+      if (name.length() < Long.BYTES) {
+         throw new IllegalArgumentException(name + " is too short");
+      }
+      long[] words = new long[(name.length() + Long.BYTES - 1) / Long.BYTES];
+      for (int i = 0; i < words.length; ++i) {
+         int offset = Math.min(i * Long.BYTES, name.length() - Long.BYTES);
+         long word = 0;
+         for (int j = 0; j < Long.BYTES; ++j) {
+            word = word << 8 | (name.byteAt(offset + j) & 0xFF);
+         }
+         words[i] = word | LOWER_CASE;
+      }
+      return words;
+   }
+
+   /**
+    * Case-insensitive comparison of tokens prepared using {@link #lowerCaseWords(AsciiString)}. This sets the 0x20 bit
+    * in each byte, which maps uppercase letters to lowercase but also some control characters to punctuation;
+    * that's fine for tokens that cannot contain control characters, such as header names.
+    *
+    * @param buf Buffer.
+    * @param index Start of the token in the buffer.
+    * @param length Length of the token; must be equal to the original name length.
+    * @param words Lower-cased words.
+    * @return True if the bytes match the token.
+    */
+   static boolean equalsIgnoreCase(ByteBuf buf, int index, int length, long[] words) {
+      int last = words.length - 1;
+      for (int i = 0; i < last; ++i) {
+         if ((buf.getLong(index + i * Long.BYTES) | LOWER_CASE) != words[i]) {
+            return false;
+         }
+      }
+      return (buf.getLong(index + length - Long.BYTES) | LOWER_CASE) == words[last];
+   }
+}
@@ -8,6 +8,8 @@ import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.config.InitFromParam;
 import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.api.statistics.MetricResolver;
 import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.function.SerializableToLongFunction;
 import io.hyperfoil.http.api.HeaderHandler;
@@ -16,7 +18,8 @@ import io.hyperfoil.impl.Util;
 import io.netty.util.AsciiString;
 
 public class RecordHeaderTimeHandler implements HeaderHandler {
-   private final int stepId;
+   @Visitor.Ignore
+   private final MetricResolver metrics;
    private final String header;
    private final String statistics;
    private final SerializableToLongFunction<CharSequence> transform;
@@ -24,7 +27,7 @@ public class RecordHeaderTimeHandler implements HeaderHandler {
 
    public RecordHeaderTimeHandler(int stepId, String header, String statistics,
          SerializableToLongFunction<CharSequence> transform) {
-      this.stepId = stepId;
+      this.metrics = new MetricResolver(stepId);
       this.header = header;
       this.statistics = statistics;
       this.transform = transform;
@@ -46,7 +49,7 @@ public class RecordHeaderTimeHandler implements HeaderHandler {
          // we're not recording negative values
          return;
       }
-      Statistics statistics = request.session.statistics(stepId, this.statistics);
+      Statistics statistics = metrics.statistics(request.session, this.statistics);
       // we need to set both requests and responses to calculate stats properly
       statistics.incrementRequests(request.startTimestampMillis());
       statistics.recordResponse(request.startTimestampMillis(), longValue);
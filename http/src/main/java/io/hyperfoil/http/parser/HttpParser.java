@@ -10,6 +10,8 @@ import io.hyperfoil.core.parser.Parser;
 import io.hyperfoil.core.parser.ParserException;
 import io.hyperfoil.core.parser.PropertyParser;
 import io.hyperfoil.core.parser.ReflectionParser;
+import io.hyperfoil.http.config.AddressSelection;
+import io.hyperfoil.http.config.ConnectionSelection;
 import io.hyperfoil.http.config.ConnectionStrategy;
 import io.hyperfoil.http.config.HttpBuilder;
 import io.hyperfoil.http.config.HttpPluginBuilder;
@@ -31,10 +33,14 @@ public class HttpParser extends AbstractParser<BenchmarkBuilder, HttpBuilder> {
       register("directHttp2", new PropertyParser.Boolean<>(HttpBuilder::directHttp2));
       register("requestTimeout", new PropertyParser.String<>(HttpBuilder::requestTimeout));
       register("addresses", HttpParser::parseAddresses);
+      register("addressSelection", new PropertyParser.Enum<>(AddressSelection.values(), HttpBuilder::addressSelection));
       register("rawBytesHandlers", new PropertyParser.Boolean<>(HttpBuilder::rawBytesHandlers));
       register("keyManager", new ReflectionParser<>(HttpBuilder::keyManager));
       register("trustManager", new ReflectionParser<>(HttpBuilder::trustManager));
       register("connectionStrategy", new PropertyParser.Enum<>(ConnectionStrategy.values(), HttpBuilder::connectionStrategy));
+      register("connectionSelection",
+            new PropertyParser.Enum<>(ConnectionSelection.values(), HttpBuilder::connectionSelection));
+      register("latencyBreakdown", new PropertyParser.Boolean<>(HttpBuilder::latencyBreakdown));
       register("useHttpCache", new PropertyParser.Boolean<>(HttpBuilder::useHttpCache));
    }
 
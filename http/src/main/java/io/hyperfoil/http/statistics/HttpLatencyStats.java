@@ -0,0 +1,276 @@
+package io.hyperfoil.http.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.kohsuke.MetaInfServices;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.impl.Util;
+
+/**
+ * Breakdown of the response time into stages of the request, each with its own histogram (in nanoseconds).
+ * <p>
+ * Pool wait, time to first byte and body download are recorded for each request; these add up to the response time.
+ * Connect and TLS handshake times are recorded with the first request sent over a new connection.
+ * <p>
+ * The JSON form contains only the summary (count, mean, percentiles and max) of each stage; deserialized instances
+ * keep these values but cannot be merged.
+ */
+@MetaInfServices(StatsExtension.class)
+@JsonTypeName("httplatency")
+public class HttpLatencyStats implements StatsExtension {
+   public static final String LATENCY = "latency";
+
+   private static final Stage[] STAGES = Stage.values();
+   private static final String[] VALUES = { "count", "mean", "p50", "p90", "p99", "max" };
+   private static final String[] HEADERS;
+   @SuppressWarnings("unchecked")
+   private static final Statistics.LongUpdater<HttpLatencyStats>[] RECORDERS = new Statistics.LongUpdater[STAGES.length];
+
+   static {
+      HEADERS = new String[STAGES.length * VALUES.length];
+      for (int i = 0; i < STAGES.length; ++i) {
+         int stage = i;
+         RECORDERS[i] = (s, value) -> s.histogram(stage).recordValue(value);
+         for (int j = 0; j < VALUES.length; ++j) {
+            HEADERS[i * VALUES.length + j] = STAGES[i].label + "." + VALUES[j];
+         }
+      }
+   }
+
+   private final Histogram[] histograms = new Histogram[STAGES.length];
+   // Summary loaded from JSON
+   private Map<String, Long> loaded;
+
+   /**
+    * Records duration of a stage; does not allocate unless this is the first value for the phase and metric
+    * in current statistics period.
+    *
+    * @param statistics Statistics of the request.
+    * @param timestamp Start timestamp of the request.
+    * @param stage Stage of the request.
+    * @param nanos Duration of the stage.
+    */
+   public static void record(Statistics statistics, long timestamp, Stage stage, long nanos) {
+      if (nanos < 0) {
+         return;
+      }
+      statistics.update(LATENCY, timestamp, HttpLatencyStats::new, RECORDERS[stage.ordinal()],
+            Math.min(nanos, StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE));
+   }
+
+   public static HttpLatencyStats get(StatisticsSnapshot snapshot) {
+      StatsExtension stats = snapshot.extensions.get(LATENCY);
+      if (stats == null) {
+         // return empty to prevent NPEs
+         return new HttpLatencyStats();
+      }
+      return (HttpLatencyStats) stats;
+   }
+
+   private Histogram histogram(int stage) {
+      Histogram histogram = histograms[stage];
+      if (histogram == null) {
+         histograms[stage] = histogram = StatisticsSnapshot.newHistogram();
+      }
+      return histogram;
+   }
+
+   /**
+    * @param stage Stage of the request.
+    * @return Histogram of recorded values, or <code>null</code> if nothing was recorded.
+    */
+   public Histogram histogram(Stage stage) {
+      return histograms[stage.ordinal()];
+   }
+
+   @Override
+   public boolean isNull() {
+      for (Histogram histogram : histograms) {
+         if (histogram != null && histogram.getTotalCount() > 0) {
+            return false;
+         }
+      }
+      return loaded == null || loaded.isEmpty();
+   }
+
+   @Override
+   public void add(StatsExtension other) {
+      if (other instanceof HttpLatencyStats) {
+         HttpLatencyStats o = (HttpLatencyStats) other;
+         for (int i = 0; i < histograms.length; ++i) {
+            if (o.histograms[i] != null) {
+               histogram(i).add(o.histograms[i]);
+            }
+         }
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public void subtract(StatsExtension other) {
+      if (other instanceof HttpLatencyStats) {
+         HttpLatencyStats o = (HttpLatencyStats) other;
+         for (int i = 0; i < histograms.length; ++i) {
+            if (o.histograms[i] != null) {
+               histogram(i).subtract(o.histograms[i]);
+            }
+         }
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public void reset() {
+      for (Histogram histogram : histograms) {
+         if (histogram != null) {
+            histogram.reset();
+         }
+      }
+   }
+
+   @SuppressWarnings("MethodDoesntCallSuperMethod")
+   @Override
+   public HttpLatencyStats clone() {
+      HttpLatencyStats copy = new HttpLatencyStats();
+      copy.add(this);
+      if (loaded != null) {
+         copy.loaded = new LinkedHashMap<>(loaded);
+      }
+      return copy;
+   }
+
+   @Override
+   public String[] headers() {
+      return HEADERS;
+   }
+
+   @Override
+   public String byHeader(String header) {
+      for (int i = 0; i < STAGES.length; ++i) {
+         String label = STAGES[i].label;
+         if (header.startsWith(label) && header.length() > label.length() && header.charAt(label.length()) == '.') {
+            String value = header.substring(label.length() + 1);
+            if (histograms[i] == null && loaded != null) {
+               Long loadedValue = loaded.get(header);
+               return loadedValue == null ? "0" : String.valueOf(loadedValue);
+            }
+            return String.valueOf(value(histograms[i], value));
+         }
+      }
+      return "<unknown header: " + header + ">";
+   }
+
+   private static long value(Histogram histogram, String value) {
+      if (histogram == null) {
+         return 0;
+      }
+      switch (value) {
+         case "count":
+            return histogram.getTotalCount();
+         case "mean":
+            return (long) histogram.getMean();
+         case "p50":
+            return histogram.getValueAtPercentile(50);
+         case "p90":
+            return histogram.getValueAtPercentile(90);
+         case "p99":
+            return histogram.getValueAtPercentile(99);
+         case "max":
+            return histogram.getMaxValue();
+         default:
+            throw new IllegalArgumentException(value);
+      }
+   }
+
+   @Override
+   public boolean writeCompact(DataOutput output) throws IOException {
+      if (loaded != null) {
+         return false;
+      }
+      for (Histogram histogram : histograms) {
+         Util.writeHistogram(output, histogram);
+      }
+      return true;
+   }
+
+   @Override
+   public void readCompact(DataInput input) throws IOException {
+      for (int i = 0; i < histograms.length; ++i) {
+         histograms[i] = Util.readHistogram(input);
+      }
+   }
+
+   @JsonAnyGetter
+   public Map<String, Long> serialize() {
+      Map<String, Long> map = new LinkedHashMap<>();
+      for (int i = 0; i < STAGES.length; ++i) {
+         Histogram histogram = histograms[i];
+         if (histogram == null || histogram.getTotalCount() == 0) {
+            continue;
+         }
+         for (String value : VALUES) {
+            map.put(STAGES[i].label + "." + value, value(histogram, value));
+         }
+      }
+      if (loaded != null) {
+         loaded.forEach(map::putIfAbsent);
+      }
+      return map;
+   }
+
+   @JsonAnySetter
+   public void set(String key, long value) {
+      if (loaded == null) {
+         loaded = new LinkedHashMap<>();
+      }
+      loaded.put(key, value);
+   }
+
+   @Override
+   public String toString() {
+      return "HttpLatencyStats" + serialize();
+   }
+
+   public enum Stage {
+      /**
+       * TCP connection establishment.
+       */
+      CONNECT("connect"),
+      /**
+       * TLS handshake, starting when the TCP connection is established.
+       */
+      TLS_HANDSHAKE("tls"),
+      /**
+       * Waiting for a connection from the pool (or for a new connection to be opened).
+       */
+      POOL_WAIT("poolWait"),
+      /**
+       * From sending the request until the status line (HTTP 1.x) or headers (HTTP 2) are received.
+       */
+      TTFB("ttfb"),
+      /**
+       * From receiving the status until the response is complete.
+       */
+      BODY("body");
+
+      public final String label;
+
+      Stage(String label) {
+         this.label = label;
+      }
+   }
+}
@@ -1,5 +1,9 @@
 package io.hyperfoil.http.statistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import org.kohsuke.MetaInfServices;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
@@ -8,6 +12,7 @@ import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.impl.Util;
 
 @MetaInfServices(StatsExtension.class)
 @JsonTypeName("http")
@@ -149,6 +154,27 @@ public class HttpStats implements StatsExtension {
       }
    }
 
+   @Override
+   public boolean writeCompact(DataOutput output) throws IOException {
+      Util.writeVarLong(output, status_2xx);
+      Util.writeVarLong(output, status_3xx);
+      Util.writeVarLong(output, status_4xx);
+      Util.writeVarLong(output, status_5xx);
+      Util.writeVarLong(output, status_other);
+      Util.writeVarLong(output, cacheHits);
+      return true;
+   }
+
+   @Override
+   public void readCompact(DataInput input) throws IOException {
+      status_2xx = Util.readVarInt(input);
+      status_3xx = Util.readVarInt(input);
+      status_4xx = Util.readVarInt(input);
+      status_5xx = Util.readVarInt(input);
+      status_other = Util.readVarInt(input);
+      cacheHits = Util.readVarInt(input);
+   }
+
    @Override
    public String toString() {
       return '{' +
@@ -14,6 +14,11 @@ class AfterSyncRequestStep implements Step {
    @Override
    public boolean invoke(Session session) {
       BitSetResource resource = session.getResource(key);
-      return resource.get(session.currentSequence().index());
+      if (resource.get(session.currentSequence().index())) {
+         return true;
+      }
+      // ReleaseSyncAction wakes up the sequence when the response completes
+      session.awaitWakeUp();
+      return false;
    }
 }
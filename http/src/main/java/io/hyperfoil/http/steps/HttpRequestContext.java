@@ -1,5 +1,6 @@
 package io.hyperfoil.http.steps;
 
+import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.http.api.ConnectionConsumer;
 import io.hyperfoil.http.api.HttpConnection;
@@ -37,6 +38,10 @@ class HttpRequestContext implements Session.Resource, ConnectionConsumer {
       assert request.session.executor().inEventLoop();
       this.connection = connection;
       this.ready = true;
+      SequenceInstance sequence = request.sequence();
+      if (sequence != null) {
+         request.session.wakeUp(sequence);
+      }
       this.request.session.proceed();
    }
 
@@ -53,6 +58,17 @@ class HttpRequestContext implements Session.Resource, ConnectionConsumer {
       }
    }
 
-   public static final class Key implements Session.ResourceKey<HttpRequestContext> {
+   public static final class Key implements Session.SlottedResourceKey<HttpRequestContext> {
+      private int resourceSlot = -1;
+
+      @Override
+      public int resourceSlot() {
+         return resourceSlot;
+      }
+
+      @Override
+      public void setResourceSlot(int slot) {
+         this.resourceSlot = slot;
+      }
    }
 }
@@ -31,6 +31,7 @@ import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.session.Action;
 import io.hyperfoil.api.session.ReadAccess;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.MetricResolver;
 import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.core.builders.BaseStepBuilder;
 import io.hyperfoil.core.generators.Pattern;
@@ -53,6 +54,7 @@ import io.hyperfoil.http.UserAgentAppender;
 import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.http.api.HttpRequest;
 import io.hyperfoil.http.api.HttpRequestWriter;
+import io.hyperfoil.http.api.StaticHeaders;
 import io.hyperfoil.http.config.ConnectionStrategy;
 import io.hyperfoil.http.config.HttpBuilder;
 import io.hyperfoil.http.config.HttpErgonomics;
@@ -62,8 +64,10 @@ import io.hyperfoil.http.handlers.FilterHeaderHandler;
 import io.hyperfoil.http.statistics.HttpStats;
 import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.util.AsciiString;
+import io.netty.util.CharsetUtil;
 
 /**
  * Issues a HTTP request and registers handlers for the response.
@@ -639,7 +643,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       }
       @SuppressWarnings("unchecked")
       SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders = this.headerAppenders.isEmpty() ? null
-            : this.headerAppenders.stream().map(Supplier::get).toArray(SerializableBiConsumer[]::new);
+            : StaticHeaderWriter.merge(this.headerAppenders.stream().map(Supplier::get).toArray(SerializableBiConsumer[]::new));
 
       SLA[] sla = this.sla != null ? this.sla.build() : SLABuilder.DEFAULT;
       SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator = this.body != null ? this.body.build() : null;
@@ -693,6 +697,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       @Override
       public void run(Session s) {
          s.getResource(beforeSyncRequestStep).set(s.currentSequence().index());
+         s.wakeUp(s.currentSequence());
       }
    }
 
@@ -740,18 +745,81 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       }
    }
 
-   private static class StaticHeaderWriter implements SerializableBiConsumer<Session, HttpRequestWriter> {
-      private final CharSequence header;
-      private final CharSequence value;
+   private static class StaticHeaderWriter implements StaticHeaders {
+      private final CharSequence[] headers;
+      private final CharSequence[] values;
+      private final byte[] encoded;
 
       private StaticHeaderWriter(CharSequence header, CharSequence value) {
-         this.header = header;
-         this.value = value;
+         this(new CharSequence[] { header }, new CharSequence[] { value });
+      }
+
+      private StaticHeaderWriter(CharSequence[] headers, CharSequence[] values) {
+         this.headers = headers;
+         this.values = values;
+         ByteBuf buf = Unpooled.buffer();
+         for (int i = 0; i < headers.length; ++i) {
+            buf.writeCharSequence(headers[i], CharsetUtil.ISO_8859_1);
+            buf.writeByte(':').writeByte(' ');
+            buf.writeCharSequence(values[i], Util.isLatin(values[i]) ? CharsetUtil.ISO_8859_1 : CharsetUtil.UTF_8);
+            buf.writeByte('\r').writeByte('\n');
+         }
+         this.encoded = new byte[buf.readableBytes()];
+         buf.readBytes(encoded);
+      }
+
+      /**
+       * Merges consecutive static headers so that these are written in a single copy.
+       */
+      static SerializableBiConsumer<Session, HttpRequestWriter>[] merge(
+            SerializableBiConsumer<Session, HttpRequestWriter>[] appenders) {
+         List<SerializableBiConsumer<Session, HttpRequestWriter>> merged = new ArrayList<>();
+         List<CharSequence> headers = new ArrayList<>();
+         List<CharSequence> values = new ArrayList<>();
+         for (SerializableBiConsumer<Session, HttpRequestWriter> appender : appenders) {
+            if (appender instanceof StaticHeaderWriter) {
+               StaticHeaderWriter writer = (StaticHeaderWriter) appender;
+               headers.addAll(Arrays.asList(writer.headers));
+               values.addAll(Arrays.asList(writer.values));
+            } else {
+               addMerged(merged, headers, values);
+               merged.add(appender);
+            }
+         }
+         addMerged(merged, headers, values);
+         @SuppressWarnings("unchecked")
+         SerializableBiConsumer<Session, HttpRequestWriter>[] array = merged.toArray(new SerializableBiConsumer[0]);
+         return array;
+      }
+
+      private static void addMerged(List<SerializableBiConsumer<Session, HttpRequestWriter>> merged,
+            List<CharSequence> headers, List<CharSequence> values) {
+         if (!headers.isEmpty()) {
+            merged.add(new StaticHeaderWriter(headers.toArray(new CharSequence[0]),
+                  values.toArray(new CharSequence[0])));
+            headers.clear();
+            values.clear();
+         }
       }
 
       @Override
-      public void accept(Session session, HttpRequestWriter writer) {
-         writer.putHeader(header, value);
+      public byte[] encoded() {
+         return encoded;
+      }
+
+      @Override
+      public int size() {
+         return headers.length;
+      }
+
+      @Override
+      public CharSequence name(int index) {
+         return headers[index];
+      }
+
+      @Override
+      public CharSequence value(int index) {
+         return values[index];
       }
    }
 
@@ -799,8 +867,12 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
        */
       public PartialHeadersBuilder pattern(String patternString) {
          ensureOnce();
-         parent.parent.headerAppenders
-               .add(() -> new PartialHeadersBuilder.PatternHeaderWriter(header, new Pattern(patternString, false)));
+         parent.parent.headerAppenders.add(() -> {
+            Pattern pattern = new Pattern(patternString, false);
+            // constant values are encoded only once
+            return pattern.isConstant() ? new StaticHeaderWriter(header, pattern.apply(null))
+                  : new PartialHeadersBuilder.PatternHeaderWriter(header, pattern);
+         });
          return this;
       }
 
@@ -940,11 +1012,12 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
    }
 
    public static class CompensatedResponseRecorder implements Action {
-      private final int stepId;
+      @Visitor.Ignore
+      private final MetricResolver metrics;
       private final SerializableBiFunction<String, String, String> metricSelector;
 
       public CompensatedResponseRecorder(int stepId, SerializableBiFunction<String, String, String> metricSelector) {
-         this.stepId = stepId;
+         this.metrics = new MetricResolver(stepId);
          this.metricSelector = metricSelector;
       }
 
@@ -955,7 +1028,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
             return;
          }
          String metric = metricSelector.apply(request.authority, request.path);
-         Statistics statistics = session.statistics(stepId, metric);
+         Statistics statistics = metrics.statistics(session, metric);
 
          DelaySessionStartStep.Holder holder = session.getResource(DelaySessionStartStep.KEY);
          long startTimeMs = holder.lastStartTime();
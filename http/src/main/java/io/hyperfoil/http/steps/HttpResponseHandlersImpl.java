@@ -37,6 +37,7 @@ import io.hyperfoil.core.data.LimitedPoolResource;
 import io.hyperfoil.core.data.Queue;
 import io.hyperfoil.core.handlers.ConditionalAction;
 import io.hyperfoil.core.handlers.ConditionalProcessor;
+import io.hyperfoil.core.handlers.json.MultiJsonHandler;
 import io.hyperfoil.core.steps.AwaitDelayStep;
 import io.hyperfoil.core.steps.PushQueueAction;
 import io.hyperfoil.core.steps.ScheduleDelayStep;
@@ -58,6 +59,7 @@ import io.hyperfoil.http.handlers.Redirect;
 import io.hyperfoil.http.html.HtmlHandler;
 import io.hyperfoil.http.html.MetaRefreshHandler;
 import io.hyperfoil.http.html.RefreshHandler;
+import io.hyperfoil.http.statistics.HttpLatencyStats;
 import io.hyperfoil.http.statistics.HttpStats;
 import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpHeaderNames;
@@ -124,6 +126,13 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
          }
 
          HttpStats.addStatus(request.statistics(), request.startTimestampMillis(), status);
+         if (request.statusTimestampNanos() == 0 && request.connection() != null
+               && request.connection().config().latencyBreakdown()) {
+            long now = System.nanoTime();
+            request.setStatusTimestampNanos(now);
+            HttpLatencyStats.record(request.statistics(), request.startTimestampMillis(), HttpLatencyStats.Stage.TTFB,
+                  now - request.sendTimestampNanos());
+         }
          if (statusHandlers != null) {
             for (StatusHandler handler : statusHandlers) {
                handler.handleStatus(request, status);
@@ -188,6 +197,11 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
       }
    }
 
+   @Override
+   public boolean requiresHeaders(HttpRequest request) {
+      return headerHandlers != null || request.hasCacheControl() || trace;
+   }
+
    @Override
    public void handleThrowable(HttpRequest request, Throwable throwable) {
       Session session = request.session;
@@ -279,7 +293,15 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
             request.setCompleting();
 
             if (executed) {
-               request.recordResponse(System.nanoTime());
+               long now = System.nanoTime();
+               request.recordResponse(now);
+               if (request.connection() != null) {
+                  request.connection().onResponse(now - request.startTimestampNanos());
+               }
+               if (request.statusTimestampNanos() != 0) {
+                  HttpLatencyStats.record(request.statistics(), request.startTimestampMillis(), HttpLatencyStats.Stage.BODY,
+                        now - request.statusTimestampNanos());
+               }
 
                if (headerHandlers != null) {
                   for (HeaderHandler handler : headerHandlers) {
@@ -366,6 +388,7 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
       private Boolean autoRangeCheck;
       private Boolean stopOnInvalid;
       private FollowRedirect followRedirect;
+      private boolean combineJsonQueries;
       private List<StatusHandler.Builder> statusHandlers = new ArrayList<>();
       private List<HeaderHandler.Builder> headerHandlers = new ArrayList<>();
       private List<Processor.Builder> bodyHandlers = new ArrayList<>();
@@ -507,6 +530,19 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
          return this;
       }
 
+      /**
+       * Evaluate adjacent <code>json</code> body handlers that only extract values in a single pass over the body.
+       * Note that their selected values are then passed to the nested processors in the order these appear
+       * in the document rather than query by query. By default false.
+       *
+       * @param combineJsonQueries Combine the queries?
+       * @return Self.
+       */
+      public Builder combineJsonQueries(boolean combineJsonQueries) {
+         this.combineJsonQueries = combineJsonQueries;
+         return this;
+      }
+
       public HttpRequestStepBuilder endHandler() {
          return parent;
       }
@@ -731,11 +767,16 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
          return new HttpResponseHandlersImpl(
                toArray(statusHandlers, StatusHandler.Builder::build, StatusHandler[]::new),
                toArray(headerHandlers, HeaderHandler.Builder::build, HeaderHandler[]::new),
-               toArray(bodyHandlers, b -> b.build(true), Processor[]::new),
+               buildBodyHandlers(),
                toArray(completionHandlers, Action.Builder::build, Action[]::new),
                toArray(rawBytesHandlers, RawBytesHandler.Builder::build, RawBytesHandler[]::new));
       }
 
+      private Processor[] buildBodyHandlers() {
+         Processor[] processors = toArray(bodyHandlers, b -> b.build(true), Processor[]::new);
+         return combineJsonQueries ? MultiJsonHandler.combine(processors) : processors;
+      }
+
       private static <B, T> T[] toArray(List<B> list, Function<B, T> build, IntFunction<T[]> generator) {
          if (list.isEmpty()) {
             return null;
@@ -9,6 +9,7 @@ import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.generators.Pattern;
 import io.hyperfoil.core.metric.MetricSelector;
 import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.function.SerializableFunction;
@@ -29,6 +30,7 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
    final SerializableFunction<Session, String> pathGenerator;
    final MetricSelector metricSelector;
    final HttpResponseHandlersImpl handler;
+   final byte[] requestLine;
 
    public PrepareHttpRequestStep(int stepId, HttpRequestContext.Key contextKey,
          SerializableFunction<Session, HttpMethod> method,
@@ -45,6 +47,18 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
       this.pathGenerator = pathGenerator;
       this.metricSelector = metricSelector;
       this.handler = handler;
+      this.requestLine = constantRequestLine(method, pathGenerator);
+   }
+
+   private static byte[] constantRequestLine(SerializableFunction<Session, HttpMethod> method,
+         SerializableFunction<Session, String> pathGenerator) {
+      if (method instanceof HttpMethod.Provided && pathGenerator instanceof Pattern && ((Pattern) pathGenerator).isConstant()) {
+         String path = pathGenerator.apply(null);
+         boolean isHttp = path.startsWith(HttpUtil.HTTP_PREFIX);
+         boolean isUrl = isHttp || path.startsWith(HttpUtil.HTTPS_PREFIX);
+         return HttpUtil.encodeRequestLine(((HttpMethod.Provided) method).method(), HttpUtil.requestPath(path, isHttp, isUrl));
+      }
+      return null;
    }
 
    @Override
@@ -65,16 +79,8 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
          String path = pathGenerator.apply(session);
          boolean isHttp = path.startsWith(HttpUtil.HTTP_PREFIX);
          boolean isUrl = isHttp || path.startsWith(HttpUtil.HTTPS_PREFIX);
-         if (isUrl) {
-            int pathIndex = path.indexOf('/', HttpUtil.prefixLength(isHttp));
-            if (pathIndex < 0) {
-               request.path = "/";
-            } else {
-               request.path = path.substring(pathIndex);
-            }
-         } else {
-            request.path = path;
-         }
+         request.path = HttpUtil.requestPath(path, isHttp, isUrl);
+         request.requestLine = requestLine;
 
          HttpConnectionPool connectionPool = getConnectionPool(session, destinations, path, isHttp, isUrl);
          if (connectionPool == null) {
@@ -84,7 +90,7 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
          request.authority = connectionPool.clientPool().authority();
          String metric = destinations.hasSingleDestination() ? metricSelector.apply(null, request.path)
                : metricSelector.apply(request.authority, request.path);
-         Statistics statistics = session.statistics(id(), metric);
+         Statistics statistics = statistics(session, metric);
          request.start(connectionPool, handler, session.currentSequence(), statistics);
          connectionPool.acquire(false, context);
       } catch (Throwable t) {
@@ -14,6 +14,7 @@ import io.hyperfoil.function.SerializableBiConsumer;
 import io.hyperfoil.function.SerializableBiFunction;
 import io.hyperfoil.http.api.HttpRequest;
 import io.hyperfoil.http.api.HttpRequestWriter;
+import io.hyperfoil.http.statistics.HttpLatencyStats;
 import io.netty.buffer.ByteBuf;
 
 public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider {
@@ -49,6 +50,8 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
          // TODO: when the phase is finished, max duration is not set and the connection cannot be obtained
          // we'll be waiting here forever. Maybe there should be a (default) timeout to obtain the connection.
          context.startWaiting();
+         // the context wakes us up when it receives the connection
+         session.awaitWakeUp();
          return false;
       }
       if (context.connection == null) {
@@ -59,6 +62,10 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
       context.stopWaiting();
 
       HttpRequest request = context.request;
+      if (context.connection.config().latencyBreakdown()) {
+         HttpLatencyStats.record(request.statistics(), request.startTimestampMillis(), HttpLatencyStats.Stage.POOL_WAIT,
+               System.nanoTime() - request.startTimestampNanos());
+      }
       request.send(context.connection, headerAppenders, injectHostHeader, bodyGenerator);
       // We don't need the context anymore and we need to reset it (in case the step is repeated).
       context.reset();
@@ -71,7 +78,6 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
       }
       // Set up timeout only after successful request
       if (timeout > 0) {
-         // TODO alloc!
          request.setTimeout(timeout, TimeUnit.MILLISECONDS);
       } else {
          long timeout = request.connection().config().requestTimeout();
@@ -78,6 +78,16 @@ public class BaseMockConnection implements HttpConnection {
       return 0;
    }
 
+   @Override
+   public int maxInFlight() {
+      return 0;
+   }
+
+   @Override
+   public boolean canSend() {
+      return false;
+   }
+
    @Override
    public ChannelHandlerContext context() {
       return null;
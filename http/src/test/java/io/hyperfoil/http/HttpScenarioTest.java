@@ -48,6 +48,7 @@ public abstract class HttpScenarioTest extends BaseScenarioTest {
       if (compression) {
          options.setCompressionSupported(true);
       }
+      initServerOptions(options);
       Promise<Void> promise = Promise.promise();
       server = vertx.createHttpServer(options).requestHandler(router)
             .listen(0, "localhost", ctx.asyncAssertSuccess(srv -> {
@@ -66,6 +67,10 @@ public abstract class HttpScenarioTest extends BaseScenarioTest {
       return false;
    }
 
+   // override me
+   protected void initServerOptions(HttpServerOptions options) {
+   }
+
    protected void initWithServer(boolean tls) {
       HttpPluginBuilder httpPlugin = benchmarkBuilder.plugin(HttpPluginBuilder.class);
       HttpBuilder http = httpPlugin.http();
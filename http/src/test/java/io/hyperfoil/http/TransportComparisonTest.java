@@ -0,0 +1,122 @@
+package io.hyperfoil.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.impl.EventLoopFactory;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.http.api.HttpClientPool;
+import io.hyperfoil.http.api.HttpConnectionPool;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.config.Http;
+import io.hyperfoil.http.config.HttpBuilder;
+import io.hyperfoil.http.connection.HttpClientPoolImpl;
+import io.hyperfoil.http.steps.HttpResponseHandlersImpl;
+import io.netty.channel.epoll.Epoll;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Runs the same closed-loop load against a local server with each transport available on this platform.
+ * By default this is only a smoke test with few requests; set <code>io.hyperfoil.test.transport.requests</code>
+ * to a higher number (e.g. 20000) to compare the throughput reported in the log.
+ */
+@RunWith(VertxUnitRunner.class)
+public class TransportComparisonTest {
+   private static final Logger log = LogManager.getLogger(TransportComparisonTest.class);
+   private static final int REQUESTS = Integer.getInteger("io.hyperfoil.test.transport.requests", 1000);
+   private static final int CONCURRENCY = 16;
+
+   private final Vertx vertx = Vertx.vertx();
+   private HttpServer httpServer;
+
+   @Before
+   public void before(TestContext ctx) {
+      httpServer = vertx.createHttpServer().requestHandler(req -> req.response().end("hello"))
+            .listen(0, "localhost", ctx.asyncAssertSuccess());
+   }
+
+   @After
+   public void after(TestContext ctx) {
+      vertx.close(ctx.asyncAssertSuccess());
+   }
+
+   @Test
+   public void testTransports() throws Exception {
+      // io_uring falls back to epoll or nio when not supported
+      String[] transports = Epoll.isAvailable() ? new String[] { "nio", "epoll", "io_uring" } : new String[] { "nio" };
+      for (String transport : transports) {
+         EventLoopFactory factory = EventLoopFactory.forTransport(transport);
+         long nanos = run(factory);
+         log.info("{} ({}): {} requests in {} ms, {} req/s", transport, factory.name(), REQUESTS,
+               TimeUnit.NANOSECONDS.toMillis(nanos), (long) (REQUESTS * 1e9 / nanos));
+      }
+   }
+
+   private long run(EventLoopFactory factory) throws Exception {
+      Http http = HttpBuilder.forTesting().host("localhost").port(httpServer.actualPort()).sharedConnections(CONCURRENCY)
+            .build(true);
+      HttpClientPool client = HttpClientPoolImpl.forTesting(http, 1, factory);
+      CountDownLatch startLatch = new CountDownLatch(1);
+      client.start(result -> startLatch.countDown());
+      assertThat(startLatch.await(10, TimeUnit.SECONDS)).isTrue();
+
+      HttpConnectionPool pool = client.next();
+      AtomicInteger started = new AtomicInteger();
+      AtomicInteger ok = new AtomicInteger();
+      CountDownLatch latch = new CountDownLatch(REQUESTS);
+      long start = System.nanoTime();
+      pool.executor().execute(() -> {
+         Session session = SessionFactory.forTesting();
+         HttpRunData.initForTesting(session);
+         for (int i = 0; i < CONCURRENCY; ++i) {
+            sendRequest(session, pool, started, ok, latch);
+         }
+      });
+      assertThat(latch.await(60, TimeUnit.SECONDS)).isTrue();
+      long nanos = System.nanoTime() - start;
+      assertThat(ok.get()).isEqualTo(REQUESTS);
+      client.shutdown();
+      return nanos;
+   }
+
+   private void sendRequest(Session session, HttpConnectionPool pool, AtomicInteger started, AtomicInteger ok,
+         CountDownLatch latch) {
+      if (started.incrementAndGet() > REQUESTS) {
+         return;
+      }
+      HttpRequest request = HttpRequestPool.get(session).acquire();
+      HttpResponseHandlersImpl handlers = HttpResponseHandlersImpl.Builder.forTesting()
+            .status((r, code) -> {
+               if (code == 200) {
+                  ok.incrementAndGet();
+               }
+            })
+            .onCompletion(s -> {
+               latch.countDown();
+               // The request is released after completion handlers
+               pool.executor().execute(() -> sendRequest(session, pool, started, ok, latch));
+            })
+            .build();
+      request.method = HttpMethod.GET;
+      request.path = "/";
+      request.start(pool, handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
+      pool.acquire(false, c -> request.send(c, null, true, null));
+   }
+}
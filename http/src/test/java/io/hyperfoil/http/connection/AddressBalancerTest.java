@@ -0,0 +1,76 @@
+package io.hyperfoil.http.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.hyperfoil.http.config.AddressSelection;
+
+public class AddressBalancerTest {
+   private static final String[] HOSTS = { "10.0.0.1", "10.0.0.2", "10.0.0.3" };
+   private static final int[] PORTS = { 8080, 8080, 8080 };
+
+   @Test
+   public void testRoundRobinSkipsFailedAddress() {
+      AddressBalancer balancer = new AddressBalancer(AddressSelection.ROUND_ROBIN, HOSTS, PORTS, 1);
+      assertFalse(balancer.balancesRequests());
+      AddressStats second = balancer.selectForConnect();
+      assertEquals("10.0.0.2", second.host);
+      AddressStats third = balancer.selectForConnect();
+      AddressStats first = balancer.selectForConnect();
+      assertEquals("10.0.0.1", first.host);
+
+      second.onConnectFailure();
+      assertFalse(second.isHealthy(System.nanoTime()));
+      for (int i = 0; i < 4; ++i) {
+         AddressStats address = balancer.selectForConnect();
+         assertSame(i % 2 == 0 ? third : first, address);
+      }
+      second.onConnected();
+      assertTrue(second.isHealthy(System.nanoTime()));
+   }
+
+   @Test
+   public void testAllAddressesFailed() {
+      AddressBalancer balancer = new AddressBalancer(AddressSelection.POWER_OF_TWO_CHOICES, HOSTS, PORTS, 0);
+      assertTrue(balancer.balancesRequests());
+      for (int i = 0; i < HOSTS.length; ++i) {
+         balancer.selectForConnect().onConnectFailure();
+      }
+      // When no address is healthy we still need to connect somewhere
+      for (int i = 0; i < 10; ++i) {
+         balancer.selectForConnect();
+      }
+   }
+
+   @Test
+   public void testLeastInFlightSpreadsConnections() {
+      AddressBalancer balancer = new AddressBalancer(AddressSelection.LEAST_IN_FLIGHT, HOSTS, PORTS, 0);
+      int[] counts = new int[HOSTS.length];
+      for (int i = 0; i < 3 * HOSTS.length; ++i) {
+         AddressStats address = balancer.selectForConnect();
+         address.connecting++;
+         counts[address.index]++;
+      }
+      for (int count : counts) {
+         assertEquals(3, count);
+      }
+   }
+
+   @Test
+   public void testEwmaLatencyPrefersFasterAddress() {
+      AddressBalancer balancer = new AddressBalancer(AddressSelection.EWMA_LATENCY, HOSTS, PORTS, 0);
+      // Without any responses all addresses have zero cost and the first one wins
+      long[] responseTimes = { 50_000_000, 1_000_000, 20_000_000 };
+      AddressStats[] addresses = new AddressStats[HOSTS.length];
+      for (int i = 0; i < HOSTS.length; ++i) {
+         addresses[i] = balancer.selectForConnect();
+         assertEquals(i, addresses[i].index);
+         addresses[i].recordResponse(responseTimes[i]);
+      }
+      assertSame(addresses[1], balancer.selectForConnect());
+   }
+}
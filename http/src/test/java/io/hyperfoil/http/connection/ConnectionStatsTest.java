@@ -18,12 +18,15 @@ import io.hyperfoil.http.HttpScenarioTest;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpDestinationTable;
 import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.ConnectionSelection;
 import io.hyperfoil.http.config.ConnectionStrategy;
 import io.hyperfoil.http.config.HttpBuilder;
 import io.hyperfoil.http.config.HttpPluginBuilder;
 import io.hyperfoil.http.statistics.HttpStats;
 import io.hyperfoil.http.steps.HttpStepCatalog;
 import io.vertx.core.Future;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpServerOptions;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -35,14 +38,24 @@ public class ConnectionStatsTest extends HttpScenarioTest {
    private static final String HTTP_2_TLS = "TLS + HTTP 2";
    private static final String BLOCKED_SESSIONS = "blocked sessions";
    private static final String IN_FLIGHT_REQUESTS = "in-flight requests";
+   private static final String IN_FLIGHT_PER_CONNECTION = "in-flight per connection";
    private static final String USED_CONNECTIONS = "used connections";
 
+   private int serverMaxStreams;
+
    @Override
    protected Future<Void> startServer(TestContext ctx, boolean tls, boolean compression) {
       // don't start the server
       return null;
    }
 
+   @Override
+   protected void initServerOptions(HttpServerOptions options) {
+      if (serverMaxStreams > 0) {
+         options.setInitialSettings(new Http2Settings().setMaxConcurrentStreams(serverMaxStreams));
+      }
+   }
+
    private void startServer(TestContext ctx, boolean ssl) {
       Async async = ctx.async();
       super.startServer(ctx, ssl, false).onComplete(ctx.asyncAssertSuccess(nil -> async.complete()));
@@ -54,6 +67,7 @@ public class ConnectionStatsTest extends HttpScenarioTest {
       router.route("/ok").handler(ctx -> vertx.setTimer(5, id -> ctx.response().end()));
       router.route("/error").handler(ctx -> vertx.setTimer(5, id -> ctx.response().setStatusCode(400).end()));
       router.route("/close").handler(ctx -> ctx.response().close());
+      router.route("/slow").handler(ctx -> vertx.setTimer(50, id -> ctx.response().end()));
    }
 
    @Override
@@ -226,6 +240,57 @@ public class ConnectionStatsTest extends HttpScenarioTest {
       assertThat(stats.get(USED_CONNECTIONS).high).isEqualTo(connections);
    }
 
+   @Test
+   public void testSharedHttp2LeastStreams(TestContext ctx) {
+      startServer(ctx, true);
+
+      final int connections = 3;
+      http().connectionStrategy(ConnectionStrategy.SHARED_POOL)
+            .connectionSelection(ConnectionSelection.LEAST_STREAMS)
+            .sharedConnections(connections);
+
+      Map<String, LowHigh> stats = testConcurrent(false);
+      assertThat(stats.get(HTTP_2_TLS).high).isEqualTo(connections);
+      assertThat(stats.get(BLOCKED_SESSIONS).high).isEqualTo(0);
+      LowHigh perConnection = stats.get(IN_FLIGHT_PER_CONNECTION);
+      assertThat(perConnection).isNotNull();
+      assertThat(perConnection.low).isGreaterThanOrEqualTo(1);
+      // The selected connection never has more requests than the least loaded one, therefore after the acquisition
+      // it has at most ceil(in-flight / connections) requests; the extra one is a slack for the connection
+      // releasing the stream later than the pool counts the response.
+      int inFlight = stats.get(IN_FLIGHT_REQUESTS).high;
+      assertThat(perConnection.high - perConnection.low).isLessThanOrEqualTo((inFlight + connections - 1) / connections);
+   }
+
+   @Test
+   public void testSharedHttp2ClientMaxStreams(TestContext ctx) {
+      startServer(ctx, true);
+
+      final int connections = 2;
+      http().connectionStrategy(ConnectionStrategy.SHARED_POOL)
+            .connectionSelection(ConnectionSelection.LEAST_STREAMS)
+            .sharedConnections(connections)
+            .maxHttp2Streams(2);
+
+      Map<String, LowHigh> stats = testSlow(connections, 2);
+      assertThat(stats.get(BLOCKED_SESSIONS).high).isGreaterThan(0);
+   }
+
+   @Test
+   public void testSharedHttp2ServerMaxStreams(TestContext ctx) {
+      serverMaxStreams = 2;
+      startServer(ctx, true);
+
+      final int connections = 2;
+      http().connectionStrategy(ConnectionStrategy.SHARED_POOL)
+            .connectionSelection(ConnectionSelection.LEAST_STREAMS)
+            .sharedConnections(connections);
+
+      // the client allows 100 streams by default but the server's SETTINGS_MAX_CONCURRENT_STREAMS is lower
+      Map<String, LowHigh> stats = testSlow(connections, 2);
+      assertThat(stats.get(BLOCKED_SESSIONS).high).isGreaterThan(0);
+   }
+
    @Test
    public void testSessionPoolsHttp2(TestContext ctx) {
       startServer(ctx, true);
@@ -380,6 +445,30 @@ public class ConnectionStatsTest extends HttpScenarioTest {
       return connectionStats.stats;
    }
 
+   /**
+    * Sends requests at a rate the connections cannot handle, due to the limit of concurrent streams.
+    */
+   private Map<String, LowHigh> testSlow(int connections, int maxStreams) {
+      benchmarkBuilder.addPhase("test").constantRate(200).duration(1000).scenario()
+            .initialSequence("test")
+            .step(HttpStepCatalog.SC).httpRequest(HttpMethod.GET).path("/slow").endStep();
+
+      TestStatistics requestStats = new TestStatistics();
+      TestConnectionStats connectionStats = new TestConnectionStats();
+      LocalSimulationRunner runner = new LocalSimulationRunner(benchmarkBuilder.build(), requestStats, null, connectionStats);
+      runner.run();
+
+      StatisticsSnapshot snapshot = requestStats.stats().get("test");
+      assertThat(snapshot.requestCount).isGreaterThan(0);
+      Map<String, LowHigh> stats = connectionStats.stats;
+      assertThat(stats.get(HTTP_2_TLS).high).isEqualTo(connections);
+      assertThat(stats.get(IN_FLIGHT_REQUESTS).high).isLessThanOrEqualTo(connections * maxStreams);
+      LowHigh perConnection = stats.get(IN_FLIGHT_PER_CONNECTION);
+      assertThat(perConnection).isNotNull();
+      assertThat(perConnection.high).isLessThanOrEqualTo(maxStreams);
+      return stats;
+   }
+
    private static class TestConnectionStats implements ConnectionStatsConsumer {
       Map<String, LowHigh> stats = new HashMap<>();
 
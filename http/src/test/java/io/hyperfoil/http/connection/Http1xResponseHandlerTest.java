@@ -0,0 +1,261 @@
+package io.hyperfoil.http.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.http.BaseMockConnection;
+import io.hyperfoil.http.HttpRequestPool;
+import io.hyperfoil.http.HttpRunData;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpResponseHandlers;
+import io.hyperfoil.http.steps.HttpResponseHandlersImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+@RunWith(Parameterized.class)
+public class Http1xResponseHandlerTest {
+   private static final String CONTENT_LENGTH_RESPONSE = "HTTP/1.1 200 OK\r\n" +
+         "Content-Type: text/plain\r\n" +
+         "X-Rather-Long-Header-Name: value spanning several words\r\n" +
+         "Content-Length: 11\r\n" +
+         "\r\n" +
+         "Hello world";
+   private static final String CHUNKED_RESPONSE = "HTTP/1.1 200 OK\r\n" +
+         "Transfer-Encoding: chunked\r\n" +
+         "\r\n" +
+         "5\r\nHello\r\n" +
+         "6;name=value\r\n world\r\n" +
+         "0\r\n" +
+         "X-Trailer: value\r\n" +
+         "\r\n";
+
+   private final boolean fastParser;
+   private Session session;
+
+   public Http1xResponseHandlerTest(boolean fastParser) {
+      this.fastParser = fastParser;
+   }
+
+   @Parameterized.Parameters(name = "fastParser={0}")
+   public static Collection<Object[]> parsers() {
+      return Arrays.asList(new Object[][] { { false }, { true } });
+   }
+
+   @Before
+   public void before() {
+      session = SessionFactory.forTesting();
+      HttpRunData.initForTesting(session, Clock.systemDefaultZone(), false);
+   }
+
+   @Test
+   public void testSplitAtEveryOffset() {
+      byte[] bytes = CONTENT_LENGTH_RESPONSE.getBytes(StandardCharsets.US_ASCII);
+      for (int split = 1; split < bytes.length; ++split) {
+         Response response = parse(bytes, split);
+         assertThat(response.status).as("split at %d", split).isEqualTo(200);
+         assertThat(response.headers).as("split at %d", split).containsExactly(
+               "Content-Type: text/plain",
+               "X-Rather-Long-Header-Name: value spanning several words",
+               "Content-Length: 11");
+         assertThat(response.body.toString()).as("split at %d", split).isEqualTo("Hello world");
+         assertThat(response.lastPart).as("split at %d", split).isTrue();
+         assertThat(response.completions).as("split at %d", split).isEqualTo(1);
+         assertThat(response.closed).isFalse();
+      }
+   }
+
+   @Test
+   public void testByteByByte() {
+      byte[] bytes = CONTENT_LENGTH_RESPONSE.getBytes(StandardCharsets.US_ASCII);
+      Response response = parse(bytes, everyOffset(bytes));
+      assertThat(response.status).isEqualTo(200);
+      assertThat(response.headers).hasSize(3).contains("Content-Length: 11");
+      assertThat(response.body.toString()).isEqualTo("Hello world");
+      assertThat(response.completions).isEqualTo(1);
+   }
+
+   @Test
+   public void testChunkedSplitAtEveryOffset() {
+      byte[] bytes = CHUNKED_RESPONSE.getBytes(StandardCharsets.US_ASCII);
+      for (int split = 1; split < bytes.length; ++split) {
+         Response response = parse(bytes, split);
+         assertThat(response.headers).as("split at %d", split).containsExactly("Transfer-Encoding: chunked");
+         assertThat(response.body.toString()).as("split at %d", split).isEqualTo("Hello world");
+         assertThat(response.lastPart).as("split at %d", split).isTrue();
+         assertThat(response.completions).as("split at %d", split).isEqualTo(1);
+      }
+      Response response = parse(bytes, everyOffset(bytes));
+      assertThat(response.body.toString()).isEqualTo("Hello world");
+      assertThat(response.completions).isEqualTo(1);
+   }
+
+   @Test
+   public void testChunkExtensions() {
+      Response response = parse(bytes("HTTP/1.1 200 OK\r\n" +
+            "Transfer-Encoding: chunked\r\n" +
+            "\r\n" +
+            "5;foo=bar;goo=\"quoted\"\r\nHello\r\n" +
+            "6 ;foo\r\n world\r\n" +
+            "0;last\r\n" +
+            "\r\n"));
+      assertThat(response.body.toString()).isEqualTo("Hello world");
+      assertThat(response.completions).isEqualTo(1);
+   }
+
+   @Test
+   public void testGzipChunked() {
+      String response = "HTTP/1.1 200 OK\r\n" +
+            "Content-Encoding: gzip\r\n" +
+            "Transfer-Encoding: gzip, chunked\r\n" +
+            "\r\n" +
+            "8\r\n\u001f\u008b\u0008\u0000\u0000\u0000\u0000\u0000\r\n" +
+            "0\r\n" +
+            "\r\n";
+      byte[] bytes = response.getBytes(StandardCharsets.ISO_8859_1);
+      for (int split = 1; split < bytes.length; ++split) {
+         Response parsed = parse(bytes, split);
+         // the body is not decoded, only the chunks are joined
+         assertThat(parsed.body.toString()).as("split at %d", split)
+               .isEqualTo("\u001f\u008b\u0008\u0000\u0000\u0000\u0000\u0000");
+         assertThat(parsed.completions).as("split at %d", split).isEqualTo(1);
+      }
+      // chunked is not the last encoding => the body is delimited by closing the connection
+      Response notChunked = parse(bytes("HTTP/1.1 200 OK\r\n" +
+            "Transfer-Encoding: chunked, gzip\r\n" +
+            "\r\n" +
+            "0\r\n\r\n"));
+      assertThat(notChunked.body.toString()).isEqualTo("0\r\n\r\n");
+      assertThat(notChunked.completions).isZero();
+   }
+
+   @Test
+   public void testHeaderNamesCaseInsensitive() {
+      Response contentLength = parse(bytes("HTTP/1.1 200 OK\r\ncontent-LENGTH: 5\r\n\r\nHello"));
+      assertThat(contentLength.body.toString()).isEqualTo("Hello");
+      assertThat(contentLength.completions).isEqualTo(1);
+
+      Response chunked = parse(bytes("HTTP/1.1 200 OK\r\nTRANSFER-encoding: Chunked\r\n\r\n5\r\nHello\r\n0\r\n\r\n"));
+      assertThat(chunked.body.toString()).isEqualTo("Hello");
+      assertThat(chunked.completions).isEqualTo(1);
+
+      Response close = parse(bytes("HTTP/1.1 200 OK\r\nCONNECTION: Close\r\nContent-Length: 0\r\n\r\n"));
+      assertThat(close.completions).isEqualTo(1);
+      assertThat(close.closed).isTrue();
+   }
+
+   @Test
+   public void testConnectionClose() {
+      byte[] bytes = bytes("HTTP/1.1 200 OK\r\nContent-Length: 5\r\nConnection: close\r\n\r\nHello");
+      for (int split = 1; split < bytes.length; ++split) {
+         Response response = parse(bytes, split);
+         assertThat(response.completions).as("split at %d", split).isEqualTo(1);
+         assertThat(response.closed).as("split at %d", split).isTrue();
+      }
+      Response keepAlive = parse(bytes("HTTP/1.1 200 OK\r\nContent-Length: 5\r\nConnection: keep-alive\r\n\r\nHello"));
+      assertThat(keepAlive.completions).isEqualTo(1);
+      assertThat(keepAlive.closed).isFalse();
+   }
+
+   private static byte[] bytes(String response) {
+      return response.getBytes(StandardCharsets.US_ASCII);
+   }
+
+   private static int[] everyOffset(byte[] bytes) {
+      int[] offsets = new int[bytes.length - 1];
+      for (int i = 0; i < offsets.length; ++i) {
+         offsets[i] = i + 1;
+      }
+      return offsets;
+   }
+
+   private Response parse(byte[] bytes, int... splits) {
+      Response response = new Response();
+      HttpResponseHandlers handlers = HttpResponseHandlersImpl.Builder.forTesting()
+            .status((request, status) -> response.status = status)
+            .header((request, header, value) -> response.headers.add(header + ": " + value))
+            .body(fragmented -> response)
+            .onCompletion(s -> response.completions++)
+            .build();
+      HttpRequest request = HttpRequestPool.get(session).acquire();
+      request.method = HttpMethod.GET;
+      request.path = "/";
+      request.start(null, handlers, new SequenceInstance().reset(null, 0, new Step[0], null),
+            new Statistics(System.currentTimeMillis()));
+      MockConnection connection = new MockConnection(request);
+
+      EmbeddedChannel channel = new EmbeddedChannel(new Http1xResponseHandler(connection, fastParser));
+      int offset = 0;
+      for (int split : splits) {
+         channel.writeInbound(Unpooled.wrappedBuffer(bytes, offset, split - offset));
+         offset = split;
+      }
+      channel.writeInbound(Unpooled.wrappedBuffer(bytes, offset, bytes.length - offset));
+      channel.finishAndReleaseAll();
+      if (!request.isCompleted()) {
+         request.setCompleted();
+         request.release();
+      }
+      response.closed = connection.closed;
+      return response;
+   }
+
+   private static class Response implements Processor {
+      private final List<String> headers = new ArrayList<>();
+      private final StringBuilder body = new StringBuilder();
+      private int status;
+      private boolean lastPart;
+      private int completions;
+      private boolean closed;
+
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         body.append(data.toString(offset, length, StandardCharsets.ISO_8859_1));
+         lastPart |= isLastPart;
+      }
+   }
+
+   private static class MockConnection extends BaseMockConnection {
+      private HttpRequest request;
+      private boolean closed;
+
+      MockConnection(HttpRequest request) {
+         this.request = request;
+      }
+
+      @Override
+      public HttpRequest peekRequest(int streamId) {
+         return request;
+      }
+
+      @Override
+      public boolean removeRequest(int streamId, HttpRequest request) {
+         this.request = null;
+         // Returning true would make the handler release the connection to its pool
+         return false;
+      }
+
+      @Override
+      public void close() {
+         closed = true;
+      }
+   }
+}
@@ -0,0 +1,41 @@
+package io.hyperfoil.http.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+
+public class SwarUtilTest {
+   @Test
+   public void testIndexOf() {
+      ByteBuf buf = Unpooled.wrappedBuffer("Content-Type: text/plain\r\nfoo".getBytes(StandardCharsets.US_ASCII));
+      long cr = SwarUtil.pattern((byte) '\r');
+      long colon = SwarUtil.pattern((byte) ':');
+      for (int from = 0; from < buf.writerIndex(); ++from) {
+         assertThat(SwarUtil.indexOf(buf, from, buf.writerIndex(), (byte) '\r', cr))
+               .isEqualTo(from <= 24 ? 24 : -1);
+         assertThat(SwarUtil.indexOf(buf, from, buf.writerIndex(), (byte) ':', colon))
+               .isEqualTo(from <= 12 ? 12 : -1);
+      }
+      assertThat(SwarUtil.indexOf(buf, 0, 24, (byte) '\r', cr)).isEqualTo(-1);
+      // non-ASCII bytes must not produce false positives
+      ByteBuf binary = Unpooled.wrappedBuffer(new byte[] { (byte) 0x8D, (byte) 0xFF, 0, 1, (byte) 0x80, 0x7F, 13, 2, 3 });
+      assertThat(SwarUtil.indexOf(binary, 0, binary.writerIndex(), (byte) '\r', cr)).isEqualTo(6);
+   }
+
+   @Test
+   public void testEqualsIgnoreCase() {
+      long[] words = SwarUtil.lowerCaseWords(HttpHeaderNames.TRANSFER_ENCODING);
+      for (String name : new String[] { "transfer-encoding", "Transfer-Encoding", "TRANSFER-ENCODING" }) {
+         ByteBuf buf = Unpooled.wrappedBuffer(("x" + name + ": chunked").getBytes(StandardCharsets.US_ASCII));
+         assertThat(SwarUtil.equalsIgnoreCase(buf, 1, name.length(), words)).isTrue();
+      }
+      ByteBuf other = Unpooled.wrappedBuffer("Transfer-Encodinx: chunked".getBytes(StandardCharsets.US_ASCII));
+      assertThat(SwarUtil.equalsIgnoreCase(other, 0, 17, words)).isFalse();
+   }
+}
@@ -0,0 +1,65 @@
+package io.hyperfoil.http.statistics;
+
+import static io.hyperfoil.http.steps.HttpStepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.http.HttpScenarioTest;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.HttpBuilder;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class LatencyBreakdownTest extends HttpScenarioTest {
+   @Override
+   protected boolean useHttps() {
+      return true;
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      http.latencyBreakdown(true);
+   }
+
+   @Override
+   protected void initRouter() {
+      router.get("/slowBody").handler(ctx -> {
+         ctx.response().setChunked(true).write("foo");
+         vertx.setTimer(50, id -> ctx.response().end("bar"));
+      });
+   }
+
+   @Test
+   public void testBreakdown() {
+      scenario().initialSequence("test")
+            .step(SC).httpRequest(HttpMethod.GET).path("/slowBody").endStep()
+            .step(SC).httpRequest(HttpMethod.GET).path("/slowBody").endStep();
+      StatisticsSnapshot stats = runScenario().get("test");
+      assertThat(stats.responseCount).isEqualTo(2);
+      HttpLatencyStats latency = HttpLatencyStats.get(stats);
+      // connection is opened only once
+      assertThat(count(latency, HttpLatencyStats.Stage.CONNECT)).isEqualTo(1);
+      assertThat(count(latency, HttpLatencyStats.Stage.TLS_HANDSHAKE)).isEqualTo(1);
+      assertThat(count(latency, HttpLatencyStats.Stage.POOL_WAIT)).isEqualTo(2);
+      assertThat(count(latency, HttpLatencyStats.Stage.TTFB)).isEqualTo(2);
+      assertThat(count(latency, HttpLatencyStats.Stage.BODY)).isEqualTo(2);
+      assertThat(latency.histogram(HttpLatencyStats.Stage.BODY).getMinValue())
+            .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+
+      HttpLatencyStats copy = latency.clone();
+      copy.subtract(latency);
+      assertThat(copy.isNull()).isTrue();
+      assertThat(latency.byHeader("body.count")).isEqualTo("2");
+   }
+
+   private static long count(HttpLatencyStats latency, HttpLatencyStats.Stage stage) {
+      Histogram histogram = latency.histogram(stage);
+      return histogram == null ? 0 : histogram.getTotalCount();
+   }
+}
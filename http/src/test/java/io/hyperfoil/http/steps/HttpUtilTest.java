@@ -2,9 +2,12 @@ package io.hyperfoil.http.steps;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Test;
 
 import io.hyperfoil.http.HttpUtil;
+import io.hyperfoil.http.api.HttpMethod;
 
 public class HttpUtilTest {
    @Test
@@ -29,4 +32,13 @@ public class HttpUtilTest {
       assertThat(HttpUtil.authorityMatch("https://hyperfoil.io:443", "example.com:443", false)).isFalse();
       assertThat(HttpUtil.authorityMatch("https://hyperfoil.io:1234", "example.com:1234", false)).isFalse();
    }
+
+   @Test
+   public void testRequestLine() {
+      assertThat(new String(HttpUtil.encodeRequestLine(HttpMethod.GET, "/foo bar?q=x y"), StandardCharsets.ISO_8859_1))
+            .isEqualTo("GET /foo%20bar?q=x+y HTTP/1.1\r\n");
+      assertThat(HttpUtil.requestPath("http://example.com", true, true)).isEqualTo("/");
+      assertThat(HttpUtil.requestPath("https://example.com:8443/foo?bar", false, true)).isEqualTo("/foo?bar");
+      assertThat(HttpUtil.requestPath("/foo", false, false)).isEqualTo("/foo");
+   }
 }
@@ -0,0 +1,87 @@
+package io.hyperfoil.http.steps;
+
+import static io.hyperfoil.http.steps.HttpStepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.ScenarioBuilder;
+import io.hyperfoil.api.config.SequenceBuilder;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.test.StepInvocations;
+import io.hyperfoil.http.HttpScenarioTest;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.HttpBuilder;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Checks that sequences blocked on HTTP events are invoked only when the event wakes them up, even though
+ * another sequence keeps running the session in the meantime.
+ */
+@RunWith(VertxUnitRunner.class)
+public class HttpWakeUpTest extends HttpScenarioTest {
+   @Override
+   protected void initRouter() {
+      router.route("/slow").handler(ctx -> vertx.setTimer(100, id -> ctx.response().end()));
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      // the second request must wait for the connection until the first one completes
+      http.sharedConnections(1);
+   }
+
+   @Test
+   public void testSyncRequestWakesUpSequence() {
+      ScenarioBuilder scenario = scenario();
+      scenario.initialSequence("request")
+            .step(SC).httpRequest(HttpMethod.GET).path("/slow").metric("slow").endStep();
+      ticking(scenario);
+      Benchmark benchmark = benchmarkBuilder.build();
+      StepInvocations afterSync = StepInvocations.count(benchmark, AfterSyncRequestStep.class);
+
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      assertThat(stats.get("slow").responseCount).isEqualTo(1);
+      // blocked once, then woken up by ReleaseSyncAction when the response completes
+      assertThat(afterSync.invocations("request", 0)).isEqualTo(2);
+      assertThat(afterSync.completions("request", 0)).isEqualTo(1);
+   }
+
+   @Test
+   public void testConnectionWakesUpSequence() {
+      ScenarioBuilder scenario = scenario();
+      scenario.initialSequence("first")
+            .step(SC).httpRequest(HttpMethod.GET).path("/slow").metric("slow").endStep();
+      scenario.initialSequence("second")
+            .step(SC).httpRequest(HttpMethod.GET).path("/slow").metric("slow").endStep();
+      ticking(scenario);
+      Benchmark benchmark = benchmarkBuilder.build();
+      StepInvocations send = StepInvocations.count(benchmark, SendHttpRequestStep.class);
+
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      assertThat(stats.get("slow").responseCount).isEqualTo(2);
+      // One sequence got the connection right away; the other one was blocked once and then woken up
+      // when HttpRequestContext received the connection released by the first request.
+      int first = send.invocations("first", 0);
+      int second = send.invocations("second", 0);
+      assertThat(Math.min(first, second)).isEqualTo(1);
+      assertThat(Math.max(first, second)).isEqualTo(2);
+      assertThat(send.completions("first", 0)).isEqualTo(1);
+      assertThat(send.completions("second", 0)).isEqualTo(1);
+   }
+
+   /**
+    * Runs the session every 10 ms for a while.
+    */
+   private static void ticking(ScenarioBuilder scenario) {
+      SequenceBuilder ticking = scenario.initialSequence("ticking");
+      for (int i = 0; i < 15; ++i) {
+         ticking.step(SC).thinkTime(10, TimeUnit.MILLISECONDS).endStep();
+      }
+   }
+}
@@ -0,0 +1,117 @@
+package io.hyperfoil.benchmark.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Before;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.clustering.Feeds;
+import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
+import io.hyperfoil.clustering.messages.RequestStatsBatchMessage;
+import io.hyperfoil.clustering.messages.RequestStatsMessage;
+import io.hyperfoil.clustering.messages.StatsMessage;
+import io.hyperfoil.test.Benchmark;
+import io.vertx.core.eventbus.DeliveryContext;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Runs the same benchmark as {@link ClusterTestCase} but the agents send statistics through an aggregator.
+ */
+@RunWith(VertxUnitRunner.class)
+@Category(Benchmark.class)
+public class AggregatorClusterTest extends ClusterTestCase {
+   private static final String AGGREGATOR_PREFIX = Feeds.STATS + "/";
+
+   // phase ID -> number of requests
+   private final Map<Integer, LongAdder> sentByAgents = new ConcurrentHashMap<>();
+   private final Map<Integer, LongAdder> receivedByController = new ConcurrentHashMap<>();
+   private final Map<Integer, Long> receivedOnCompletion = new ConcurrentHashMap<>();
+   // phase name -> number of agents that completed the phase
+   private final Map<String, AtomicInteger> completedAgents = new ConcurrentHashMap<>();
+   private final Set<String> aggregators = ConcurrentHashMap.newKeySet();
+   private final Set<String> requestStatsSenders = ConcurrentHashMap.newKeySet();
+
+   // Runs after the controller has been started in ClusterTestCase.before()
+   @Before
+   public void deployAggregator(TestContext ctx) {
+      startAggregator(ctx).onSuccess(aggregatorVertx -> {
+         aggregatorVertx.eventBus().addInboundInterceptor(this::onAggregatorMessage);
+         controllerVertx.eventBus().addInboundInterceptor(this::onControllerMessage);
+      });
+   }
+
+   private void onAggregatorMessage(DeliveryContext<Object> ctx) {
+      String address = ctx.message().address();
+      if (address.startsWith(AGGREGATOR_PREFIX)) {
+         aggregators.add(address.substring(AGGREGATOR_PREFIX.length()));
+         countRequests(ctx.message().body(), sentByAgents);
+      }
+      ctx.next();
+   }
+
+   private void onControllerMessage(DeliveryContext<Object> ctx) {
+      if (Feeds.STATS.equals(ctx.message().address())) {
+         Object body = ctx.message().body();
+         if (body instanceof RequestStatsBatchMessage || body instanceof RequestStatsMessage) {
+            requestStatsSenders.add(((StatsMessage) body).address);
+            countRequests(body, receivedByController);
+         } else if (body instanceof PhaseStatsCompleteMessage) {
+            String phase = ((PhaseStatsCompleteMessage) body).phase;
+            if (completedAgents.computeIfAbsent(phase, p -> new AtomicInteger()).incrementAndGet() == AGENTS) {
+               // The aggregator flushes statistics before forwarding the completion so nothing should be missing
+               receivedByController.forEach((phaseId, requests) -> receivedOnCompletion.put(phaseId, requests.sum()));
+            }
+         }
+      }
+      ctx.next();
+   }
+
+   private static void countRequests(Object body, Map<Integer, LongAdder> requests) {
+      if (body instanceof RequestStatsBatchMessage) {
+         for (RequestStatsBatchMessage.Entry entry : ((RequestStatsBatchMessage) body).entries) {
+            countRequests(entry.phaseId, entry.statistics, requests);
+         }
+      } else if (body instanceof RequestStatsMessage) {
+         RequestStatsMessage message = (RequestStatsMessage) body;
+         countRequests(message.phaseId, message.statistics, requests);
+      }
+   }
+
+   private static void countRequests(int phaseId, StatisticsSnapshot statistics, Map<Integer, LongAdder> requests) {
+      // Messages without statistics only signal that the agent has sent everything
+      if (statistics != null) {
+         requests.computeIfAbsent(phaseId, id -> new LongAdder()).add(statistics.requestCount);
+      }
+   }
+
+   @Override
+   protected void onTerminated() {
+      assertThat(aggregators).hasSize(1);
+      // all request statistics went through the aggregator and are reported under its name
+      assertThat(requestStatsSenders).isEqualTo(aggregators);
+
+      Map<Integer, Long> sent = sums(sentByAgents);
+      assertThat(sent).isNotEmpty();
+      assertThat(sent.values()).allMatch(requests -> requests > 0);
+      assertThat(sums(receivedByController)).isEqualTo(sent);
+      assertThat(completedAgents.get("test")).isNotNull();
+      assertThat(completedAgents.get("test").get()).isEqualTo(AGENTS);
+      assertThat(receivedOnCompletion).isEqualTo(sent);
+   }
+
+   private static Map<Integer, Long> sums(Map<Integer, LongAdder> requests) {
+      Map<Integer, Long> sums = new HashMap<>();
+      requests.forEach((phaseId, adder) -> sums.put(phaseId, adder.sum()));
+      return sums;
+   }
+}
@@ -0,0 +1,55 @@
+package io.hyperfoil.benchmark.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.Hyperfoil;
+import io.hyperfoil.clustering.Feeds;
+import io.hyperfoil.test.Benchmark;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryContext;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Runs the same benchmark as {@link ClusterTestCase} but the aggregator leaves the cluster while the agents send
+ * statistics through it; the run must fail rather than complete with statistics missing.
+ */
+@RunWith(VertxUnitRunner.class)
+@Category(Benchmark.class)
+public class AggregatorLeftClusterTest extends ClusterTestCase {
+   private final AtomicBoolean stopped = new AtomicBoolean();
+   private volatile Vertx aggregatorVertx;
+
+   // Runs after the controller has been started in ClusterTestCase.before()
+   @Before
+   public void deployAggregator(TestContext ctx) {
+      startAggregator(ctx).onSuccess(vertx -> {
+         aggregatorVertx = vertx;
+         vertx.eventBus().addInboundInterceptor(this::onAggregatorMessage);
+      });
+   }
+
+   private void onAggregatorMessage(DeliveryContext<Object> ctx) {
+      ctx.next();
+      if (ctx.message().address().startsWith(Feeds.STATS + "/") && stopped.compareAndSet(false, true)) {
+         // the aggregator is shut down here rather than in teardown
+         servers.remove(aggregatorVertx);
+         Hyperfoil.shutdownVertx(aggregatorVertx);
+      }
+   }
+
+   @Override
+   protected void assertErrors(JsonArray errors) {
+      assertThat(stopped.get()).isTrue();
+      assertThat(errors.size()).isPositive();
+      assertThat(errors.stream().map(String::valueOf))
+            .anyMatch(error -> error.contains("Statistics aggregator unexpectedly left the cluster."));
+   }
+}
@@ -8,9 +8,12 @@ import org.junit.After;
 
 import io.hyperfoil.Hyperfoil;
 import io.hyperfoil.benchmark.BaseBenchmarkTest;
+import io.hyperfoil.clustering.AggregatorVerticle;
 import io.hyperfoil.clustering.ControllerVerticle;
 import io.hyperfoil.internal.Properties;
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.Verticle;
 import io.vertx.core.Vertx;
 import io.vertx.core.impl.VertxInternal;
@@ -20,6 +23,7 @@ import io.vertx.ext.unit.TestContext;
 public abstract class BaseClusteredTest extends BaseBenchmarkTest {
    protected List<Vertx> servers = new ArrayList<>();
    protected volatile int controllerPort;
+   protected volatile Vertx controllerVertx;
 
    @After
    public void teardown(TestContext ctx) {
@@ -36,6 +40,7 @@ public abstract class BaseClusteredTest extends BaseBenchmarkTest {
       Async initAsync = ctx.async();
       Hyperfoil.clusteredVertx(true).onSuccess(vertx -> {
          servers.add(vertx);
+         controllerVertx = vertx;
          vertx.deployVerticle(ControllerVerticle.class, new DeploymentOptions())
                .onSuccess(deploymentId -> {
                   Set<Verticle> verticles = ((VertxInternal) vertx).getDeployment(deploymentId).getVerticles();
@@ -45,4 +50,23 @@ public abstract class BaseClusteredTest extends BaseBenchmarkTest {
                }).onFailure(ctx::fail);
       }).onFailure(cause -> ctx.fail("Failed to start clustered Vert.x, see log for details"));
    }
+
+   /**
+    * @return Vert.x instance running the aggregator, completed when the aggregator has registered at the controller.
+    */
+   protected Future<Vertx> startAggregator(TestContext ctx) {
+      Async registered = ctx.async();
+      Promise<Vertx> promise = Promise.promise();
+      Hyperfoil.clusteredVertx(false).onSuccess(vertx -> {
+         servers.add(vertx);
+         vertx.deployVerticle(new AggregatorVerticle() {
+            @Override
+            public void onRegistered() {
+               promise.tryComplete(vertx);
+               registered.countDown();
+            }
+         }).onFailure(ctx::fail);
+      }).onFailure(cause -> ctx.fail("Failed to start clustered Vert.x, see log for details"));
+      return promise.future();
+   }
 }
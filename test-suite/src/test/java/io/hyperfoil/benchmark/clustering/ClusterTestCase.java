@@ -39,7 +39,7 @@ import io.vertx.ext.web.client.WebClientOptions;
 @RunWith(VertxUnitRunner.class)
 @Category(Benchmark.class)
 public class ClusterTestCase extends BaseClusteredTest {
-   private static final int AGENTS = 2;
+   protected static final int AGENTS = 2;
    private Vertx vertx = Vertx.vertx();
 
    public static io.hyperfoil.api.config.Benchmark testBenchmark(int agents, int port) {
@@ -139,12 +139,13 @@ public class ClusterTestCase extends BaseClusteredTest {
             if (status.getString("terminated") != null) {
                JsonArray errors = status.getJsonArray("errors");
                assertThat(errors).isNotNull();
-               assertThat(errors.size()).withFailMessage("Found errors: %s", errors).isEqualTo(0);
+               assertErrors(errors);
                assertThat(status.getString("started")).isNotNull();
                JsonArray agents = status.getJsonArray("agents");
                for (int i = 0; i < agents.size(); ++i) {
                   assertThat(agents.getJsonObject(i).getString("status")).isNotEqualTo("STARTING");
                }
+               onTerminated();
                termination.complete();
             } else {
                vertx.setTimer(100, id -> {
@@ -158,6 +159,15 @@ public class ClusterTestCase extends BaseClusteredTest {
       }));
    }
 
+   // override me
+   protected void assertErrors(JsonArray errors) {
+      assertThat(errors.size()).withFailMessage("Found errors: %s", errors).isEqualTo(0);
+   }
+
+   // override me
+   protected void onTerminated() {
+   }
+
    private byte[] serialize(Serializable object) {
       try {
          ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();